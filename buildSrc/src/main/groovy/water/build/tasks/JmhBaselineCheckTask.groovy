@@ -0,0 +1,98 @@
+package water.build.tasks;
+
+import org.gradle.api.DefaultTask
+import org.gradle.api.GradleException
+import org.gradle.api.tasks.Input
+import org.gradle.api.tasks.InputFile
+import org.gradle.api.tasks.TaskAction
+
+/**
+ * Compares JMH results (CSV format) with a baseline produced by an earlier run and fails
+ * the build if any benchmark got slower than the baseline by more than the given tolerance.
+ *
+ * Benchmarks are identified by their name and parameters. Benchmarks missing in the baseline
+ * are only reported.
+ */
+class JmhBaselineCheckTask extends DefaultTask {
+
+    @InputFile
+    File baseline
+    @InputFile
+    File results
+    /** Allowed relative slowdown, 0.1 means 10% */
+    @Input
+    Double tolerance = 0.1
+
+    @TaskAction
+    public void perform() {
+        Map<String, List<String>> base = readResults(getBaseline())
+        Map<String, List<String>> current = readResults(getResults())
+        List<String> regressions = []
+        current.each { key, row ->
+            List<String> baseRow = base.get(key)
+            if (baseRow == null) {
+                logger.warn("Benchmark $key is not in the baseline")
+                return
+            }
+            String mode = row[0]
+            double b = baseRow[1] as double
+            double c = row[1] as double
+            // throughput is higher-is-better, all other modes report time
+            double change = mode == "thrpt" ? (b - c) / b : (c - b) / b
+            if (change > getTolerance()) {
+                regressions << String.format("%s [%s]: %.3f -> %.3f %s (%+.1f%%)",
+                        key, mode, b, c, row[2], change * 100)
+            }
+        }
+        if (!regressions.isEmpty()) {
+            throw new GradleException("Benchmarks regressed by more than ${getTolerance() * 100}% " +
+                    "compared to ${getBaseline()}:\n  " + regressions.join("\n  "))
+        }
+        logger.lifecycle("${current.size()} benchmarks within ${getTolerance() * 100}% of the baseline")
+    }
+
+    /** @return map of benchmark+params to [mode, score, unit] */
+    static Map<String, List<String>> readResults(File f) {
+        List<String> lines = f.readLines().findAll { !it.trim().isEmpty() }
+        List<String> header = parseLine(lines.head())
+        int benchIdx = header.indexOf("Benchmark")
+        int modeIdx = header.indexOf("Mode")
+        int scoreIdx = header.indexOf("Score")
+        int unitIdx = header.indexOf("Unit")
+        if (benchIdx < 0 || modeIdx < 0 || scoreIdx < 0 || unitIdx < 0)
+            throw new GradleException("File $f is not a JMH CSV report")
+        List<Integer> paramIdxs = (0..<header.size()).findAll { header[it].startsWith("Param: ") }
+        Map<String, List<String>> res = [:]
+        lines.tail().each { line ->
+            List<String> row = parseLine(line)
+            String params = paramIdxs.collect { "${header[it].substring(7)}=${row[it]}" }.join(",")
+            String key = params.isEmpty() ? row[benchIdx] : "${row[benchIdx]}($params)"
+            res[key] = [row[modeIdx], row[scoreIdx], row[unitIdx]]
+        }
+        return res
+    }
+
+    private static List<String> parseLine(String line) {
+        List<String> fields = []
+        StringBuilder sb = new StringBuilder()
+        boolean quoted = false
+        for (int i = 0; i < line.length(); i++) {
+            char ch = line.charAt(i)
+            if (ch == '"' as char) {
+                if (quoted && i + 1 < line.length() && line.charAt(i + 1) == '"' as char) {
+                    sb.append(ch)
+                    i++
+                } else {
+                    quoted = !quoted
+                }
+            } else if (ch == ',' as char && !quoted) {
+                fields << sb.toString()
+                sb.setLength(0)
+            } else {
+                sb.append(ch)
+            }
+        }
+        fields << sb.toString()
+        return fields
+    }
+}
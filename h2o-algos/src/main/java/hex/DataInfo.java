@@ -1242,39 +1242,46 @@ public class DataInfo extends Keyed<DataInfo> {
    * @return array of sparse rows
    */
   public final Row[] extractSparseRows(Chunk [] chunks) {
-    Row[] rows = new Row[chunks[0]._len];
+    final int len = chunks[0]._len;
+    Row[] rows = new Row[len];
     long startOff = chunks[0].start();
+    // columns are bulk-decoded into these buffers
+    double [] vals = MemoryManager.malloc8d(len);
+    double [] ws = _weights?chunks[weightChunkId()].getDoubles(MemoryManager.malloc8d(len),0,len):null;
+    if(_offset) chunks[offsetChunkId()].getDoubles(vals,0,len);
     for (int i = 0; i < rows.length; ++i) {
       rows[i] = new Row(true, Math.min(_nums, 16), _cats, _responses, i, startOff);  // if sparse, _nums is the correct number of nonzero values! i.e., do not use numNums()
       rows[i].rid = chunks[0].start() + i;
       if(_offset)  {
-        rows[i].offset = chunks[offsetChunkId()].atd(i);
+        rows[i].offset = vals[i];
         if(Double.isNaN(rows[i].offset)) {
           rows[i].predictors_bad = true;
           continue;
         }
       }
       if(_weights) {
-        rows[i].weight = chunks[weightChunkId()].atd(i);
+        rows[i].weight = ws[i];
         if(Double.isNaN(rows[i].weight))
           rows[i].predictors_bad = true;
       }
     }
     // categoricals
     for (int i = 0; i < _cats; ++i) {
-      for (int r = 0; r < chunks[0]._len; ++r) {
+      chunks[i].getDoubles(vals,0,len);
+      for (int r = 0; r < len; ++r) {
         Row row = rows[r];
-        boolean isMissing = chunks[i].isNA(r);
+        boolean isMissing = Double.isNaN(vals[r]);
         if(_skipMissing && isMissing){
           row.predictors_bad = true;
           continue;
         }         
-        int cid = getCategoricalId(i,isMissing? -1:(int)chunks[i].at8(r));
+        int cid = getCategoricalId(i,isMissing? -1:(int)vals[r]);
         if(cid >=0)
           row.binIds[row.nBins++] = cid;
       }
     }
     // generic numbers + interactions
+    int [] ids = MemoryManager.malloc4(len);
     int interactionOffset=0;
     for (int cid = 0; cid < _nums; ++cid) {
       Chunk c = chunks[_cats + cid];
@@ -1300,14 +1307,22 @@ public class DataInfo extends Keyed<DataInfo> {
         }
         interactionOffset+=nextNumericIdx(cid);
       } else {
-        for (int r = c.nextNZ(-1, _imputeMissing); r < c._len; r = c.nextNZ(r, _imputeMissing)) {
-          if (c.atd(r) == 0) continue;
+        int n;
+        if (c.isSparseNA() && _imputeMissing) { // missing values are imputed, visit all the rows
+          c.getDoubles(vals, 0, len);
+          for (int r = 0; r < len; ++r) ids[r] = r;
+          n = len;
+        } else
+          n = c.getSparseDoubles(vals, ids);
+        for (int k = 0; k < n; ++k) {
+          double d = vals[k];
+          if (d == 0) continue;
+          int r = ids[k];
           assert r > oldRow;
           oldRow = r; Row row = rows[r];
-          if (c.isNA(r) && _skipMissing)
+          if (Double.isNaN(d) && _skipMissing)
             row.predictors_bad = true;
           if (row.predictors_bad) continue;
-          double d = c.atd(r);
           if (Double.isNaN(d))
             d = _numNAFill[cid];
           if (_normMul != null)
@@ -1320,10 +1335,10 @@ public class DataInfo extends Keyed<DataInfo> {
     // response(s)
     for (int i = 1; i <= _responses; ++i) {
       int rid = responseChunkId(i-1);
-      Chunk rChunk = chunks[rid];
-      for (int r = 0; r < chunks[0]._len; ++r) {
+      chunks[rid].getDoubles(vals,0,len);
+      for (int r = 0; r < len; ++r) {
         Row row = rows[r];
-        row.response[i-1] = rChunk.atd(r);
+        row.response[i-1] = vals[r];
         if(Double.isNaN(row.response[i-1])) {
           row.response_bad = true;
         }
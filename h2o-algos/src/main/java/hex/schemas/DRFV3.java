@@ -51,6 +51,9 @@ public class DRFV3 extends SharedTreeV3<DRF, DRFV3, DRFV3.DRFParametersV3> {
                 "col_sample_rate_per_tree",
                 "min_split_improvement",
                 "histogram_type",
+                "prebin",
+                "histogram_subtraction",
+                "bundle_sparse",
                 "categorical_encoding",
                 "calibrate_model",
                 "calibration_frame",
@@ -33,6 +33,8 @@ public class GBMV3 extends SharedTreeV3<GBM,GBMV3,GBMV3.GBMParametersV3> {
       "max_hit_ratio_k",
       "ntrees",
       "max_depth",
+      "grow_policy",
+      "max_leaves",
       "min_rows",
       "nbins",
       "nbins_top_level",
@@ -53,11 +55,17 @@ public class GBMV3 extends SharedTreeV3<GBM,GBMV3,GBMV3.GBMParametersV3> {
       "checkpoint",
       "sample_rate",
       "sample_rate_per_class",
+      "sample_strategy",
+      "goss_top_rate",
+      "goss_other_rate",
       "col_sample_rate",
       "col_sample_rate_change_per_level",
       "col_sample_rate_per_tree",
       "min_split_improvement",
       "histogram_type",
+      "prebin",
+      "histogram_subtraction",
+      "bundle_sparse",
       "max_abs_leafnode_pred",
       "pred_noise_bandwidth",
       "categorical_encoding",
@@ -91,6 +99,21 @@ public class GBMV3 extends SharedTreeV3<GBM,GBMV3,GBMV3.GBMParametersV3> {
     @API(help = "A mapping representing monotonic constraints. Use +1 to enforce an increasing constraint and -1 to specify a decreasing constraint.", level = API.Level.secondary)
     public KeyValueV3[] monotone_constraints;
 
+    @API(help="Grow policy - depthwise grows the trees level by level, lossguide splits the leaves with the highest split gain first, up to max_leaves leaves per tree", values = { "depthwise", "lossguide"}, level = API.Level.secondary, gridable = true)
+    public GBMParameters.GrowPolicy grow_policy;
+
+    @API(help="For grow_policy=lossguide only: maximum number of leaves per tree, 0 for no limit (max_depth still applies); ignored with depthwise", level = API.Level.secondary, gridable = true)
+    public int max_leaves;
+
+    @API(help="Row sampling strategy - uniform samples the rows of every tree at random (sample_rate, sample_rate_per_class), goss keeps the rows with the largest absolute gradients and samples the rest (gradient-based one-side sampling)", values = { "uniform", "goss"}, level = API.Level.expert, gridable = true)
+    public GBMParameters.SampleStrategy sample_strategy;
+
+    @API(help="For sample_strategy=goss only: share of the rows with the largest absolute gradients kept for every tree (from 0.0 to 1.0)", level = API.Level.expert, gridable = true)
+    public double goss_top_rate;
+
+    @API(help="For sample_strategy=goss only: share of all rows sampled at random from the remaining rows, their weights are amplified to make up for the rest (from 0.0 to 1.0)", level = API.Level.expert, gridable = true)
+    public double goss_other_rate;
+
     @API(help="Maximum absolute value of a leaf node prediction", level = API.Level.expert, gridable = true)
     public double max_abs_leafnode_pred;
 
@@ -90,6 +90,15 @@ public class SharedTreeV3<B extends SharedTree, S extends SharedTreeV3<B,S,P>, P
     @API(help="What type of histogram to use for finding optimal split points", values = { "AUTO", "UniformAdaptive", "Random", "QuantilesGlobal", "RoundRobin"}, level = API.Level.secondary, gridable = true)
     public SharedTreeParameters.HistogramType histogram_type;
 
+    @API(help="Quantize the numeric predictors into their global histogram bins once, before building the trees, and build the histograms from the bin codes. Requires histogram_type QuantilesGlobal or RoundRobin.", level = API.Level.expert, gridable = true)
+    public boolean prebin;
+
+    @API(help="Accumulate the histograms of the smaller child of every split only, and derive the larger child's histograms by subtracting them from the parent's. Applies to columns whose bins line up between the nodes: pre-binned numeric columns and integer or categorical columns with one bin per value.", level = API.Level.expert, gridable = true)
+    public boolean histogram_subtraction;
+
+    @API(help="Bundle integer columns that are mostly zero and rarely non-zero in the same row (e.g. one-hot encoded or SVMLight columns), and accumulate a single histogram per bundle, from which the histograms of its columns are recovered before the splits are found. Requires histogram_type AUTO or UniformAdaptive.", level = API.Level.expert, gridable = true)
+    public boolean bundle_sparse;
+
     @API(help="Use Platt Scaling to calculate calibrated class probabilities. Calibration can provide more accurate estimates of class probabilities.", level = API.Level.expert)
     public boolean calibrate_model;
 
@@ -0,0 +1,234 @@
+package hex.tree;
+
+import water.*;
+import water.fvec.Chunk;
+import water.fvec.NewChunk;
+import water.fvec.Vec;
+import water.util.Log;
+
+import java.util.*;
+
+/**
+ * Pre-binned numeric predictors ({@link SharedTreeModel.SharedTreeParameters#_prebin}).
+ *
+ * A column with global quantiles (histogram type QuantilesGlobal or RoundRobin) is quantized once into a Vec of
+ * bin codes, the index of the global bin of every row.  The codes are small integers, they are stored in 1 or 2
+ * byte chunks.  Histograms whose bins are a range of the global bins then find the bin of a row by a
+ * subtraction, instead of a binary search over the split points ({@link DHistogram#updateHistoBinned}).  The
+ * value range of every global bin is kept as well, it stands in for the min/max of the rows the histograms track.
+ *
+ * The bin codes are cached on the node driving the model builds and shared by all models trained on the same
+ * column with the same split points (e.g. models of a grid).  Cached bin codes nobody uses are dropped, least
+ * recently used first, once there are more than <code>sys.ai.h2o.tree.prebin.cacheSize</code> (default 1024) of
+ * them or they take more than <code>sys.ai.h2o.tree.prebin.cacheMaxMB</code> (default 1/16 of the memory of the
+ * cloud).  The bin codes of a removed column are dropped within {@link #SWEEP_INTERVAL} msec, a daemon thread checks
+ * the cached columns while anything is cached.
+ */
+public final class BinnedVecs {
+
+  static final int CACHE_SIZE = Integer.getInteger(H2O.OptArgs.SYSTEM_PROP_PREFIX + "tree.prebin.cacheSize", 1024);
+  static final int CACHE_MAX_MB = Integer.getInteger(H2O.OptArgs.SYSTEM_PROP_PREFIX + "tree.prebin.cacheMaxMB", -1);
+  static final long SWEEP_INTERVAL = 10 * 1000;
+
+  /** Bin codes of a column, together with the value range of every bin. */
+  public static final class Binned {
+    final Key<Vec> _vecKey;
+    final String _checksum;
+    final double[] _splitPts;
+    public final Vec _codes;
+    public final double[] _binMin, _binMax;
+    final long _bytes;
+    private int _users;
+
+    private Binned(Vec vec, double[] splitPts, Vec codes, double[] binMin, double[] binMax) {
+      _vecKey = vec._key;
+      _checksum = checksum(vec);
+      _splitPts = splitPts;
+      _codes = codes;
+      _binMin = binMin;
+      _binMax = binMax;
+      _bytes = codes.byteSize();
+    }
+
+    private boolean matches(Vec vec, double[] splitPts) {
+      return _vecKey.equals(vec._key) && _checksum.equals(checksum(vec)) && Arrays.equals(_splitPts, splitPts);
+    }
+  }
+
+  // Access ordered, the least recently used bin codes first
+  private static final LinkedHashMap<Key<Vec>, List<Binned>> CACHE = new LinkedHashMap<>(16, 0.75f, true);
+  private static int _cached;
+  private static long _cachedBytes;
+  private static Thread _sweeper;
+
+  private BinnedVecs() {}
+
+  private static String checksum(Vec vec) { return vec.checksum() + "/" + vec.length(); }
+
+  /**
+   * Bin codes of the column for the given global split points, computed unless cached already.  The caller has to
+   * {@link #release} them once done.
+   * @return null if the split points do not allow binning by bin codes
+   */
+  public static Binned acquire(Vec vec, double[] splitPts) {
+    if (!strictlyIncreasing(splitPts)) return null;
+    synchronized (BinnedVecs.class) {
+      evict();
+      List<Binned> binned = CACHE.get(vec._key);
+      if (binned != null)
+        for (Binned b : binned)
+          if (b.matches(vec, splitPts)) {
+            b._users++;
+            return b;
+          }
+    }
+    Binned b = quantize(vec, splitPts);
+    synchronized (BinnedVecs.class) {
+      List<Binned> binned = CACHE.get(vec._key);
+      if (binned == null) CACHE.put(vec._key, binned = new ArrayList<>());
+      binned.add(b);
+      b._users++;
+      _cached++;
+      _cachedBytes += b._bytes;
+      startSweeper();
+    }
+    return b;
+  }
+
+  /** Marks the bin codes unused, they stay cached for other models. */
+  public static void release(Binned b) {
+    synchronized (BinnedVecs.class) {
+      assert b._users > 0;
+      b._users--;
+      evict();
+    }
+  }
+
+  /** Removes all bin codes nobody uses. */
+  public static synchronized void clear() {
+    for (Iterator<List<Binned>> it = CACHE.values().iterator(); it.hasNext(); ) {
+      List<Binned> binned = it.next();
+      for (Iterator<Binned> bit = binned.iterator(); bit.hasNext(); ) {
+        Binned b = bit.next();
+        if (b._users == 0) remove(bit, b);
+      }
+      if (binned.isEmpty()) it.remove();
+    }
+  }
+
+  static synchronized int cached() { return _cached; }
+
+  static synchronized long cachedBytes() { return _cachedBytes; }
+
+  static long cacheMaxBytes() {
+    return CACHE_MAX_MB >= 0 ? (long) CACHE_MAX_MB << 20 : H2O.CLOUD.size() * (MemoryManager.MEM_MAX >> 4);
+  }
+
+  // Drops the bin codes of removed columns, then the least recently used ones over the cache size
+  private static void evict() {
+    final long maxBytes = cacheMaxBytes();
+    for (Iterator<Map.Entry<Key<Vec>, List<Binned>>> it = CACHE.entrySet().iterator(); it.hasNext(); ) {
+      Map.Entry<Key<Vec>, List<Binned>> e = it.next();
+      boolean removed = DKV.get(e.getKey()) == null;
+      for (Iterator<Binned> bit = e.getValue().iterator(); bit.hasNext(); ) {
+        Binned b = bit.next();
+        if (b._users == 0 && (removed || _cached > CACHE_SIZE || _cachedBytes > maxBytes)) remove(bit, b);
+      }
+      if (e.getValue().isEmpty()) it.remove();
+    }
+  }
+
+  private static void remove(Iterator<Binned> it, Binned b) {
+    it.remove();
+    _cached--;
+    _cachedBytes -= b._bytes;
+    b._codes.remove();
+  }
+
+  // Checks the cached columns every SWEEP_INTERVAL msec, till the cache is empty
+  private static void startSweeper() {
+    if (_sweeper != null) return;
+    _sweeper = new Thread("BinnedVecs-Sweeper") {
+      @Override public void run() {
+        while (true) {
+          try { Thread.sleep(SWEEP_INTERVAL); } catch (InterruptedException ignore) { }
+          synchronized (BinnedVecs.class) {
+            evict();
+            if (CACHE.isEmpty()) {
+              _sweeper = null;
+              return;
+            }
+          }
+        }
+      }
+    };
+    _sweeper.setDaemon(true);
+    _sweeper.start();
+  }
+
+  private static boolean strictlyIncreasing(double[] splitPts) {
+    if (splitPts == null || splitPts.length <= 1 || splitPts.length > Character.MAX_VALUE) return false;
+    for (int i = 1; i < splitPts.length; i++)
+      if (!(splitPts[i - 1] < splitPts[i])) return false;
+    return true;
+  }
+
+  private static Binned quantize(Vec vec, double[] splitPts) {
+    long start = System.currentTimeMillis();
+    Quantize q = new Quantize(splitPts).doAll(Vec.T_NUM, vec);
+    Vec codes = q.outputFrame().anyVec();
+    Log.debug("Column " + vec._key + " pre-binned into " + splitPts.length + " bins in " + (System.currentTimeMillis() - start) + "ms");
+    return new Binned(vec, splitPts, codes, q._binMin, q._binMax);
+  }
+
+  /** Global bin of a value, the same bin {@link DHistogram#bin} of a histogram with all the split points finds. */
+  static int code(double[] splitPts, int zeroPos, double x) {
+    if (Double.isInfinite(x)) return x < 0 ? 0 : splitPts.length - 1;
+    int idx = x == 0.0 ? zeroPos : Arrays.binarySearch(splitPts, x);
+    if (idx < 0) idx = -idx - 2;
+    return Math.max(0, Math.min(idx, splitPts.length - 1));
+  }
+
+  private static class Quantize extends MRTask<Quantize> {
+    final double[] _splitPts;
+    double[] _binMin, _binMax;
+
+    Quantize(double[] splitPts) {
+      // Canonical zero, as the histograms use
+      _splitPts = splitPts.clone();
+      for (int i = 0; i < _splitPts.length; i++)
+        if (_splitPts[i] == 0.0) _splitPts[i] = 0.0;
+    }
+
+    @Override public void map(Chunk c, NewChunk nc) {
+      _binMin = new double[_splitPts.length];
+      _binMax = new double[_splitPts.length];
+      Arrays.fill(_binMin, Double.POSITIVE_INFINITY);
+      Arrays.fill(_binMax, Double.NEGATIVE_INFINITY);
+      int zeroPos = Arrays.binarySearch(_splitPts, 0.0);
+      for (int r = 0; r < c._len; r++) {
+        double x = c.atd(r);
+        if (Double.isNaN(x)) {
+          nc.addNA();
+          continue;
+        }
+        int b = code(_splitPts, zeroPos, x);
+        nc.addNum(b);
+        if (x < _binMin[b]) _binMin[b] = x;
+        if (x > _binMax[b]) _binMax[b] = x;
+      }
+    }
+
+    @Override public void reduce(Quantize q) {
+      if (_binMin == null) {
+        _binMin = q._binMin;
+        _binMax = q._binMax;
+      } else if (q._binMin != null) {
+        for (int b = 0; b < _binMin.length; b++) {
+          _binMin[b] = Math.min(_binMin[b], q._binMin[b]);
+          _binMax[b] = Math.max(_binMax[b], q._binMax[b]);
+        }
+      }
+    }
+  }
+}
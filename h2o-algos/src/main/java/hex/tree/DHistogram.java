@@ -123,6 +123,9 @@ public final class DHistogram extends Iced {
   public final long _seed;
   public transient boolean _hasQuantiles;
   public Key _globalQuantilesKey; //key under which original top-level quantiles are stored;
+  transient int _globalOffset = -1; // Global bin of the first bin, if the bins are a range of the pre-binned global bins
+  private transient double[] _binMin, _binMax; // Value range of the global bins
+  public int _bundle = -1; // Feature bundle whose codes the histogram is accumulated from, -1 for a column (see FeatureBundles)
 
 
 
@@ -152,10 +155,18 @@ public final class DHistogram extends Iced {
 
   static class HistoQuantiles extends Keyed<HistoQuantiles> {
     public HistoQuantiles(Key<HistoQuantiles> key, double[] splitPts) {
+      this(key, splitPts, null);
+    }
+    public HistoQuantiles(Key<HistoQuantiles> key, double[] splitPts, BinnedVecs.Binned binned) {
       super(key);
       this.splitPts = splitPts;
+      if (binned != null) {
+        binMin = binned._binMin;
+        binMax = binned._binMax;
+      }
     }
     double[/*nbins*/] splitPts;
+    double[/*nbins*/] binMin, binMax; // Value range of the global bins, if the column is pre-binned
   }
 
 
@@ -294,6 +305,12 @@ public final class DHistogram extends Iced {
   public void init() { init(null);}
   public void init(double [] vals) {
     assert _vals == null;
+    initBins();
+    _vals = vals == null?MemoryManager.malloc8d(_vals_dim*_nbin+_vals_dim):vals;
+  }
+
+  // Split points and the final bin count
+  private void initBins() {
     if (_histoType==SharedTreeModel.SharedTreeParameters.HistogramType.Random) {
       // every node makes the same split points
       Random rng = RandomUtils.getRNG((Double.doubleToRawLongBits(((_step+0.324)*_min+8.3425)+89.342*_maxEx) + 0xDECAF*_nbin + 0xC0FFEE*_isInt + _seed));
@@ -313,9 +330,13 @@ public final class DHistogram extends Iced {
           _splitPts = ((HistoQuantiles) DKV.getGet(_globalQuantilesKey)).splitPts;
           if (_splitPts!=null) {
 //            Log.info("Obtaining global splitPoints: " + Arrays.toString(_splitPts));
+            double[] globalSplitPts = _splitPts;
             _splitPts = ArrayUtils.limitToRange(_splitPts, _min, _maxEx);
-            if (_splitPts.length > 1 && _splitPts.length < _nbin)
+            boolean padded = false;
+            if (_splitPts.length > 1 && _splitPts.length < _nbin) {
               _splitPts = ArrayUtils.padUniformly(_splitPts, _nbin);
+              padded = true;
+            }
             if (_splitPts.length <= 1) {
               _splitPts = null; //abort, fall back to uniform binning
               _histoType = SharedTreeModel.SharedTreeParameters.HistogramType.UniformAdaptive;
@@ -324,6 +345,11 @@ public final class DHistogram extends Iced {
               _hasQuantiles=true;
               _nbin = (char)_splitPts.length;
 //              Log.info("Refined splitPoints: " + Arrays.toString(_splitPts));
+              if (hq.binMin != null && !padded) { // Bins are a range of the global bins, rows can be binned by their bin codes
+                _globalOffset = Arrays.binarySearch(globalSplitPts, _splitPts[0]);
+                _binMin = hq.binMin;
+                _binMax = hq.binMax;
+              }
             }
           }
         }
@@ -346,7 +372,6 @@ public final class DHistogram extends Iced {
     }
     //otherwise AUTO/UniformAdaptive
     assert(_nbin>0);
-    _vals = vals == null?MemoryManager.malloc8d(_vals_dim*_nbin+_vals_dim):vals;
   }
 
   // Add one row to a bin found via simple linear interpolation.
@@ -476,20 +501,186 @@ public final class DHistogram extends Iced {
       double col_data = cs[k];
       if (col_data < _min2) _min2 = col_data;
       if (col_data > _maxIn) _maxIn = col_data;
-      double y = ys[k];
-      assert (!Double.isNaN(y));
-      double wy = weight * y;
-      double wyy = wy * y;
-      int b = bin(col_data);
-      _vals[_vals_dim*b + 0] += weight;
-      _vals[_vals_dim*b + 1] += wy;
-      _vals[_vals_dim*b + 2] += wyy;
-      if (_vals_dim >= 5) {
-        _vals[_vals_dim * b + 3] += weight * (_pred1 - y) * (_pred1 - y);
-        _vals[_vals_dim * b + 4] += weight * (_pred2 - y) * (_pred2 - y);
-        if (_vals_dim == 6) {
-          _vals[_vals_dim * b + 5] += _dist.gammaDenom(weight, resp[k], y, Double.NaN);
-        }
+      accumulate(bin(col_data), weight, resp, ys, k);
+    }
+  }
+
+  /**
+   * Whether the bins are a range of the global bins the column was pre-binned into, so the rows can be
+   * added by their bin codes ({@link #updateHistoBinned}).
+   */
+  boolean isBinned() {
+    return _globalOffset >= 0;
+  }
+
+  /**
+   * Same as {@link #updateHisto}, but takes the global bin codes of the rows (-1 for NA) instead of the column
+   * data, no floating point math needed to find the bins.  The min/max of the rows are tracked at the granularity
+   * of the global bins.
+   * @param codes global bin codes of the column, see {@link BinnedVecs}
+   */
+  void updateHistoBinned(double[] ws, double resp[], int[] codes, double[] ys, int [] rows, int hi, int lo){
+    assert isBinned();
+    final int last = _nbin - 1;
+    int minCode = Integer.MAX_VALUE, maxCode = -1;
+    for(int r = lo; r< hi; ++r) {
+      int k = rows[r];
+      double weight = ws[k];
+      if (weight == 0) continue;
+      int code = codes[k];
+      int b;
+      if (code < 0) b = _nbin; // NA bucket
+      else {
+        if (code < minCode) minCode = code;
+        if (code > maxCode) maxCode = code;
+        b = code - _globalOffset;
+        if (b < 0) b = 0;       // Infinities are coded by the outer global bins
+        else if (b > last) b = last;
+      }
+      accumulate(b, weight, resp, ys, k);
+    }
+    if (maxCode >= 0) {
+      if (_binMin[minCode] < _min2) _min2 = _binMin[minCode];
+      if (_binMax[maxCode] > _maxIn) _maxIn = _binMax[maxCode];
+    }
+  }
+
+  private void accumulate(int b, double weight, double[] resp, double[] ys, int k) {
+    double y = ys[k];
+    assert (!Double.isNaN(y));
+    double wy = weight * y;
+    double wyy = wy * y;
+    _vals[_vals_dim*b + 0] += weight;
+    _vals[_vals_dim*b + 1] += wy;
+    _vals[_vals_dim*b + 2] += wyy;
+    if (_vals_dim >= 5) {
+      _vals[_vals_dim * b + 3] += weight * (_pred1 - y) * (_pred1 - y);
+      _vals[_vals_dim * b + 4] += weight * (_pred2 - y) * (_pred2 - y);
+      if (_vals_dim == 6) {
+        _vals[_vals_dim * b + 5] += _dist.gammaDenom(weight, resp[k], y, Double.NaN);
+      }
+    }
+  }
+
+  /**
+   * Histogram of the codes of a feature bundle ({@link FeatureBundles}), one bin per code.  The columns of the
+   * bundle are unbundled from it ({@link #unbundle}).
+   */
+  static DHistogram bundle(int bundle, int nbins, Constraints cs) {
+    DHistogram h = new DHistogram("bundle_" + bundle, nbins, nbins, (byte) 1, 0, nbins, 0,
+            SharedTreeModel.SharedTreeParameters.HistogramType.UniformAdaptive, 0, null, cs);
+    h._bundle = bundle;
+    return h;
+  }
+
+  /**
+   * Fills the histogram of a bundled column from the histogram of its bundle at the same node, instead of
+   * accumulating the rows.  The bins of the non-zero values are bins of the bundle, the zero bin holds the rest of
+   * the rows of the node.  The column has to have one bin per value ({@link #UNIT_BINS}).
+   * @param bundle histogram of the bundle codes, see {@link #bundle}
+   * @param offset bundle code of the value 1 of the column
+   */
+  void unbundle(DHistogram bundle, int offset) {
+    assert _vals == null && _vals_dim == bundle._vals_dim && alignment() == UNIT_BINS;
+    final double[] bvals = bundle._vals;
+    if (bvals == null) return; // No rows at this node
+    init();
+    final long first = (long) _min;
+    assert first >= 0 && first + _nbin - 1 + offset - 1 < bundle._nbin : "Bins of " + this + " out of the bundle's range " + bundle;
+    for (int b = 0; b < _nbin; b++) {
+      final long v = first + b;
+      if (v > 0)
+        System.arraycopy(bvals, _vals_dim * (int) (offset + v - 1), _vals, _vals_dim * b, _vals_dim);
+    }
+    if (first == 0) { // All the rows of the node, minus the non-zero ones
+      double total = 0;
+      for (int bb = 0; bb <= bundle._nbin; bb++) {
+        total += bvals[_vals_dim * bb];
+        for (int i = 0; i < _vals_dim; i++) _vals[i] += bvals[_vals_dim * bb + i];
+      }
+      for (int b = 1; b < _nbin; b++)
+        for (int i = 0; i < _vals_dim; i++) _vals[i] -= _vals[_vals_dim * b + i];
+      if (_vals[0] <= 1e-9 * total) // Empty up to the rounding errors of fractional weights
+        for (int i = 0; i < _vals_dim; i++) _vals[i] = 0;
+    }
+    int lo = -1, hi = -1;
+    for (int b = 0; b < _nbin; b++)
+      if (_vals[_vals_dim * b] > 0) {
+        if (lo < 0) lo = b;
+        hi = b;
+      }
+    if (lo >= 0) {
+      _min2 = _min + lo;
+      _maxIn = _min + hi;
+    }
+  }
+
+  // Bins shared by the histograms of a column at all nodes of a tree, see alignment()
+  static final int NOT_ALIGNED = 0;
+  static final int GLOBAL_BINS = 1; // Range of the global bins of a pre-binned column
+  static final int UNIT_BINS = 2;   // One bin per value of an integer or categorical column
+
+  /**
+   * How the bins line up with the bins of the other histograms of the column, histograms with the same alignment
+   * can be subtracted bin by bin ({@link #subtract}).  Works on histograms that are not initialized yet too.
+   */
+  int alignment() {
+    DHistogram h = this;
+    if (_vals == null) {
+      h = (DHistogram) clone();
+      h.initBins();
+    }
+    if (h.isBinned()) return GLOBAL_BINS;
+    if (h._splitPts == null && h._isInt > 0 && h._step == 1) return UNIT_BINS;
+    return NOT_ALIGNED;
+  }
+
+  // Position of the first bin among the shared bins
+  private long firstBin() {
+    return isBinned() ? _globalOffset : (long) _min;
+  }
+
+  /**
+   * Fills this histogram with the rows of the parent node that are not in the sibling node, instead of
+   * accumulating them.  The bins of all three histograms have to have the same {@link #alignment}, and the
+   * column must have no infinities (they are clamped into the outer bins, which differ between the nodes).
+   * @param parent histogram of the column at the parent node
+   * @param sibling histogram of the column at the other child of the parent, null or not initialized if no rows
+   */
+  void subtract(DHistogram parent, DHistogram sibling) {
+    assert _vals == null && _vals_dim == 3 && parent._vals_dim == 3;
+    init();
+    assert alignment() != NOT_ALIGNED && parent.alignment() == alignment();
+    final long first = firstBin();
+    final double[] pvals = parent._vals;
+    final double[] svals = sibling == null ? null : sibling._vals;
+    final long pfirst = parent.firstBin(), sfirst = svals == null ? 0 : sibling.firstBin();
+    int lo = -1, hi = -1;
+    for (int b = 0; b <= _nbin; b++) {
+      final boolean na = b == _nbin;
+      final long pb = na ? parent._nbin : first + b - pfirst;
+      assert na || (0 <= pb && pb < parent._nbin) : "Bin " + b + " out of the parent's range " + parent;
+      long sb = na ? (svals == null ? -1 : sibling._nbin) : first + b - sfirst;
+      if (svals == null || !na && (sb < 0 || sb >= sibling._nbin)) sb = -1;
+      for (int i = 0; i < _vals_dim; i++) {
+        double v = pvals[_vals_dim * (int) pb + i];
+        if (sb >= 0) v -= svals[_vals_dim * (int) sb + i];
+        _vals[_vals_dim * b + i] = v;
+      }
+      if (_vals[_vals_dim * b] <= 1e-9 * pvals[_vals_dim * (int) pb]) { // Empty up to the rounding errors of fractional weights
+        for (int i = 0; i < _vals_dim; i++) _vals[_vals_dim * b + i] = 0;
+      } else if (!na) {
+        if (lo < 0) lo = b;
+        hi = b;
+      }
+    }
+    if (lo >= 0) {
+      if (isBinned()) {
+        _min2 = _binMin[_globalOffset + lo];
+        _maxIn = _binMax[_globalOffset + hi];
+      } else {
+        _min2 = _min + lo;
+        _maxIn = _min + hi;
       }
     }
   }
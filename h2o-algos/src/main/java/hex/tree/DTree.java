@@ -38,6 +38,9 @@ public class DTree extends Iced {
   public final transient Random _rand; // RNG for split decisions & sampling
   public final transient int[] _cols; // Per-tree selection of columns to consider for splits
   public transient SharedTreeModel.SharedTreeParameters _parms;
+  // Leaf-wise growth (SharedTree.maxLeaves): nodes whose best split is known but not made yet, best gain first
+  transient PriorityQueue<SplitCandidate> _candidates;
+  transient int _nsplits;    // Splits made so far
 
 
   // compute the effective number of columns to sample
@@ -91,6 +94,28 @@ public class DTree extends Iced {
 
   public final int len() { return _len; }
 
+  // Number of splits on the path from the root
+  final int depth( int nid ) {
+    int d = 0;
+    while( (nid = node(nid)._pid) != NO_PARENT ) d++;
+    return d;
+  }
+
+  /** A node that can be split, waiting for the nodes with a better gain to be split first. */
+  static final class SplitCandidate implements Comparable<SplitCandidate> {
+    final UndecidedNode _udn;
+    final DHistogram[] _hs;     // Histograms of the node, to split it by
+    final Split _split;         // Best split of the node
+    final double _gain;         // Squared error improvement of the best split
+    SplitCandidate(UndecidedNode udn, DHistogram[] hs, Split split) {
+      _udn = udn; _hs = hs; _split = split; _gain = split.pre_split_se() - split.se();
+    }
+    @Override public int compareTo(SplitCandidate c) {
+      int res = Double.compare(c._gain, _gain);
+      return res != 0 ? res : Integer.compare(_udn._nid, c._udn._nid);
+    }
+  }
+
   // --------------------------------------------------------------------------
   // Abstract node flavor
   public static abstract class Node extends Iced {
@@ -316,6 +341,9 @@ public class DTree extends Iced {
     public transient DHistogram[] _hs; //(up to) one histogram per column
     public transient Constraints _cs;
     public final int _scoreCols[];      // A list of columns to score; could be null for all
+    int _derivedCols[];                 // Columns whose histograms are derived from the parent's, not accumulated; null for none
+    transient DHistogram[] _parentHs;   // Parent histograms of the derived columns
+    transient int _sibling;             // The other child of the parent, its histograms are subtracted from the parent's
     public UndecidedNode( DTree tree, int pid, DHistogram[] hs, Constraints cs ) {
       super(tree,pid);
       assert hs.length==tree._ncols;
@@ -536,10 +564,22 @@ public class DTree extends Iced {
       }
     }
 
-    public DecidedNode(UndecidedNode n, DHistogram hs[], Constraints cs) {
+    // Replaces the Undecided without splitting it (yet), its rows are steered by the parent's decision
+    DecidedNode(UndecidedNode n) {
+      super(n._tree,n._pid,n._nid);
+      _nids = new int[]{ScoreBuildHistogram.UNDECIDED_CHILD_NODE_ID, ScoreBuildHistogram.UNDECIDED_CHILD_NODE_ID};
+      _split = null;
+      _splat = Float.NaN;
+    }
+
+    public DecidedNode(UndecidedNode n, DHistogram hs[], Constraints cs) { this(n, hs, cs, null); }
+
+    /** Same as {@link #DecidedNode(UndecidedNode, DHistogram[], Constraints)}, with the best split found already
+     *  by {@link #bestCol} (null to find it). */
+    DecidedNode(UndecidedNode n, DHistogram hs[], Constraints cs, Split split) {
       super(n._tree,n._pid,n._nid); // Replace Undecided with this DecidedNode
       _nids = new int[2];           // Split into 2 subsets
-      _split = bestCol(n,hs,cs);  // Best split-point for this tree
+      _split = split != null ? split : bestCol(n,hs,cs);  // Best split-point for this tree
       if( _split == null) {
         // Happens because the predictor columns cannot split the responses -
         // which might be because all predictor columns are now constant, or
@@ -0,0 +1,338 @@
+package hex.tree;
+
+import water.H2O;
+import water.MRTask;
+import water.fvec.Chunk;
+import water.fvec.Frame;
+import water.fvec.NewChunk;
+import water.fvec.Vec;
+import water.util.Log;
+
+import java.util.*;
+
+/**
+ * Exclusive feature bundling ({@link SharedTreeModel.SharedTreeParameters#_bundle_sparse}).
+ *
+ * Wide sparse frames (e.g. one-hot encoded categoricals, SVMLight input) have many columns that are zero in nearly
+ * all rows, and hardly ever non-zero in the same row.  Such columns are bundled into a column of bundle codes: 0 if
+ * all the columns of the bundle are zero, otherwise the non-zero value, offset by the values of the columns before it
+ * in the bundle.  The histogram pass then accumulates and reduces a single histogram per bundle and node, instead of
+ * one per column.  The histograms of the columns are unbundled from it before the splits are found
+ * ({@link DHistogram#unbundle}): the bins of the non-zero values are the bundle's, the zero bin is the rest of the node.
+ *
+ * A column qualifies if it is integer with no NAs, has a minimum of 0, a maximum below nbins (one histogram bin per
+ * value) and at most <code>sys.ai.h2o.tree.bundle.maxDensity</code> (default 0.1) non-zero rows.  The columns are
+ * bundled greedily, the densest first, into the first bundle with room left among the last 100 bundles.  A bundle
+ * has at most <code>sys.ai.h2o.tree.bundle.maxBins</code> (default 256) bins, and its columns are non-zero in the
+ * same row in at most <code>sys.ai.h2o.tree.bundle.maxConflictRate</code> (default 0) of the rows.  The conflicts
+ * are counted on a sample of <code>sys.ai.h2o.tree.bundle.sampleRows</code> (default 100000) rows, fewer if the
+ * sampled non-zero rows of all the eligible columns, collected on the driver, would be more than
+ * <code>sys.ai.h2o.tree.bundle.maxSampledNonZeros</code> (default 2^24, 64MB of row indices).  With no conflicts
+ * allowed, the bundles of a larger frame are then checked on all the rows, and the columns non-zero in the same row
+ * as a column before them in the bundle are unbundled.  In a conflicting row, the first non-zero column of the bundle
+ * takes the row, the other columns count it as zero - their unbundled histograms are off by this row.  With no
+ * conflicts, the unbundled histograms are the accumulated ones.
+ *
+ * Bundling saves the accumulation and the reduction of the histograms of the bundled columns, not their memory on
+ * the driver: every bundled column still gets its histogram at every node, filled from its bundle's.  These have
+ * one bin per value, a few bins for the typical one-hot or count columns.
+ */
+public final class FeatureBundles {
+
+  static final double MAX_DENSITY = Double.parseDouble(System.getProperty(H2O.OptArgs.SYSTEM_PROP_PREFIX + "tree.bundle.maxDensity", "0.1"));
+  static final int MAX_BINS = Integer.getInteger(H2O.OptArgs.SYSTEM_PROP_PREFIX + "tree.bundle.maxBins", 256);
+  static final double MAX_CONFLICT_RATE = Double.parseDouble(System.getProperty(H2O.OptArgs.SYSTEM_PROP_PREFIX + "tree.bundle.maxConflictRate", "0"));
+  static final int SAMPLE_ROWS = Integer.getInteger(H2O.OptArgs.SYSTEM_PROP_PREFIX + "tree.bundle.sampleRows", 100000);
+  static final long MAX_SAMPLED_NZ = Long.getLong(H2O.OptArgs.SYSTEM_PROP_PREFIX + "tree.bundle.maxSampledNonZeros", 1 << 24);
+  private static final int MAX_SEARCH = 100;
+
+  final int[][] _cols;     // Columns of every bundle
+  final int[][] _offsets;  // Bundle code of the value 1 of every column of a bundle
+  final int[] _nbins;      // Bundle codes of every bundle (0 for all the columns zero)
+  final Vec[] _codes;      // Bundle codes of the rows, one Vec per bundle
+
+  private FeatureBundles(int[][] cols, int[][] offsets, int[] nbins, Vec[] codes) {
+    _cols = cols;
+    _offsets = offsets;
+    _nbins = nbins;
+    _codes = codes;
+  }
+
+  int size() { return _cols.length; }
+
+  /** Removes the bundle codes. */
+  void remove() {
+    for (Vec v : _codes) v.remove();
+  }
+
+  static boolean qualifies(Vec v, int nbins) {
+    return v.isNumeric() && v.isInt() && v.naCnt() == 0 && v.min() == 0 && v.max() >= 1 && v.max() < nbins
+            && v.nzCnt() <= MAX_DENSITY * v.length();
+  }
+
+  /**
+   * Bundles the qualifying columns among the first ncols columns of the frame.
+   * @return null if no two columns can be bundled
+   */
+  public static FeatureBundles make(Frame fr, int ncols, int nbins) {
+    long start = System.currentTimeMillis();
+    int[] eligible = new int[ncols];
+    int neligible = 0;
+    for (int i = 0; i < ncols; i++)
+      if (qualifies(fr.vec(i), nbins)) eligible[neligible++] = i;
+    if (neligible < 2) return null;
+    eligible = Arrays.copyOf(eligible, neligible);
+    Vec[] vecs = new Vec[neligible];
+    long nz = 0;
+    for (int i = 0; i < neligible; i++) {
+      vecs[i] = fr.vec(eligible[i]);
+      nz += vecs[i].nzCnt();
+    }
+
+    // Non-zero rows of the eligible columns, among the sampled rows
+    final long stride = stride(fr.numRows(), nz);
+    final int nsample = (int) ((fr.numRows() + stride - 1) / stride);
+    NonZeroRows nzr = new NonZeroRows(stride).doAll(vecs);
+    final int[][] rows = new int[neligible][];
+    Integer[] order = new Integer[neligible];
+    for (int i = 0; i < neligible; i++) {
+      rows[i] = nzr._rows[i] == null ? new int[0] : Arrays.copyOf(nzr._rows[i], nzr._lens[i]);
+      Arrays.sort(rows[i]);
+      order[i] = i;
+    }
+    Arrays.sort(order, new Comparator<Integer>() {
+      @Override public int compare(Integer a, Integer b) {
+        return rows[a].length != rows[b].length ? Integer.compare(rows[b].length, rows[a].length) : Integer.compare(a, b);
+      }
+    });
+
+    // Greedy bundling, the densest columns first
+    final long maxConflicts = (long) (MAX_CONFLICT_RATE * nsample);
+    List<Bundle> bundles = new ArrayList<>();
+    for (int i : order) {
+      if (bundles.size() > MAX_SEARCH) bundles.get(bundles.size() - MAX_SEARCH - 1).searched();
+      int values = (int) vecs[i].max();
+      Bundle found = null;
+      int conflicts = 0;
+      for (int b = Math.max(0, bundles.size() - MAX_SEARCH); b < bundles.size() && found == null; b++) {
+        Bundle bundle = bundles.get(b);
+        if (bundle._nbins + values > MAX_BINS) continue;
+        conflicts = bundle.conflicts(rows[i], maxConflicts - bundle._conflicts);
+        if (conflicts >= 0) found = bundle;
+      }
+      if (found == null) {
+        bundles.add(found = new Bundle(nsample));
+        conflicts = 0;
+      }
+      found.add(eligible[i], values, rows[i], conflicts);
+      rows[i] = null;
+    }
+    for (Iterator<Bundle> it = bundles.iterator(); it.hasNext(); )
+      if (it.next()._cols.size() < 2) it.remove();
+    if (MAX_CONFLICT_RATE == 0 && stride > 1 && !bundles.isEmpty())
+      bundles = exclusive(fr, bundles);
+    if (bundles.isEmpty()) return null;
+
+    // Bundle codes of all the rows
+    int nb = bundles.size();
+    int[][] cols = new int[nb][], offsets = new int[nb][], pos = new int[nb][];
+    int[] nbs = new int[nb];
+    List<Vec> bundled = new ArrayList<>();
+    int nbundled = 0;
+    for (int b = 0; b < nb; b++) {
+      Bundle bundle = bundles.get(b);
+      int n = bundle._cols.size();
+      cols[b] = new int[n];
+      offsets[b] = new int[n];
+      pos[b] = new int[n];
+      for (int i = 0; i < n; i++) {
+        cols[b][i] = bundle._cols.get(i);
+        offsets[b][i] = bundle._offsets.get(i);
+        pos[b][i] = bundled.size();
+        bundled.add(fr.vec(cols[b][i]));
+      }
+      nbs[b] = bundle._nbins;
+      nbundled += n;
+    }
+    Vec[] codes = new Encode(pos, offsets).doAll(nb, Vec.T_NUM, new Frame(bundled.toArray(new Vec[0]))).outputFrame().vecs();
+    Log.info("Bundled " + nbundled + " sparse columns into " + nb + " feature bundles in " + (System.currentTimeMillis() - start) + "ms");
+    return new FeatureBundles(cols, offsets, nbs, codes);
+  }
+
+  // Sampled rows: SAMPLE_ROWS at most, and about MAX_SAMPLED_NZ non-zero rows of the eligible columns at most
+  static long stride(long nrows, long nz) {
+    long sample = Math.min(SAMPLE_ROWS, Math.max(1, (long) ((double) MAX_SAMPLED_NZ * nrows / Math.max(1, nz))));
+    return Math.max(1, (nrows + sample - 1) / sample);
+  }
+
+  // The sample can miss conflicts: checks all the rows, and drops the columns that conflict from their bundles
+  private static List<Bundle> exclusive(Frame fr, List<Bundle> bundles) {
+    int[][] pos = new int[bundles.size()][];
+    List<Vec> bundled = new ArrayList<>();
+    for (int b = 0; b < pos.length; b++) {
+      List<Integer> cols = bundles.get(b)._cols;
+      pos[b] = new int[cols.size()];
+      for (int i = 0; i < pos[b].length; i++) {
+        pos[b][i] = bundled.size();
+        bundled.add(fr.vec(cols.get(i)));
+      }
+    }
+    boolean[][] conflicts = new Conflicts(pos).doAll(bundled.toArray(new Vec[0]))._conflicts;
+    List<Bundle> exclusive = new ArrayList<>();
+    int unbundled = 0;
+    for (int b = 0; b < pos.length; b++) {
+      Bundle bundle = new Bundle(0);
+      for (int i = 0; i < pos[b].length; i++) {
+        int col = bundles.get(b)._cols.get(i);
+        if (conflicts == null || !conflicts[b][i]) bundle.add(col, (int) fr.vec(col).max(), new int[0], 0);
+        else unbundled++;
+      }
+      if (bundle._cols.size() >= 2) exclusive.add(bundle);
+    }
+    if (unbundled > 0)
+      Log.info("Unbundled " + unbundled + " sparse columns, non-zero in the same rows as other columns of their bundles");
+    return exclusive;
+  }
+
+  private static class Bundle {
+    final List<Integer> _cols = new ArrayList<>();
+    final List<Integer> _offsets = new ArrayList<>();
+    BitSet _rows;   // Sampled non-zero rows, dropped once out of the search window
+    int _nbins = 1; // Code 0: all the columns zero
+    long _conflicts;
+
+    Bundle(int nsample) { _rows = new BitSet(nsample); }
+
+    // Sampled rows where the bundle is non-zero too, -1 if more than the given maximum
+    int conflicts(int[] rows, long max) {
+      int conflicts = 0;
+      for (int r : rows)
+        if (_rows.get(r) && ++conflicts > max) return -1;
+      return conflicts;
+    }
+
+    void add(int col, int values, int[] rows, int conflicts) {
+      _cols.add(col);
+      _offsets.add(_nbins);
+      _nbins += values;
+      for (int r : rows) _rows.set(r);
+      _conflicts += conflicts;
+    }
+
+    // No more columns are added to the bundle
+    void searched() { _rows = null; }
+  }
+
+  private static class NonZeroRows extends MRTask<NonZeroRows> {
+    final long _stride;
+    int[][] _rows; // Non-zero sampled rows of every column, as indices into the sample
+    int[] _lens;
+
+    NonZeroRows(long stride) { _stride = stride; }
+
+    @Override public void map(Chunk[] cs) {
+      _rows = new int[cs.length][];
+      _lens = new int[cs.length];
+      for (int i = 0; i < cs.length; i++) {
+        Chunk c = cs[i];
+        int[] rows = null;
+        int n = 0;
+        for (int r = c.nextNZ(-1); r < c._len; r = c.nextNZ(r)) {
+          long row = c.start() + r;
+          if (row % _stride != 0 || c.atd(r) == 0) continue;
+          if (rows == null) rows = new int[4];
+          else if (n == rows.length) rows = Arrays.copyOf(rows, 2 * n);
+          rows[n++] = (int) (row / _stride);
+        }
+        _rows[i] = rows;
+        _lens[i] = n;
+      }
+    }
+
+    @Override public void reduce(NonZeroRows nzr) {
+      if (nzr._rows == null) return;
+      if (_rows == null) {
+        _rows = nzr._rows;
+        _lens = nzr._lens;
+        return;
+      }
+      for (int i = 0; i < _rows.length; i++) {
+        if (nzr._rows[i] == null) continue;
+        if (_rows[i] == null) {
+          _rows[i] = nzr._rows[i];
+          _lens[i] = nzr._lens[i];
+          continue;
+        }
+        int[] rows = Arrays.copyOf(_rows[i], _lens[i] + nzr._lens[i]);
+        System.arraycopy(nzr._rows[i], 0, rows, _lens[i], nzr._lens[i]);
+        _rows[i] = rows;
+        _lens[i] = rows.length;
+      }
+    }
+  }
+
+  private static class Conflicts extends MRTask<Conflicts> {
+    final int[][] _pos;       // Position of the columns of every bundle in the frame
+    boolean[][] _conflicts;   // Columns of every bundle non-zero in a row taken by a column before them in the bundle
+
+    Conflicts(int[][] pos) { _pos = pos; }
+
+    @Override public void map(Chunk[] cs) {
+      int len = cs[0]._len;
+      boolean[] taken = new boolean[len];
+      _conflicts = new boolean[_pos.length][];
+      for (int b = 0; b < _pos.length; b++) {
+        Arrays.fill(taken, false);
+        _conflicts[b] = new boolean[_pos[b].length];
+        for (int i = 0; i < _pos[b].length; i++) {
+          Chunk c = cs[_pos[b][i]];
+          for (int r = c.nextNZ(-1); r < len; r = c.nextNZ(r)) {
+            if (c.atd(r) == 0) continue;
+            if (taken[r]) _conflicts[b][i] = true;
+            else taken[r] = true;
+          }
+        }
+      }
+    }
+
+    @Override public void reduce(Conflicts c) {
+      if (c._conflicts == null) return;
+      if (_conflicts == null) {
+        _conflicts = c._conflicts;
+        return;
+      }
+      for (int b = 0; b < _conflicts.length; b++)
+        for (int i = 0; i < _conflicts[b].length; i++)
+          _conflicts[b][i] |= c._conflicts[b][i];
+    }
+  }
+
+  private static class Encode extends MRTask<Encode> {
+    final int[][] _pos;     // Position of the columns of every bundle in the frame
+    final int[][] _offsets;
+
+    Encode(int[][] pos, int[][] offsets) {
+      _pos = pos;
+      _offsets = offsets;
+    }
+
+    @Override public void map(Chunk[] cs, NewChunk[] ncs) {
+      int len = cs[0]._len;
+      int[] codes = new int[len];
+      for (int b = 0; b < _pos.length; b++) {
+        Arrays.fill(codes, 0);
+        for (int i = _pos[b].length - 1; i >= 0; i--) { // The first non-zero column of the bundle takes the row
+          Chunk c = cs[_pos[b][i]];
+          for (int r = c.nextNZ(-1); r < len; r = c.nextNZ(r)) {
+            long v = c.at8(r);
+            if (v != 0) codes[r] = _offsets[b][i] + (int) v - 1;
+          }
+        }
+        for (int r = 0; r < len; r++) {
+          if (codes[r] == 0) ncs[b].addZeros(1);
+          else ncs[b].addNum(codes[r], 0);
+        }
+      }
+    }
+  }
+}
@@ -68,11 +68,19 @@ public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
   final int _numLeafs;
   final IcedBitSet _activeCols;
   final int _respIdx;
+  final int[] _binIdx; // Column of the bin codes of every predictor, -1 if not pre-binned (null if none is)
+  final int[] _bundleIdx; // Column of the codes of every feature bundle (null if none), see FeatureBundles
 
   public ScoreBuildHistogram2(H2O.H2OCountedCompleter cc, int k, int ncols, int nbins, int nbins_cats, DTree tree, int leaf, DHistogram[][] hcs, DistributionFamily family, int respIdx, int weightIdx, int workIdx, int nidIdxs) {
+    this(cc, k, ncols, nbins, nbins_cats, tree, leaf, hcs, family, respIdx, weightIdx, workIdx, nidIdxs, null, null);
+  }
+
+  public ScoreBuildHistogram2(H2O.H2OCountedCompleter cc, int k, int ncols, int nbins, int nbins_cats, DTree tree, int leaf, DHistogram[][] hcs, DistributionFamily family, int respIdx, int weightIdx, int workIdx, int nidIdxs, int[] binIdx, int[] bundleIdx) {
     super(cc, k, ncols, nbins, nbins_cats, tree, leaf, hcs, family, weightIdx, workIdx, nidIdxs);
     _numLeafs = _hcs.length;
     _respIdx = respIdx;
+    _binIdx = binIdx;
+    _bundleIdx = bundleIdx;
 
     int hcslen = _hcs.length;
     IcedBitSet activeCols = new IcedBitSet(ncols);
@@ -139,6 +147,10 @@ public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
       }
       assert !isDecidedRow(nid);
       nid = dn.getChildNodeID(chks,row); // Move down the tree 1 level
+      // Leaf-wise growth (SharedTree.maxLeaves): a node can be split passes after its parent, move down
+      // till a node of this pass or a node not split (yet)
+      while( !isDecidedRow(nid) && nid < _leaf && (dn = _tree.decided(nid))._split != null )
+        nid = dn.getChildNodeID(chks,row);
       if( !isDecidedRow(nid) ) {
         if( oob ) nid = nid2Oob(nid); // Re-apply OOB encoding
         nnids[row] = nid;
@@ -299,38 +311,65 @@ public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
     protected void map(int id){
       double [] cs = null;
       double [] resp = null;
+      int [] codes = null;
+      double [] bcs = null;
       for(int i = _cidx.getAndIncrement(); i < _cids.length; i = _cidx.getAndIncrement()) {
         if (cs == null) {
           cs = MemoryManager.malloc8d(_maxChunkSz);
           if (_respIdx >= 0)
           resp = MemoryManager.malloc8d(_maxChunkSz);
+          if (_binIdx != null && _binIdx[_col] >= 0)
+            codes = MemoryManager.malloc4(_maxChunkSz);
+          if (_bundleIdx != null)
+            bcs = MemoryManager.malloc8d(_maxChunkSz);
         }
-        computeChunk(i, cs, _ws[i], resp);
+        computeChunk(i, cs, _ws[i], resp, codes, bcs);
       }
     }
 
-    private void computeChunk(int id, double[] cs, double[] ws, double[] resp){
+    private void computeChunk(int id, double[] cs, double[] ws, double[] resp, int[] codes, double[] bcs){
       int [] nh = _nhs[id];
       int [] rs = _rss[id];
       Chunk resChk = _chks[id][_workIdx];
       int len = resChk._len;
       double [] ys = ScoreBuildHistogram2.this._ys[id];
-      if(_weightIdx != -1) _chks[id][_weightIdx].getDoubles(ws, 0, len);
+      // weights were already decoded into ws (_ws[id]) in the first pass, no need to redo it for every column
       final int hcslen = _lh.length;
-      boolean extracted = false;
+      boolean extracted = false, extractedCodes = false, extractedResp = false;
+      int extractedBundle = -1;
       for (int n = 0; n < hcslen; n++) {
-        int sCols[] = _tree.undecided(n + _leaf)._scoreCols; // Columns to score (null, or a list of selected cols)
+        DTree.UndecidedNode udn = _tree.undecided(n + _leaf);
+        int sCols[] = udn._scoreCols; // Columns to score (null, or a list of selected cols)
+        if (udn._derivedCols != null && ArrayUtils.find(udn._derivedCols, _col) >= 0)
+          continue; // Parent minus sibling, see SharedTree.ScoreBuildOneTree
         if (sCols == null || ArrayUtils.find(sCols, _col) >= 0) {
           DHistogram h = _lh[n];
           int hi = nh[n];
           int lo = (n == 0 ? 0 : nh[n - 1]);
           if (hi == lo || h == null) continue; // Ignore untracked columns in this split
           if (h._vals == null) h.init();
+          if (h._vals_dim == 6 && ! extractedResp) {
+            _chks[id][_respIdx].getDoubles(resp, 0, len);
+            extractedResp = true;
+          }
+          if (h._bundle >= 0) { // Codes of a feature bundle instead of the column, see SharedTree.ScoreBuildOneTree
+            if (h._bundle != extractedBundle) {
+              _chks[id][_bundleIdx[h._bundle]].getDoubles(bcs, 0, len);
+              extractedBundle = h._bundle;
+            }
+            h.updateHisto(ws, resp, bcs, ys, rs, hi, lo);
+            continue;
+          }
+          if (codes != null && h.isBinned()) { // Pre-binned column, the raw values are not needed
+            if (! extractedCodes) {
+              _chks[id][_binIdx[_col]].getIntegers(codes, 0, len, -1);
+              extractedCodes = true;
+            }
+            h.updateHistoBinned(ws, resp, codes, ys, rs, hi, lo);
+            continue;
+          }
           if (! extracted) {
             _chks[id][_col].getDoubles(cs, 0, len);
-            if (h._vals_dim == 6) {
-              _chks[id][_respIdx].getDoubles(resp, 0, len);
-            }
             extracted = true;
           }
           h.updateHisto(ws, resp, cs, ys, rs, hi, lo);
@@ -26,6 +26,7 @@ import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.PriorityQueue;
 import java.util.Random;
 
 public abstract class SharedTree<
@@ -37,6 +38,12 @@ public abstract class SharedTree<
 
   private static final boolean DEBUG_PUBDEV_6686 = Boolean.getBoolean(H2O.OptArgs.SYSTEM_PROP_PREFIX + "debug.pubdev6686");
 
+  // Parent histograms kept per tree for SharedTreeParameters._histogram_subtraction, at most this many bytes
+  static final long SUBTRACTION_MAX_BYTES = Long.getLong(H2O.OptArgs.SYSTEM_PROP_PREFIX + "tree.histogramSubtraction.maxBytes", 256L << 20);
+
+  // Leaf-wise growth (maxLeaves), leaves split per tree and pass over the data
+  static final int LOSSGUIDE_BATCH = Integer.getInteger(H2O.OptArgs.SYSTEM_PROP_PREFIX + "tree.lossguide.batchSize", 8);
+
   public boolean shouldReorder(Vec v) {
     return _parms._categorical_encoding == Model.Parameters.CategoricalEncodingScheme.SortByResponse
            && v.cardinality() > _parms._nbins_cats;  // no need to sort categoricals with fewer than nbins_cats - they will be sorted in every leaf anyway
@@ -67,6 +74,12 @@ public abstract class SharedTree<
   // Sum of variable empirical improvement in squared-error.  The value is not scaled.
   private transient float[/*nfeatures*/] _improvPerVar;
 
+  // Bin codes of the pre-binned predictors (null entries for the others), see SharedTreeParameters._prebin
+  private transient BinnedVecs.Binned[/*nfeatures*/] _binned;
+
+  // Bundles of mutually exclusive sparse predictors, see SharedTreeParameters._bundle_sparse
+  transient FeatureBundles _bundles;
+
   protected Random _rand;
 
   private transient Frame _calib;
@@ -147,6 +160,12 @@ public abstract class SharedTree<
     if (_parms._r2_stopping!=Double.MAX_VALUE) warn("_r2_stopping", "_r2_stopping is no longer supported - please use stopping_rounds, stopping_metric and stopping_tolerance instead.");
     if (_parms._score_tree_interval < 0) error ("_score_tree_interval", "_score_tree_interval must be >= 0.");
     validateRowSampleRate();
+    if (_parms._prebin && _parms._histogram_type != SharedTreeModel.SharedTreeParameters.HistogramType.QuantilesGlobal
+            && _parms._histogram_type != SharedTreeModel.SharedTreeParameters.HistogramType.RoundRobin)
+      error("_prebin", "prebin requires histogram_type QuantilesGlobal or RoundRobin.");
+    if (_parms._bundle_sparse && _parms._histogram_type != SharedTreeModel.SharedTreeParameters.HistogramType.AUTO
+            && _parms._histogram_type != SharedTreeModel.SharedTreeParameters.HistogramType.UniformAdaptive)
+      error("_bundle_sparse", "bundle_sparse requires histogram_type AUTO or UniformAdaptive.");
     if (_parms._min_split_improvement < 0)
       error("_min_split_improvement", "min_split_improvement must be >= 0, but is " + _parms._min_split_improvement + ".");
     if (!(0.0 < _parms._col_sample_rate_per_tree && _parms._col_sample_rate_per_tree <= 1.0))
@@ -311,13 +330,23 @@ public abstract class SharedTree<
             if (splitPoints[i]!=null && keys[i]!=null) {
 //              Log.info("Creating quantiles for column " + i + " (key: "+ keys[i] +")");
 //              Log.info("Quantiles for column " + i + ": " + Arrays.toString(quantiles[i]));
-              DKV.put(new DHistogram.HistoQuantiles(keys[i], splitPoints[i]));
+              BinnedVecs.Binned binned = null;
+              if (_parms._prebin && i < _ncols) {
+                if (_binned == null) _binned = new BinnedVecs.Binned[_ncols];
+                binned = _binned[i] = BinnedVecs.acquire(_train.vec(i), splitPoints[i]);
+              }
+              DKV.put(new DHistogram.HistoQuantiles(keys[i], splitPoints[i], binned));
             }
           }
           qm.delete();
           DKV.remove(rndKey);
         }
 
+        if (_parms._bundle_sparse) {
+          _job.update(0, "Bundling sparse columns.");
+          _bundles = FeatureBundles.make(_train, _ncols, _parms._nbins);
+        }
+
         // Also add to the basic working Frame these sets:
         //   nclass Vecs of current forest results (sum across all trees)
         //   nclass Vecs of working/temp data
@@ -364,6 +393,15 @@ public abstract class SharedTree<
       } finally {
         if( _model!=null ) _model.unlock(_job);
         for (Key k : getGlobalQuantilesKeys()) Keyed.remove(k);
+        if (_binned != null) {
+          for (BinnedVecs.Binned b : _binned)
+            if (b != null) BinnedVecs.release(b);
+          _binned = null;
+        }
+        if (_bundles != null) {
+          _bundles.remove();
+          _bundles = null;
+        }
         if (_validWorkspace != null) {
           _validWorkspace.remove();
           _validWorkspace = null;
@@ -506,16 +544,35 @@ public abstract class SharedTree<
       // Add temporary workspace vectors (optional weights are taken over from fr)
       int respIdx = fr2.find(_parms._response_column);
       int weightIdx = fr2.find(_parms._weights_column);
+      if (idx_tree_weight() != idx_weight()) { // weights of the rows sampled for this tree
+        weightIdx = fr2.numCols(); fr2.add(fr._names[idx_tree_weight()], vecs[idx_tree_weight()]);
+      }
       fr2.add(fr._names[idx_tree(k)],vecs[idx_tree(k)]);                              //tree predictions
       int workIdx = fr2.numCols(); fr2.add(fr._names[idx_work(k)],vecs[idx_work(k)]); //target value to fit (copy of actual response for DRF, residual for GBM)
       int nidIdx  = fr2.numCols(); fr2.add(fr._names[idx_nids(k)],vecs[idx_nids(k)]); //node indices for tree construction
+      int[] binIdx = null;                                                            //bin codes of the pre-binned predictors
+      if (_binned != null) {
+        binIdx = new int[_ncols];
+        for (int i = 0; i < _ncols; i++) {
+          binIdx[i] = _binned[i] == null ? -1 : fr2.numCols();
+          if (_binned[i] != null) fr2.add("BinCodes_" + fr._names[i], _binned[i]._codes);
+        }
+      }
+      int[] bundleIdx = null;                                                         //codes of the feature bundles
+      if (_bundles != null) {
+        bundleIdx = new int[_bundles.size()];
+        for (int b = 0; b < bundleIdx.length; b++) {
+          bundleIdx[b] = fr2.numCols();
+          fr2.add("BundleCodes_" + b, _bundles._codes[b]);
+        }
+      }
       if (DEV_DEBUG) {
         System.out.println("Building a layer for class " + k + ":\n" + fr2.toTwoDimTable());
       }
       // Async tree building
       // step 1: build histograms
       // step 2: split nodes
-      H2O.submitTask(sb1ts[k] = new ScoreBuildOneTree(this,k,nbins, nbins_cats, tree, leafs, hcs, fr2, build_tree_one_node, _improvPerVar, _model._parms._distribution, respIdx, weightIdx, workIdx, nidIdx));
+      H2O.submitTask(sb1ts[k] = new ScoreBuildOneTree(this,k,nbins, nbins_cats, tree, leafs, hcs, fr2, build_tree_one_node, _improvPerVar, _model._parms._distribution, respIdx, weightIdx, workIdx, nidIdx, binIdx, bundleIdx));
     }
     // Block for all K trees to complete.
     boolean did_split=false;
@@ -555,10 +612,13 @@ public abstract class SharedTree<
     final int _weightIdx;
     final int _workIdx;
     final int _nidIdx;
+    final int[] _binIdx;
+    final int[] _bundleIdx;
+    DHistogram[][] _bundled; // Histograms of the bundled columns at every node, while their bundles are accumulated
 
     boolean _did_split;
 
-    ScoreBuildOneTree(SharedTree st, int k, int nbins, int nbins_cats, DTree tree, int leafs[], DHistogram hcs[][][], Frame fr2, boolean build_tree_one_node, float[] improvPerVar, DistributionFamily family, int respIdx, int weightIdx, int workIdx, int nidIdx) {
+    ScoreBuildOneTree(SharedTree st, int k, int nbins, int nbins_cats, DTree tree, int leafs[], DHistogram hcs[][][], Frame fr2, boolean build_tree_one_node, float[] improvPerVar, DistributionFamily family, int respIdx, int weightIdx, int workIdx, int nidIdx, int[] binIdx, int[] bundleIdx) {
       _st   = st;
       _k    = k;
       _nbins= nbins;
@@ -574,6 +634,8 @@ public abstract class SharedTree<
       _weightIdx = weightIdx;
       _workIdx = workIdx;
       _nidIdx = nidIdx;
+      _binIdx = binIdx;
+      _bundleIdx = bundleIdx;
     }
     @Override public void compute2() {
       // Fuse 2 conceptual passes into one:
@@ -585,34 +647,211 @@ public abstract class SharedTree<
       // got assigned into.  Collect counts, mean, variance, min, max per bin,
       // per column.
 //      new ScoreBuildHistogram(this,_k, _st._ncols, _nbins, _nbins_cats, _tree, _leafOffsets[_k], _hcs[_k], _family, _weightIdx, _workIdx, _nidIdx).dfork2(null,_fr2,_build_tree_one_node);
-      new ScoreBuildHistogram2(this,_k, _st._ncols, _nbins, _nbins_cats, _tree, _leafOffsets[_k], _hcs[_k], _family, _respIdx, _weightIdx, _workIdx, _nidIdx).dfork2(null,_fr2,_build_tree_one_node);
+      DHistogram[][] hcs = _st._bundles == null ? _hcs[_k] : bundleHistograms(_hcs[_k]);
+      new ScoreBuildHistogram2(this,_k, _st._ncols, _nbins, _nbins_cats, _tree, _leafOffsets[_k], hcs, _family, _respIdx, _weightIdx, _workIdx, _nidIdx, _binIdx, _bundleIdx).dfork2(null,_fr2,_build_tree_one_node);
     }
     @Override public void onCompletion(CountedCompleter caller) {
       ScoreBuildHistogram sbh = (ScoreBuildHistogram) caller;
       final int leafOffset = _leafOffsets[_k];
       int tmax = _tree.len();   // Number of total splits in tree K
+      if (_bundled != null)
+        unbundleHistograms(sbh._hcs);
+      if (_tree._parms._histogram_subtraction)
+        for (int leaf = leafOffset; leaf < tmax; leaf++)
+          deriveHistograms(_tree.undecided(leaf), sbh._hcs, leafOffset);
+      final int maxLeaves = _st.maxLeaves();
+      List<DTree.DecidedNode> splits = new ArrayList<>();
+      List<DHistogram[]> splitHs = new ArrayList<>();
       for (int leaf = leafOffset; leaf < tmax; leaf++) { // Visit all the new splits (leaves)
         DTree.UndecidedNode udn = _tree.undecided(leaf);
+        DHistogram[] hs = sbh._hcs[leaf - leafOffset];
+        if (maxLeaves > 0) {
+          addCandidate(udn, hs);
+          continue;
+        }
 //        System.out.println((_st._nclass==1?"Regression":("Class "+_st._response.domain()[_k]))+",\n  Undecided node:"+udn);
         // Replace the Undecided with the Split decision
-        DTree.DecidedNode dn = _st.makeDecided(udn, sbh._hcs[leaf - leafOffset], udn._cs);
+        DTree.DecidedNode dn = _st.makeDecided(udn, hs, udn._cs);
 //        System.out.println(dn + "\n" + dn._split);
         if (dn._split == null) udn.do_not_split();
         else {
           _did_split = true;
-          DTree.Split s = dn._split; // Accumulate squared error improvements per variable
-          float improvement = (float) (s.pre_split_se() - s.se());
-          assert (improvement >= 0);
-          AtomicUtils.FloatArray.add(_improvPerVar, s.col(), improvement);
+          addImprovement(dn._split);
+          splits.add(dn);
+          splitHs.add(hs);
         }
       }
+      if (maxLeaves > 0)
+        splitBestCandidates(maxLeaves, splits, splitHs);
       _leafOffsets[_k] = tmax;          // Setup leafs for next tree level
       int new_leafs = _tree.len() - tmax; //new_leafs can be 0 if no actual splits were made
       _hcs[_k] = new DHistogram[new_leafs][/*ncol*/];
       for (int nl = tmax; nl < _tree.len(); nl++)
         _hcs[_k][nl - tmax] = _tree.undecided(nl)._hs;
 //      if (_did_split && new_leafs > 0) _tree._depth++;
-      if (_did_split) _tree._depth++; //
+      if (_did_split && maxLeaves == 0) _tree._depth++; //
+      if (_tree._parms._histogram_subtraction)
+        retainParentHistograms(splits, splitHs, tmax);
+    }
+
+    private void addImprovement(DTree.Split s) {
+      // Accumulate squared error improvements per variable
+      float improvement = (float) (s.pre_split_se() - s.se());
+      assert (improvement >= 0);
+      AtomicUtils.FloatArray.add(_improvPerVar, s.col(), improvement);
+    }
+
+    // Leaf-wise growth: a new leaf waits with its split among the other candidates of the tree, in the meantime
+    // it is a decided node without a split (its rows stay and are steered by the parent's decision)
+    private void addCandidate(DTree.UndecidedNode udn, DHistogram[] hs) {
+      DTree.DecidedNode dn = new DTree.DecidedNode(udn);
+      DTree.Split s = dn.bestCol(udn, hs, udn._cs);
+      if (s == null) {
+        udn.do_not_split();
+        return;
+      }
+      if (_tree._candidates == null) _tree._candidates = new PriorityQueue<>();
+      _tree._candidates.add(new DTree.SplitCandidate(udn, hs, s));
+    }
+
+    // Splits the candidates of the whole tree with the best gain, at most LOSSGUIDE_BATCH of them (all of them with no
+    // leaf limit) and as many as fit into the leaf budget, within the depth limit.  Their children are histogrammed in
+    // the next pass, and compete with the candidates left, kept with their histograms: a deep leaf with a high gain
+    // is split before a shallow one.
+    private void splitBestCandidates(int maxLeaves, List<DTree.DecidedNode> splits, List<DHistogram[]> splitHs) {
+      final int batch = maxLeaves == Integer.MAX_VALUE ? Integer.MAX_VALUE : LOSSGUIDE_BATCH;
+      int nsplits = 0;
+      while (_tree._candidates != null && !_tree._candidates.isEmpty() && _tree._nsplits + 1 < maxLeaves && nsplits < batch) {
+        DTree.SplitCandidate c = _tree._candidates.poll();
+        int depth = _tree.depth(c._udn._nid);
+        if (depth >= _tree._parms._max_depth) continue; // Stays a leaf
+        DTree.DecidedNode dn = _st.makeDecided(c._udn, c._hs, c._udn._cs, c._split);
+        _did_split = true;
+        _tree._nsplits++;
+        nsplits++;
+        _tree._depth = Math.max(_tree._depth, depth + 1);
+        addImprovement(dn._split);
+        splits.add(dn);
+        splitHs.add(c._hs);
+      }
+      if (nsplits == 0 || _tree._nsplits + 1 >= maxLeaves)
+        _tree._candidates = null;       // Done with the tree, the candidates left stay leaves
+    }
+
+    // Histogram subtraction: at every split, the histograms of the larger child are derived from the histograms
+    // of the parent and of the smaller child (which are accumulated), where the bins of the three line up.
+
+    // Marks the columns of the larger children whose histograms can be derived, keeps the parent histograms
+    private void retainParentHistograms(List<DTree.DecidedNode> splits, List<DHistogram[]> splitHs, int tmax) {
+      long bytes = 0;
+      for (int i = 0; i < splits.size(); i++) {
+        DTree.DecidedNode dn = splits.get(i);
+        if (dn._nids[0] < tmax || dn._nids[1] < tmax) continue; // Need both children undecided
+        int large = dn._split.n0() >= dn._split.n1() ? 0 : 1;
+        DTree.UndecidedNode ludn = _tree.undecided(dn._nids[large]);
+        DTree.UndecidedNode sudn = _tree.undecided(dn._nids[1 - large]);
+        DHistogram[] phs = splitHs.get(i);
+        DHistogram[] retained = new DHistogram[phs.length];
+        int[] cols = new int[phs.length];
+        int ncols = 0;
+        for (int j = 0; j < phs.length; j++) {
+          DHistogram p = phs[j], l = ludn._hs[j], s = sudn._hs[j];
+          if (p == null || p._vals == null || l == null || s == null) continue;
+          if (p._vals_dim != 3 || l._vals_dim != 3 || s._vals_dim != 3) continue; // Per-node predictions of constraints
+          if (!scores(ludn, j) || !scores(sudn, j)) continue;
+          long sz = 8L * p._vals.length;
+          if (bytes + sz > SUBTRACTION_MAX_BYTES) continue;
+          int alignment = p.alignment();
+          if (alignment == DHistogram.NOT_ALIGNED || l.alignment() != alignment || s.alignment() != alignment) continue;
+          Vec v = _fr2.vec(j);
+          if (v.pinfs() + v.ninfs() > 0) continue;
+          bytes += sz;
+          retained[j] = p;
+          cols[ncols++] = j;
+        }
+        if (ncols == 0) continue;
+        ludn._derivedCols = Arrays.copyOf(cols, ncols);
+        ludn._parentHs = retained;
+        ludn._sibling = sudn._nid;
+      }
+    }
+
+    // Exclusive feature bundling: wherever two or more columns of a bundle are histogrammed at a node, a single
+    // histogram of the bundle codes takes the place of theirs (in the slot of the first of them) in the pass
+
+    // Swaps the histograms of the bundled columns for their bundles' histograms, keeps them aside
+    private DHistogram[][] bundleHistograms(DHistogram[][] hcs) {
+      final FeatureBundles fb = _st._bundles;
+      final int leafOffset = _leafOffsets[_k];
+      DHistogram[][] res = hcs.clone();
+      _bundled = new DHistogram[hcs.length][];
+      for (int n = 0; n < hcs.length; n++) {
+        DTree.UndecidedNode udn = _tree.undecided(n + leafOffset);
+        DHistogram[] hs = hcs[n];
+        for (int b = 0; b < fb.size(); b++) {
+          int[] cols = new int[fb._cols[b].length];
+          int ncols = 0;
+          for (int j : fb._cols[b]) {
+            DHistogram h = hs[j];
+            if (h == null || h._vals != null || !scores(udn, j)) continue;
+            if (udn._derivedCols != null && ArrayUtils.find(udn._derivedCols, j) >= 0) continue;
+            if (h.alignment() != DHistogram.UNIT_BINS) continue;
+            cols[ncols++] = j;
+          }
+          if (ncols < 2) continue;
+          if (_bundled[n] == null) {
+            _bundled[n] = new DHistogram[hs.length];
+            res[n] = hs = hs.clone();
+          }
+          for (int i = 0; i < ncols; i++) {
+            _bundled[n][cols[i]] = hs[cols[i]];
+            hs[cols[i]] = null;
+          }
+          hs[cols[0]] = DHistogram.bundle(b, fb._nbins[b], udn._cs);
+        }
+      }
+      return res;
+    }
+
+    // Puts the histograms of the bundled columns back, filled from their bundles' histograms
+    private void unbundleHistograms(DHistogram[][] hcs) {
+      final FeatureBundles fb = _st._bundles;
+      for (int n = 0; n < hcs.length; n++) {
+        DHistogram[] bundled = _bundled[n];
+        if (bundled == null) continue;
+        DHistogram[] hs = hcs[n];
+        for (int b = 0; b < fb.size(); b++) {
+          final int[] cols = fb._cols[b];
+          DHistogram bh = null;
+          for (int j : cols)
+            if (bundled[j] != null) {
+              bh = hs[j];
+              break;
+            }
+          if (bh == null) continue;
+          assert bh._bundle == b;
+          for (int i = 0; i < cols.length; i++) {
+            DHistogram h = bundled[cols[i]];
+            if (h == null) continue;
+            h.unbundle(bh, fb._offsets[b][i]);
+            hs[cols[i]] = h;
+          }
+        }
+      }
+      _bundled = null;
+    }
+
+    private static boolean scores(DTree.UndecidedNode udn, int col) {
+      return udn._scoreCols == null || ArrayUtils.find(udn._scoreCols, col) >= 0;
+    }
+
+    // Fills the histograms of the columns that were not accumulated, the parent's minus the sibling's
+    private void deriveHistograms(DTree.UndecidedNode udn, DHistogram[][] hcs, int leafOffset) {
+      if (udn._derivedCols == null) return;
+      DHistogram[] hs = hcs[udn._nid - leafOffset], shs = hcs[udn._sibling - leafOffset];
+      for (int j : udn._derivedCols)
+        hs[j].subtract(udn._parentHs[j], shs[j]);
+      udn._parentHs = null;
     }
   }
 
@@ -621,6 +860,8 @@ public abstract class SharedTree<
   // Wish I could name the array elements nicer...
   protected int idx_weight(   ) { return _model._output.weightsIdx(); }
   protected int idx_offset(   ) { return _model._output.offsetIdx(); }
+  // Weights the histograms are built with, the weights column unless the builder reweights the sampled rows
+  protected int idx_tree_weight() { return idx_weight(); }
   protected int idx_resp(     ) { return _model._output.responseIdx(); }
   protected int idx_tree(int c) { return _ncols+(isSupervised()?1:0)+c+numSpecialCols(); }
   protected int idx_work(int c) { return idx_tree(c) + _nclass; }
@@ -670,11 +911,23 @@ public abstract class SharedTree<
     return data;
   }
 
+  /**
+   * Maximum number of leaves of a tree grown by split gain: every pass over the data splits the leaves of the tree
+   * with the best gain, {@link #LOSSGUIDE_BATCH} at most, instead of all the leaves of the level; 0 for level-wise
+   * growth.
+   */
+  protected int maxLeaves() { return 0; }
+
   // Builder-specific decision node
   protected DTree.DecidedNode makeDecided( DTree.UndecidedNode udn, DHistogram hs[], Constraints cs ) {
     return new DTree.DecidedNode(udn, hs, cs);
   }
 
+  // Decision node of a split found already (leaf-wise growth)
+  protected DTree.DecidedNode makeDecided( DTree.UndecidedNode udn, DHistogram hs[], Constraints cs, DTree.Split split ) {
+    return new DTree.DecidedNode(udn, hs, cs, split);
+  }
+
   // Read the 'tree' columns, do model-specific math and put the results in the
   // fs[] array, and return the sum.  Dividing any fs[] element by the sum
   // turns the results into a probability distribution.
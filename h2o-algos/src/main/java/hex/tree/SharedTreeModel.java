@@ -64,6 +64,12 @@ public abstract class SharedTreeModel<
 
     public int _nbins_top_level = 1<<10; //hardcoded maximum top-level number of bins for real-valued columns
 
+    public boolean _prebin = false; // Quantize the numeric predictors into global bin codes once, build the histograms from the codes
+
+    public boolean _histogram_subtraction = false; // Derive the histograms of the larger child node as the parent's minus the smaller child's
+
+    public boolean _bundle_sparse = false; // Accumulate the histograms of mutually exclusive sparse columns as a single histogram per bundle
+
     public boolean _build_tree_one_node = false;
 
     public int _score_tree_interval = 0; // score every so many trees (no matter what)
@@ -44,6 +44,9 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
     return nModelsInParallel(folds, 2);
   }
 
+  // Column of the GOSS weights of the rows sampled for the current trees, -1 unless sample_strategy is goss
+  private transient int _gossWeightsIdx = -1;
+
   /** Start the GBM training Job on an F/J thread. */
   @Override protected GBMDriver trainModelImpl() {
     return new GBMDriver();
@@ -176,6 +179,18 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
       error("_max_abs_leafnode_pred", "max_abs_leafnode_pred must be larger than 0.");
     if (_parms._pred_noise_bandwidth < 0)
       error("_pred_noise_bandwidth", "pred_noise_bandwidth must be >= 0.");
+    if (_parms._max_leaves < 0 || _parms._max_leaves == 1)
+      error("_max_leaves", "max_leaves must be 0 (no limit) or > 1.");
+    else if (_parms._max_leaves > 0 && _parms._grow_policy != GBMModel.GBMParameters.GrowPolicy.lossguide)
+      warn("_max_leaves", "max_leaves is ignored with grow_policy " + _parms._grow_policy + ", it applies to lossguide only.");
+    if (_parms._sample_strategy == GBMModel.GBMParameters.SampleStrategy.goss) {
+      if (!(0 <= _parms._goss_top_rate && _parms._goss_top_rate < 1))
+        error("_goss_top_rate", "goss_top_rate must be between 0 (inclusive) and 1 (exclusive).");
+      if (!(0 < _parms._goss_other_rate && _parms._goss_top_rate + _parms._goss_other_rate <= 1))
+        error("_goss_other_rate", "goss_other_rate must be larger than 0, and goss_top_rate + goss_other_rate must be at most 1.");
+      if (_parms._sample_rate < 1 || _parms._sample_rate_per_class != null)
+        error("_sample_strategy", "sample_strategy goss cannot be combined with sample_rate or sample_rate_per_class.");
+    }
 
     if ((_train != null) && (_parms._monotone_constraints != null)) {
       TreeUtils.checkMonotoneConstraints(this, _train, _parms._monotone_constraints);
@@ -185,6 +200,7 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
   // ----------------------
   private class GBMDriver extends Driver {
     private transient FrameMap frameMap;
+    private transient FrameMap sampleFrameMap; // frameMap with the GOSS weights in place of the weights column
 
     @Override
     protected Frame makeValidWorkspace() {
@@ -199,6 +215,13 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
     @Override protected boolean doOOBScoring() { return false; }
     @Override protected void initializeModelSpecifics() {
       frameMap = new FrameMap(GBM.this);
+      sampleFrameMap = frameMap;
+      if (_parms._sample_strategy == GBMModel.GBMParameters.SampleStrategy.goss) {
+        _train.add("GOSS_Weights", _train.anyVec().makeVolatileDoubles(1)[0]);
+        _gossWeightsIdx = _train.numCols() - 1;
+        sampleFrameMap = new FrameMap(GBM.this);
+        sampleFrameMap.weightIndex = _gossWeightsIdx;
+      }
       _mtry_per_tree = Math.max(1, (int)(_parms._col_sample_rate_per_tree * _ncols)); //per-tree
       if (!(1 <= _mtry_per_tree && _mtry_per_tree <= _ncols)) throw new IllegalArgumentException("Computed mtry_per_tree should be in interval <1,"+_ncols+"> but it is " + _mtry_per_tree);
       _mtry = Math.max(1, (int)(_parms._col_sample_rate * _parms._col_sample_rate_per_tree * _ncols)); //per-split
@@ -355,6 +378,9 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
       // Compute predictions and resulting residuals
       // ESL2, page 387, Steps 2a, 2b
       // fills "Work" columns for all rows (incl. OOB) with the residuals
+      // GOSS: also histogram the absolute gradients, to find the rows with the largest ones
+      final boolean goss = _gossWeightsIdx >= 0;
+      double[] absGradHisto;
       double huberDelta = Double.NaN;
       if (_parms._distribution == DistributionFamily.huber) {
         // Jerome Friedman 1999: Greedy Function Approximation: A Gradient Boosting Machine
@@ -365,11 +391,11 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
         huberDelta = MathUtils.computeWeightedQuantile(_weights, diff, _parms._huber_alpha);
         distributionImpl.setHuberDelta(huberDelta);
         // now compute residuals using the gradient of the huber loss (with a globally adjusted delta)
-        new StoreResiduals(frameMap, distributionImpl).doAll(_train, _parms._build_tree_one_node);
+        absGradHisto = new StoreResiduals(frameMap, distributionImpl, goss).doAll(_train, _parms._build_tree_one_node)._absGradHisto;
       } else {
         // compute predictions and residuals in one shot
-        new ComputePredAndRes(frameMap, _nclass, _model._output._distribution, distributionImpl)
-            .doAll(_train, _parms._build_tree_one_node);
+        absGradHisto = new ComputePredAndRes(frameMap, _nclass, _model._output._distribution, distributionImpl, goss)
+            .doAll(_train, _parms._build_tree_one_node)._absGradHisto;
       }
       for (int k = 0; k < _nclass; k++) {
         if (DEV_DEBUG && ktrees[k]!=null) {
@@ -382,7 +408,7 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
       // One Big Loop till the ktrees are of proper depth.
       // Adds a layer to the trees each pass.
       Constraints cs = _parms.constraints(_train);
-      growTrees(ktrees, leaves, _rand, cs);
+      growTrees(ktrees, leaves, _rand, cs, absGradHisto);
       for (int k = 0; k < _nclass; k++) {
         if (DEV_DEBUG && ktrees[k]!=null) {
           System.out.println("Grew trees. Updated NIDs for class " + k + ":\n" + new Frame(new String[]{"NIDS"},new Vec[]{vec_nids(_train, k)}).toTwoDimTable());
@@ -392,7 +418,7 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
       // ----
       // ESL2, page 387.  Step 2b iii.  Compute the gammas (leaf node predictions === fit best constant), and store them back
       // into the tree leaves.  Includes learn_rate.
-      GammaPass gp = new GammaPass(frameMap, ktrees, leaves, distributionImpl, _nclass);
+      GammaPass gp = new GammaPass(sampleFrameMap, ktrees, leaves, distributionImpl, _nclass);
       gp.doAll(_train);
       if (_parms._distribution == DistributionFamily.laplace) {
         fitBestConstantsQuantile(ktrees, leaves[0], 0.5); //special case for Laplace: compute the median for each leaf node and store that as prediction
@@ -454,8 +480,9 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
      * @param ktrees k trees to grow (must be properly initialized)
      * @param leaves workspace to store the leaf node starting index (k-dimensional - one per tree)
      * @param rand PRNG for reproducibility
+     * @param absGradHisto histogram of the absolute gradients of the rows (see {@link #gradientBin}), GOSS only
      */
-    private void growTrees(DTree[] ktrees, int[] leaves, Random rand, Constraints cs) {
+    private void growTrees(DTree[] ktrees, int[] leaves, Random rand, Constraints cs, double[] absGradHisto) {
       // Initial set of histograms.  All trees; one leaf per tree (the root
       // leaf); all columns
       DHistogram hcs[][][] = new DHistogram[_nclass][1/*just root leaf*/][_ncols];
@@ -488,14 +515,24 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
             }
           }
         }
+      } else if (_gossWeightsIdx >= 0) {
+        // GOSS - keep the rows with the largest gradients, sample the rest and amplify their weights
+        int topBin = topGradientBin(absGradHisto, _parms._goss_top_rate);
+        double otherRate = Math.min(1, _parms._goss_other_rate / (1 - _parms._goss_top_rate));
+        new GossSample(frameMap, _gossWeightsIdx, ktrees, rseed, topBin, otherRate).doAll(_train, _parms._build_tree_one_node);
+        if (DEV_DEBUG) {
+          System.out.println("GOSS sampled OOB rows. NIDS:\n" + new Frame(vec_nids(_train, 0)).toTwoDimTable());
+        }
       }
 
       // ----
       // ESL2, page 387.  Step 2b ii.
       // One Big Loop till the ktrees are of proper depth.
-      // Adds a layer to the trees each pass.
+      // Adds a layer to the trees each pass (grow_policy lossguide: splits the leaves of every tree with the best split
+      // gain, a batch per pass, till max_leaves; the depth of the leaves is checked as they are split).
+      final boolean lossguide = maxLeaves() > 0;
       int depth = 0;
-      for (; depth < _parms._max_depth; depth++) {
+      for (; lossguide || depth < _parms._max_depth; depth++) {
         hcs = buildLayer(_train, _parms._nbins, _parms._nbins_cats, ktrees, leaves, hcs, _parms._build_tree_one_node);
         // If we did not make any new splits, then the tree is split-to-death
         if (hcs == null) break;
@@ -808,11 +845,14 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
     private int nclass;
     private boolean[] out;
     private Distribution dist;
+    private boolean gradHisto;
+    double[] _absGradHisto; // Weights of the rows per absolute gradient bin (GOSS)
 
-    public ComputePredAndRes(FrameMap frameMap, int nClasses, double[] outputDistribution, Distribution distribution) {
+    public ComputePredAndRes(FrameMap frameMap, int nClasses, double[] outputDistribution, Distribution distribution, boolean absGradHisto) {
       fm = frameMap;
       nclass = nClasses;
       dist = distribution;
+      gradHisto = absGradHisto;
       out = new boolean[outputDistribution.length];
       for (int i = 0; i < out.length; i++) out[i] = (outputDistribution[i] != 0);
     }
@@ -825,6 +865,7 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
       C8DVolatileChunk wk = (C8DVolatileChunk) chks[fm.work0Index]; // Place to store residuals
       Chunk weights = fm.weightIndex >= 0 ? chks[fm.weightIndex] : new C0DChunk(1, chks[0]._len);
       double[] fs = nclass > 1 ? new double[nclass + 1] : null;
+      if (gradHisto) _absGradHisto = new double[GRADIENT_BINS];
       for (int row = 0; row < wk._len; row++) {
         double weight = weights.atd(row);
         if (weight == 0) continue;
@@ -850,8 +891,15 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
         } else {
           wk.getValues()[row] = ((float) dist.negHalfGradient(y, f));
         }
+        if (gradHisto)
+          _absGradHisto[gradientBin(absGradient(chks, fm.work0Index, out, row))] += weight;
       }
     }
+
+    @Override
+    public void reduce(ComputePredAndRes mrt) {
+      _absGradHisto = ArrayUtils.add(_absGradHisto, mrt._absGradHisto);
+    }
   }
 
 
@@ -1016,10 +1064,13 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
   private static class StoreResiduals extends MRTask<StoreResiduals> {
     private FrameMap fm;
     private Distribution dist;
+    private boolean gradHisto;
+    double[] _absGradHisto; // Weights of the rows per absolute gradient bin (GOSS)
 
-    public StoreResiduals(FrameMap frameMap, Distribution distribution) {
+    public StoreResiduals(FrameMap frameMap, Distribution distribution, boolean absGradHisto) {
       fm = frameMap;
       dist = distribution;
+      gradHisto = absGradHisto;
     }
 
     @Override
@@ -1034,6 +1085,7 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
       Chunk preds = chks[fm.tree0Index];  // Prior tree sums
       C8DVolatileChunk wk = (C8DVolatileChunk) chks[fm.work0Index]; // Place to store residuals
       Chunk weights = fm.weightIndex >= 0 ? chks[fm.weightIndex] : new C0DChunk(1, chks[0]._len);
+      if (gradHisto) _absGradHisto = new double[GRADIENT_BINS];
       for (int row = 0; row < wk._len; row++) {
         double weight = weights.atd(row);
         if (weight == 0) continue;
@@ -1041,6 +1093,108 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
         double f = preds.atd(row) + offset.atd(row);
         double y = ys.atd(row);
         wk.getValues()[row] = ((float) dist.negHalfGradient(y, f));
+        if (gradHisto)
+          _absGradHisto[gradientBin(Math.abs(wk.getValues()[row]))] += weight;
+      }
+    }
+
+    @Override
+    public void reduce(StoreResiduals mrt) {
+      _absGradHisto = ArrayUtils.add(_absGradHisto, mrt._absGradHisto);
+    }
+  }
+
+
+  // GOSS: the absolute gradients are histogrammed by the top bits of their float representation - the exponent and
+  // 3 bits of the mantissa, i.e. 8 bins per power of 2.  The bins are ordered like the (non-negative) gradients.
+  static final int GRADIENT_BINS = 1 << 12;
+
+  static int gradientBin(double absGrad) {
+    return Float.floatToRawIntBits((float) absGrad) >>> 20;
+  }
+
+  // First bin of the rows with the largest absolute gradients, holding at least the given share of the total weight
+  static int topGradientBin(double[] absGradHisto, double topRate) {
+    double total = 0;
+    for (double w : absGradHisto) total += w;
+    double top = 0;
+    int bin = absGradHisto.length;
+    while (bin > 0 && top < topRate * total)
+      top += absGradHisto[--bin];
+    return bin;
+  }
+
+  // Absolute gradient of a row, summed over the class trees
+  private static double absGradient(Chunk[] chks, int work0Index, boolean[] trees, int row) {
+    double g = 0;
+    for (int k = 0; k < trees.length; k++)
+      if (trees[k]) g += Math.abs(((C8DVolatileChunk) chks[work0Index + k]).getValues()[row]);
+    return g;
+  }
+
+
+  /**
+   * Gradient-based one-side sampling (GOSS)
+   * Keeps the rows in the top absolute gradient bins, samples the other rows at the given rate and flags the rows not
+   * sampled as OUT_OF_BAG in the nids of every class tree.  The weights of the sampled other rows are amplified by
+   * 1/rate in the GOSS weights column, so that they stand in for the rows not sampled.  Seeding is independent of
+   * chunking, like {@link Sample}.
+   */
+  static class GossSample extends MRTask<GossSample> {
+    private final FrameMap fm;
+    private final int _gossWeightsIdx;
+    private final boolean[] _trees;
+    private final long _seed;
+    private final int _topBin;
+    private final double _otherRate;
+
+    GossSample(FrameMap frameMap, int gossWeightsIdx, DTree[] trees, long seed, int topBin, double otherRate) {
+      fm = frameMap;
+      _gossWeightsIdx = gossWeightsIdx;
+      _trees = new boolean[trees.length];
+      for (int k = 0; k < trees.length; k++) _trees[k] = trees[k] != null;
+      _seed = seed;
+      _topBin = topBin;
+      _otherRate = otherRate;
+    }
+
+    // Samples the rows of a single tree, for the tests
+    GossSample(int responseIdx, int workIdx, int nidsIdx, int gossWeightsIdx, long seed, int topBin, double otherRate) {
+      fm = new FrameMap();
+      fm.responseIndex = responseIdx;
+      fm.weightIndex = -1;
+      fm.work0Index = workIdx;
+      fm.nids0Index = nidsIdx;
+      _gossWeightsIdx = gossWeightsIdx;
+      _trees = new boolean[]{true};
+      _seed = seed;
+      _topBin = topBin;
+      _otherRate = otherRate;
+    }
+
+    @Override
+    protected boolean modifiesVolatileVecs() {
+      return true;
+    }
+
+    @Override
+    public void map(Chunk[] chks) {
+      final Chunk ys = chks[fm.responseIndex];
+      final Chunk weights = fm.weightIndex >= 0 ? chks[fm.weightIndex] : new C0DChunk(1, chks[0]._len);
+      final double[] gw = ((C8DVolatileChunk) chks[_gossWeightsIdx]).getValues();
+      Random rand = RandomUtils.getRNG(_seed);
+      for (int row = 0; row < gw.length; row++) {
+        double w = weights.atd(row);
+        gw[row] = w;
+        boolean skip = w == 0 || ys.isNA(row);
+        if (!skip && gradientBin(absGradient(chks, fm.work0Index, _trees, row)) < _topBin) {
+          rand.setSeed(_seed + row + chks[0].start()); //seeding is independent of chunking
+          skip = rand.nextFloat() >= _otherRate;
+          if (!skip) gw[row] = w / _otherRate;
+        }
+        if (skip)
+          for (int k = 0; k < _trees.length; k++)
+            if (_trees[k]) ((C4VolatileChunk) chks[fm.nids0Index + k]).getValues()[row] = ScoreBuildHistogram.OUT_OF_BAG;
       }
     }
   }
@@ -1244,6 +1398,15 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
     return score1static(chks, idx_tree(0), offset, fs, row, DistributionFactory.getDistribution(_parms), _nclass);
   }
 
+  @Override protected int maxLeaves() {
+    if (_parms._grow_policy != GBMModel.GBMParameters.GrowPolicy.lossguide) return 0;
+    return _parms._max_leaves > 0 ? _parms._max_leaves : Integer.MAX_VALUE;
+  }
+
+  @Override protected int idx_tree_weight() {
+    return _gossWeightsIdx >= 0 ? _gossWeightsIdx : idx_weight();
+  }
+
   // Read the 'tree' columns, do model-specific math and put the results in the
   // fs[] array, and return the sum.  Dividing any fs[] element by the sum
   // turns the results into a probability distribution.
@@ -27,6 +27,15 @@ public class GBMModel extends SharedTreeModelWithContributions<GBMModel, GBMMode
     public double _pred_noise_bandwidth;
     public KeyValue[] _monotone_constraints;
 
+    public enum GrowPolicy { depthwise, lossguide }
+    public GrowPolicy _grow_policy = GrowPolicy.depthwise; // depthwise: level by level, lossguide: the leaves with the best split gain first
+    public int _max_leaves = 0; // Leaves per tree for grow_policy lossguide, 0 for no limit (max_depth still applies)
+
+    public enum SampleStrategy { uniform, goss }
+    public SampleStrategy _sample_strategy = SampleStrategy.uniform; // uniform: sample_rate(_per_class), goss: gradient-based one-side sampling
+    public double _goss_top_rate = 0.2; // Share of the rows with the largest absolute gradients every tree keeps (goss)
+    public double _goss_other_rate = 0.1; // Share of all rows sampled at random from the rest, with amplified weights (goss)
+
     public GBMParameters() {
       super();
       _learn_rate = 0.1;
@@ -1,5 +1,6 @@
 package hex.mojo;
 
+import hex.genmodel.MojoModel;
 import hex.genmodel.tools.PredictCsv;
 import hex.tree.gbm.GBM;
 import hex.tree.gbm.GBMModel;
@@ -17,7 +18,10 @@ import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.security.Permission;
+import java.util.List;
 
 import static org.junit.Assert.*;
 
@@ -140,6 +144,93 @@ public class PredictCsvTest extends TestUtil{
   }
 
 
+  @Test
+  public void testParallelScoringMatchesSequential() throws Exception {
+    try {
+      Scope.enter();
+      Frame train = Scope.track(TestUtil.parse_test_file("smalldata/junit/iris.csv"));
+
+      GBMModel.GBMParameters p = new GBMModel.GBMParameters();
+      p._train = train._key;
+      p._seed = 0xC0DE;
+      p._response_column = "class";
+      p._ntrees = 5;
+
+      GBMModel model = new GBM(p).trainModel().get();
+      Scope.track_generic(model);
+      MojoModel mojo = model.toMojo();
+      String input = TestUtil.makeNfsFileVec("smalldata/junit/iris.csv").getPath();
+
+      final File sequentialOutput = folder.newFile();
+      PredictCsv.make(new String[]{"--embedded", "--input", input,
+              "--output", sequentialOutput.getAbsolutePath()}, mojo).run();
+      // 150 rows in blocks of 7 rows, more blocks than the scoring threads can have in flight
+      final File parallelOutput = folder.newFile();
+      PredictCsv.make(new String[]{"--embedded", "--input", input,
+              "--output", parallelOutput.getAbsolutePath(), "--threads", "3", "--blockSize", "7"}, mojo).run();
+
+      List<String> expected = Files.readAllLines(sequentialOutput.toPath(), StandardCharsets.UTF_8);
+      assertEquals(151, expected.size());
+      assertEquals(expected, Files.readAllLines(parallelOutput.toPath(), StandardCharsets.UTF_8));
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void testParallelScoringReportsTheFailingLine() throws Exception {
+    final PrintStream originalOutputStream = System.out;
+    String predictCsvOutput = null;
+    try {
+      Scope.enter();
+      Frame train = Scope.track(TestUtil.parse_test_file("smalldata/junit/iris.csv"));
+
+      GBMModel.GBMParameters p = new GBMModel.GBMParameters();
+      p._train = train._key;
+      p._seed = 0xC0DE;
+      p._response_column = "class";
+      p._ntrees = 1;
+
+      GBMModel model = new GBM(p).trainModel().get();
+      Scope.track_generic(model);
+      MojoModel mojo = model.toMojo();
+      // The 10th row, in the 2nd block of 7 rows, is not a number
+      List<String> lines = Files.readAllLines(new File(TestUtil.makeNfsFileVec("smalldata/junit/iris.csv").getPath()).toPath(),
+              StandardCharsets.UTF_8);
+      lines.set(10, "abc" + lines.get(10).substring(lines.get(10).indexOf(',')));
+      final File input = folder.newFile();
+      Files.write(input.toPath(), lines, StandardCharsets.UTF_8);
+
+      ByteArrayOutputStream outputBytes = new ByteArrayOutputStream();
+      System.setOut(new PrintStream(outputBytes));
+      try {
+        PredictCsv.make(new String[]{"--embedded", "--input", input.getAbsolutePath(),
+                "--output", folder.newFile().getAbsolutePath(), "--threads", "3", "--blockSize", "7"}, mojo).run();
+        fail("Expected PredictCSV to exit");
+      } catch (PreventedExitException e) {
+        assertEquals(1, e.status);
+      }
+      predictCsvOutput = new String(outputBytes.toByteArray());
+      assertTrue(predictCsvOutput.contains("Caught exception on line 10" + System.lineSeparator()));
+    } finally {
+      System.setOut(originalOutputStream);
+      System.out.print(predictCsvOutput);
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void testThreadsAndBlockSizeMustBePositive() {
+    for (String[] args : new String[][]{{"--threads", "0"}, {"--threads", "-2"}, {"--blockSize", "0"}}) {
+      try {
+        PredictCsv.make(new String[]{"--embedded", args[0], args[1]}, null);
+        fail("Expected PredictCSV to exit for " + args[0] + " " + args[1]);
+      } catch (PreventedExitException e) {
+        assertEquals(1, e.status);
+      }
+    }
+  }
+
   protected static class PreventedExitException extends SecurityException {
     public final int status;
 
@@ -0,0 +1,169 @@
+package hex.tree;
+
+import hex.tree.gbm.GBM;
+import hex.tree.gbm.GBMModel;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.DKV;
+import water.Key;
+import water.Scope;
+import water.TestUtil;
+import water.exceptions.H2OModelBuilderIllegalArgumentException;
+import water.fvec.Frame;
+import water.fvec.TestFrameBuilder;
+import water.fvec.Vec;
+
+import static org.junit.Assert.*;
+
+public class BinnedVecsTest extends TestUtil {
+
+  @BeforeClass
+  public static void setup() {
+    stall_till_cloudsize(1);
+  }
+
+  @Test
+  public void testCodesMatchHistogramBins() {
+    Scope.enter();
+    try {
+      double[] splitPts = new double[]{-1.0, -0.0d, 0.5, 1, 2, 3};
+      double[] data = new double[]{-1, -0.5, -0.0d, 0, 0.7, 1, 1.5, 2.9, 3.5, Double.NaN, Double.POSITIVE_INFINITY};
+      Vec v = Scope.track(dvec(data));
+      BinnedVecs.Binned b = BinnedVecs.acquire(v, splitPts);
+      assertNotNull(b);
+      try {
+        Vec.Reader codes = b._codes.new Reader();
+        assertTrue(codes.isNA(9));
+        assertEquals(5, codes.at8(10));
+
+        DHistogram.HistoQuantiles hq = new DHistogram.HistoQuantiles(Key.make(), splitPts, b);
+        DKV.put(hq);
+        Scope.track_generic(hq);
+        // A histogram over a part of the global bins
+        DHistogram h = new DHistogram("test", 2, 1024, (byte) 0, 0.5, 3, 0,
+                SharedTreeModel.SharedTreeParameters.HistogramType.QuantilesGlobal, 42L, hq._key, null);
+        h.init();
+        assertTrue(h.isBinned());
+        assertEquals(2, h._globalOffset);
+        for (int i : new int[]{4, 5, 6, 7})
+          assertEquals(h.bin(data[i]), codes.at8(i) - h._globalOffset);
+
+        // Same histogram from the raw values and from the bin codes
+        int[] rows = new int[]{4, 5, 6, 7, 9};
+        double[] ws = new double[]{1, 1, 1, 1, 1, 1, 1, 2, 1, 3, 1};
+        double[] ys = new double[]{0, 0, 0, 0, 1, 2, 3, 4, 0, 5, 0};
+        int[] cs = new int[data.length];
+        for (int i = 0; i < cs.length; i++) cs[i] = codes.isNA(i) ? -1 : (int) codes.at8(i);
+        DHistogram raw = new DHistogram("test", 2, 1024, (byte) 0, 0.5, 3, 0,
+                SharedTreeModel.SharedTreeParameters.HistogramType.QuantilesGlobal, 42L, hq._key, null);
+        raw.init();
+        raw.updateHisto(ws, null, data, ys, rows, rows.length, 0);
+        h.updateHistoBinned(ws, null, cs, ys, rows, rows.length, 0);
+        assertArrayEquals(raw._vals, h._vals, 0);
+        // Min/max are tracked per global bin
+        assertEquals(0.7, h.find_min(), 0);
+        assertEquals(2.9, h.find_maxIn(), 0);
+
+        // Padded bins are not a range of the global bins
+        DHistogram padded = new DHistogram("test", 20, 1024, (byte) 0, 0.5, 3, 0,
+                SharedTreeModel.SharedTreeParameters.HistogramType.QuantilesGlobal, 42L, hq._key, null);
+        padded.init();
+        assertFalse(padded.isBinned());
+      } finally {
+        BinnedVecs.release(b);
+      }
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void testNoCodesForDuplicateSplitPoints() {
+    Scope.enter();
+    try {
+      Vec v = Scope.track(dvec(1, 2, 3));
+      assertNull(BinnedVecs.acquire(v, new double[]{1, 2, 2, 3}));
+      assertNull(BinnedVecs.acquire(v, new double[]{1}));
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void testCodesAreDroppedWithTheirColumn() throws InterruptedException {
+    Vec v = dvec(-1, -0.5, 0, 0.7, 1, 1.5, 2.9, 3.5);
+    long bytes = BinnedVecs.cachedBytes();
+    BinnedVecs.Binned b = BinnedVecs.acquire(v, new double[]{-1, 0.5, 1, 2, 3});
+    assertNotNull(b);
+    assertTrue(b._bytes > 0);
+    assertEquals(bytes + b._bytes, BinnedVecs.cachedBytes());
+    BinnedVecs.release(b);
+    assertNotNull(DKV.get(b._codes._key)); // Cached for the next model
+    v.remove();
+    // Dropped by the sweeper, nobody has to use the cache again
+    for (int i = 0; i < 30 && DKV.get(b._codes._key) != null; i++)
+      Thread.sleep(BinnedVecs.SWEEP_INTERVAL / 10);
+    assertNull(DKV.get(b._codes._key));
+    assertEquals(bytes, BinnedVecs.cachedBytes());
+  }
+
+  @Test
+  public void testPrebinnedGBMMatchesRawGBM() {
+    Scope.enter();
+    try {
+      Frame fr = new TestFrameBuilder()
+              .withName("prebinTrain")
+              .withColNames("x1", "x2", "y")
+              .withVecTypes(Vec.T_NUM, Vec.T_NUM, Vec.T_NUM)
+              .withRandomDoubleDataForCol(0, 1000, -10, 10, 1)
+              .withRandomDoubleDataForCol(1, 1000, 0, 100, 2)
+              .withRandomDoubleDataForCol(2, 1000, 0, 1, 3)
+              .build();
+      GBMModel.GBMParameters parms = new GBMModel.GBMParameters();
+      parms._train = fr._key;
+      parms._response_column = "y";
+      parms._ntrees = 5;
+      parms._max_depth = 1; // Root histograms only, their bins are the same either way
+      parms._seed = 42;
+      parms._histogram_type = SharedTreeModel.SharedTreeParameters.HistogramType.QuantilesGlobal;
+
+      GBMModel raw = new GBM(parms).trainModel().get();
+      Scope.track_generic(raw);
+      parms._prebin = true;
+      GBMModel prebinned = new GBM(parms).trainModel().get();
+      Scope.track_generic(prebinned);
+      assertEquals(raw._output._training_metrics.mse(), prebinned._output._training_metrics.mse(), 1e-10);
+
+      // The bin codes are reused by the next model
+      int cached = BinnedVecs.cached();
+      parms._max_depth = 3;
+      GBMModel deeper = new GBM(parms).trainModel().get();
+      Scope.track_generic(deeper);
+      assertEquals(cached, BinnedVecs.cached());
+    } finally {
+      Scope.exit();
+      BinnedVecs.clear();
+    }
+  }
+
+  @Test(expected = H2OModelBuilderIllegalArgumentException.class)
+  public void testPrebinRequiresGlobalQuantiles() {
+    Scope.enter();
+    try {
+      Frame fr = new TestFrameBuilder()
+              .withColNames("x", "y")
+              .withVecTypes(Vec.T_NUM, Vec.T_NUM)
+              .withRandomDoubleDataForCol(0, 100, 0, 1, 1)
+              .withRandomDoubleDataForCol(1, 100, 0, 1, 2)
+              .build();
+      GBMModel.GBMParameters parms = new GBMModel.GBMParameters();
+      parms._train = fr._key;
+      parms._response_column = "y";
+      parms._prebin = true;
+      parms._histogram_type = SharedTreeModel.SharedTreeParameters.HistogramType.UniformAdaptive;
+      new GBM(parms).trainModel();
+    } finally {
+      Scope.exit();
+    }
+  }
+}
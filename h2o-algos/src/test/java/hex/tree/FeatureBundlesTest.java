@@ -0,0 +1,188 @@
+package hex.tree;
+
+import hex.tree.gbm.GBM;
+import hex.tree.gbm.GBMModel;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.Scope;
+import water.TestUtil;
+import water.exceptions.H2OModelBuilderIllegalArgumentException;
+import water.fvec.Frame;
+import water.fvec.TestFrameBuilder;
+import water.fvec.Vec;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class FeatureBundlesTest extends TestUtil {
+
+  private static final int NROWS = 1000;
+  private static final int NSPARSE = 8;
+
+  @BeforeClass
+  public static void setup() {
+    stall_till_cloudsize(1);
+  }
+
+  private static Frame sparseFrame() {
+    return sparseFrame(new double[NSPARSE + 2][NROWS], 300, 300, 400);
+  }
+
+  // Columns s0..s7 are non-zero (1 or 2) in every 40th row each, never in the same row (unless set in the given data);
+  // x is dense
+  private static Frame sparseFrame(double[][] data, long... chunkLayout) {
+    String[] names = new String[NSPARSE + 2];
+    byte[] types = new byte[NSPARSE + 2];
+    Random rnd = new Random(42);
+    for (int r = 0; r < data[0].length; r++) {
+      int k = r % 40;
+      if (k < NSPARSE) data[k][r] = 1 + (r / 40) % 2;
+      data[NSPARSE][r] = rnd.nextDouble();
+      data[NSPARSE + 1][r] = data[NSPARSE][r] + (k < NSPARSE ? k * data[k][r] : 0) + 0.1 * rnd.nextDouble();
+    }
+    TestFrameBuilder builder = new TestFrameBuilder().withName("sparseTrain").withChunkLayout(chunkLayout);
+    for (int c = 0; c < NSPARSE + 2; c++) {
+      names[c] = c < NSPARSE ? "s" + c : c == NSPARSE ? "x" : "y";
+      types[c] = Vec.T_NUM;
+    }
+    builder.withColNames(names).withVecTypes(types);
+    for (int c = 0; c < NSPARSE + 2; c++)
+      builder.withDataForCol(c, data[c]);
+    return builder.build();
+  }
+
+  @Test
+  public void testBundleCodes() {
+    Scope.enter();
+    FeatureBundles fb = null;
+    try {
+      Frame fr = sparseFrame();
+      fb = FeatureBundles.make(fr, NSPARSE + 1, 20);
+      assertNotNull(fb);
+      assertEquals(1, fb.size());
+      assertArrayEquals(new int[]{0, 1, 2, 3, 4, 5, 6, 7}, fb._cols[0]);
+      assertArrayEquals(new int[]{1, 3, 5, 7, 9, 11, 13, 15}, fb._offsets[0]);
+      assertEquals(1 + 2 * NSPARSE, fb._nbins[0]);
+      Vec.Reader codes = fb._codes[0].new Reader();
+      for (int r = 0; r < NROWS; r++) {
+        int k = r % 40;
+        long expected = k < NSPARSE ? fb._offsets[0][k] + (long) fr.vec(k).at(r) - 1 : 0;
+        assertEquals(expected, codes.at8(r));
+      }
+    } finally {
+      if (fb != null) fb.remove();
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void testConflictOutsideOfTheSampleIsUnbundled() {
+    Scope.enter();
+    FeatureBundles fb = null;
+    try {
+      // The bundling samples the even rows: s0, s2, s4, s6 are bundled first, the densest in the sample.  s0 and s1
+      // are both non-zero in row 1 only
+      int nrows = 2 * FeatureBundles.SAMPLE_ROWS;
+      double[][] data = new double[NSPARSE + 2][nrows];
+      data[0][1] = 1;
+      Frame fr = sparseFrame(data, nrows / 2, nrows / 2);
+      fb = FeatureBundles.make(fr, NSPARSE + 1, 20);
+      assertNotNull(fb);
+      assertEquals(1, fb.size());
+      assertArrayEquals(new int[]{0, 2, 4, 6, 3, 5, 7}, fb._cols[0]);
+      assertArrayEquals(new int[]{1, 3, 5, 7, 9, 11, 13}, fb._offsets[0]);
+    } finally {
+      if (fb != null) fb.remove();
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void testSampleIsBoundedBySampledNonZeros() {
+    // Few non-zeros: the whole sample
+    assertEquals(1, FeatureBundles.stride(FeatureBundles.SAMPLE_ROWS, 1000));
+    assertEquals(10, FeatureBundles.stride(10L * FeatureBundles.SAMPLE_ROWS, 1000));
+    // 50k columns 10% dense: ~ MAX_SAMPLED_NZ sampled non-zeros instead of 500M
+    long nrows = 1000000, nz = 50000L * nrows / 10;
+    long stride = FeatureBundles.stride(nrows, nz);
+    long sampledNz = nz / stride;
+    assertTrue(sampledNz <= FeatureBundles.MAX_SAMPLED_NZ);
+    assertTrue(sampledNz > FeatureBundles.MAX_SAMPLED_NZ / 2);
+  }
+
+  @Test
+  public void testUnbundledMatchesAccumulated() {
+    double[] as = new double[]{0, 1, 0, 2, 0, 0, 1, 0, 0, 0};
+    double[] bs = new double[]{0, 0, 1, 0, 0, 1, 0, 0, 0, 1};
+    double[] ys = new double[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10};
+    double[] ws = new double[]{1, 1, 2, 1, 1, 0, 1, 1, 3, 1};
+    int[] rows = new int[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 9};
+    // Bundle codes: a at 1..2, b at 3
+    double[] codes = new double[as.length];
+    for (int r = 0; r < codes.length; r++)
+      codes[r] = as[r] != 0 ? as[r] : bs[r] != 0 ? 2 + bs[r] : 0;
+
+    DHistogram bundle = DHistogram.bundle(0, 4, null);
+    bundle.init();
+    bundle.updateHisto(ws, null, codes, ys, rows, rows.length, 0);
+
+    DHistogram a = intHisto("a", 3), b = intHisto("b", 2);
+    assertEquals(DHistogram.UNIT_BINS, a.alignment());
+    a.unbundle(bundle, 1);
+    b.unbundle(bundle, 3);
+    DHistogram ea = intHisto("a", 3), eb = intHisto("b", 2);
+    ea.init();
+    ea.updateHisto(ws, null, as, ys, rows, rows.length, 0);
+    eb.init();
+    eb.updateHisto(ws, null, bs, ys, rows, rows.length, 0);
+    assertArrayEquals(ea._vals, a._vals, 1e-12);
+    assertArrayEquals(eb._vals, b._vals, 1e-12);
+    assertEquals(ea.find_min(), a.find_min(), 0);
+    assertEquals(ea.find_maxIn(), a.find_maxIn(), 0);
+  }
+
+  private static DHistogram intHisto(String name, int maxEx) {
+    return new DHistogram(name, 20, 1024, (byte) 1, 0, maxEx, 0,
+            SharedTreeModel.SharedTreeParameters.HistogramType.UniformAdaptive, 42L, null, null);
+  }
+
+  @Test
+  public void testGBMWithBundlesMatchesGBM() {
+    Scope.enter();
+    try {
+      Frame fr = sparseFrame();
+      GBMModel.GBMParameters parms = new GBMModel.GBMParameters();
+      parms._train = fr._key;
+      parms._response_column = "y";
+      parms._ntrees = 5;
+      parms._max_depth = 5;
+      parms._seed = 42;
+
+      GBMModel plain = new GBM(parms).trainModel().get();
+      Scope.track_generic(plain);
+      parms._bundle_sparse = true;
+      GBMModel bundled = new GBM(parms).trainModel().get();
+      Scope.track_generic(bundled);
+      assertEquals(plain._output._training_metrics.mse(), bundled._output._training_metrics.mse(), 1e-6);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test(expected = H2OModelBuilderIllegalArgumentException.class)
+  public void testBundlingRequiresUniformBins() {
+    Scope.enter();
+    try {
+      Frame fr = sparseFrame();
+      GBMModel.GBMParameters parms = new GBMModel.GBMParameters();
+      parms._train = fr._key;
+      parms._response_column = "y";
+      parms._bundle_sparse = true;
+      parms._histogram_type = SharedTreeModel.SharedTreeParameters.HistogramType.QuantilesGlobal;
+      new GBM(parms).trainModel();
+    } finally {
+      Scope.exit();
+    }
+  }
+}
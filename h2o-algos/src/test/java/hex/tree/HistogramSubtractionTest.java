@@ -0,0 +1,94 @@
+package hex.tree;
+
+import hex.tree.gbm.GBM;
+import hex.tree.gbm.GBMModel;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.Scope;
+import water.TestUtil;
+import water.fvec.Frame;
+import water.fvec.TestFrameBuilder;
+import water.fvec.Vec;
+
+import static org.junit.Assert.*;
+
+public class HistogramSubtractionTest extends TestUtil {
+
+  @BeforeClass
+  public static void setup() {
+    stall_till_cloudsize(1);
+  }
+
+  private static DHistogram intHisto(double min, double maxEx) {
+    return new DHistogram("x", 20, 1024, (byte) 1, min, maxEx, 0,
+            SharedTreeModel.SharedTreeParameters.HistogramType.UniformAdaptive, 42L, null, null);
+  }
+
+  @Test
+  public void testParentMinusSiblingMatchesAccumulated() {
+    double[] xs = new double[]{0, 1, 1, 3, 4, 5, 5, 7, 9, Double.NaN, 2, 6};
+    double[] ys = new double[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12};
+    double[] ws = new double[]{1, 1, 2, 1, 1, 0, 1, 1, 3, 1, 1, 1};
+    int[] all = new int[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11};
+    int[] left = new int[]{0, 1, 2, 3, 10};
+    int[] right = new int[]{4, 5, 6, 7, 8, 9, 11}; // x >= 4, NAs go right
+
+    DHistogram parent = intHisto(0, 10);
+    assertEquals(DHistogram.UNIT_BINS, parent.alignment());
+    parent.init();
+    parent.updateHisto(ws, null, xs, ys, all, all.length, 0);
+
+    DHistogram l = intHisto(0, 4);
+    l.init();
+    l.updateHisto(ws, null, xs, ys, left, left.length, 0);
+    DHistogram expected = intHisto(4, 10);
+    expected.init();
+    expected.updateHisto(ws, null, xs, ys, right, right.length, 0);
+
+    DHistogram derived = intHisto(4, 10);
+    assertEquals(DHistogram.UNIT_BINS, derived.alignment());
+    derived.subtract(parent, l);
+    assertArrayEquals(expected._vals, derived._vals, 1e-12);
+    assertEquals(expected.find_min(), derived.find_min(), 0);
+    assertEquals(expected.find_maxIn(), derived.find_maxIn(), 0);
+  }
+
+  @Test
+  public void testUniformBinsAreNotAligned() {
+    DHistogram h = new DHistogram("x", 20, 1024, (byte) 0, 0, 100, 0,
+            SharedTreeModel.SharedTreeParameters.HistogramType.UniformAdaptive, 42L, null, null);
+    assertEquals(DHistogram.NOT_ALIGNED, h.alignment());
+    assertNull(h._vals);
+  }
+
+  @Test
+  public void testGBMWithSubtractionMatchesGBM() {
+    Scope.enter();
+    try {
+      Frame fr = new TestFrameBuilder()
+              .withName("subtractionTrain")
+              .withColNames("x1", "x2", "x3", "y")
+              .withVecTypes(Vec.T_NUM, Vec.T_NUM, Vec.T_NUM, Vec.T_NUM)
+              .withRandomIntDataForCol(0, 1000, 0, 15, 1)
+              .withRandomIntDataForCol(1, 1000, 0, 9, 2)
+              .withRandomDoubleDataForCol(2, 1000, 0, 1, 3)
+              .withRandomDoubleDataForCol(3, 1000, 0, 1, 4)
+              .build();
+      GBMModel.GBMParameters parms = new GBMModel.GBMParameters();
+      parms._train = fr._key;
+      parms._response_column = "y";
+      parms._ntrees = 5;
+      parms._max_depth = 5;
+      parms._seed = 42;
+
+      GBMModel accumulated = new GBM(parms).trainModel().get();
+      Scope.track_generic(accumulated);
+      parms._histogram_subtraction = true;
+      GBMModel subtracted = new GBM(parms).trainModel().get();
+      Scope.track_generic(subtracted);
+      assertEquals(accumulated._output._training_metrics.mse(), subtracted._output._training_metrics.mse(), 1e-6);
+    } finally {
+      Scope.exit();
+    }
+  }
+}
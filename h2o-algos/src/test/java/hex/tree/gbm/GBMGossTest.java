@@ -0,0 +1,155 @@
+package hex.tree.gbm;
+
+import hex.tree.ScoreBuildHistogram;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.Scope;
+import water.TestUtil;
+import water.exceptions.H2OModelBuilderIllegalArgumentException;
+import water.fvec.C4VolatileChunk;
+import water.fvec.C8DVolatileChunk;
+import water.fvec.Frame;
+import water.fvec.TestFrameBuilder;
+import water.fvec.Vec;
+
+import static org.junit.Assert.*;
+
+public class GBMGossTest extends TestUtil {
+
+  @BeforeClass
+  public static void setup() {
+    stall_till_cloudsize(1);
+  }
+
+  private static Frame train() {
+    return new TestFrameBuilder()
+            .withName("gossTrain")
+            .withColNames("x1", "x2", "x3", "y")
+            .withVecTypes(Vec.T_NUM, Vec.T_NUM, Vec.T_NUM, Vec.T_NUM)
+            .withRandomDoubleDataForCol(0, 1000, -10, 10, 1)
+            .withRandomIntDataForCol(1, 1000, 0, 50, 2)
+            .withRandomDoubleDataForCol(2, 1000, 0, 1, 3)
+            .withRandomDoubleDataForCol(3, 1000, 0, 1, 4)
+            .build();
+  }
+
+  private static GBMModel.GBMParameters parms(Frame fr) {
+    GBMModel.GBMParameters parms = new GBMModel.GBMParameters();
+    parms._train = fr._key;
+    parms._response_column = "y";
+    parms._ntrees = 5;
+    parms._max_depth = 4;
+    parms._seed = 42;
+    return parms;
+  }
+
+  @Test
+  public void testTopGradientBin() {
+    assertTrue(GBM.gradientBin(0) < GBM.gradientBin(1e-3));
+    assertTrue(GBM.gradientBin(1e-3) < GBM.gradientBin(0.5));
+    assertTrue(GBM.gradientBin(0.5) < GBM.gradientBin(0.6));
+    assertTrue(GBM.gradientBin(Float.MAX_VALUE) < GBM.GRADIENT_BINS);
+
+    double[] histo = new double[GBM.GRADIENT_BINS];
+    histo[GBM.gradientBin(0.1)] = 6;
+    histo[GBM.gradientBin(1)] = 3;
+    histo[GBM.gradientBin(10)] = 1;
+    assertEquals(GBM.GRADIENT_BINS, GBM.topGradientBin(histo, 0));
+    assertEquals(GBM.gradientBin(10), GBM.topGradientBin(histo, 0.1));
+    assertEquals(GBM.gradientBin(1), GBM.topGradientBin(histo, 0.2));
+    assertEquals(GBM.gradientBin(0.1), GBM.topGradientBin(histo, 0.5));
+  }
+
+  @Test
+  public void testGossSamplingAllRowsMatchesGBM() {
+    Scope.enter();
+    try {
+      GBMModel.GBMParameters parms = parms(train());
+      GBMModel uniform = new GBM(parms).trainModel().get();
+      Scope.track_generic(uniform);
+      parms._sample_strategy = GBMModel.GBMParameters.SampleStrategy.goss;
+      parms._goss_top_rate = 0.3;
+      parms._goss_other_rate = 0.7; // All the other rows, with weight 1
+      GBMModel goss = new GBM(parms).trainModel().get();
+      Scope.track_generic(goss);
+      assertEquals(uniform._output._training_metrics.mse(), goss._output._training_metrics.mse(), 1e-10);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void testGoss() {
+    Scope.enter();
+    try {
+      GBMModel.GBMParameters parms = parms(train());
+      parms._sample_strategy = GBMModel.GBMParameters.SampleStrategy.goss;
+      GBMModel goss = new GBM(parms).trainModel().get();
+      Scope.track_generic(goss);
+      GBMModel again = new GBM(parms).trainModel().get();
+      Scope.track_generic(again);
+      double mse = goss._output._training_metrics.mse();
+      assertFalse(Double.isNaN(mse));
+      assertEquals(mse, again._output._training_metrics.mse(), 0);
+
+      // The sample of a tree: the rows of the top gradients, and other_rate of all the rows sampled from the rest
+      // with their weights amplified - every power of 2 is a gradient bin of its own, the top 2 bins are top_rate
+      int n = 10000;
+      double top = parms._goss_top_rate, other = parms._goss_other_rate;
+      Frame fr = new TestFrameBuilder()
+              .withName("gossSample")
+              .withColNames("y")
+              .withVecTypes(Vec.T_NUM)
+              .withRandomDoubleDataForCol(0, n, 0, 1, 5)
+              .withChunkLayout(3000, 3000, 4000)
+              .build();
+      Vec[] work = fr.anyVec().makeVolatileDoubles(2); // Gradients and GOSS weights
+      Vec nids = fr.anyVec().makeVolatileInts(new int[]{0})[0];
+      Scope.track(new Frame(work[0], work[1], nids));
+      double[] histo = new double[GBM.GRADIENT_BINS];
+      for (int c = 0; c < fr.anyVec().nChunks(); c++) {
+        double[] gs = ((C8DVolatileChunk) work[0].chunkForChunkIdx(c)).getValues();
+        long start = fr.anyVec().espc()[c];
+        for (int r = 0; r < gs.length; r++) {
+          gs[r] = 1 << ((start + r) % 10);
+          histo[GBM.gradientBin(gs[r])]++;
+        }
+      }
+      int topBin = GBM.topGradientBin(histo, top);
+      assertEquals(GBM.gradientBin(1 << 8), topBin);
+      double otherRate = other / (1 - top);
+      new GBM.GossSample(0, 1, 2, 3, 42, topBin, otherRate).doAll(new Frame(fr.vec(0), work[0], nids, work[1]));
+      int oob = 0;
+      for (int c = 0; c < fr.anyVec().nChunks(); c++) {
+        double[] gs = ((C8DVolatileChunk) work[0].chunkForChunkIdx(c)).getValues();
+        double[] gw = ((C8DVolatileChunk) work[1].chunkForChunkIdx(c)).getValues();
+        int[] ns = ((C4VolatileChunk) nids.chunkForChunkIdx(c)).getValues();
+        for (int r = 0; r < gs.length; r++) {
+          boolean isTop = gs[r] >= 1 << 8;
+          if (ns[r] == ScoreBuildHistogram.OUT_OF_BAG) {
+            assertFalse(isTop);
+            oob++;
+          } else {
+            assertEquals(isTop ? 1 : 1 / otherRate, gw[r], 1e-12);
+          }
+        }
+      }
+      assertEquals((1 - top - other) * n, oob, 0.02 * n);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test(expected = H2OModelBuilderIllegalArgumentException.class)
+  public void testGossWithSampleRateIsInvalid() {
+    Scope.enter();
+    try {
+      GBMModel.GBMParameters parms = parms(train());
+      parms._sample_strategy = GBMModel.GBMParameters.SampleStrategy.goss;
+      parms._sample_rate = 0.5;
+      new GBM(parms).trainModel();
+    } finally {
+      Scope.exit();
+    }
+  }
+}
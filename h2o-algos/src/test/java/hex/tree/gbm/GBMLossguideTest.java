@@ -0,0 +1,126 @@
+package hex.tree.gbm;
+
+import hex.ModelBuilder;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.Scope;
+import water.TestUtil;
+import water.exceptions.H2OModelBuilderIllegalArgumentException;
+import water.fvec.Frame;
+import water.fvec.TestFrameBuilder;
+import water.fvec.Vec;
+import water.util.Log;
+
+import static org.junit.Assert.*;
+
+public class GBMLossguideTest extends TestUtil {
+
+  @BeforeClass
+  public static void setup() {
+    stall_till_cloudsize(1);
+  }
+
+  private static Frame train() {
+    return new TestFrameBuilder()
+            .withName("lossguideTrain")
+            .withColNames("x1", "x2", "x3", "y")
+            .withVecTypes(Vec.T_NUM, Vec.T_NUM, Vec.T_NUM, Vec.T_NUM)
+            .withRandomDoubleDataForCol(0, 1000, -10, 10, 1)
+            .withRandomIntDataForCol(1, 1000, 0, 50, 2)
+            .withRandomDoubleDataForCol(2, 1000, 0, 1, 3)
+            .withRandomDoubleDataForCol(3, 1000, 0, 1, 4)
+            .build();
+  }
+
+  private static GBMModel.GBMParameters parms(Frame fr) {
+    GBMModel.GBMParameters parms = new GBMModel.GBMParameters();
+    parms._train = fr._key;
+    parms._response_column = "y";
+    parms._ntrees = 5;
+    parms._max_depth = 4;
+    parms._seed = 42;
+    return parms;
+  }
+
+  @Test
+  public void testMaxLeaves() {
+    Scope.enter();
+    try {
+      // A skewed response: the split gain is in the tail of x, best-first growth keeps splitting there
+      double[] x = new double[1000];
+      double[] y = new double[x.length];
+      for (int i = 0; i < x.length; i++) {
+        x[i] = i;
+        y[i] = Math.exp(i / 50.0);
+      }
+      Frame fr = new TestFrameBuilder()
+              .withName("lossguideSkewed")
+              .withColNames("x", "y")
+              .withVecTypes(Vec.T_NUM, Vec.T_NUM)
+              .withDataForCol(0, x)
+              .withDataForCol(1, y)
+              .build();
+      GBMModel.GBMParameters parms = parms(fr);
+      parms._max_depth = 10;
+      parms._min_rows = 1;
+      parms._grow_policy = GBMModel.GBMParameters.GrowPolicy.lossguide;
+      parms._max_leaves = 32;
+      GBMModel gbm = new GBM(parms).trainModel().get();
+      Scope.track_generic(gbm);
+      assertEquals(32, gbm._output._treeStats._max_leaves);
+      assertEquals(32, gbm._output._treeStats._min_leaves);
+      // Level by level, 32 leaves are at most 5 levels deep
+      assertTrue(gbm._output._treeStats._max_depth > 5);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void testUnlimitedLeavesGrowsTheDepthwiseTrees() {
+    Scope.enter();
+    try {
+      GBMModel.GBMParameters parms = parms(train());
+      GBMModel depthwise = new GBM(parms).trainModel().get();
+      Scope.track_generic(depthwise);
+      parms._grow_policy = GBMModel.GBMParameters.GrowPolicy.lossguide;
+      GBMModel lossguide = new GBM(parms).trainModel().get();
+      Scope.track_generic(lossguide);
+      assertEquals(depthwise._output._treeStats._mean_leaves, lossguide._output._treeStats._mean_leaves, 0);
+      assertEquals(depthwise._output._treeStats._max_depth, lossguide._output._treeStats._max_depth);
+      assertEquals(depthwise._output._training_metrics.mse(), lossguide._output._training_metrics.mse(), 1e-10);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void testMaxLeavesIsIgnoredWithDepthwise() {
+    Scope.enter();
+    try {
+      GBMModel.GBMParameters parms = parms(train());
+      parms._max_leaves = 6;
+      GBM gbm = new GBM(parms);
+      boolean warned = false;
+      for (ModelBuilder.ValidationMessage vm : gbm._messages)
+        warned |= vm.log_level() == Log.WARN && vm.toString().contains("_max_leaves");
+      assertTrue(warned);
+      assertEquals(0, gbm.error_count());
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test(expected = H2OModelBuilderIllegalArgumentException.class)
+  public void testSingleLeafIsInvalid() {
+    Scope.enter();
+    try {
+      GBMModel.GBMParameters parms = parms(train());
+      parms._grow_policy = GBMModel.GBMParameters.GrowPolicy.lossguide;
+      parms._max_leaves = 1;
+      new GBM(parms).trainModel();
+    } finally {
+      Scope.exit();
+    }
+  }
+}
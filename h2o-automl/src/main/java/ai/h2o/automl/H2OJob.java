@@ -2,6 +2,7 @@ package ai.h2o.automl;
 
 import water.H2O;
 import water.Job;
+import water.JobScheduler;
 import water.Key;
 import water.Keyed;
 
@@ -19,6 +20,7 @@ public class H2OJob<T extends Keyed & H2ORunnable> {
   public H2OJob(T runnable, Key<T> key, long max_runtime_msecs) {
     _target = runnable;
     _job = new Job<>(key, _target.getClass().getName(), _target.getClass().getSimpleName() + " build");
+    _job.setQueue(JobScheduler.BATCH);
     _jobKey = _job._key;
     _job._max_runtime_msecs = max_runtime_msecs;
   }
@@ -643,6 +643,67 @@ examples = dict(
 ...                    training_frame=train,
 ...                    validation_frame=valid)
 >>> print(airlines_drf.auc(valid=True))
+""",
+    prebin="""
+>>> airlines= h2o.import_file("https://s3.amazonaws.com/h2o-public-test-data/smalldata/airlines/allyears2k_headers.zip")
+>>> airlines["Year"] = airlines["Year"].asfactor()
+>>> airlines["Month"] = airlines["Month"].asfactor()
+>>> airlines["DayOfWeek"] = airlines["DayOfWeek"].asfactor()
+>>> airlines["Cancelled"] = airlines["Cancelled"].asfactor()
+>>> airlines['FlightNum'] = airlines['FlightNum'].asfactor()
+>>> predictors = ["Origin", "Dest", "Year", "UniqueCarrier",
+...               "DayOfWeek", "Month", "Distance", "FlightNum"]
+>>> response = "IsDepDelayed"
+>>> train, valid= airlines.split_frame(ratios=[.8], seed=1234)
+>>> airlines_drf = H2ORandomForestEstimator(histogram_type="QuantilesGlobal",
+...                                         prebin=True,
+...                                         seed=1234)
+>>> airlines_drf.train(x=predictors,
+...                    y=response,
+...                    training_frame=train,
+...                    validation_frame=valid)
+>>> print(airlines_drf.auc(valid=True))
+""",
+    histogram_subtraction="""
+>>> airlines= h2o.import_file("https://s3.amazonaws.com/h2o-public-test-data/smalldata/airlines/allyears2k_headers.zip")
+>>> airlines["Year"] = airlines["Year"].asfactor()
+>>> airlines["Month"] = airlines["Month"].asfactor()
+>>> airlines["DayOfWeek"] = airlines["DayOfWeek"].asfactor()
+>>> airlines["Cancelled"] = airlines["Cancelled"].asfactor()
+>>> airlines['FlightNum'] = airlines['FlightNum'].asfactor()
+>>> predictors = ["Origin", "Dest", "Year", "UniqueCarrier",
+...               "DayOfWeek", "Month", "Distance", "FlightNum"]
+>>> response = "IsDepDelayed"
+>>> train, valid= airlines.split_frame(ratios=[.8], seed=1234)
+>>> airlines_drf = H2ORandomForestEstimator(histogram_type="QuantilesGlobal",
+...                                         prebin=True,
+...                                         histogram_subtraction=True,
+...                                         seed=1234)
+>>> airlines_drf.train(x=predictors,
+...                    y=response,
+...                    training_frame=train,
+...                    validation_frame=valid)
+>>> print(airlines_drf.auc(valid=True))
+""",
+    bundle_sparse="""
+>>> airlines= h2o.import_file("https://s3.amazonaws.com/h2o-public-test-data/smalldata/airlines/allyears2k_headers.zip")
+>>> airlines["Year"] = airlines["Year"].asfactor()
+>>> airlines["Month"] = airlines["Month"].asfactor()
+>>> airlines["DayOfWeek"] = airlines["DayOfWeek"].asfactor()
+>>> airlines["Cancelled"] = airlines["Cancelled"].asfactor()
+>>> airlines['FlightNum'] = airlines['FlightNum'].asfactor()
+>>> predictors = ["Origin", "Dest", "Year", "UniqueCarrier",
+...               "DayOfWeek", "Month", "Distance", "FlightNum"]
+>>> response = "IsDepDelayed"
+>>> train, valid= airlines.split_frame(ratios=[.8], seed=1234)
+>>> airlines_drf = H2ORandomForestEstimator(categorical_encoding="one_hot_explicit",
+...                                         bundle_sparse=True,
+...                                         seed=1234)
+>>> airlines_drf.train(x=predictors,
+...                    y=response,
+...                    training_frame=train,
+...                    validation_frame=valid)
+>>> print(airlines_drf.auc(valid=True))
 """,
     categorical_encoding="""
 >>> airlines= h2o.import_file("https://s3.amazonaws.com/h2o-public-test-data/smalldata/airlines/allyears2k_headers.zip") 
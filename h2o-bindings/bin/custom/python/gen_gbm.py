@@ -300,6 +300,48 @@ examples = dict(
 ...                training_frame=train,
 ...                validation_frame=valid)
 >>> cars_gbm.auc(valid=True)
+""",
+    grow_policy="""
+>>> airlines= h2o.import_file("https://s3.amazonaws.com/h2o-public-test-data/smalldata/airlines/allyears2k_headers.zip")
+>>> airlines["Year"] = airlines["Year"].asfactor()
+>>> airlines["Month"] = airlines["Month"].asfactor()
+>>> airlines["DayOfWeek"] = airlines["DayOfWeek"].asfactor()
+>>> airlines["Cancelled"] = airlines["Cancelled"].asfactor()
+>>> airlines['FlightNum'] = airlines['FlightNum'].asfactor()
+>>> predictors = ["Origin", "Dest", "Year", "UniqueCarrier",
+...               "DayOfWeek", "Month", "Distance", "FlightNum"]
+>>> response = "IsDepDelayed"
+>>> train, valid = airlines.split_frame(ratios=[.8], seed=1234)
+>>> airlines_gbm = H2OGradientBoostingEstimator(grow_policy="lossguide",
+...                                             max_depth=10,
+...                                             max_leaves=32,
+...                                             seed=1234)
+>>> airlines_gbm.train(x=predictors,
+...                    y=response,
+...                    training_frame=train,
+...                    validation_frame=valid)
+>>> airlines_gbm.auc(valid=True)
+""",
+    max_leaves="""
+>>> airlines= h2o.import_file("https://s3.amazonaws.com/h2o-public-test-data/smalldata/airlines/allyears2k_headers.zip")
+>>> airlines["Year"] = airlines["Year"].asfactor()
+>>> airlines["Month"] = airlines["Month"].asfactor()
+>>> airlines["DayOfWeek"] = airlines["DayOfWeek"].asfactor()
+>>> airlines["Cancelled"] = airlines["Cancelled"].asfactor()
+>>> airlines['FlightNum'] = airlines['FlightNum'].asfactor()
+>>> predictors = ["Origin", "Dest", "Year", "UniqueCarrier",
+...               "DayOfWeek", "Month", "Distance", "FlightNum"]
+>>> response = "IsDepDelayed"
+>>> train, valid = airlines.split_frame(ratios=[.8], seed=1234)
+>>> airlines_gbm = H2OGradientBoostingEstimator(grow_policy="lossguide",
+...                                             max_depth=10,
+...                                             max_leaves=32,
+...                                             seed=1234)
+>>> airlines_gbm.train(x=predictors,
+...                    y=response,
+...                    training_frame=train,
+...                    validation_frame=valid)
+>>> airlines_gbm.auc(valid=True)
 """,
     min_rows="""
 >>> cars = h2o.import_file("https://s3.amazonaws.com/h2o-public-test-data/smalldata/junit/cars_20mpg.csv")
@@ -637,6 +679,69 @@ examples = dict(
 ...               training_frame=train,
 ...               validation_frame=valid)
 >>> cov_gbm.logloss(valid=True)
+""",
+    sample_strategy="""
+>>> airlines= h2o.import_file("https://s3.amazonaws.com/h2o-public-test-data/smalldata/airlines/allyears2k_headers.zip")
+>>> airlines["Year"] = airlines["Year"].asfactor()
+>>> airlines["Month"] = airlines["Month"].asfactor()
+>>> airlines["DayOfWeek"] = airlines["DayOfWeek"].asfactor()
+>>> airlines["Cancelled"] = airlines["Cancelled"].asfactor()
+>>> airlines['FlightNum'] = airlines['FlightNum'].asfactor()
+>>> predictors = ["Origin", "Dest", "Year", "UniqueCarrier",
+...               "DayOfWeek", "Month", "Distance", "FlightNum"]
+>>> response = "IsDepDelayed"
+>>> train, valid = airlines.split_frame(ratios=[.8], seed=1234)
+>>> airlines_gbm = H2OGradientBoostingEstimator(sample_strategy="goss",
+...                                             goss_top_rate=0.2,
+...                                             goss_other_rate=0.1,
+...                                             seed=1234)
+>>> airlines_gbm.train(x=predictors,
+...                    y=response,
+...                    training_frame=train,
+...                    validation_frame=valid)
+>>> airlines_gbm.auc(valid=True)
+""",
+    goss_top_rate="""
+>>> airlines= h2o.import_file("https://s3.amazonaws.com/h2o-public-test-data/smalldata/airlines/allyears2k_headers.zip")
+>>> airlines["Year"] = airlines["Year"].asfactor()
+>>> airlines["Month"] = airlines["Month"].asfactor()
+>>> airlines["DayOfWeek"] = airlines["DayOfWeek"].asfactor()
+>>> airlines["Cancelled"] = airlines["Cancelled"].asfactor()
+>>> airlines['FlightNum'] = airlines['FlightNum'].asfactor()
+>>> predictors = ["Origin", "Dest", "Year", "UniqueCarrier",
+...               "DayOfWeek", "Month", "Distance", "FlightNum"]
+>>> response = "IsDepDelayed"
+>>> train, valid = airlines.split_frame(ratios=[.8], seed=1234)
+>>> airlines_gbm = H2OGradientBoostingEstimator(sample_strategy="goss",
+...                                             goss_top_rate=0.2,
+...                                             goss_other_rate=0.1,
+...                                             seed=1234)
+>>> airlines_gbm.train(x=predictors,
+...                    y=response,
+...                    training_frame=train,
+...                    validation_frame=valid)
+>>> airlines_gbm.auc(valid=True)
+""",
+    goss_other_rate="""
+>>> airlines= h2o.import_file("https://s3.amazonaws.com/h2o-public-test-data/smalldata/airlines/allyears2k_headers.zip")
+>>> airlines["Year"] = airlines["Year"].asfactor()
+>>> airlines["Month"] = airlines["Month"].asfactor()
+>>> airlines["DayOfWeek"] = airlines["DayOfWeek"].asfactor()
+>>> airlines["Cancelled"] = airlines["Cancelled"].asfactor()
+>>> airlines['FlightNum'] = airlines['FlightNum'].asfactor()
+>>> predictors = ["Origin", "Dest", "Year", "UniqueCarrier",
+...               "DayOfWeek", "Month", "Distance", "FlightNum"]
+>>> response = "IsDepDelayed"
+>>> train, valid = airlines.split_frame(ratios=[.8], seed=1234)
+>>> airlines_gbm = H2OGradientBoostingEstimator(sample_strategy="goss",
+...                                             goss_top_rate=0.2,
+...                                             goss_other_rate=0.1,
+...                                             seed=1234)
+>>> airlines_gbm.train(x=predictors,
+...                    y=response,
+...                    training_frame=train,
+...                    validation_frame=valid)
+>>> airlines_gbm.auc(valid=True)
 """,
     col_sample_rate="""
 >>> airlines= h2o.import_file("https://s3.amazonaws.com/h2o-public-test-data/smalldata/airlines/allyears2k_headers.zip")
@@ -727,6 +832,67 @@ examples = dict(
 ...                    training_frame=train,
 ...                    validation_frame=valid)
 >>> airlines_gbm.auc(valid=True)
+""",
+    prebin="""
+>>> airlines= h2o.import_file("https://s3.amazonaws.com/h2o-public-test-data/smalldata/airlines/allyears2k_headers.zip")
+>>> airlines["Year"] = airlines["Year"].asfactor()
+>>> airlines["Month"] = airlines["Month"].asfactor()
+>>> airlines["DayOfWeek"] = airlines["DayOfWeek"].asfactor()
+>>> airlines["Cancelled"] = airlines["Cancelled"].asfactor()
+>>> airlines['FlightNum'] = airlines['FlightNum'].asfactor()
+>>> predictors = ["Origin", "Dest", "Year", "UniqueCarrier",
+...               "DayOfWeek", "Month", "Distance", "FlightNum"]
+>>> response = "IsDepDelayed"
+>>> train, valid = airlines.split_frame(ratios=[.8], seed=1234)
+>>> airlines_gbm = H2OGradientBoostingEstimator(histogram_type="QuantilesGlobal",
+...                                             prebin=True,
+...                                             seed=1234)
+>>> airlines_gbm.train(x=predictors,
+...                    y=response,
+...                    training_frame=train,
+...                    validation_frame=valid)
+>>> airlines_gbm.auc(valid=True)
+""",
+    histogram_subtraction="""
+>>> airlines= h2o.import_file("https://s3.amazonaws.com/h2o-public-test-data/smalldata/airlines/allyears2k_headers.zip")
+>>> airlines["Year"] = airlines["Year"].asfactor()
+>>> airlines["Month"] = airlines["Month"].asfactor()
+>>> airlines["DayOfWeek"] = airlines["DayOfWeek"].asfactor()
+>>> airlines["Cancelled"] = airlines["Cancelled"].asfactor()
+>>> airlines['FlightNum'] = airlines['FlightNum'].asfactor()
+>>> predictors = ["Origin", "Dest", "Year", "UniqueCarrier",
+...               "DayOfWeek", "Month", "Distance", "FlightNum"]
+>>> response = "IsDepDelayed"
+>>> train, valid = airlines.split_frame(ratios=[.8], seed=1234)
+>>> airlines_gbm = H2OGradientBoostingEstimator(histogram_type="QuantilesGlobal",
+...                                             prebin=True,
+...                                             histogram_subtraction=True,
+...                                             seed=1234)
+>>> airlines_gbm.train(x=predictors,
+...                    y=response,
+...                    training_frame=train,
+...                    validation_frame=valid)
+>>> airlines_gbm.auc(valid=True)
+""",
+    bundle_sparse="""
+>>> airlines= h2o.import_file("https://s3.amazonaws.com/h2o-public-test-data/smalldata/airlines/allyears2k_headers.zip")
+>>> airlines["Year"] = airlines["Year"].asfactor()
+>>> airlines["Month"] = airlines["Month"].asfactor()
+>>> airlines["DayOfWeek"] = airlines["DayOfWeek"].asfactor()
+>>> airlines["Cancelled"] = airlines["Cancelled"].asfactor()
+>>> airlines['FlightNum'] = airlines['FlightNum'].asfactor()
+>>> predictors = ["Origin", "Dest", "Year", "UniqueCarrier",
+...               "DayOfWeek", "Month", "Distance", "FlightNum"]
+>>> response = "IsDepDelayed"
+>>> train, valid = airlines.split_frame(ratios=[.8], seed=1234)
+>>> airlines_gbm = H2OGradientBoostingEstimator(categorical_encoding="one_hot_explicit",
+...                                             bundle_sparse=True,
+...                                             seed=1234)
+>>> airlines_gbm.train(x=predictors,
+...                    y=response,
+...                    training_frame=train,
+...                    validation_frame=valid)
+>>> airlines_gbm.auc(valid=True)
 """,
     max_abs_leafnode_pred="""
 >>> covtype = h2o.import_file("https://s3.amazonaws.com/h2o-public-test-data/smalldata/covtype/covtype.20k.data")
@@ -0,0 +1,88 @@
+package water;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AutoBuffer serialization round trips - in memory and over the wire to a remote node.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AutoBufferBench {
+
+  @Param({"2"})
+  private int nodes;
+  @Param({"16", "4096", "1048576"})
+  private int payloadBytes;
+
+  private Payload payload;
+
+  public static class Payload extends Iced<Payload> {
+    public double[] _ds;
+    public byte[] _bs;
+    public String _s;
+    public Payload() {}
+    Payload(int bytes, Random r) {
+      _ds = new double[bytes / 16];
+      for (int i = 0; i < _ds.length; i++) _ds[i] = r.nextDouble();
+      _bs = new byte[bytes - (_ds.length << 3)];
+      r.nextBytes(_bs);
+      _s = "payload-" + bytes;
+    }
+  }
+
+  /** Sends the payload to the remote node which sends it back. */
+  public static class EchoTask extends DTask<EchoTask> {
+    public Payload _payload;
+    public EchoTask() {}
+    EchoTask(Payload payload) { _payload = payload; }
+    @Override public void compute2() { tryComplete(); }
+    @Override public boolean logVerbose() { return false; }
+  }
+
+  @Setup
+  public void setup() {
+    LocalCloud.start(nodes);
+    payload = new Payload(payloadBytes, new Random(42));
+  }
+
+  @Benchmark
+  public Payload serializeRoundTrip() {
+    byte[] bytes = new AutoBuffer().put(payload).buf();
+    return new AutoBuffer(bytes).get();
+  }
+
+  @Benchmark
+  public Payload remoteRoundTrip() {
+    return new RPC<>(LocalCloud.remoteNode(), new EchoTask(payload)).call().get()._payload;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+            .include(AutoBufferBench.class.getSimpleName())
+            .build();
+
+    new Runner(opt).run();
+  }
+
+}
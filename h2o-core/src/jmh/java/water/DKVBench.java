@@ -0,0 +1,84 @@
+package water;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import water.util.IcedInt;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DKV put/get latency for keys homed on the local node and on a remote node.  A node caches the
+ * Values of remote keys it reads: the remote get drops the cached copy first, so that every
+ * invocation fetches the Value from the home node.  putGet reads back the Value cached by the put.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DKVBench {
+
+  @Param({"2"})
+  private int nodes;
+  @Param({"local", "remote"})
+  private String home;
+
+  private Key key;
+  private boolean remote;
+  private int cnt;
+
+  @Setup
+  public void setup() {
+    LocalCloud.start(nodes);
+    remote = "remote".equals(home);
+    H2ONode node = remote ? LocalCloud.remoteNode() : H2O.SELF;
+    key = Key.make((byte) 1, Key.HIDDEN_USER_KEY, true, node);
+    DKV.put(key, new IcedInt(0));
+  }
+
+  @TearDown
+  public void tearDown() {
+    DKV.remove(key);
+  }
+
+  @Benchmark
+  public Value put() {
+    return DKV.put(key, new IcedInt(++cnt)); // blocking put, returns the old value
+  }
+
+  @Benchmark
+  public IcedInt get() {
+    if (remote) H2O.raw_remove(key); // Drop the cached copy
+    return DKV.getGet(key);
+  }
+
+  @Benchmark
+  public IcedInt putGet() {
+    DKV.put(key, new IcedInt(++cnt));
+    return DKV.getGet(key);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+            .include(DKVBench.class.getSimpleName())
+            .build();
+
+    new Runner(opt).run();
+  }
+
+}
@@ -0,0 +1,108 @@
+package water;
+
+import water.fvec.Chunk;
+import water.fvec.Frame;
+import water.fvec.Vec;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static water.TestUtil.stall_till_cloudsize;
+
+/**
+ * Multi-node H2O cloud on the loopback interface for benchmarks of the distributed runtime.
+ *
+ * The H2O runtime is static (one node per JVM), so the benchmark JVM itself is the first node
+ * and the remaining nodes are started as child JVMs with the same classpath - the same way
+ * multiNodeUtils.sh launches the multi-node test clouds. The child JVMs are killed when the
+ * benchmark JVM exits, every JMH fork therefore gets a fresh cloud.
+ *
+ * System properties:
+ *   ubench.baseport  - base port of the cloud (default 55000)
+ *   ubench.nodeXmx   - max heap of the child nodes (default 2g)
+ */
+public class LocalCloud {
+
+  private static int _size;
+  private static final List<Process> _nodes = new ArrayList<>();
+
+  /** Starts (once per JVM) a cloud of the given size and waits till it is formed. */
+  public static synchronized void start(int size) {
+    if (_size != 0) {
+      if (_size != size)
+        throw new IllegalStateException("Cloud of size " + _size + " already running, cannot resize to " + size);
+      return;
+    }
+    final String name = "ubench-" + UUID.randomUUID().toString().substring(0, 8);
+    final String basePort = System.getProperty("ubench.baseport", "55000");
+    final String[] args = new String[]{"-name", name, "-ip", "127.0.0.1", "-baseport", basePort, "-ga_opt_out"};
+    Runtime.getRuntime().addShutdownHook(new Thread() {
+      @Override public void run() { stopNodes(); }
+    });
+    try {
+      for (int i = 1; i < size; i++)
+        _nodes.add(startNode(args, i));
+    } catch (Exception e) {
+      stopNodes();
+      throw new RuntimeException("Failed to start cloud node", e);
+    }
+    stall_till_cloudsize(args, size);
+    _size = size;
+  }
+
+  /** @return the last member of the cloud - a remote node unless the cloud has a single node */
+  public static H2ONode remoteNode() {
+    H2ONode[] members = H2O.CLOUD.members();
+    return members[members.length - 1];
+  }
+
+  /**
+   * Random numeric frame spread over the cloud, columns cycle through doubles, small integers and sparse values
+   * so that the data ends up in a mix of Chunk encodings.
+   */
+  public static Frame randomFrame(int cols, long rows, final long seed) {
+    Vec v = Vec.makeCon(0, rows, true);
+    Vec[] vecs = v.makeZeros(cols);
+    v.remove();
+    new MRTask() {
+      @Override public void map(Chunk[] cs) {
+        Random r = new Random(seed + cs[0].start());
+        for (int c = 0; c < cs.length; c++)
+          for (int i = 0; i < cs[c]._len; i++) {
+            switch (c % 3) {
+              case 0: cs[c].set(i, r.nextGaussian()); break;
+              case 1: cs[c].set(i, r.nextInt(100)); break;
+              default: if (r.nextInt(20) == 0) cs[c].set(i, r.nextDouble());
+            }
+          }
+      }
+    }.doAll(vecs);
+    Frame fr = new Frame(Key.<Frame>make(), null, vecs);
+    DKV.put(fr);
+    return fr;
+  }
+
+  private static Process startNode(String[] args, int idx) throws Exception {
+    List<String> cmd = new ArrayList<>();
+    cmd.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+    cmd.add("-Xmx" + System.getProperty("ubench.nodeXmx", "2g"));
+    cmd.add("-cp");
+    cmd.add(System.getProperty("java.class.path"));
+    cmd.add("water.H2O");
+    for (String a : args) cmd.add(a);
+    File log = File.createTempFile("ubench-node-" + idx + "-", ".log");
+    return new ProcessBuilder(cmd)
+            .redirectErrorStream(true)
+            .redirectOutput(log)
+            .start();
+  }
+
+  private static synchronized void stopNodes() {
+    for (Process p : _nodes)
+      p.destroy();
+    _nodes.clear();
+  }
+}
@@ -0,0 +1,108 @@
+package water;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import water.fvec.Chunk;
+import water.fvec.Frame;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MRTask overhead: fan-out of an empty task, a scalar reduce and a reduce of a large array.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MRTaskBench {
+
+  @Param({"1", "3"})
+  private int nodes;
+  @Param({"100000", "10000000"})
+  private long rows;
+  @Param({"1000", "100000"})
+  private int reduceSize;
+
+  private Frame fr;
+
+  @Setup
+  public void setup() {
+    LocalCloud.start(nodes);
+    fr = LocalCloud.randomFrame(3, rows, 0xB1E);
+  }
+
+  @TearDown
+  public void tearDown() {
+    if (fr != null) fr.delete();
+  }
+
+  static class EmptyTask extends MRTask<EmptyTask> {
+    @Override public void map(Chunk[] cs) {}
+  }
+
+  static class SumTask extends MRTask<SumTask> {
+    double _sum;
+    @Override public void map(Chunk[] cs) {
+      for (Chunk c : cs)
+        for (int i = 0; i < c._len; i++)
+          _sum += c.atd(i);
+    }
+    @Override public void reduce(SumTask mrt) { _sum += mrt._sum; }
+  }
+
+  static class ArrayReduceTask extends MRTask<ArrayReduceTask> {
+    final int _n;
+    double[] _acc;
+    ArrayReduceTask(int n) { _n = n; }
+    @Override public void map(Chunk[] cs) {
+      _acc = new double[_n];
+      Chunk c = cs[0];
+      for (int i = 0; i < c._len; i++)
+        _acc[i % _n] += c.atd(i);
+    }
+    @Override public void reduce(ArrayReduceTask mrt) {
+      for (int i = 0; i < _n; i++)
+        _acc[i] += mrt._acc[i];
+    }
+  }
+
+  @Benchmark
+  public EmptyTask emptyFanOut() {
+    return new EmptyTask().doAll(fr);
+  }
+
+  @Benchmark
+  public double sumReduce() {
+    return new SumTask().doAll(fr)._sum;
+  }
+
+  @Benchmark
+  public double[] arrayReduce() {
+    return new ArrayReduceTask(reduceSize).doAll(fr)._acc;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+            .include(MRTaskBench.class.getSimpleName())
+            .build();
+
+    new Runner(opt).run();
+  }
+
+}
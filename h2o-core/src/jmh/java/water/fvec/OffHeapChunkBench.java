@@ -0,0 +1,72 @@
+package water.fvec;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chunk access with the payload on heap and off heap: bulk decoding (getDoubles) and the
+ * raw bytes (getBytes), which are a copy for an off-heap Chunk.
+ */
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OffHeapChunkBench {
+
+  @Param({"1000", "100000"})
+  private int rows;
+  @Param({"heap", "offheap"})
+  private String storage;
+
+  private Chunk chunk;
+  private double[] vals;
+
+  @Setup
+  public void setup() {
+    Random rnd = new Random(0xC8D);
+    NewChunk nc = new NewChunk(null, 0);
+    for (int i = 0; i < rows; i++)
+      nc.addNum(rnd.nextDouble());
+    chunk = nc.compress();
+    if ("offheap".equals(storage) && !chunk.moveOffHeap())
+      throw new IllegalStateException("Cannot move " + chunk.getClass().getSimpleName() + " off heap");
+    vals = new double[rows];
+  }
+
+  @Benchmark
+  public double[] getDoubles() {
+    return chunk.getDoubles(vals, 0, rows);
+  }
+
+  @Benchmark
+  public byte[] getBytes() {
+    return chunk.getBytes();
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+            .include(OffHeapChunkBench.class.getSimpleName())
+            .build();
+
+    new Runner(opt).run();
+  }
+
+}
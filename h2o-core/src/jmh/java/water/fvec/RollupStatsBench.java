@@ -0,0 +1,83 @@
+package water.fvec;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import water.Futures;
+import water.LocalCloud;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RollupStats computation over dense, integer and sparse columns. Every invocation invalidates
+ * the cached rollups and computes them again.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RollupStatsBench {
+
+  @Param({"1", "3"})
+  private int nodes;
+  @Param({"1000000"})
+  private long rows;
+  @Param({"0", "1", "2"}) // double, integer, sparse
+  private int col;
+
+  private Frame fr;
+  private Vec vec;
+
+  @Setup
+  public void setup() {
+    LocalCloud.start(nodes);
+    fr = LocalCloud.randomFrame(3, rows, 0xB1E);
+    vec = fr.vec(col);
+  }
+
+  @TearDown
+  public void tearDown() {
+    if (fr != null) fr.delete();
+  }
+
+  private void invalidate() {
+    vec.preWriting();
+    vec.postWrite(new Futures()).blockForPending();
+  }
+
+  @Benchmark
+  public double rollups() {
+    invalidate();
+    return vec.mean();
+  }
+
+  @Benchmark
+  public long[] rollupsWithHistogram() {
+    invalidate();
+    return vec.bins();
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+            .include(RollupStatsBench.class.getSimpleName())
+            .build();
+
+    new Runner(opt).run();
+  }
+
+}
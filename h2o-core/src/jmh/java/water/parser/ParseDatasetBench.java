@@ -0,0 +1,94 @@
+package water.parser;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import water.Key;
+import water.LocalCloud;
+import water.fvec.Frame;
+import water.fvec.NFSFileVec;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parse of a generated CSV file with numeric and categorical columns.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ParseDatasetBench {
+
+  @Param({"1", "3"})
+  private int nodes;
+  @Param({"1000000"})
+  private int rows;
+
+  private File csv;
+
+  @Setup
+  public void setup() throws IOException {
+    LocalCloud.start(nodes);
+    csv = File.createTempFile("ubench-parse-", ".csv");
+    Random r = new Random(42);
+    try (BufferedWriter w = new BufferedWriter(new FileWriter(csv))) {
+      w.write("num,int,cat,sparse");
+      w.newLine();
+      for (int i = 0; i < rows; i++) {
+        w.write(String.valueOf(r.nextGaussian()));
+        w.write(',');
+        w.write(String.valueOf(r.nextInt(1000)));
+        w.write(",level");
+        w.write(String.valueOf(r.nextInt(50)));
+        w.write(',');
+        w.write(r.nextInt(20) == 0 ? String.valueOf(r.nextDouble()) : "0");
+        w.newLine();
+      }
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    if (csv != null) csv.delete();
+  }
+
+  @Benchmark
+  public long parse() {
+    NFSFileVec nfs = NFSFileVec.make(csv);
+    Frame fr = ParseDataset.parse(Key.make(), nfs._key);
+    try {
+      return fr.numRows();
+    } finally {
+      fr.delete();
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+            .include(ParseDatasetBench.class.getSimpleName())
+            .build();
+
+    new Runner(opt).run();
+  }
+
+}
@@ -75,6 +75,7 @@ abstract public class ModelBuilder<M extends Model<M,P,O>, P extends Model.Param
   /** Unique new job and named result key */
   protected ModelBuilder(P parms, Key<M> key) {
     _job = new Job<>(_result = key, parms.javaName(), parms.algoName());
+    _job.setQueue(JobScheduler.BATCH);
     _parms = parms;
   }
 
@@ -189,6 +190,7 @@ abstract public class ModelBuilder<M extends Model<M,P,O>, P extends Model.Param
 
   public static <B extends ModelBuilder, MP extends Model.Parameters> B make(MP parms, Key<Model> mKey) {
     Job<Model> mJob = new Job<>(mKey, parms.javaName(), parms.algoName());
+    mJob.setQueue(JobScheduler.BATCH);
     B newMB = ModelBuilder.make(parms.algoName(), mJob, mKey);
     newMB._parms = parms.clone();
     return newMB;
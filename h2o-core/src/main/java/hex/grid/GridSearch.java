@@ -81,6 +81,7 @@ public final class GridSearch<MP extends Model.Parameters> extends Keyed<GridSea
     _result = gkey;
     String algoName = hyperSpaceWalker.getParams().algoName();
     _job = new Job<>(gkey, Grid.class.getName(), algoName + " Grid Search");
+    _job.setQueue(JobScheduler.BATCH);
     _parallelism = parallelism;
     // Note: do not validate parameters of created model builders here!
     // Leave it to launch time, and just mark the corresponding model builder job as failed.
@@ -9,6 +9,7 @@ import java.util.ArrayList;
 import java.util.Random;
 
 import water.network.SocketChannelUtils;
+import water.network.WireCompressionChannel;
 import water.util.Log;
 import water.util.StringUtils;
 import water.util.TwoDimTable;
@@ -671,6 +672,8 @@ public final class AutoBuffer {
         tcpOpen(); // This is a big operation.  Open a TCP socket as-needed.
       //for( int i=0; i < _bb.limit(); i++ ) if( _bb.get(i)==0 ) _zeros++;
       long ns = System.nanoTime();
+      if( _chan instanceof WireCompressionChannel ) // Frame the whole buffer, compress once the message is big enough
+        ((WireCompressionChannel) _chan).writeFrame(_bb, _size);
       while( _bb.hasRemaining() ) {
         ((WritableByteChannel) _chan).write(_bb);
         if( RANDOM_TCP_DROP != null && SocketChannelUtils.isSocketChannel(_chan) && RANDOM_TCP_DROP.nextInt(100) == 0 )
@@ -1050,7 +1053,15 @@ public final class AutoBuffer {
     int len = getInt();
     if (len == -1) return null;
     boolean[] r = new boolean[len];
-    for (int i=0;i<len;++i) r[i] = getZ();
+    int sofar = 0;
+    while( sofar < len ) {
+      int more = Math.min(_bb.remaining(), len - sofar);
+      int p = _bb.position();
+      for( int i=0; i<more; i++ ) r[sofar+i] = _bb.get(p+i)!=0;
+      _bb.position(p+more);
+      sofar += more;
+      if( sofar < len ) getSp(Math.min(_bb.capacity(), len-sofar));
+    }
     return r;
   }
 
@@ -1125,10 +1136,9 @@ public final class AutoBuffer {
     int y = getInt();           // Non-zero in the middle
     int z = y==0 ? 0 : getInt();// Trailing zeros
     long[] buf = MemoryManager.malloc8(x+y+z);
-    switch( get1U() ) {      // 1,2,4 or 8 for how the middle section is passed
-    case 1: for( int i=x; i<x+y; i++ ) buf[i] =       get1U(); return buf;
-    case 2: for( int i=x; i<x+y; i++ ) buf[i] = (short)get2(); return buf;
-    case 4: for( int i=x; i<x+y; i++ ) buf[i] =        get4(); return buf;
+    int w = get1U();            // 1,2,4 or 8 for how the middle section is passed
+    switch( w ) {
+    case 1: case 2: case 4: getA8Narrow(buf,x,x+y,w); return buf;
     case 8: break;
     default: throw H2O.fail();
     }
@@ -1144,6 +1154,23 @@ public final class AutoBuffer {
     }
     return buf;
   }
+  // Read the middle section of a long[] passed as unsigned bytes, shorts or
+  // ints; decodes whole buffer-fulls at a time.
+  private void getA8Narrow( long[] buf, int from, int to, int w ) {
+    int sofar = from;
+    while( sofar < to ) {
+      int more = Math.min(_bb.remaining()/w, to - sofar);
+      int p = _bb.position();
+      switch( w ) {
+      case 1: for( int i=0; i<more; i++ ) buf[sofar+i] = _bb.get     (p+i  )&0xFF; break;
+      case 2: for( int i=0; i<more; i++ ) buf[sofar+i] = _bb.getShort(p+i*2);      break;
+      case 4: for( int i=0; i<more; i++ ) buf[sofar+i] = _bb.getInt  (p+i*4);      break;
+      }
+      _bb.position(p+more*w);
+      sofar += more;
+      if( sofar < to ) getSp(Math.min(_bb.capacity()-(w-1), (to-sofar)*w));
+    }
+  }
   public double[] getA8d( ) {
     //_arys++;
     int len = getInt(); if( len == -1 ) return null;
@@ -1274,7 +1301,16 @@ public final class AutoBuffer {
   public AutoBuffer putAZ( boolean[] ary ) {
     if( ary == null ) return putInt(-1);
     putInt(ary.length);
-    for (boolean anAry : ary) putZ(anAry);
+    if (ary.length > _bb.remaining()) expandByteBuffer(ary.length);
+    int sofar = 0;
+    while( sofar < ary.length ) {
+      int len = Math.min(ary.length - sofar, _bb.remaining());
+      int p = _bb.position();
+      for( int i=0; i<len; i++ ) _bb.put(p+i, (byte)(ary[sofar+i]?1:0));
+      _bb.position(p+len);
+      sofar += len;
+      if( sofar < ary.length ) sendPartial();
+    }
     return this;
   }
 
@@ -1347,16 +1383,13 @@ public final class AutoBuffer {
     long min=Long.MAX_VALUE, max=Long.MIN_VALUE;
     for( int i=x; i<y; i++ ) { if( ary[i]<min ) min=ary[i]; if( ary[i]>max ) max=ary[i]; }
     if( 0 <= min && max < 256 ) { // Ship as unsigned bytes
-      put1(1);  for( int i=x; i<y; i++ ) put1((int)ary[i]);
-      return this;
+      put1(1);  return putA8Narrow(ary,x,y,1);
     }
     if( Short.MIN_VALUE <= min && max < Short.MAX_VALUE ) { // Ship as shorts
-      put1(2);  for( int i=x; i<y; i++ ) put2((short)ary[i]);
-      return this;
+      put1(2);  return putA8Narrow(ary,x,y,2);
     }
     if( Integer.MIN_VALUE <= min && max < Integer.MAX_VALUE ) { // Ship as ints
-      put1(4);  for( int i=x; i<y; i++ ) put4((int)ary[i]);
-      return this;
+      put1(4);  return putA8Narrow(ary,x,y,4);
     }
 
     put1(8);                    // Ship as full longs
@@ -1372,6 +1405,25 @@ public final class AutoBuffer {
     }
     return this;
   }
+  // Write ary[from,to) narrowed to w bytes per element; encodes whole
+  // buffer-fulls at a time instead of checking for space per element.
+  private AutoBuffer putA8Narrow( long[] ary, int from, int to, int w ) {
+    if ((to-from)*w > _bb.remaining()) expandByteBuffer((to-from)*w);
+    int sofar = from;
+    while( sofar < to ) {
+      int len = Math.min(to - sofar, _bb.remaining()/w);
+      int p = _bb.position();
+      switch( w ) {
+      case 1: for( int i=0; i<len; i++ ) _bb.put     (p+i  ,(byte) ary[sofar+i]); break;
+      case 2: for( int i=0; i<len; i++ ) _bb.putShort(p+i*2,(short)ary[sofar+i]); break;
+      case 4: for( int i=0; i<len; i++ ) _bb.putInt  (p+i*4,(int)  ary[sofar+i]); break;
+      }
+      _bb.position(p+len*w);
+      sofar += len;
+      if( sofar < to ) sendPartial();
+    }
+    return this;
+  }
   public AutoBuffer putA4f( float[] ary ) {
     //_arys++;
     if( ary == null ) return putInt(-1);
@@ -43,6 +43,28 @@ class Cleaner extends Thread {
   // Desired cache level. Set by the MemoryManager asynchronously.
   static volatile long DESIRED;
 
+  // Policy choosing which Chunks are cleaned first, lazily created from the
+  // command-line option.  Holder class: no volatile read on the Value.get()
+  // path, which records cache statistics with the policy.
+  static private class PolicyHolder {
+    static final EvictionPolicy POLICY = EvictionPolicy.make(H2O.ARGS.cleaner_policy);
+  }
+  static EvictionPolicy policy() { return PolicyHolder.POLICY; }
+
+  // Values not accessed for this long are lazily cleaned (written to disk)
+  // even when there is no memory pressure
+  static final long LAZY_CLEAN_AGE = 5000;
+
+  // Is a Value too young to be cleaned by this sweep?  Values are cleaned in
+  // the order given by the eviction policy, down to clean_to_age (a priority).
+  // Lazy cleaning also cleans Values not accessed since lazy_clean_to_age, a
+  // time: the last access is used there and not the priority, policies
+  // back-dating priorities (LRU-2, cost-aware) must not make freshly written
+  // Values look stale and spill them right away.
+  static boolean tooYoung( EvictionPolicy policy, Value val, long clean_to_age, long lazy_clean_to_age ) {
+    return policy.priority(val) > clean_to_age && val._lastAccessedTime > lazy_clean_to_age;
+  }
+
   Cleaner() {
     super("MemCleaner");
     setDaemon(true);
@@ -75,6 +97,7 @@ class Cleaner extends Thread {
       // Do not let optimistic cleaning get in the way of emergency cleaning.
 
       // Get a recent histogram, computing one as needed
+      final EvictionPolicy policy = policy();
       Histo h = Histo.current(false);
       long now = System.currentTimeMillis();
       long dirty = _dirty; // When things first got dirtied
@@ -83,6 +106,7 @@ class Cleaner extends Thread {
       // the desired cache levels. Inverse: go back to sleep if the cache
       // is below desired levels & nothing has been dirty awhile.
       if( h._cached < DESIRED && // Cache is low and
+          !OffHeapMemory.isLow() && // off-heap memory is not running out and
           (now-dirty < 5000) ) { // not dirty a long time
         // Block asleep, waking every 5 secs to check for stuff, or when poked
         block_store_cleaner();
@@ -101,17 +125,24 @@ class Cleaner extends Thread {
       if( force && diskFull )   // Try to clean the diskFull flag
         diskFull = isDiskFull();
       long clean_to_age = h.clean_to(force ? DESIRED : (DESIRED>>1));
-      // If not forced cleaning, expand the cleaning age to allows Values
-      // more than 5sec old
-      if( !force ) clean_to_age = Math.max(clean_to_age,now-5000);
+      // If not forced cleaning, expand the cleaning to Values not accessed
+      // for more than 5sec
+      long lazy_clean_to_age = force ? Long.MIN_VALUE : now-LAZY_CLEAN_AGE;
       if( DESIRED == -1 ) clean_to_age = now;  // Test mode: clean all
+      // Off-heap Chunks do not take heap space, they are cleaned the same way
+      // but against the off-heap memory limit
+      boolean force_offheap = OffHeapMemory.isLow();
+      long offheap_clean_to_age = h.clean_to_offheap(force_offheap ? OffHeapMemory.desired() : (OffHeapMemory.desired()>>1));
+      long offheap_lazy_clean_to_age = force_offheap ? Long.MIN_VALUE : now-LAZY_CLEAN_AGE;
+      if( DESIRED == -1 ) { offheap_clean_to_age = now; force_offheap = true; }
 
       // No logging if under memory pressure: can deadlock the cleaner thread
-      String s = h+" DESIRED="+(DESIRED>>20)+"M dirtysince="+(now-dirty)+" force="+force+" clean2age="+(now-clean_to_age);
+      String s = h+" DESIRED="+(DESIRED>>20)+"M dirtysince="+(now-dirty)+" force="+force+" clean2age="+(clean_to_age==Long.MIN_VALUE ? 0 : now-clean_to_age)+" policy="+policy;
       if( MemoryManager.canAlloc() ) Log.debug(s);
       else                           System.err.println(s);
       long cleaned = 0;         // Disk i/o bytes
       long freed = 0;           // memory freed bytes
+      long offheap_freed = 0;   // off-heap memory freed bytes
       long io_ns = 0;           // i/o ns writing
 
       // For faster K/V store walking get the NBHM raw backing array,
@@ -130,10 +161,14 @@ class Cleaner extends Thread {
         if( m == null && p == null ) continue; // Nothing to throw out
         if( val.isLockable() ) continue; // we do not want to throw out Lockables.
         boolean isChunk = p instanceof Chunk && !((Chunk)p).isVolatile();
+        boolean offHeap = Value.isOffHeapChunk(p);
+        long val_clean_to_age = offHeap ? offheap_clean_to_age : clean_to_age;
+        long val_lazy_clean_to_age = offHeap ? offheap_lazy_clean_to_age : lazy_clean_to_age;
         // Ignore things younger than the required age.  In particular, do
-        // not spill-to-disk all dirty things we find.
+        // not spill-to-disk all dirty things we find.  The "age" is given
+        // by the eviction policy, for LRU it is the time of the last access.
         long touched = val._lastAccessedTime;
-        if( touched > clean_to_age ) { // Too recently touched?
+        if( tooYoung(policy, val, val_clean_to_age, val_lazy_clean_to_age) || (isChunk && !policy.isEvictable(val)) ) { // Too recently touched?
           // But can toss out a byte-array if already deserialized & on disk
           // (no need for both forms).  Note no savings for Chunks, for which m==p._mem
           if( val.isPersisted() && m != null && p != null && !isChunk ) {
@@ -154,7 +189,7 @@ class Cleaner extends Thread {
         // Should I further force it from memory?
         if( isChunk && !val.isPersisted() && !diskFull && ((Key)ok).home() ) { // && (force || (lazyPersist() && lazy_clean(key)))) {
           long now_ns = System.nanoTime();
-          try { val.storePersist(); } // Write to disk
+          try { val.storePersist(); if( val.isPersisted() ) policy.recordSpill(val._max); } // Write to disk
           catch( FileNotFoundException fnfe ) { continue; } // Can happen due to racing key delete/remove
           catch( IOException e ) {
             Log.warn( isDiskFull()
@@ -169,7 +204,9 @@ class Cleaner extends Thread {
           io_ns += System.nanoTime() - now_ns; // Accumulate i/o time
         }
         // And, under pressure, free all
-        if( isChunk && force && (val.isPersisted() || !((Key)ok).home()) ) {
+        if( isChunk && (offHeap ? force_offheap : force) && (val.isPersisted() || !((Key)ok).home()) ) {
+          if( m != null || p != null ) policy.recordEviction(val._max);
+          if( offHeap ) offheap_freed += val._max;
           val.freeMem ();  if( m != null ) freed += val._max;  m = null;
           val.freePOJO();  if( p != null ) freed += val._max;  p = null;
           if( isChunk ) freed -= val._max; // Double-counted freed mem for Chunks since val._pojo._mem & val._mem are the same.
@@ -185,13 +222,17 @@ class Cleaner extends Thread {
         // from RAM as we go
         force = (h._cached >= DESIRED || !MemoryManager.CAN_ALLOC); // Forced to clean
       }
+      // Native memory of the freed Chunks is recycled once the Chunks are
+      // unreachable; collect them if the off-heap memory runs short
+      if( !OffHeapMemory.collectDropped() ) OffHeapMemory.reclaim();
 
       String s1 = "Cleaner pass took: "+PrettyPrint.msecs(System.currentTimeMillis()-now,true)+
                   ", spilled "+PrettyPrint.bytes(cleaned)+" in "+PrettyPrint.usecs(io_ns>>10);
       h = Histo.current(true); // Force a new histogram
       MemoryManager.set_goals("postclean",false);
       // No logging if under memory pressure: can deadlock the cleaner thread
-      String s2 = h+" diski_o="+PrettyPrint.bytes(cleaned)+", freed="+(freed>>20)+"M, DESIRED="+(DESIRED>>20)+"M";
+      String s2 = h+" diski_o="+PrettyPrint.bytes(cleaned)+", freed="+(freed>>20)+"M, DESIRED="+(DESIRED>>20)+"M"+
+                  (H2O.ARGS.offheap_chunks ? ", offheap_freed="+(offheap_freed>>20)+"M, "+OffHeapMemory.status() : "");
       if( MemoryManager.canAlloc() ) Log.debug(s1,s2);
       else                           System.err.println(s1+"\n"+s2);
       // For testing thread
@@ -228,10 +269,12 @@ class Cleaner extends Thread {
     static long swapped(){ return H._swapped;}
 
     final long[] _hs = new long[128];
+    final long[] _ohs = new long[128]; // Same for off-heap Chunks
     long _oldest; // Time of the oldest K/V discovered this pass
     long _eldest; // Time of the eldest K/V found in some prior pass
     long _hStep;  // Histogram step: (now-eldest)/histogram.length
     long _cached; // Total alive data in the histogram
+    long _offheap;// Total alive data of off-heap Chunks (not part of _cached)
     long _total;  // Total data in local K/V
     long _when;   // When was this histogram computed
     long _swapped;// On-disk stuff
@@ -241,6 +284,7 @@ class Cleaner extends Thread {
     // Compute a histogram
     Histo( long eldest ) {
       Arrays.fill(_hs, 0);
+      Arrays.fill(_ohs, 0);
       _when = System.currentTimeMillis();
       _eldest = eldest; // Eldest seen in some prior pass
       _hStep = Math.max(1,(_when-eldest)/_hs.length);
@@ -248,10 +292,12 @@ class Cleaner extends Thread {
       // Compute the hard way
       Object[] kvs = H2O.STORE.raw_array();
       long cached = 0; // Total K/V cached in ram
+      long offheap = 0;// Total K/V cached in native memory
       long total = 0;  // Total K/V in local node
       long swapped=0;  // Total K/V persisted
       long oldest = Long.MAX_VALUE; // K/V with the longest time since being touched
       Value vold = null;
+      final EvictionPolicy policy = policy();
       // Start the walk at slot 2, because slots 0,1 hold meta-data
       for( int i=2; i<kvs.length; i += 2 ) {
         // In the raw backing array, Keys and Values alternate in slots
@@ -265,23 +311,29 @@ class Cleaner extends Thread {
         int len = 0;
         byte[] m = val.rawMem();
         Object p = val.rawPOJO();
+        boolean offHeap = Value.isOffHeapChunk(p);
         if( m != null ) len += val._max;
-        if( p != null ) len += val._max;
-        if( m != null && p instanceof Chunk ) len -= val._max; // Do not double-count Chunks
-        if( len == 0 ) continue;
+        if( p != null && !offHeap ) len += val._max;
+        if( m != null && p instanceof Chunk && !offHeap ) len -= val._max; // Do not double-count Chunks
+        int olen = offHeap ? val._max : 0;
+        if( len == 0 && olen == 0 ) continue;
         cached += len; // Accumulate total amount of cached keys
+        offheap += olen;
 
-        if( val._lastAccessedTime < oldest ) { // Found an older Value?
+        long priority = policy.priority(val); // "Age" of the Value as seen by the eviction policy
+        if( priority < oldest ) { // Found an older Value?
           vold = val; // Record oldest Value seen
-          oldest = val._lastAccessedTime;
+          oldest = priority;
         }
         // Compute histogram bucket
-        int idx = (int)((val._lastAccessedTime - eldest)/_hStep);
+        int idx = (int)((priority - eldest)/_hStep);
         if( idx < 0 ) idx = 0;
         else if( idx >= _hs.length ) idx = _hs.length-1;
         _hs[idx] += len;      // Bump histogram bucket
+        _ohs[idx] += olen;
       }
       _cached = cached; // Total cached; NOTE: larger than sum of histogram buckets
+      _offheap = offheap;
       _total = total;   // Total used data
       _swapped = swapped;
       _oldest = oldest; // Oldest seen in this pass
@@ -291,14 +343,16 @@ class Cleaner extends Thread {
 
     // Compute the time (in msec) for which we need to throw out things
     // to throw out enough things to hit the desired cached memory level.
-    long clean_to( long desired ) {
+    long clean_to( long desired ) { return clean_to(_hs, _cached, desired); }
+    long clean_to_offheap( long desired ) { return clean_to(_ohs, _offheap, desired); }
+    private long clean_to( long[] hs, long cached, long desired ) {
       long age = _eldest;       // Age of bucket zero
-      if( _cached < desired ) return age; // Already there; nothing to remove
+      if( cached < desired ) return Long.MIN_VALUE; // Already there; nothing to remove
       long s = 0;               // Total amount toss out
-      for( long t : _hs ) {     // For all buckets...
+      for( long t : hs ) {      // For all buckets...
         s += t;                 // Raise amount tossed out
         age += _hStep;          // Raise age beyond which you need to go
-        if( _cached - s < desired ) break;
+        if( cached - s < desired ) break;
       }
       return age;
     }
@@ -307,7 +361,7 @@ class Cleaner extends Thread {
     @Override public String toString() {
       long x = _eldest;
       long now = System.currentTimeMillis();
-      return "H(cached:"+(_cached>>20)+"M, eldest:"+x+"L < +"+(_oldest-x)+"ms <...{"+_hStep+"ms}...< +"+(_hStep*_hs.length)+"ms < +"+(now-x)+")";
+      return "H(cached:"+(_cached>>20)+"M, "+(_offheap > 0 ? "offheap:"+(_offheap>>20)+"M, " : "")+"eldest:"+x+"L < +"+(_oldest-x)+"ms <...{"+_hStep+"ms}...< +"+(_hStep*_hs.length)+"ms < +"+(now-x)+")";
     }
   }
 }
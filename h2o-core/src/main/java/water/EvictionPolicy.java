@@ -0,0 +1,159 @@
+package water;
+
+import water.util.Log;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Policy deciding which cached Chunks the {@link Cleaner} spills to disk and frees first.
+ *
+ * The Cleaner orders the cached Values by their eviction priority - a timestamp-like number, Values with a lower
+ * priority are cleaned first. A histogram of priorities is used to find the cutoff that brings the cache down
+ * to the desired level. The default policy (LRU) uses the time of the last access, which is what the Cleaner
+ * always did.
+ *
+ * A policy is selected using the -cleaner_policy command-line option, either by name ("lru", "lru2", "cost")
+ * or by the fully qualified name of a subclass with a public no-arg constructor.
+ *
+ * Each policy also collects statistics of the K/V cache of Chunks: hits (the Chunk was in memory when accessed),
+ * misses (the Chunk had to be loaded from disk or from the original data source), spills and evictions.
+ */
+public abstract class EvictionPolicy {
+
+  private final LongAdder _hits = new LongAdder(); // updated on each Chunk access, LongAdder avoids contention
+  private final AtomicLong _misses = new AtomicLong();
+  private final AtomicLong _spills = new AtomicLong();
+  private final AtomicLong _spilledBytes = new AtomicLong();
+  private final AtomicLong _evictions = new AtomicLong();
+  private final AtomicLong _evictedBytes = new AtomicLong();
+
+  /** @return short name of the policy */
+  public abstract String name();
+
+  /**
+   * Eviction priority of a cached Value, Values with lower priority are evicted sooner. The priority is
+   * a time in msec, it only orders the Values: lazy cleaning (writing to disk Values not accessed for more than
+   * 5 seconds, even when there is no memory pressure) looks at the time of the last access, a policy can thus
+   * back-date priorities without making freshly written Values stale.
+   * @param val cached Value
+   * @return priority
+   */
+  public abstract long priority(Value val);
+
+  /**
+   * Allows a policy to exclude a Value from being spilled/freed (eg. to pin it in memory). Only Chunks are ever
+   * considered for eviction, the rest of the Values can be modified in place and cannot be safely reloaded.
+   * @param val cached Chunk Value
+   * @return true if the Value can be evicted
+   */
+  public boolean isEvictable(Value val) {
+    return true;
+  }
+
+  // Access history of a Value
+
+  /** @return time (in msec) of the last access of a given Value */
+  protected static long lastAccessTime(Value val) { return val._lastAccessedTime; }
+  /** @return time (in msec) of the access preceding the last one (creation of the Value counts as an access),
+   *  0 if the Value was not accessed since it was created */
+  protected static long previousAccessTime(Value val) { return val._prevAccessedTime; }
+  /** @return number of accesses (best-effort), creation of the Value is not counted */
+  protected static int accessCount(Value val) { return val._accessCount; }
+  /** @return true if the Value can be re-loaded from the original data source (eg. Chunks of a FileVec) */
+  protected static boolean isBackedBySource(Value val) { return val.backend() != Value.ICE; }
+
+  // Statistics
+
+  void recordAccess(Value val) {
+    if (val.rawPOJO() != null || val.rawMem() != null) _hits.increment();
+    else _misses.incrementAndGet();
+  }
+  void recordSpill(long bytes) {
+    _spills.incrementAndGet();
+    _spilledBytes.addAndGet(bytes);
+  }
+  void recordEviction(long bytes) {
+    _evictions.incrementAndGet();
+    _evictedBytes.addAndGet(bytes);
+  }
+
+  public long hits() { return _hits.sum(); }
+  public long misses() { return _misses.get(); }
+  public long spills() { return _spills.get(); }
+  public long spilledBytes() { return _spilledBytes.get(); }
+  public long evictions() { return _evictions.get(); }
+  public long evictedBytes() { return _evictedBytes.get(); }
+
+  @Override public String toString() {
+    return name() + "(hits=" + hits() + ", misses=" + misses() + ", spills=" + spills() + ", evictions=" + evictions() + ")";
+  }
+
+  /** @return policy currently used by the Cleaner of this node */
+  public static EvictionPolicy current() {
+    return Cleaner.policy();
+  }
+
+  /**
+   * Creates a policy given its name or class name.
+   * @param spec "lru", "lru2", "cost" or a fully qualified class name of an EvictionPolicy
+   * @return new instance of the policy
+   */
+  static EvictionPolicy make(String spec) {
+    if (spec == null || spec.equals("lru")) return new LRU();
+    if (spec.equals("lru2")) return new LRU2();
+    if (spec.equals("cost")) return new CostAware();
+    try {
+      return (EvictionPolicy) Class.forName(spec).newInstance();
+    } catch (Exception e) {
+      Log.warn("Unable to instantiate Cleaner eviction policy '" + spec + "', using LRU instead: " + e);
+      return new LRU();
+    }
+  }
+
+  /** Least-recently used; the Cleaner's original behavior. */
+  public static class LRU extends EvictionPolicy {
+    @Override public String name() { return "lru"; }
+    @Override public long priority(Value val) { return lastAccessTime(val); }
+  }
+
+  /**
+   * LRU-2: Values are ordered by the time of their second most recent access. This makes the cache resistant to
+   * scans: data that was touched once (eg. output of a parse that was not used since) is evicted before data that is
+   * used repeatedly (eg. training data being iterated over), even if the single touch was more recent.
+   *
+   * Creation of a Value counts as an access. Values that were not accessed since they were created are given
+   * the priority of their creation time shifted {@link #_horizon} msec to the past (true LRU-2 considers them
+   * infinitely old, the finite horizon eventually protects fresh data).
+   */
+  public static class LRU2 extends EvictionPolicy {
+    final long _horizon;
+    public LRU2() { this(60 * 1000); }
+    public LRU2(long horizon) { _horizon = horizon; }
+    @Override public String name() { return "lru2"; }
+    @Override public long priority(Value val) {
+      long prev = previousAccessTime(val);
+      return prev > 0 ? prev : lastAccessTime(val) - _horizon;
+    }
+  }
+
+  /**
+   * Cost-aware LRU: the age of a Value is artificially increased by {@link #_penalty} msec based on how cheap it is
+   * to bring the Value back once freed. Chunks backed by the original data source (eg. an NFS/HDFS file) don't need
+   * to be written to disk and are the cheapest, followed by Chunks that were already spilled (freeing them doesn't
+   * cost any I/O). Chunks that still need to be written out are the most expensive.
+   */
+  public static class CostAware extends EvictionPolicy {
+    final long _penalty;
+    public CostAware() { this(30 * 1000); }
+    public CostAware(long penalty) { _penalty = penalty; }
+    @Override public String name() { return "cost"; }
+    @Override public long priority(Value val) {
+      long t = lastAccessTime(val);
+      if (isBackedBySource(val)) return t - 2 * _penalty;
+      if (val.isPersisted()) return t - _penalty;
+      return t;
+    }
+  }
+
+}
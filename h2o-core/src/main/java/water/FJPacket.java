@@ -26,7 +26,7 @@ class FJPacket extends H2OCountedCompleter {
   @Override
   public void compute2() {
     _ab.getPort(); // skip past the port
-    if( _ctrl <= UDP.udp.nack.ordinal() ) {
+    if( _ctrl <= UDP.udp.nack.ordinal() || _ctrl == UDP.udp.gossip.ordinal() ) {
       AutoBuffer ab = UDP.udp.UDPS[_ctrl]._udp.call(_ab);
       if(ab != null && !ab.isClosed()) ab.close();
     } else
@@ -339,6 +339,24 @@ final public class H2O {
     /** -cleaner; enable user-mode spilling of big data to disk in ice_root */
     public boolean cleaner = false;
 
+    /** -cleaner_policy=lru|lru2|cost|className; policy used to choose which data is spilled/freed first, see {@link EvictionPolicy} */
+    public String cleaner_policy = "lru";
+
+    /** -spill_codec=none|lz4; codec applied to the data spilled to ice_root by the cleaner, see {@link water.persist.SpillCodec} */
+    public String spill_codec = "none";
+
+    /** -offheap_chunks; keep the payload of Chunks in native memory instead of the Java heap, see {@link OffHeapMemory} */
+    public boolean offheap_chunks = false;
+
+    /** -offheap_chunks_max_mem_mb=megabytes; max native memory used by off-heap Chunks, 0 means same as the max heap size */
+    public int offheap_chunks_max_mem_mb = 0;
+
+    /** -wire_codec=none|lz4; codec used to compress large TCP transfers between nodes, used only with nodes advertising the same codec, see {@link water.network.WireCompressionChannel} */
+    public String wire_codec = "none";
+
+    /** -wire_compression_threshold=bytes; TCP transfers smaller than this are never compressed */
+    public int wire_compression_threshold = 64 * 1024;
+
     /** -nthreads=nthreads; Max number of F/J threads in the low-priority batch queue */
     public short nthreads= (short)Runtime.getRuntime().availableProcessors();
 
@@ -653,6 +671,29 @@ final public class H2O {
       else if(s.matches("cleaner")) {
         trgt.cleaner = true;
       }
+      else if (s.matches("cleaner_policy")) {
+        i = s.incrementAndCheck(i, args);
+        trgt.cleaner_policy = args[i];
+      }
+      else if (s.matches("spill_codec")) {
+        i = s.incrementAndCheck(i, args);
+        trgt.spill_codec = args[i];
+      }
+      else if (s.matches("offheap_chunks")) {
+        trgt.offheap_chunks = true;
+      }
+      else if (s.matches("offheap_chunks_max_mem_mb")) {
+        i = s.incrementAndCheck(i, args);
+        trgt.offheap_chunks_max_mem_mb = s.parseInt(args[i]);
+      }
+      else if (s.matches("wire_codec")) {
+        i = s.incrementAndCheck(i, args);
+        trgt.wire_codec = args[i];
+      }
+      else if (s.matches("wire_compression_threshold")) {
+        i = s.incrementAndCheck(i, args);
+        trgt.wire_compression_threshold = s.parseInt(args[i]);
+      }
       else if (s.matches("jks")) {
         i = s.incrementAndCheck(i, args);
         trgt.jks = args[i];
@@ -809,6 +850,10 @@ final public class H2O {
       parseFailed(String.format("rest_api_ping_timeout needs to be 0 or higher, was (%d)", ARGS.rest_api_ping_timeout));
     }
 
+    if (!"none".equals(ARGS.wire_codec) && !"lz4".equals(ARGS.wire_codec)) {
+      parseFailed("Unknown wire codec (" + ARGS.wire_codec + "), only none and lz4 are supported");
+    }
+
     // Validate extension arguments
     for (AbstractH2OExtension e : extManager.getCoreExtensions()) {
       e.validateArguments();
@@ -2034,6 +2079,7 @@ final public class H2O {
     // If the K/V mapping is changing, let the store cleaner just overwrite.
     // If the K/V mapping is new, let the store cleaner just create
     if( old != null && val == null ) old.removePersist(); // Remove the old guy
+    if( old != null && old != val ) old.dropOffHeap(val); // The old guy's off-heap Chunk is no longer needed
     if( val != null ) {
       Cleaner.dirty_store(); // Start storing the new guy
       if( old==null ) Scope.track_internal(key); // New Key - start tracking
@@ -2044,7 +2090,7 @@ final public class H2O {
   // Get the value from the store
   public static void raw_remove(Key key) {
     Value v = STORE.remove(key);
-    if( v != null ) v.removePersist();
+    if( v != null ) { v.removePersist(); v.dropOffHeap(null); }
   }
   public static void raw_clear() { STORE.clear(); }
   
@@ -2282,6 +2328,13 @@ final public class H2O {
       NPS = new NodePersistentStorage(flow_dir);
     }
 
+    // Weave serializers of the classes needed at cloud formation in the background
+    Thread preWeave = new Thread("PreWeave") {
+      @Override public void run() { TypeMap.preWeave(); }
+    };
+    preWeave.setDaemon(true);
+    preWeave.start();
+
     // Start network services, including heartbeats
     long time9 = System.currentTimeMillis();
     startNetworkServices();   // start server services
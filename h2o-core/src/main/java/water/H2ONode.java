@@ -3,6 +3,8 @@ package water;
 import water.nbhm.NonBlockingHashMap;
 import water.nbhm.NonBlockingHashMapLong;
 import water.network.SocketChannelFactory;
+import water.network.WireCompressionChannel;
+import water.persist.SpillCodec;
 import water.util.ArrayUtils;
 import water.util.Log;
 import water.util.MathUtils;
@@ -429,8 +431,11 @@ public final class H2ONode extends Iced<H2ONode> implements Comparable {
     sock2.socket().setSendBufferSize(AutoBuffer.BBP_BIG._size);
     boolean res = sock2.connect( _key );
     assert res && !sock2.isConnectionPending() && sock2.isBlocking() && sock2.isConnected() && sock2.isOpen();
+    // Compress the transfers only if the other side advertised the same codec
+    SpillCodec codec = SpillCodec.make(H2O.ARGS.wire_codec);
+    boolean compress = codec != null && _heartbeat._wire_codec == codec.id();
     ByteBuffer bb = ByteBuffer.allocate(6).order(ByteOrder.nativeOrder());
-    bb.put((byte)2);
+    bb.put(compress ? TCPReceiverThread.TCP_BIG_COMPRESSED : TCPReceiverThread.TCP_BIG);
     bb.putShort(H2O.SELF._timestamp);
     bb.putChar((char)H2O.H2O_PORT);
     bb.put((byte)0xef);
@@ -440,7 +445,7 @@ public final class H2ONode extends Iced<H2ONode> implements Comparable {
       wrappedSocket.write(bb);
     }
     TCPS.incrementAndGet();     // Cluster-wide counting
-    return wrappedSocket;
+    return compress ? new WireCompressionChannel(wrappedSocket, codec, H2O.ARGS.wire_compression_threshold) : wrappedSocket;
   }
   synchronized void freeTCPSocket( ByteChannel sock ) {
     assert 0 <= _socksAvail && _socksAvail < _socks.length;
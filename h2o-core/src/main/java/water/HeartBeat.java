@@ -40,14 +40,17 @@ public class HeartBeat extends Iced<HeartBeat> {
   private long _pojo_mem;        // POJO used as of last FullGC
   private long _free_mem;        // Free memory as of last FullGC
   private long _swap_mem;        // Swapped K/V as of last FullGC
+  private long _offheap_mem;     // Native memory held by off-heap Chunks, not part of MEM_MAX
   void   set_kv_mem (long n) { _kv_mem = n; }
   void set_pojo_mem (long n) { _pojo_mem = n; }
   void set_free_mem (long n) { _free_mem = n; }
   void set_swap_mem (long n) { _swap_mem = n; }
+  void set_offheap_mem(long n) { _offheap_mem = n; }
   public long get_kv_mem  () { return _kv_mem; }
   public long get_pojo_mem() { return _pojo_mem; }
   public long get_free_mem() { return _free_mem; }
   public long get_swap_mem() { return _swap_mem; }
+  public long get_offheap_mem() { return _offheap_mem; }
 
   public int _keys;       // Number of LOCAL keys in this node, cached or homed
 
@@ -71,4 +74,21 @@ public class HeartBeat extends Iced<HeartBeat> {
   public short _fjthrds[];      // Number of threads (not all are runnable)
   public short _fjqueue[];      // Number of elements in FJ work queue
   public char _tcps_active;     // Threads trying do a TCP send
+
+  // Compression of large TCP transfers
+  public byte _wire_codec;      // Codec accepted by this node, SpillCodec.NONE if compression is disabled
+  public long _wire_raw_bytes;  // Bytes sent over compressed TCP channels before compression
+  public long _wire_sent_bytes; // Bytes actually sent over compressed TCP channels
+  public long _wire_codec_ns;   // Time spent compressing & decompressing
+
+  public long _stolen_chunks;   // MRTask chunks homed elsewhere mapped by this node
+  public long _prefetch_issued; // Remote chunks prefetched ahead of sequential readers
+  public long _prefetch_hits;   // Remote chunks readers found prefetched
+  public long _prefetch_misses; // Remote chunks readers had to wait for
+
+  // Membership protocol
+  public boolean _gossip;       // Heartbeats are sent by gossip rather than to all nodes
+  public long _gossip_msgs;     // Gossip messages sent
+  public int _view_age_ms;      // Longest time this node did not hear from a member (directly or by gossip)
+  public int _gossip_delta_ms;  // Mean age of the heartbeats received by gossip in the last second, -1 if none
 }
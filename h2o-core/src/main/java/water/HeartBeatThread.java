@@ -2,6 +2,9 @@ package water;
 
 import java.lang.management.ManagementFactory;
 import javax.management.*;
+import water.fvec.ChunkPrefetcher;
+import water.network.WireCompressionChannel;
+import water.persist.SpillCodec;
 import water.util.LinuxProcFileReader;
 import water.util.Log;
 import water.init.*;
@@ -77,6 +80,7 @@ public class HeartBeatThread extends Thread {
       hb.set_pojo_mem(pojo_mem);
       hb.set_free_mem(free_mem);
       hb.set_swap_mem(Cleaner.Histo.swapped());
+      hb.set_offheap_mem(OffHeapMemory.used());
       hb._keys = H2O.STORE.size();
 
       try {
@@ -97,6 +101,15 @@ public class HeartBeatThread extends Thread {
         hb._fjqueue[i] = (short)H2O.getWrkQueueSize(i);
       }
       hb._tcps_active= (char)H2ONode.TCPS.get();
+      SpillCodec wireCodec = SpillCodec.make(H2O.ARGS.wire_codec);
+      hb._wire_codec = wireCodec == null ? SpillCodec.NONE : wireCodec.id();
+      hb._wire_raw_bytes = WireCompressionChannel.RAW_BYTES.get();
+      hb._wire_sent_bytes = WireCompressionChannel.WIRE_BYTES.get();
+      hb._wire_codec_ns = WireCompressionChannel.CODEC_NS.get();
+      hb._stolen_chunks = MRWorkStealing.STOLEN_CHUNKS.get();
+      hb._prefetch_issued = ChunkPrefetcher.ISSUED.get();
+      hb._prefetch_hits = ChunkPrefetcher.HITS.get();
+      hb._prefetch_misses = ChunkPrefetcher.MISSES.get();
 
       // get the usable and total disk storage for the partition where the
       // persistent KV pairs are stored
@@ -129,9 +142,15 @@ public class HeartBeatThread extends Thread {
       }
       catch (Exception ignore) {}
 
+      hb._gossip = UDPGossip.enabled(cloud);
+      hb._gossip_msgs = UDPGossip.SENT.get();
+      hb._view_age_ms = UDPGossip.viewAge(cloud, System.currentTimeMillis());
+      hb._gossip_delta_ms = UDPGossip.deltaAge();
+
       // Announce what Cloud we think we are in.
       // Publish our health as well.
-      UDPHeartbeat.build_and_multicast(cloud, hb);
+      if( hb._gossip ) UDPGossip.gossip(cloud, hb);
+      else UDPHeartbeat.build_and_multicast(cloud, hb);
 
       // If we have no internet connection, then the multicast goes
       // nowhere and we never receive a heartbeat from ourselves!
@@ -44,6 +44,9 @@ public final class Job<T extends Keyed> extends Keyed<Job> {
   // whether the _result key is ready for view
   private boolean _ready_for_view = true;
 
+  // Queue of the JobScheduler admitting this job
+  private String _queue = JobScheduler.INTERACTIVE;
+
   private String [] _warns;
 
   public void warn(String warn) {
@@ -132,6 +135,16 @@ public final class Job<T extends Keyed> extends Keyed<Job> {
     return _end_time - _start_time; // Stopped
   }
 
+  /** Puts the job into a {@link JobScheduler} queue, must be called before the job is started. */
+  public Job<T> setQueue(String queue) {
+    assert created() : "Queue of a started job cannot be changed";
+    if (!JobScheduler.hasQueue(queue))
+      throw new IllegalArgumentException("Unknown job queue " + queue);
+    _queue = queue;
+    return this;
+  }
+  public String queue() { return _queue; }
+
   public boolean readyForView() { return _ready_for_view; }
   public void setReadyForView(boolean ready) { _ready_for_view = ready; }
 
@@ -152,6 +165,7 @@ public final class Job<T extends Keyed> extends Keyed<Job> {
           Log.debug("Job "+job._description+" requested to stop");
         }
       }.apply(this);
+    JobScheduler.stopped();
   }
   public void fail(Throwable ex) {
     new JAtomic() {
@@ -329,8 +343,8 @@ public final class Job<T extends Keyed> extends Keyed<Job> {
         return old;
       }
     }.invoke(LIST);
-    // 4 - Fire off the FJTASK
-    H2O.submitTask(fjtask);
+    // 4 - Fire off the FJTASK, once the scheduler admits it
+    JobScheduler.submit(this, fjtask);
     return this;
   }
   transient private Barrier2 _barrier; // Top-level task to block on
@@ -355,6 +369,7 @@ public final class Job<T extends Keyed> extends Keyed<Job> {
     @Override public void onCompletion(CountedCompleter caller) {
       new Barrier1OnCom().apply(Job.this);
       _barrier = null;          // Free for GC
+      JobScheduler.finished(Job.this);
     }
     @Override public boolean onExceptionalCompletion(Throwable ex, CountedCompleter caller) {
       if(Job.isCancelledException(ex)) {
@@ -366,6 +381,7 @@ public final class Job<T extends Keyed> extends Keyed<Job> {
         new Barrier1OnExCom(ex).apply(Job.this);
       }
       _barrier = null;          // Free for GC
+      JobScheduler.finished(Job.this);
       return true;
     }
   }
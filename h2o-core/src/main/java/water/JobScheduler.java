@@ -0,0 +1,243 @@
+package water;
+
+import water.H2O.H2OCountedCompleter;
+import water.util.Log;
+
+import java.util.*;
+
+/**
+ * Admission of Jobs started on this node into the F/J pools.
+ *
+ * Every Job belongs to a named queue ({@link Job#setQueue(String)}), by default {@link #INTERACTIVE};
+ * model builds, grid searches and AutoML runs go to {@link #BATCH}.  A queue can cap the number of
+ * its running jobs, and the node can cap the number of all running jobs.  Jobs over the caps wait
+ * in their queues; when a slot frees up, the waiting job of the queue with the highest priority is
+ * started, queues of the same priority share the slots in proportion to their weights (stride
+ * scheduling).  Queues with waiting jobs of a higher priority hold back the lower priority queues,
+ * so interactive work is not stuck behind batch training.  Running jobs are never suspended.
+ *
+ * Queues are configured by the system property <code>sys.ai.h2o.jobs.queues</code>, a comma
+ * separated list of <code>name:weight:maxRunning:priority</code> (a cap of 0 means no cap), and the
+ * node-wide cap by <code>sys.ai.h2o.jobs.maxRunning</code>.  Without caps (the default) jobs are
+ * started right away, as they always were.
+ *
+ * Jobs started from within the work of another job (F/J threads) are started right away, they
+ * only count towards the running jobs of their queue - waiting for a slot held by the parent job
+ * could deadlock.
+ */
+public final class JobScheduler {
+
+  public static final String INTERACTIVE = "interactive";
+  public static final String BATCH = "batch";
+
+  private static final long STRIDE = 1L << 20;
+
+  /** A queue of jobs, public fields are statistics and settings of the queue. */
+  public static final class Queue extends Iced<Queue> {
+    public final String _name;
+    public double _weight;
+    public int _maxRunning;     // 0 = no cap
+    public int _priority;       // Higher wins
+    public int _running;
+    public int _waiting;
+    public long _admitted;      // Jobs started from this queue
+    public long _totalWaitMs, _maxWaitMs;
+    public long _oldestWaitMs;  // Wait time of the oldest waiting job (snapshots only)
+    private transient long _pass;
+    private transient ArrayDeque<Pending> _jobs = new ArrayDeque<>();
+
+    Queue(String name, double weight, int maxRunning, int priority) {
+      _name = name;
+      configure(weight, maxRunning, priority);
+    }
+
+    private void configure(double weight, int maxRunning, int priority) {
+      if (!(weight > 0)) throw new IllegalArgumentException("Weight of queue " + _name + " must be positive, got " + weight);
+      if (maxRunning < 0) throw new IllegalArgumentException("Cap of queue " + _name + " must not be negative, got " + maxRunning);
+      _weight = weight;
+      _maxRunning = maxRunning;
+      _priority = priority;
+    }
+
+    private boolean hasSlot() { return _maxRunning == 0 || _running < _maxRunning; }
+
+    private Queue snapshot(long now) {
+      Queue q = new Queue(_name, _weight, _maxRunning, _priority);
+      q._running = _running;
+      q._waiting = _jobs.size();
+      q._admitted = _admitted;
+      q._totalWaitMs = _totalWaitMs;
+      q._maxWaitMs = _maxWaitMs;
+      q._oldestWaitMs = _jobs.isEmpty() ? 0 : now - _jobs.peekFirst()._queuedAt;
+      return q;
+    }
+
+    public double avgWaitMs() { return _admitted == 0 ? 0 : (double) _totalWaitMs / _admitted; }
+  }
+
+  private static final class Pending {
+    final Job _job;
+    final H2OCountedCompleter _task;
+    final long _queuedAt = System.currentTimeMillis();
+    Pending(Job job, H2OCountedCompleter task) { _job = job; _task = task; }
+  }
+
+  private static final Map<String, Queue> QUEUES = new LinkedHashMap<>();
+  private static final Map<Key<Job>, Queue> RUNNING = new HashMap<>();
+  private static int MAX_RUNNING;
+
+  static {
+    MAX_RUNNING = Integer.getInteger(H2O.OptArgs.SYSTEM_PROP_PREFIX + "jobs.maxRunning", 0);
+    QUEUES.put(INTERACTIVE, new Queue(INTERACTIVE, 4, 0, 1));
+    QUEUES.put(BATCH, new Queue(BATCH, 1, 0, 0));
+    String spec = System.getProperty(H2O.OptArgs.SYSTEM_PROP_PREFIX + "jobs.queues");
+    if (spec != null) {
+      for (String q : spec.split(",")) {
+        String[] s = q.trim().split(":");
+        if (s.length != 4)
+          throw new IllegalArgumentException("Invalid job queue '" + q + "', expected name:weight:maxRunning:priority");
+        configure(s[0], Double.parseDouble(s[1]), Integer.parseInt(s[2]), Integer.parseInt(s[3]));
+      }
+    }
+  }
+
+  private JobScheduler() {}
+
+  /** Creates or reconfigures a queue; takes effect for the jobs admitted from now on. */
+  public static void configure(String name, double weight, int maxRunning, int priority) {
+    List<Pending> admitted;
+    synchronized (JobScheduler.class) {
+      Queue q = QUEUES.get(name);
+      if (q == null) {
+        q = new Queue(name, weight, maxRunning, priority);
+        q._pass = minPass(priority);
+        QUEUES.put(name, q);
+      } else {
+        q.configure(weight, maxRunning, priority);
+      }
+      admitted = admit();
+    }
+    launch(admitted);
+  }
+
+  /** Sets the cap on all running jobs of this node, 0 means no cap. */
+  public static void setMaxRunning(int maxRunning) {
+    if (maxRunning < 0) throw new IllegalArgumentException("Cap must not be negative, got " + maxRunning);
+    List<Pending> admitted;
+    synchronized (JobScheduler.class) {
+      MAX_RUNNING = maxRunning;
+      admitted = admit();
+    }
+    launch(admitted);
+  }
+
+  public static synchronized int maxRunning() { return MAX_RUNNING; }
+
+  public static synchronized boolean hasQueue(String name) { return QUEUES.containsKey(name); }
+
+  /** @return statistics of all queues */
+  public static synchronized Queue[] queues() {
+    long now = System.currentTimeMillis();
+    Queue[] res = new Queue[QUEUES.size()];
+    int i = 0;
+    for (Queue q : QUEUES.values()) res[i++] = q.snapshot(now);
+    return res;
+  }
+
+  /** Starts the task of the job now, or once its queue gets a slot. */
+  static void submit(Job job, H2OCountedCompleter task) {
+    Pending p = new Pending(job, task);
+    List<Pending> admitted;
+    boolean waiting;
+    synchronized (JobScheduler.class) {
+      Queue q = QUEUES.get(job.queue());
+      assert q != null : "Unknown job queue " + job.queue();
+      if (Thread.currentThread() instanceof H2O.FJWThr) { // Nested job, see the class comment
+        start(q, p);
+        admitted = Collections.singletonList(p);
+      } else {
+        if (q._jobs.isEmpty() && q._running == 0)
+          q._pass = Math.max(q._pass, minPass(q._priority)); // Do not let an idle queue bank its share
+        q._jobs.addLast(p);
+        admitted = admit();
+      }
+      waiting = !admitted.contains(p);
+    }
+    if (waiting)
+      job.update(0, "Waiting in queue " + job.queue());
+    launch(admitted);
+  }
+
+  /** Frees the slot of a finished job. */
+  static void finished(Job job) {
+    List<Pending> admitted;
+    synchronized (JobScheduler.class) {
+      Queue q = RUNNING.remove(job._key);
+      if (q == null) return;
+      q._running--;
+      admitted = admit();
+    }
+    launch(admitted);
+  }
+
+  /** Starts the jobs stopped while waiting in a queue right away, so they can notice the stop request and finish. */
+  static void stopped() {
+    List<Pending> cancelled = new ArrayList<>();
+    synchronized (JobScheduler.class) {
+      for (Queue q : QUEUES.values())
+        for (Iterator<Pending> it = q._jobs.iterator(); it.hasNext(); ) {
+          Pending p = it.next();
+          if (p._job.stop_requested()) {
+            Log.debug("Job " + p._job._description + " stopped while waiting in queue " + q._name);
+            it.remove();
+            start(q, p);
+            cancelled.add(p);
+          }
+        }
+    }
+    launch(cancelled);
+  }
+
+  private static long minPass(int priority) {
+    long min = Long.MAX_VALUE;
+    for (Queue q : QUEUES.values())
+      if (q._priority == priority && !q._jobs.isEmpty()) min = Math.min(min, q._pass);
+    return min == Long.MAX_VALUE ? 0 : min;
+  }
+
+  private static void start(Queue q, Pending p) {
+    long waited = System.currentTimeMillis() - p._queuedAt;
+    q._running++;
+    q._admitted++;
+    q._totalWaitMs += waited;
+    q._maxWaitMs = Math.max(q._maxWaitMs, waited);
+    RUNNING.put(p._job._key, q);
+  }
+
+  // Picks the jobs to start, called under the lock
+  private static List<Pending> admit() {
+    List<Pending> res = new ArrayList<>();
+    while (MAX_RUNNING == 0 || RUNNING.size() < MAX_RUNNING) {
+      Queue best = null;
+      int topPriority = Integer.MIN_VALUE;
+      for (Queue q : QUEUES.values()) {
+        if (q._jobs.isEmpty()) continue;
+        topPriority = Math.max(topPriority, q._priority);
+        if (!q.hasSlot()) continue;
+        if (best == null || q._priority > best._priority || (q._priority == best._priority && q._pass < best._pass))
+          best = q;
+      }
+      if (best == null || best._priority < topPriority) break; // Hold back lower priorities
+      Pending p = best._jobs.pollFirst();
+      best._pass += (long) (STRIDE / best._weight);
+      start(best, p);
+      res.add(p);
+    }
+    return res;
+  }
+
+  private static void launch(List<Pending> admitted) {
+    for (Pending p : admitted)
+      H2O.submitTask(p._task);
+  }
+}
@@ -131,15 +131,7 @@ final public class Key<T extends Keyed> extends Iced<Key<T>> implements Comparab
       // (every node will have it's own chunk, plus a cached next-chunk).
       // Above 16-chunks-in-a-row we hit diminishing returns.
       int cidx = UnsafeUtils.get4(_kb, 1 + 1 + 4); // Chunk index
-      int x = cidx/hsz; // Multiples of cluster size
-      // 0 -> 1st trip around the cluster;            nidx= (cidx- 0*hsz)>>0
-      // 1,2 -> 2nd & 3rd trip; allocate in pairs:    nidx= (cidx- 1*hsz)>>1
-      // 3,4,5,6 -> next 4 rounds; allocate in quads: nidx= (cidx- 3*hsz)>>2
-      // 7-14 -> next 8 rounds in octets:             nidx= (cidx- 7*hsz)>>3
-      // 15+ -> remaining rounds in groups of 16:     nidx= (cidx-15*hsz)>>4
-      int z = x==0 ? 0 : (x<=2 ? 1 : (x<=6 ? 2 : (x<=14 ? 3 : 4)));
-      int nidx = (cidx-((1<<z)-1)*hsz)>>z;
-      return ((nidx+repl)&0x7FFFFFFF) % hsz;
+      return ((chunkNodeIdx(cidx, hsz)+repl)&0x7FFFFFFF) % hsz;
     }
 
     // Easy Cheesy Stupid:
@@ -147,6 +139,26 @@ final public class Key<T extends Keyed> extends Iced<Key<T>> implements Comparab
   }
 
 
+  // Unwrapped node index of the given chunk, see the round-robin pattern in D()
+  private static int chunkNodeIdx( int cidx, int hsz ) {
+    int x = cidx/hsz; // Multiples of cluster size
+    // 0 -> 1st trip around the cluster;            nidx= (cidx- 0*hsz)>>0
+    // 1,2 -> 2nd & 3rd trip; allocate in pairs:    nidx= (cidx- 1*hsz)>>1
+    // 3,4,5,6 -> next 4 rounds; allocate in quads: nidx= (cidx- 3*hsz)>>2
+    // 7-14 -> next 8 rounds in octets:             nidx= (cidx- 7*hsz)>>3
+    // 15+ -> remaining rounds in groups of 16:     nidx= (cidx-15*hsz)>>4
+    int z = x==0 ? 0 : (x<=2 ? 1 : (x<=6 ? 2 : (x<=14 ? 3 : 4)));
+    return (cidx-((1<<z)-1)*hsz)>>z;
+  }
+
+  /** Index of the home node of a chunk in a Cloud of the given size.  Chunk
+   *  homes depend only on the chunk index, so chunks with the same index of
+   *  all Vecs are homed on the same node.
+   *  @return Index of the home node of the chunk */
+  public static int chunkHome( int cidx, int cloudSize ) {
+    return (chunkNodeIdx(cidx, cloudSize)&0x7FFFFFFF) % cloudSize;
+  }
+
   /** List of illegal characters which are not allowed in user keys. */
   static final CharSequence ILLEGAL_USER_KEY_CHARS = " !@#$%^&*()+={}[]|\\;:\"'<>,/?";
 
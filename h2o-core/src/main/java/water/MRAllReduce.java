@@ -0,0 +1,205 @@
+package water;
+
+import jsr166y.ForkJoinPool;
+import water.nbhm.NonBlockingHashMapLong;
+
+import java.util.Arrays;
+
+/**
+ * All-reduce of the node-local results of an MRTask (see {@link MRTask#allReduce()}).
+ *
+ * Nodes exchange their partial results by recursive doubling: in step k every node sends
+ * its partial result to the node whose index differs in bit k and reduces the partial result
+ * received from that node into its own.  After log2(N) steps all nodes hold the fully reduced
+ * result.  If the cloud size is not a power of 2, the nodes above the largest power of 2
+ * first fold their results into a node of the lower part and get the final result back at
+ * the end.
+ *
+ * Results are exchanged as serialized bytes (a node keeps reducing into its own copy after
+ * sending it) through per-task mailboxes on the receiving nodes.  Once the all-reduce is done
+ * on a node (or aborted before the node joined it), its mailbox is kept for a while to drop
+ * the late messages (an abort sent by a failing peer), then expired.
+ */
+final class MRAllReduce {
+
+  private static final NonBlockingHashMapLong<Mailbox> MAILBOXES = new NonBlockingHashMapLong<>();
+  // Mailboxes of finished or aborted all-reduces are dropped after this time (ms)
+  static final long MAILBOX_TIMEOUT = 60 * 1000;
+
+  private MRAllReduce() {}
+
+  /**
+   * Exchanges partial results with the other nodes, blocks until the global result is available.
+   * @param local node-local result, null if the node has no results
+   * @param fs the RPCs sending the partial results are added here
+   * @return fully reduced result, null if there are no results on any node
+   */
+  static <T extends MRTask<T>> T allReduce(long id, T local, Futures fs) {
+    final int n = H2O.CLOUD.size(), me = H2O.SELF.index();
+    final int p = Integer.highestOneBit(n);
+    final int steps = Integer.numberOfTrailingZeros(p);
+    Mailbox mb = mailbox(id);
+    mb._open = true;
+    try {
+      if (me >= p) {            // Fold into the lower part of the cloud, then wait for the result
+        send(id, me - p, 0, local, fs);
+        return MRAllReduce.<T>deserialize(mb.take(id, steps + 1));
+      }
+      T acc = local;
+      if (me + p < n)
+        acc = reduce(acc, MRAllReduce.<T>deserialize(mb.take(id, 0)));
+      for (int k = 0; k < steps; k++) {
+        send(id, me ^ (1 << k), k + 1, acc, fs);
+        acc = reduce(acc, MRAllReduce.<T>deserialize(mb.take(id, k + 1)));
+      }
+      if (me + p < n)
+        send(id, me + p, steps + 1, acc, fs);
+      return acc;
+    } finally {
+      mb.close();
+      expire(System.currentTimeMillis());
+    }
+  }
+
+  /**
+   * Releases all nodes waiting in the given all-reduce, called when a node fails to compute its part.
+   * @return the RPCs sending the abort to the other nodes
+   */
+  static Futures abort(long id) {
+    Futures fs = new Futures();
+    for (H2ONode node : H2O.CLOUD.members())
+      if (node != H2O.SELF)
+        fs.add(RPC.call(node, new Abort(id)));
+    abortLocal(id);
+    return fs;
+  }
+
+  private static <T extends MRTask<T>> T reduce(T acc, T other) {
+    if (acc == null) return other;
+    if (other != null) acc.reduce4(other);
+    return acc;
+  }
+
+  private static void send(long id, int node, int step, MRTask mrt, Futures fs) {
+    fs.add(RPC.call(H2O.CLOUD.members()[node], new Exchange(id, step, serialize(mrt))));
+  }
+
+  private static byte[] serialize(MRTask mrt) {
+    if (mrt == null) return new byte[0];
+    // Diagnostics stay on the node, only the results travel
+    MRTrace trace = mrt._trace;
+    mrt._trace = null;
+    try {
+      return new AutoBuffer().put(mrt).buf();
+    } finally {
+      mrt._trace = trace;
+    }
+  }
+
+  private static <T extends MRTask<T>> T deserialize(byte[] bits) {
+    return bits.length == 0 ? null : new AutoBuffer(bits).<T>get();
+  }
+
+  private static Mailbox mailbox(long id) {
+    Mailbox mb = MAILBOXES.get(id);
+    if (mb == null) {
+      Mailbox old = MAILBOXES.putIfAbsent(id, mb = new Mailbox());
+      if (old != null) mb = old;
+    }
+    return mb;
+  }
+
+  private static void abortLocal(long id) {
+    mailbox(id).abort();
+    expire(System.currentTimeMillis());
+  }
+
+  // Drops the mailboxes of the all-reduces finished, or aborted and not joined, long enough ago
+  static void expire(long now) {
+    for (long k : MAILBOXES.keySetLong()) {
+      Mailbox mb = MAILBOXES.get(k);
+      if (mb != null && mb.expired(now))
+        MAILBOXES.remove(k, mb);
+    }
+  }
+
+  /** @return number of mailboxes on this node */
+  static int mailboxes() { return MAILBOXES.size(); }
+
+  // Partial results received by this node, indexed by the step of the all-reduce
+  private static final class Mailbox {
+    private final byte[][] _slots = new byte[34][];
+    private volatile long _aborted;
+    private volatile long _closed;    // When the all-reduce finished on this node
+    volatile boolean _open;           // The node joined the all-reduce
+
+    synchronized void put(int step, byte[] bits) {
+      if (_closed > 0) return;        // Late message, nobody will read it
+      assert _slots[step] == null;
+      _slots[step] = bits;
+      notifyAll();
+    }
+
+    synchronized void abort() {
+      if (_closed > 0) return;        // Finished already, the abort is too late
+      _aborted = System.currentTimeMillis();
+      notifyAll();
+    }
+
+    synchronized void close() {
+      Arrays.fill(_slots, null);
+      _closed = System.currentTimeMillis();
+    }
+
+    // A node which did not join an aborted all-reduce yet must still find it aborted
+    boolean expired(long now) {
+      final long t = _closed > 0 ? _closed : _open ? 0 : _aborted;
+      return t > 0 && now - t > MAILBOX_TIMEOUT;
+    }
+
+    private synchronized boolean ready(int step) { return _slots[step] != null || _aborted > 0; }
+
+    byte[] take(long id, final int step) {
+      while (!ready(step)) {
+        try {
+          ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+            @Override public boolean block() throws InterruptedException {
+              synchronized (Mailbox.this) {
+                while (!ready(step)) Mailbox.this.wait();
+              }
+              return true;
+            }
+            @Override public boolean isReleasable() { return ready(step); }
+          });
+        } catch (InterruptedException ignore) {
+          // do nothing
+        }
+      }
+      synchronized (this) {
+        if (_slots[step] == null)
+          throw new IllegalStateException("All-reduce " + id + " aborted by a failure on another node");
+        byte[] bits = _slots[step];
+        _slots[step] = null;
+        return bits;
+      }
+    }
+  }
+
+  static class Exchange extends DTask<Exchange> {
+    final long _id;
+    final int _step;
+    byte[] _bits;
+    private Exchange(long id, int step, byte[] bits) { super(H2O.MIN_HI_PRIORITY); _id = id; _step = step; _bits = bits; }
+    @Override public void compute2() {
+      mailbox(_id).put(_step, _bits);
+      _bits = null;             // Do not send the payload back with the ack
+      tryComplete();
+    }
+  }
+
+  static class Abort extends DTask<Abort> {
+    final long _id;
+    private Abort(long id) { super(H2O.MIN_HI_PRIORITY); _id = id; }
+    @Override public void compute2() { abortLocal(_id); tryComplete(); }
+  }
+}
@@ -8,6 +8,7 @@ import water.util.PrettyPrint;
 import water.fvec.Vec.VectorGroup;
 
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Map/Reduce style distributed computation.
@@ -191,6 +192,77 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
   /** Used to invoke profiling.  Call as: <code>new MRTask().profile().doAll();*/
   public T profile() { _profile = new MRProfile(this); return (T)this; }
 
+  MRTrace _trace;
+  // Queue-wait accounting of a traced task: when was this task submitted/forked
+  transient long _queuedAt;
+  // Start of the RPCs to the neighbour nodes of a traced task
+  private transient long _nleftAt, _nriteAt;
+
+  /** Used to invoke distributed tracing.  Call as: <code>new MRTask().trace().doAll();</code>
+   *  Once the task is done, the spans recorded on all nodes are available
+   *  from {@link #getTrace()} and through the <code>/3/MRTraces</code> endpoint. */
+  public T trace() { _trace = new MRTrace(this); return (T)this; }
+  /** @return merged trace of the task, or null if tracing was not turned on */
+  public MRTrace getTrace() { return _trace; }
+  private void traceIfEnabled() { if( _trace == null && MRTrace.TRACE_ALL ) _trace = new MRTrace(this); }
+
+  /** Id of the all-reduce of this task, 0 if the results are reduced only onto the caller */
+  long _allReduce;
+  // The task as received by a remote node, returned back instead of the results in all-reduce mode
+  private transient byte[] _allReduceRequest;
+
+  /** Reduce the results on all nodes instead of reducing them onto the caller.
+   *  The node-local results are exchanged by recursive doubling, after which
+   *  every node holds the fully reduced result; {@link #postAllReduce()} is
+   *  called on every node with the result in 'this'.  The caller gets the
+   *  result as usual, but the results are not shipped up the RPC tree.  Meant
+   *  for tasks with large results (histograms, Gram matrices) which would
+   *  otherwise be broadcast to all nodes right after the reduce.  Not
+   *  supported for tasks producing output Vecs, tasks running locally and
+   *  tasks started from a client node.  Call as:
+   *  <code>new MRTask().allReduce().doAll();</code> */
+  public T allReduce() { _allReduce = -1; return (T)this; }
+  /** Override to use the fully reduced result on every node of the cloud,
+   *  called only in the all-reduce mode (see {@link #allReduce()}). */
+  protected void postAllReduce() {}
+  private void startAllReduce() {
+    if( _allReduce == 0 ) return;
+    if( _output_types != null || _run_local || H2O.ARGS.client )
+      throw new IllegalArgumentException("All-reduce is not supported for tasks with output Vecs, local tasks and tasks started from a client");
+    _allReduce = nextClusterId();
+  }
+
+  /** Id of the work-stealing of this task, 0 if stealing is disabled */
+  long _steal;
+  /** Number of chunks mapped by other nodes than their home node */
+  int _stolenChunks;
+  // Chunks homed on this node, claimed by the local map calls or by thieves
+  private transient MRWorkStealing.State _stealState;
+  // Maps chunks stolen from other nodes, in top-local task only
+  transient Thief _thief;
+  // Chunks to map by a subtree working on stolen chunks, _lo/_hi index this array
+  transient int[] _chunkIdx;
+
+  /** Let idle nodes map chunks homed on busy nodes, fetching the chunk data
+   *  remotely.  Calling this declares that map() is free of side effects
+   *  outside of the task's own results: it does not modify the input Chunks
+   *  and produces no output Vecs.  Once a node claimed all its own chunks, it asks the
+   *  other nodes for their not yet started chunks.  Call as:
+   *  <code>new MRTask().workStealing().doAll(fr);</code> */
+  public T workStealing() { _steal = -1; return (T)this; }
+  /** @return number of chunks mapped by other nodes than their home node */
+  public int stolenChunks() { return _stolenChunks; }
+  private void startWorkStealing() {
+    if( _steal == 0 ) return;
+    if( _output_types != null || _run_local || _fr == null )
+      throw new IllegalArgumentException("Work stealing is supported only for Frame tasks without output Vecs that do not run locally");
+    _steal = nextClusterId();
+  }
+
+  private static final AtomicInteger NEXT_CLUSTER_ID = new AtomicInteger();
+  /** Cluster-wide unique id of a task started on this node */
+  static long nextClusterId() { return ((long) H2O.SELF.index() << 32) | (NEXT_CLUSTER_ID.incrementAndGet() & 0xFFFFFFFFL); }
+
   /** Get the resulting Frame from this invoked MRTask.  <b>This Frame is not
    *  in the DKV.</b> AppendableVec instances are closed into Vec instances,
    *  which then appear in the DKV.
@@ -413,6 +485,9 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
     _topGlobal = true;
     _keys = keys;
     _nlo = selfidx(); _nhi = (short)H2O.CLOUD.size(); // Do Whole Cloud
+    traceIfEnabled();
+    startAllReduce();
+    startWorkStealing();
     setupLocal0();              // Local setup
     H2O.submitTask(this);       // Begin normal execution on a FJ thread
   }
@@ -460,6 +535,9 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
     _fr = fr;                   // Record vectors to work on
     _nlo = selfidx(); _nhi = (short)H2O.CLOUD.size(); // Do Whole Cloud
     _run_local = run_local;     // Run locally by copying data, or run globally?
+    traceIfEnabled();
+    startAllReduce();
+    startWorkStealing();
     assert checkRunLocal() : "MRTask is expected to be running in a local-mode but _run_local = false";
     setupLocal0();              // Local setup
     H2O.submitTask(this);       // Begin normal execution on a FJ thread
@@ -514,6 +592,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
   /** Called once on remote at top level, probably with a subset of the cloud.
    *  Called internal by D/F/J.  Not expected to be user-called.  */
   @Override public final void dinvoke(H2ONode sender) {
+    if( _allReduce != 0 ) _allReduceRequest = new AutoBuffer().put(this).buf();
     setupLocal0();              // Local setup
     H2O.submitTask(this);
   }
@@ -527,6 +606,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
   private void setupLocal0() {
     if(_profile != null)
       (_profile = new MRProfile(this))._localstart = System.currentTimeMillis();
+    final long traceStart = _trace != null ? MRTrace.now() : 0;
     // Make a blockable Futures for both internal and user work to block on.
     _fs = new Futures();
     if(modifiesVolatileVecs() && _fr != null){
@@ -545,8 +625,10 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
     // - - There's remote work, or Client mode (always remote work)
     if( (!_run_local) && ((nlo+1 < _nhi) || H2O.ARGS.client) ) {
       if(_profile!=null) _profile._rpcLstart = System.currentTimeMillis();
+      if(_trace!=null) _nleftAt = MRTrace.now();
       _nleft = remote_compute(H2O.ARGS.client ? nlo : nlo+1,nmid);
       if(_profile!=null) _profile._rpcRstart = System.currentTimeMillis();
+      if(_trace!=null) _nriteAt = MRTrace.now();
       _nrite = remote_compute( nmid,_nhi);
       if(_profile!=null) _profile._rpcRdone  = System.currentTimeMillis();
     } else {
@@ -558,13 +640,29 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
       _lo = 0;  _hi = _fr.numCols()==0 ? 0 : _fr.anyVec().nChunks(); // Do All Chunks
       // get the Vecs from the K/V store, to avoid racing fetches from the map calls
       _fr.vecs();
+      if( _steal != 0 && !H2O.ARGS.client ) {
+        int[] home = new int[_hi];
+        int nhome = 0;
+        for( int i = 0; i < _hi; i++ )
+          if( _fr.anyVec().chunkKey(i).home() ) home[nhome++] = i;
+        _thief = new Thief();
+        addToPendingCount(1);   // Not complete until the thief is done
+        _stealState = new MRWorkStealing.State(_hi, Arrays.copyOf(home, nhome), () -> H2O.submitTask(_thief));
+        MRWorkStealing.register(_steal, _stealState);
+      }
     } else if( _keys != null ) {    // Else doing a set of Keys
       _lo = 0;  _hi = _keys.length; // Do All Keys
     }
     // Setup any user's shared local structures for both normal cluster nodes
     // and any client; want this for possible reduction ONTO client
     setupLocal();
+    // The thief maps chunks too, it may start only once the local setup is done
+    if( _stealState != null ) _stealState.start();
     if(_profile!=null) _profile._localdone = System.currentTimeMillis();
+    if(_trace!=null) {
+      _trace.add("setupLocal", traceStart, 0);
+      _queuedAt = MRTrace.now(); // Submitted to F/J right after the setup
+    }
   }
 
   // Make an RPC call to some node in the middle of the given range.  Add a
@@ -575,6 +673,10 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
       assert node != H2O.SELF.index(); // Not the same as selfidx() if this is a client
       T mrt = copyAndInit();
       mrt._nhi = (short) nhi;
+      if( _trace != null ) mrt._trace = _trace.child(); // Remote collects its own spans
+      // In all-reduce mode the remote finishes only after this node took part
+      // in the all-reduce, the RPC is waited for after the local work is done.
+      if( _allReduce != 0 ) return new RPC<>(H2O.CLOUD._memary[node], mrt).call();
       addToPendingCount(1); // Not complete until the RPC returns
       // Set self up as needing completion by this RPC: when the ACK comes back
       // we'll get a wakeup.
@@ -596,12 +698,14 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
   @Override public final void compute2() {
     assert _left == null && _rite == null && _res == null;
     if(_profile!=null) _profile._mapstart = System.currentTimeMillis();
+    final long traceStart = _trace != null ? MRTrace.now() : 0;
     if( (_hi-_lo) >= 2 ) { // Multi-chunk case: just divide-and-conquer to 1 chunk
       final int mid = (_lo+_hi)>>>1; // Mid-point
       _left = copyAndInit();
       _rite = copyAndInit();
       _left._hi = mid;          // Reset mid-point
       _rite._lo = mid;          // Also set self mid-point
+      if( _trace != null ) _left._queuedAt = _rite._queuedAt = traceStart;
       addToPendingCount(1);     // One fork awaiting completion
       if( !isCompletedAbnormally() ) _left.fork();     // Runs in another thread/FJ instance
       if( !isCompletedAbnormally() ) _rite.compute2(); // Runs in THIS F/J thread
@@ -615,6 +719,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
         assert(_keys == null || !H2O.ARGS.client) : "Client node should not process any keys in MRTask!";
         if(_profile!=null) _profile._userstart = System.currentTimeMillis();
         if( _keys != null ) map(_keys[_lo]);
+        if( _trace != null ) _trace.add("map", traceStart, traceStart - _queuedAt)._chunk = _keys == null ? -1 : _lo;
         _res = self();        // Save results since called map() at least once!
         if (_postMap != null)
           _postMap.call(_keys[_lo]);
@@ -622,7 +727,9 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
       }
     } else if( _hi > _lo ) {    // Frame, Single chunk?
       Vec v0 = _fr.anyVec();
-      if( _run_local || v0.chunkKey(_lo).home() ) { // And chunk is homed here?
+      final int cidx = _chunkIdx == null ? _lo : _chunkIdx[_lo]; // Stolen or local chunk
+      if( _run_local || _chunkIdx != null || // Stolen chunk, or chunk homed here and not stolen?
+          (v0.chunkKey(cidx).home() && (_stealState == null || _stealState.claim(cidx))) ) {
         assert(_run_local || !H2O.ARGS.client) : "Client node should not process any keys in MRTask!";
 
         // Make decompression chunk headers for these chunks
@@ -631,9 +738,9 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
         NewChunk [] appendableChunks = null;
         for( int i=0; i<vecs.length; i++ )
           if( vecs[i] != null ) {
-            assert _run_local || vecs[i].chunkKey(_lo).home()
-              : "Chunk="+_lo+" v0="+v0+", k="+v0.chunkKey(_lo)+"   v["+i+"]="+vecs[i]+", k="+vecs[i].chunkKey(_lo);
-            bvs[i] = vecs[i].chunkForChunkIdx(_lo);
+            assert _run_local || _chunkIdx != null || vecs[i].chunkKey(cidx).home()
+              : "Chunk="+cidx+" v0="+v0+", k="+v0.chunkKey(cidx)+"   v["+i+"]="+vecs[i]+", k="+vecs[i].chunkKey(cidx);
+            bvs[i] = vecs[i].chunkForChunkIdx(cidx);
           }
 
         if(_output_types != null) {
@@ -642,7 +749,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
           appendableChunks = new NewChunk[_output_types.length];
           for(int i = 0; i < _appendables.length; ++i) {
             _appendables[i] = new AppendableVec(vg.vecKey(_vid+i),_output_types[i]);
-            appendableChunks[i] = _appendables[i].chunkForChunkIdx(_lo);
+            appendableChunks[i] = _appendables[i].chunkForChunkIdx(cidx);
           }
         }
         // Call all the various map() calls that apply
@@ -680,8 +787,13 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
           _profile._closestart = System.currentTimeMillis();
         if (_postMap != null)
           _postMap.call(bvs);
-        for( Chunk bv : bvs )  bv.close(_lo,_fs);
-        if( _output_types != null) for(NewChunk nch:appendableChunks)nch.close(_lo, _fs);
+        for( Chunk bv : bvs )  bv.close(cidx,_fs);
+        if( _output_types != null) for(NewChunk nch:appendableChunks)nch.close(cidx, _fs);
+        if( _trace != null ) {
+          MRTrace.Span span = _trace.add("map", traceStart, traceStart - _queuedAt);
+          span._chunk = cidx;
+          for( Chunk bv : bvs ) if( bv != null ) span._bytes += bv.byteSize();
+        }
       }
     }
     if(_profile!=null)
@@ -693,12 +805,21 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
    *  F/J.  Not expected to be user-called. */
   @Override public final void onCompletion( CountedCompleter caller ) {
     if(_profile!=null) _profile._onCstart = System.currentTimeMillis();
+    final long traceStart = _trace != null && _left != null ? MRTrace.now() : 0;
     // Reduce results into 'this' so they collapse going up the execution tree.
     // NULL out child-references so we don't accidentally keep large subtrees
     // alive since each one may be holding large partial results.
     reduce2(_left); _left = null;
     reduce2(_rite); _rite = null;
+    if( _thief != null ) {      // Results of the chunks stolen from other nodes
+      T r = _thief._res; _thief = null;
+      if( r != null ) {
+        if( _res == null ) _res = r;
+        else _res.reduce4(r);
+      }
+    }
     if(_profile!=null) _profile._reducedone = System.currentTimeMillis();
+    if(traceStart != 0) _trace.add("reduce", traceStart, 0);
     // Only on the top local call, have more completion work
     if( _topLocal ) postLocal0();
     if(_profile!=null) _profile._onCdone = System.currentTimeMillis();
@@ -725,10 +846,18 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
   // Block for other queued pending tasks.
   // Copy any final results into 'this', such that a return of 'this' has the results.
   private void postLocal0() {
+    long traceStart = _trace != null ? MRTrace.now() : 0;
+    if( _stealState != null ) MRWorkStealing.unregister(_steal); // All local chunks are claimed
     closeLocal();               // User's node-local cleanup
     if(_profile!=null) _profile._closeLocalDone = System.currentTimeMillis();
-    reduce3(_nleft);            // Reduce global results from neighbors.
-    reduce3(_nrite);
+    if(_trace!=null) _trace.add("closeLocal", traceStart, 0);
+    if( _allReduce != 0 ) {     // Exchange results with all nodes, _res becomes the global result
+      if(_trace!=null) traceStart = MRTrace.now();
+      _res = MRAllReduce.allReduce(_allReduce, _res, _fs);
+      if(_trace!=null) _trace.add("allReduce", traceStart, 0);
+    }
+    reduce3(_nleft, _nleftAt);  // Reduce global results from neighbors.
+    reduce3(_nrite, _nriteAt);
     if(_profile!=null) _profile._remoteBlkDone = System.currentTimeMillis();
     _fs.blockForPending();      // Block any pending user tasks
     if(_profile!=null) _profile._localBlkDone = System.currentTimeMillis();
@@ -737,26 +866,49 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
     if( _res == null ) _nhi=-1; // Flag for no local results *at all*
     else if( _res != this ) {   // There is a local result, and its not self
       _res._profile = _profile; // Use my profile (not child's)
+      _res._trace = _trace;     // Same for the trace, the result might come from a remote node
       copyOver(_res);           // So copy into self
     }
+    if( _allReduce != 0 ) {
+      if( _res != null ) postAllReduce();
+      if( !_topGlobal ) {       // The caller has the results already, send back just the request
+        MRProfile profile = _profile;
+        MRTrace trace = _trace;
+        copyOver(new AutoBuffer(_allReduceRequest).<T>get());
+        _profile = profile;
+        _trace = trace;
+      }
+    }
     if( _topGlobal ) {
       if (_fr != null)     // Do any post-writing work (zap rollup fields, etc)
         _fr.postWrite(_fs).blockForPending();
+      if(_trace!=null) traceStart = MRTrace.now();
       postGlobal();             // User's continuation work
+      if(_trace!=null) {
+        _trace.add("postGlobal", traceStart, 0);
+        _trace.finish();
+      }
     }
 
   }
 
   // Block for RPCs to complete, then reduce global results into self results
-  private void reduce3( RPC<T> rpc ) {
+  private void reduce3( RPC<T> rpc, long traceStart ) {
     if( rpc == null ) return;
     T mrt = rpc.get();          // This is a blocking remote call
+    if(_trace!=null) {          // Span from the call until the results are available here
+      MRTrace.Span span = _trace.add("rpc", traceStart, 0);
+      span._peer = rpc._target.index();
+      span._bytes = rpc.size_rez();
+      _trace.merge(mrt._trace);
+    }
     // Note: because _fs is transient it is not set or cleared by the RPC.
     // Because the MRT object is a clone of 'self' it's likely to contain a ptr
     // to the self _fs which will be not-null and still have local pending
     // blocks.  Not much can be asserted there.
     if(_profile!=null)
       _profile.gather(mrt._profile, rpc.size_rez());
+    if( _allReduce != 0 ) return; // Results are all-reduced already
     // Unlike reduce2, results are in mrt directly not mrt._res.
     if( mrt._nhi != -1L ) {     // Any results at all?
       if( _res == null ) _res = mrt;
@@ -772,6 +924,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
       for( int i=0; i<_appendables.length; i++ )
         _appendables[i].reduce(mrt._appendables[i]);
     if( _ex == null ) _ex = mrt._ex;
+    _stolenChunks += mrt._stolenChunks;
     // User's reduction
     reduce(mrt);
   }
@@ -788,6 +941,10 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
    *  expected to be user-called.  */
   @Override public final boolean onExceptionalCompletion( Throwable ex, CountedCompleter caller ) {
     self_cancel1();
+    // Nodes waiting for our part of the all-reduce would never finish
+    if( _allReduce != 0 && _topLocal ) MRAllReduce.abort(_allReduce);
+    // No more chunks to hand out to the thieves of the other nodes
+    if( _stealState != null && _topLocal ) MRWorkStealing.unregister(_steal);
     // Block for completion - we don't want the work, but we want all the
     // workers stopped before we complete this task.  Otherwise this task quits
     // early and begins post-task processing (generally cleanup from the
@@ -810,12 +967,49 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
     x._nleft = x._nrite = null;
     x. _left = x. _rite = null;
     x._fs = _fs;
+    x._thief = null;      // Only the top-local task reduces the stolen chunks
     if( _profile!=null )  x._profile = new MRProfile(this);
     else                  x._profile = null;    // Clone needs its own profile
     x.setPendingCount(0); // Volatile write for completer field; reset pending count also
     return x;
   }
 
+  /** Steals chunks from the other nodes once all the chunks homed here are
+   *  claimed, until no node has any chunks left. */
+  final class Thief extends H2O.H2OCountedCompleter<Thief> {
+    private T _res;
+    Thief() { super(MRTask.this); }
+    @Override public void compute2() {
+      final int n = H2O.CLOUD.size(), self = selfidx();
+      int stolen = 0;
+      boolean found = true;
+      while( found ) {          // Until a full round over the other nodes finds nothing
+        found = false;
+        for( int i = 1; i < n; i++ ) {
+          final int victim = (self + i) % n;
+          int[] chunks = MRWorkStealing.steal(H2O.CLOUD._memary[victim], _steal);
+          if( chunks == null || chunks.length == 0 ) continue;
+          found = true;
+          final long traceStart = _trace != null ? MRTrace.now() : 0;
+          MRTask<T> x = copyAndInit(); // Map the stolen chunks as a separate F/J tree
+          x.setCompleter(null);
+          x._lo = 0;  x._hi = chunks.length;
+          x._chunkIdx = chunks;
+          x._queuedAt = traceStart;
+          x.invoke();
+          if( x._res != null ) {
+            if( _res == null ) _res = x._res;
+            else _res.reduce4(x._res);
+          }
+          stolen += chunks.length;
+          if( _trace != null ) _trace.add("steal", traceStart, 0)._peer = victim;
+        }
+      }
+      if( _res != null ) _res._stolenChunks += stolen;
+      tryComplete();
+    }
+  }
+
   public static abstract class PostMapAction<T extends PostMapAction<T>> extends Iced<T> {
     void call(Key mapInput) {
       // do nothing by default
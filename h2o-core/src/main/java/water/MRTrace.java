@@ -0,0 +1,218 @@
+package water;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Distributed trace of a single MRTask execution.
+ *
+ * Tracing is turned on either per task ({@link MRTask#trace()}) or for all MRTasks started
+ * on a node (system property <code>sys.ai.h2o.mrtask.trace</code>). Every node taking part
+ * in the computation records spans of its own work into its copy of the trace: setup of the
+ * node-local work, one span per mapped chunk (including the time the F/J task spent waiting
+ * in the queue), local reductions, RPCs to the neighbour nodes (including the size of the
+ * returned result) and the final close/postGlobal calls. The per-node traces travel back
+ * with the results of the task and are merged on the node that started the task, where the
+ * completed trace is kept in a small registry exposed through <code>/3/MRTraces</code>.
+ *
+ * Timestamps are microseconds, anchored to the wall-clock time of the node start, so that
+ * spans of different nodes can be put on one timeline (up to the clock skew of the nodes).
+ */
+public class MRTrace extends Iced<MRTrace> {
+
+  static final boolean TRACE_ALL = H2O.getSysBoolProperty("mrtask.trace", false);
+  /** Maximum number of spans kept per trace, spans beyond this limit are only counted */
+  static final int MAX_SPANS = Integer.getInteger(H2O.OptArgs.SYSTEM_PROP_PREFIX + "mrtask.trace.maxSpans", 1 << 16);
+  /** Number of completed traces kept on the node */
+  private static final int MAX_TRACES = 64;
+
+  private static final long BASE_MS = System.currentTimeMillis();
+  private static final long BASE_NS = System.nanoTime();
+  private static final AtomicLong NEXT_ID = new AtomicLong();
+  private static final Map<Long, MRTrace> TRACES = new LinkedHashMap<Long, MRTrace>() {
+    @Override protected boolean removeEldestEntry(Map.Entry<Long, MRTrace> eldest) { return size() > MAX_TRACES; }
+  };
+
+  /** One timed piece of work done on a single node. */
+  public static class Span extends Iced<Span> {
+    public String _phase;
+    public int _node;           // Index of the node in the cloud
+    public long _tid;           // Thread of the node
+    public String _thread;
+    public long _start, _dur;   // Microseconds
+    public long _wait;          // Time spent in the F/J queue before the span started (micros)
+    public int _chunk = -1;     // Mapped chunk
+    public int _peer = -1;      // Node called by an RPC
+    public long _bytes;         // Bytes mapped (chunks) or received (RPC results)
+    public long end() { return _start + _dur; }
+  }
+
+  public long _id;
+  public String _task;
+  public int _node;             // Node which started the task
+  public long _start, _end;
+  private Span[] _spans = new Span[16];
+  private int _len;
+  private int _dropped;
+
+  public MRTrace() {} // Deserialization
+
+  MRTrace(MRTask task) {
+    _id = NEXT_ID.incrementAndGet();
+    _task = task.getClass().getName();
+    _node = H2O.SELF.index();
+    _start = now();
+  }
+
+  private MRTrace(MRTrace parent) {
+    _id = parent._id;
+    _task = parent._task;
+    _node = parent._node;
+    _start = parent._start;
+  }
+
+  /** Empty trace collecting the spans of a remote node. */
+  MRTrace child() { return new MRTrace(this); }
+
+  static long now() { return BASE_MS * 1000 + (System.nanoTime() - BASE_NS) / 1000; }
+
+  Span add(String phase, long start, long wait) {
+    Span s = new Span();
+    s._phase = phase;
+    s._node = H2O.SELF.index();
+    Thread t = Thread.currentThread();
+    s._tid = t.getId();
+    s._thread = t.getName();
+    s._start = start;
+    s._dur = now() - start;
+    s._wait = wait;
+    synchronized (this) {
+      if (_len == MAX_SPANS) {
+        _dropped++;
+      } else {
+        if (_len == _spans.length) _spans = Arrays.copyOf(_spans, _len << 1);
+        _spans[_len++] = s;
+      }
+    }
+    return s;
+  }
+
+  synchronized void merge(MRTrace t) {
+    if (t == null || t == this) return;
+    int n = Math.min(t._len, MAX_SPANS - _len);
+    if (_len + n > _spans.length) _spans = Arrays.copyOf(_spans, Math.max(_len + n, _len << 1));
+    System.arraycopy(t._spans, 0, _spans, _len, n);
+    _len += n;
+    _dropped += t._dropped + t._len - n;
+  }
+
+  /** Called on the node which started the task once all the work is done. */
+  void finish() {
+    _end = now();
+    synchronized (TRACES) { TRACES.put(_id, this); }
+  }
+
+  public synchronized Span[] spans() { return Arrays.copyOf(_spans, _len); }
+  public synchronized int droppedSpans() { return _dropped; }
+
+  /** @return the longest chunk map span, or null if no chunk was mapped */
+  public Span slowestMap() {
+    Span slowest = null;
+    for (Span s : spans())
+      if (s._chunk >= 0 && (slowest == null || s._dur > slowest._dur)) slowest = s;
+    return slowest;
+  }
+
+  /** @return total time (micros) spent mapping chunks, indexed by node */
+  public long[] mapTimePerNode() {
+    long[] res = new long[H2O.CLOUD.size()];
+    for (Span s : spans())
+      if (s._chunk >= 0 && s._node >= 0 && s._node < res.length) res[s._node] += s._dur;
+    return res;
+  }
+
+  /** @return node which finished its map work as the last one, -1 if nothing was mapped */
+  public int stragglerNode() {
+    int node = -1;
+    long end = Long.MIN_VALUE;
+    for (Span s : spans())
+      if (s._chunk >= 0 && s.end() > end) { end = s.end(); node = s._node; }
+    return node;
+  }
+
+  /** Completed traces of the tasks started on this node, most recent first. */
+  public static MRTrace[] traces() {
+    MRTrace[] res;
+    synchronized (TRACES) { res = TRACES.values().toArray(new MRTrace[0]); }
+    Collections.reverse(Arrays.asList(res));
+    return res;
+  }
+
+  public static MRTrace get(long id) {
+    synchronized (TRACES) { return TRACES.get(id); }
+  }
+
+  /**
+   * Writes the trace in the Chrome trace event format (chrome://tracing, Perfetto).
+   * Nodes are represented as processes, F/J threads of the nodes as threads.
+   */
+  public void writeChromeTrace(OutputStream os) throws IOException {
+    JsonWriter w = new JsonWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8));
+    w.beginObject();
+    w.name("displayTimeUnit").value("ms");
+    w.name("otherData").beginObject()
+            .name("task").value(_task)
+            .name("trace_id").value(_id)
+            .name("dropped_spans").value(droppedSpans())
+            .endObject();
+    w.name("traceEvents").beginArray();
+    Span[] spans = spans();
+    Set<Integer> nodes = new TreeSet<>();
+    Map<Long, Span> threads = new LinkedHashMap<>();
+    for (Span s : spans) {
+      nodes.add(s._node);
+      threads.put(((long) s._node << 48) ^ s._tid, s);
+    }
+    H2ONode[] members = H2O.CLOUD.members();
+    for (int node : nodes) {
+      String name = node >= 0 && node < members.length ? members[node].toString() : "client";
+      w.beginObject().name("name").value("process_name").name("ph").value("M").name("pid").value(node)
+              .name("args").beginObject().name("name").value(name).endObject().endObject();
+    }
+    for (Span s : threads.values()) {
+      w.beginObject().name("name").value("thread_name").name("ph").value("M").name("pid").value(s._node)
+              .name("tid").value(s._tid)
+              .name("args").beginObject().name("name").value(s._thread).endObject().endObject();
+    }
+    for (Span s : spans) {
+      w.beginObject();
+      w.name("name").value(s._phase);
+      w.name("cat").value(_task);
+      w.name("ph").value("X");
+      w.name("ts").value(s._start);
+      w.name("dur").value(s._dur);
+      w.name("pid").value(s._node);
+      w.name("tid").value(s._tid);
+      w.name("args").beginObject();
+      if (s._chunk >= 0) w.name("chunk").value(s._chunk);
+      if (s._peer >= 0) w.name("peer").value(s._peer);
+      if (s._bytes != 0) w.name("bytes").value(s._bytes);
+      if (s._wait != 0) w.name("queue_wait_us").value(s._wait);
+      w.endObject();
+      w.endObject();
+    }
+    w.endArray();
+    w.endObject();
+    w.flush();
+  }
+
+  @Override public String toString() {
+    return "MRTrace(" + _id + ", " + _task + ", " + _len + " spans)";
+  }
+}
@@ -0,0 +1,91 @@
+package water;
+
+import water.nbhm.NonBlockingHashMapLong;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stealing of chunks between the nodes of an MRTask (see {@link MRTask#workStealing()}).
+ *
+ * Every node registers the chunks homed on it for the task.  Before mapping a home chunk
+ * the node claims it; once all its home chunks are claimed, the node asks the other nodes
+ * for chunks they have not claimed yet, claims them on their behalf and maps them over data
+ * fetched remotely.  The results of the stolen chunks are reduced locally, the victim skips
+ * the chunks claimed by a thief.
+ */
+final class MRWorkStealing {
+
+  // Node-wide statistics, published in the heartbeat
+  /** Chunks mapped by this node on behalf of other nodes */
+  static final AtomicLong STOLEN_CHUNKS = new AtomicLong();
+
+  private static final NonBlockingHashMapLong<State> STATES = new NonBlockingHashMapLong<>();
+
+  private MRWorkStealing() {}
+
+  /** Chunks homed on this node for a single task, the thief is started once all of them are claimed
+   *  and the task was started (see {@link #start()}). */
+  static final class State {
+    private final int[] _home;  // Home chunks
+    private final AtomicIntegerArray _claimed;
+    private final AtomicInteger _unclaimed; // Unclaimed home chunks, plus one till started
+    private final Runnable _onClaimed;
+    private int _cursor;        // All home chunks below the cursor were claimed already
+
+    State(int nchunks, int[] home, Runnable onClaimed) {
+      _home = home;
+      _claimed = new AtomicIntegerArray(nchunks);
+      _unclaimed = new AtomicInteger(home.length + 1);
+      _onClaimed = onClaimed;
+    }
+
+    /** Called once the local setup of the task is done: the thief can run from now on. */
+    void start() {
+      if (_unclaimed.decrementAndGet() == 0) _onClaimed.run();
+    }
+
+    /** @return true if the chunk was claimed by the caller, false if it is claimed already */
+    boolean claim(int cidx) {
+      if (!_claimed.compareAndSet(cidx, 0, 1)) return false;
+      if (_unclaimed.decrementAndGet() == 0) _onClaimed.run();
+      return true;
+    }
+
+    /** Claims some of the unclaimed chunks (a quarter, at least one) for a thief. */
+    synchronized int[] steal() {
+      int n = Math.max(1, _unclaimed.get() / 4);
+      int[] res = new int[n];
+      int len = 0;
+      while (len < n && _cursor < _home.length) {
+        if (claim(_home[_cursor])) res[len++] = _home[_cursor];
+        _cursor++;
+      }
+      return Arrays.copyOf(res, len);
+    }
+  }
+
+  static void register(long id, State state) { STATES.put(id, state); }
+  static void unregister(long id) { STATES.remove(id); }
+
+  /** Asks the given node for some of its unclaimed chunks. */
+  static int[] steal(H2ONode victim, long id) {
+    int[] chunks = RPC.call(victim, new Steal(id)).get()._chunks;
+    if (chunks != null)
+      STOLEN_CHUNKS.addAndGet(chunks.length);
+    return chunks;
+  }
+
+  static class Steal extends DTask<Steal> {
+    final long _id;
+    int[] _chunks;
+    private Steal(long id) { super(H2O.MIN_HI_PRIORITY); _id = id; }
+    @Override public void compute2() {
+      State s = STATES.get(_id);
+      _chunks = s == null ? null : s.steal();
+      tryComplete();
+    }
+  }
+}
@@ -128,6 +128,9 @@ abstract public class MemoryManager {
       if( oom ) setMemLow(); // Stop allocations; trigger emergency clean
       Cleaner.kick_store_cleaner();
     } else { // Else we are not *emergency* cleaning, but may be lazily cleaning.
+      // Off-heap Chunks are not part of the heap numbers, but are evicted by
+      // the same Cleaner against the off-heap memory limit
+      if( OffHeapMemory.isLow() ) Cleaner.kick_store_cleaner();
       setMemGood();             // Cache is below desired level; unblock allocations
       if( oom ) {               // But still have an OOM?
         m = "Unblock allocations; cache below desired, but also OOM: ";
@@ -153,7 +156,8 @@ abstract public class MemoryManager {
     }
 
     // No logging if under memory pressure: can deadlock the cleaner thread
-    String s = m+msg+", (K/V:"+PrettyPrint.bytes(cacheUsageGC)+" + POJO:"+PrettyPrint.bytes(pojoUsedGC)+" + FREE:"+PrettyPrint.bytes(freeHeap)+" == MEM_MAX:"+PrettyPrint.bytes(MEM_MAX)+"), desiredKV="+PrettyPrint.bytes(Cleaner.DESIRED)+(oom?" OOM!":" NO-OOM");
+    String s = m+msg+", (K/V:"+PrettyPrint.bytes(cacheUsageGC)+" + POJO:"+PrettyPrint.bytes(pojoUsedGC)+" + FREE:"+PrettyPrint.bytes(freeHeap)+" == MEM_MAX:"+PrettyPrint.bytes(MEM_MAX)+"), desiredKV="+PrettyPrint.bytes(Cleaner.DESIRED)+(oom?" OOM!":" NO-OOM")+
+               (H2O.ARGS.offheap_chunks ? ", "+OffHeapMemory.status() : "");
     if( CAN_ALLOC ) { if( oom ) Log.warn(s); else Log.debug(s); }
     else            System.err.println(s);
   }
@@ -0,0 +1,318 @@
+package water;
+
+import water.util.Log;
+import water.util.PrettyPrint;
+import water.util.UnsafeUtils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Native memory holding the payload of Chunks when running with
+ * {@code -offheap_chunks}.  Data kept outside of the Java heap does not need
+ * to be traced (nor copied) by the garbage collector, GC pauses do not grow
+ * with the size of the cached data.
+ *
+ * Memory is handed out by a slab allocator: requests are rounded up to a size
+ * class (4 classes per power of two, so at most 25% is wasted), each class
+ * carves fixed-size blocks out of large natively allocated slabs and keeps the
+ * released blocks on a free list.  Requests larger than {@link #MAX_BLOCK} get
+ * their own native allocation.  Slabs are never returned to the OS.
+ *
+ * A {@link Block} is recycled only once it is unreachable: a Chunk and its
+ * (shallow) clones share the block and keep it alive, so a reader holding the
+ * Chunk (a long running map, a cached Chunk of a Vec.Reader) can use it for
+ * as long as it likes, even after its Value was evicted or removed.  Blocks
+ * are tracked by phantom references, and recycled by {@link #reclaim()} once
+ * the GC enqueued them; it is called on every allocation and after every
+ * Cleaner sweep.  The data is not on the heap, so the heap may not fill up
+ * (and get collected) as fast as the native memory: the Values dropping an
+ * off-heap Chunk report it ({@link #dropped}), and when the native memory runs
+ * short while dropped blocks are waiting for a GC, a GC is requested - at most
+ * once per {@link #GC_INTERVAL} msec, like the JDK does for direct buffers.
+ *
+ * Code reading the native memory through a cached address must keep the
+ * owner of the block reachable till the last read, see {@link #reachabilityFence}.
+ *
+ * The amount of reserved native memory is capped by {@code -offheap_chunks_max_mem_mb}
+ * (by default the same as the max heap size).  When the cap is reached the
+ * allocation fails and the caller keeps the data on heap; the Cleaner starts
+ * evicting off-heap Chunks once the memory in use gets above 7/8 of the cap.
+ */
+public final class OffHeapMemory {
+
+  private OffHeapMemory() {}
+
+  private static final int MIN_LOG = 6;  // 64B
+  private static final int MAX_LOG = 22; // 4MB
+  static final int MIN_BLOCK = 1 << MIN_LOG;
+  static final int MAX_BLOCK = 1 << MAX_LOG;
+  private static final int SLAB_SIZE = 1 << 24; // 16MB
+  private static final int MAX_SLAB_BLOCKS = 1024;
+  /** Min time (msec) between two GCs requested to recycle the dropped blocks */
+  static final long GC_INTERVAL = 1000;
+
+  private static final SizeClass[] CLASSES = new SizeClass[sizeClass(MAX_BLOCK) + 1];
+  static {
+    for( int i = 0; i < CLASSES.length; i++ )
+      CLASSES[i] = new SizeClass(classSize(i));
+  }
+
+  private static final ReferenceQueue<Block> QUEUE = new ReferenceQueue<>();
+  private static final Set<Ref> REFS = ConcurrentHashMap.newKeySet(); // Keep the references alive till enqueued
+  private static final AtomicLong RESERVED = new AtomicLong(); // Native memory taken from the OS
+  private static final AtomicLong USED = new AtomicLong();     // Memory held by (possibly not yet reclaimed) blocks
+  private static final AtomicLong DROPPED = new AtomicLong();  // Memory held by dropped blocks, not yet reclaimed
+  private static final AtomicLong LAST_GC = new AtomicLong();  // When a GC was last requested
+  private static volatile long LIMIT = -1;
+
+  /** A block of native memory, recycled once it is no longer referenced. */
+  public static final class Block {
+    private final long _addr;
+    private final int _size;
+    private Ref _ref;
+    // Heap copy of the payload handed out by Chunk.getBytes, dropped on a write or by the GC
+    private volatile SoftReference<byte[]> _heapCopy;
+    private Block(long addr, int size) { _addr = addr; _size = size; }
+    /** @return native address of the first byte */
+    public long address() { return _addr; }
+    /** @return requested size of the block */
+    public int size() { return _size; }
+
+    /** @return a heap copy of the block, shared by the callers till the block is written */
+    public byte[] heapCopy() {
+      SoftReference<byte[]> ref = _heapCopy;
+      byte[] mem = ref == null ? null : ref.get();
+      if( mem != null ) return mem;
+      mem = MemoryManager.malloc1(_size);
+      UnsafeUtils.copyFromNative(_addr, mem, 0, _size);
+      reachabilityFence(this);
+      _heapCopy = new SoftReference<>(mem);
+      return mem;
+    }
+
+    /** Drops the heap copy, the block is about to be written */
+    public void written() { _heapCopy = null; }
+  }
+
+  private static final class Ref extends PhantomReference<Block> {
+    final long _addr;
+    final int _cls;   // Size class, -1 for a dedicated allocation
+    final long _len;  // Memory taken by the block
+    final AtomicBoolean _dropped = new AtomicBoolean(); // Reported as dropped, counted in DROPPED
+    Ref(Block b, int cls, long len) {
+      super(b, QUEUE);
+      _addr = b._addr;
+      _cls = cls;
+      _len = len;
+    }
+  }
+
+  // Free list of fixed-size blocks
+  private static final class SizeClass {
+    final int _size;
+    private long[] _free = new long[16];
+    private int _n;
+    SizeClass(int size) { _size = size; }
+
+    synchronized long alloc() {
+      if( _n == 0 && !grow() ) return 0;
+      return _free[--_n];
+    }
+
+    synchronized void free(long addr) { push(addr); }
+
+    private void push(long addr) {
+      if( _n == _free.length )
+        _free = java.util.Arrays.copyOf(_free, _n << 1);
+      _free[_n++] = addr;
+    }
+
+    // Carve a new slab into blocks
+    private boolean grow() {
+      final int blocks = Math.min(MAX_SLAB_BLOCKS, Math.max(1, SLAB_SIZE / _size));
+      final long len = (long) blocks * _size;
+      final long slab = reserveAndAllocate(len);
+      if( slab == 0 ) return false;
+      for( int i = blocks - 1; i >= 0; i-- )
+        push(slab + (long) i * _size);
+      return true;
+    }
+  }
+
+  /**
+   * Allocates a block of native memory.
+   * @param size number of bytes
+   * @return new block or null if the off-heap memory is exhausted
+   */
+  public static Block allocate(int size) {
+    assert size >= 0;
+    reclaim();
+    final int cls = size <= MAX_BLOCK ? sizeClass(size) : -1;
+    final long len = cls >= 0 ? CLASSES[cls]._size : size;
+    long addr = allocate(cls, len);
+    if( addr == 0 && collectDropped() ) // Dropped blocks wait for a GC, collect them and retry
+      addr = allocate(cls, len);
+    if( addr == 0 ) {
+      Cleaner.kick_store_cleaner(); // Out of off-heap memory, make some room
+      return null;
+    }
+    Block b = new Block(addr, size);
+    REFS.add(b._ref = new Ref(b, cls, len));
+    USED.addAndGet(len);
+    return b;
+  }
+
+  /**
+   * Reports a block as most likely unreachable soon: the Value holding its Chunk dropped the Chunk
+   * (the Cleaner swapped it out, the Value was removed or replaced).  Only a hint when to request a GC,
+   * the block is recycled once it is unreachable.
+   */
+  public static void dropped(Block b) {
+    Ref r = b._ref;
+    if( r._dropped.compareAndSet(false, true) )
+      DROPPED.addAndGet(r._len);
+  }
+
+  /** Recycles the blocks which are no longer referenced. */
+  public static void reclaim() {
+    Ref r;
+    while( (r = (Ref) QUEUE.poll()) != null )
+      if( REFS.remove(r) ) {
+        recycle(r);
+        USED.addAndGet(-r._len);
+        if( r._dropped.get() ) DROPPED.addAndGet(-r._len);
+      }
+  }
+
+  /**
+   * Requests a GC if the native memory runs short while dropped blocks wait to be collected, at most
+   * once per {@link #GC_INTERVAL} msec.  The heap does not hold the off-heap data, a GC is cheap.
+   * @return true if a GC was run
+   */
+  static boolean collectDropped() {
+    if( DROPPED.get() == 0 || used() <= desired() ) return false;
+    final long now = System.currentTimeMillis();
+    final long last = LAST_GC.get();
+    if( now - last < GC_INTERVAL || !LAST_GC.compareAndSet(last, now) ) return false;
+    System.gc();
+    reclaim(); // The collected blocks are enqueued asynchronously, the others on the next call
+    return true;
+  }
+
+  private static long allocate(int cls, long len) {
+    return cls >= 0 ? CLASSES[cls].alloc() : reserveAndAllocate(len);
+  }
+
+  private static void recycle(Ref r) {
+    if( r._cls >= 0 ) {
+      CLASSES[r._cls].free(r._addr);
+    } else {
+      UnsafeUtils.freeMemory(r._addr);
+      RESERVED.addAndGet(-r._len);
+    }
+  }
+
+  // Reference.reachabilityFence of Java 9+, looked up at runtime (the code targets Java 8)
+  private static final MethodHandle REACHABILITY_FENCE = reachabilityFenceHandle();
+  private static volatile Object FENCE;
+
+  private static MethodHandle reachabilityFenceHandle() {
+    try {
+      return MethodHandles.publicLookup().findStatic(Reference.class, "reachabilityFence",
+              MethodType.methodType(void.class, Object.class));
+    } catch( NoSuchMethodException | IllegalAccessException e ) {
+      return null;
+    }
+  }
+
+  /**
+   * Keeps the owner of a block (a Chunk) strongly reachable up to this call.  Once the address of
+   * the block is read into a local, the JIT can consider the owner dead: without the fence an
+   * unreachable block could be recycled by {@link #reclaim()} in the middle of a loop reading it.
+   * Uses {@code Reference.reachabilityFence} on Java 9+, a volatile write on Java 8.
+   */
+  public static void reachabilityFence(Object owner) {
+    if( REACHABILITY_FENCE != null ) {
+      try {
+        REACHABILITY_FENCE.invokeExact(owner);
+      } catch( Throwable t ) {
+        throw new IllegalStateException(t);
+      }
+    } else {
+      FENCE = owner;
+      FENCE = null;
+    }
+  }
+
+  private static long reserveAndAllocate(long len) {
+    final long limit = limit();
+    long reserved;
+    do {
+      reserved = RESERVED.get();
+      if( reserved + len > limit ) return 0;
+    } while( !RESERVED.compareAndSet(reserved, reserved + len) );
+    try {
+      return UnsafeUtils.allocateMemory(len);
+    } catch( OutOfMemoryError oom ) {
+      RESERVED.addAndGet(-len);
+      Log.warn("Failed to allocate " + PrettyPrint.bytes(len) + " of native memory: " + oom.getMessage());
+      return 0;
+    }
+  }
+
+  /** @return max amount of native memory used for off-heap data */
+  public static long limit() {
+    long limit = LIMIT;
+    if( limit < 0 ) {
+      limit = H2O.ARGS.offheap_chunks_max_mem_mb > 0 ? (long) H2O.ARGS.offheap_chunks_max_mem_mb << 20 : MemoryManager.MEM_MAX;
+      LIMIT = limit;
+    }
+    return limit;
+  }
+
+  /** @return native memory reserved from the OS */
+  public static long reserved() { return RESERVED.get(); }
+
+  /** @return native memory held by blocks, including unreachable blocks not yet reclaimed */
+  public static long used() { return USED.get(); }
+
+  /** @return native memory held by the blocks reported as dropped, and not yet reclaimed */
+  public static long dropped() { return DROPPED.get(); }
+
+  /** @return the desired level of used off-heap memory */
+  static long desired() { final long limit = limit(); return limit - (limit >> 3); }
+
+  /** @return true if the Cleaner should start evicting off-heap data */
+  static boolean isLow() { return H2O.ARGS.offheap_chunks && used() - dropped() > desired(); }
+
+  // Size class of a request: classes are (1+k/4)*2^n for k in 1..4, class 0 is the MIN_BLOCK
+  static int sizeClass(int size) {
+    if( size <= MIN_BLOCK ) return 0;
+    final int log = 31 - Integer.numberOfLeadingZeros(size - 1);
+    final int quarter = ((size - 1) >>> (log - 2)) & 3;
+    return ((log - MIN_LOG) << 2) + quarter + 1;
+  }
+
+  static int classSize(int cls) {
+    if( cls == 0 ) return MIN_BLOCK;
+    final int log = ((cls - 1) >> 2) + MIN_LOG;
+    final int quarter = (cls - 1) & 3;
+    return (1 << log) + ((quarter + 1) << (log - 2));
+  }
+
+  static String status() {
+    return "OffHeap(used:" + PrettyPrint.bytes(used()) + ", dropped:" + PrettyPrint.bytes(dropped()) +
+            ", reserved:" + PrettyPrint.bytes(reserved()) +
+            ", limit:" + PrettyPrint.bytes(limit()) + ")";
+  }
+}
@@ -0,0 +1,174 @@
+package water;
+
+import water.util.Log;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.*;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Non-blocking reader of the small-message TCP channels (an alternative to
+ * {@link TCPReceiverThread.SmallMessagesReaderThread}).
+ *
+ * Every node keeps a small-message channel open to every other node (and every client), with
+ * one reader thread per channel the number of threads grows with the square of the cloud size.
+ * With <code>sys.ai.h2o.tcp.selectors</code> set to N &gt; 0, the channels are instead spread over
+ * N selector event loops.  An event loop reassembles the messages (MSG_SZ(2B) MSG BODY EOM
+ * MARKER(1B - 0xef), the same format the reader threads expect) and hands them off to F/J.  A
+ * channel borrows a direct buffer from {@link AutoBuffer#BBP_BIG} only while it holds a part of
+ * a message, idle channels hold no buffer.
+ *
+ * SSL channels cannot be registered with a selector, they keep using the reader threads.
+ */
+final class SmallMessagesSelector {
+
+  static final int LOOPS = Integer.getInteger(H2O.OptArgs.SYSTEM_PROP_PREFIX + "tcp.selectors", 0);
+
+  /** Consumer of the reassembled messages. */
+  interface Handler {
+    void handle(H2ONode h2o, byte[] msg, int sz) throws IOException;
+  }
+
+  private static final Handler BASIC_HANDLING = new Handler() {
+    @Override public void handle(H2ONode h2o, byte[] msg, int sz) throws IOException {
+      TCPReceiverThread.basic_packet_handling(new AutoBuffer(h2o, msg, 0, sz));
+    }
+  };
+
+  private static SmallMessagesSelector[] SELECTORS;
+  private static final AtomicInteger NEXT = new AtomicInteger();
+
+  private final Selector _selector;
+  private final Handler _handler;
+  private final ConcurrentLinkedQueue<Connection> _pending = new ConcurrentLinkedQueue<>();
+  private final Set<Connection> _open = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Registers the channel with one of the event loops.
+   * @return false if the selectors are disabled or the channel cannot be selected, the caller should start a reader thread
+   */
+  static boolean register(H2ONode h2o, ByteChannel chan) throws IOException {
+    if (LOOPS <= 0 || !(chan instanceof SocketChannel)) return false;
+    SmallMessagesSelector[] selectors = selectors();
+    selectors[(NEXT.getAndIncrement() & Integer.MAX_VALUE) % selectors.length].add(h2o, (SocketChannel) chan);
+    return true;
+  }
+
+  private static synchronized SmallMessagesSelector[] selectors() throws IOException {
+    if (SELECTORS == null) {
+      SmallMessagesSelector[] selectors = new SmallMessagesSelector[LOOPS];
+      for (int i = 0; i < selectors.length; i++)
+        selectors[i] = new SmallMessagesSelector("TCP-SMALL-SELECT-" + i, BASIC_HANDLING);
+      SELECTORS = selectors;
+    }
+    return SELECTORS;
+  }
+
+  SmallMessagesSelector(String name, Handler handler) throws IOException {
+    _selector = Selector.open();
+    _handler = handler;
+    Thread t = new Thread(name) {
+      @Override public void run() { loop(); }
+    };
+    ThreadHelper.initCommonThreadProperties(t);
+    t.setPriority(Thread.MAX_PRIORITY - 1);
+    t.start();
+  }
+
+  void add(H2ONode h2o, SocketChannel chan) throws IOException {
+    chan.configureBlocking(false);
+    _pending.add(new Connection(h2o, chan));
+    _selector.wakeup();
+  }
+
+  int connections() { return _open.size(); }
+
+  /** Closes the event loop together with its channels. */
+  void close() throws IOException {
+    _selector.close();
+    for (Connection c; (c = _pending.poll()) != null; ) c.close();
+    for (Connection c : _open) c._chan.close();
+  }
+
+  private void loop() {
+    while (_selector.isOpen()) {
+      try {
+        for (Connection c; (c = _pending.poll()) != null; ) {
+          c._chan.register(_selector, SelectionKey.OP_READ, c);
+          _open.add(c);
+        }
+        _selector.select();
+        for (Iterator<SelectionKey> it = _selector.selectedKeys().iterator(); it.hasNext(); ) {
+          SelectionKey key = it.next();
+          it.remove();
+          Connection c = (Connection) key.attachment();
+          if (key.isValid() && key.isReadable() && !c.read()) {
+            key.cancel();
+            c.close();
+            _open.remove(c);
+          }
+        }
+      } catch (ClosedSelectorException e) {
+        break;
+      } catch (Throwable t) {
+        Log.err("Error in the small-message selector loop", t);
+      }
+    }
+  }
+
+  private final class Connection {
+    final H2ONode _h2o;
+    final SocketChannel _chan;
+    private ByteBuffer _bb;     // Borrowed while a part of a message is buffered
+
+    Connection(H2ONode h2o, SocketChannel chan) { _h2o = h2o; _chan = chan; }
+
+    /** Reads what is available and handles the complete messages; false once the channel is done. */
+    boolean read() {
+      boolean idle = _bb == null;
+      try {
+        if (_bb == null) _bb = AutoBuffer.BBP_BIG.make();
+        int res;
+        while ((res = _chan.read(_bb)) > 0) {
+          _h2o._last_heard_from = System.currentTimeMillis();
+          _bb.flip();
+          while (_bb.remaining() >= 2) {
+            int sz = _bb.getChar(_bb.position());
+            assert sz < AutoBuffer.BBP_SML._size : "Incoming message is too big, should've been sent by TCP-BIG, got " + sz + " bytes";
+            if (_bb.remaining() < 2 + sz + 1) break;
+            _bb.getChar();
+            byte[] ary = MemoryManager.malloc1(Math.max(16, sz));
+            int sentinel = _bb.get(ary, 0, sz).get();
+            if ((0xFF & sentinel) != 0xef)
+              throw new IOException("Missing expected sentinel (0xef) at the end of the message from " + _h2o + ", likely out of sync, size = " + sz);
+            _handler.handle(_h2o, ary, sz);
+          }
+          _bb.compact();
+          idle = _bb.position() == 0;
+        }
+        if (idle) release();
+        return res >= 0;
+      } catch (Throwable t) {
+        // Remote shutdown while idle is normal
+        if (!idle || !(t instanceof IOException)) Log.err(t);
+        return false;
+      }
+    }
+
+    private void release() {
+      if (_bb != null) AutoBuffer.BBP_BIG.free(_bb);
+      _bb = null;
+    }
+
+    void close() {
+      release();
+      try { _chan.close(); } catch (IOException e) {/*ignore error on close*/}
+    }
+  }
+}
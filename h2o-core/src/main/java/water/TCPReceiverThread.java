@@ -11,6 +11,8 @@ import java.util.Date;
 import java.util.Random;
 
 import water.network.SocketChannelFactory;
+import water.network.WireCompressionChannel;
+import water.persist.SpillCodec;
 import water.util.Log;
 import water.util.SB;
 
@@ -36,6 +38,11 @@ public class TCPReceiverThread extends Thread {
    * Byte representing TCP communication for big data
    */
   static final byte TCP_BIG = 2;
+
+  /**
+   * Byte representing TCP communication for big data, compressed by the wire codec (see {@link WireCompressionChannel})
+   */
+  static final byte TCP_BIG_COMPRESSED = 4;
   
   public TCPReceiverThread(
           ServerSocketChannel sock) {
@@ -82,7 +89,7 @@ public class TCPReceiverThread extends Thread {
           wrappedSocket.read(bb);
         }
         bb.flip();
-        int chanType = bb.get(); // 1 - small, 2 - big, 3 - external
+        int chanType = bb.get(); // 1 - small, 2 - big, 3 - external, 4 - big compressed
         short timestamp = bb.getShort(); // read timestamp
                                          // Note: timestamp was not part of the original protocol, was added in 3.22.0.1, #a33de44)
         if (H2ONodeTimestamp.decodeIsClient(timestamp) && !H2O.ARGS.allow_clients) {
@@ -101,14 +108,25 @@ public class TCPReceiverThread extends Thread {
         // todo compare against current cloud, refuse the con if no match
         switch( chanType ) {
         case TCP_SMALL:
-          new SmallMessagesReaderThread(H2ONode.intern(inetAddress, port, timestamp), wrappedSocket).start();
+          H2ONode h2o = H2ONode.intern(inetAddress, port, timestamp);
+          if( !SmallMessagesSelector.register(h2o, wrappedSocket) )
+            new SmallMessagesReaderThread(h2o, wrappedSocket).start();
           break;
         case TCP_BIG:
           new TCPReaderThread(wrappedSocket, new AutoBuffer(wrappedSocket, inetAddress, timestamp), inetAddress, timestamp).start();
           break;
+        case TCP_BIG_COMPRESSED:
+          SpillCodec codec = SpillCodec.make(H2O.ARGS.wire_codec);
+          if (codec == null) {
+            ListenerService.getInstance().report("protocol-failure", "wire-codec");
+            throw new IOException("Communication protocol failure: Compressed channel opened by " + inetAddress + " but wire compression is disabled on this node");
+          }
+          ByteChannel compressedSocket = new WireCompressionChannel(wrappedSocket, codec, H2O.ARGS.wire_compression_threshold);
+          new TCPReaderThread(compressedSocket, new AutoBuffer(compressedSocket, inetAddress, timestamp), inetAddress, timestamp).start();
+          break;
         default:
           ListenerService.getInstance().report("protocol-failure", "channel-type", chanType);
-          throw new IOException("Communication protocol failure: Unexpected channel type " + chanType + ", only know 1 - Small, 2 - Big");
+          throw new IOException("Communication protocol failure: Unexpected channel type " + chanType + ", only know 1 - Small, 2 - Big, 4 - Big compressed");
         }
       } catch( java.nio.channels.AsynchronousCloseException ex ) {
         break;                  // Socket closed for shutdown
@@ -213,6 +213,23 @@ public class TypeMap {
       }
     }
   }
+  /** Generate the Icers of all the bootstrap classes ahead of their first
+   *  use.  Weaving compiles the delegate with javassist and is slow, bootstrap
+   *  classes have fixed type ids so their Icers can be made before the cloud
+   *  forms, taking the weaving off the path of the first heartbeats and REST
+   *  calls.  Other classes get their type ids from the leader and are still
+   *  woven lazily. */
+  static void preWeave() {
+    long start = System.currentTimeMillis();
+    for( int id = ICED; id < BOOTSTRAP_CLASSES.length; id++ ) {
+      try {
+        getIcer(id, classForName(BOOTSTRAP_CLASSES[id]));
+      } catch( Throwable t ) {   // Not fatal, the class gets another try on first use
+        Log.debug("Failed to pre-weave " + BOOTSTRAP_CLASSES[id] + ": " + t);
+      }
+    }
+    Log.debug("Pre-woven " + (BOOTSTRAP_CLASSES.length - ICED) + " bootstrap classes in " + (System.currentTimeMillis() - start) + "ms");
+  }
   static void drop(String ice_clz) {
     Integer I = MAP.get(ice_clz);
     if( I==null ) return; // no icer, no problem
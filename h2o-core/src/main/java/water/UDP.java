@@ -39,7 +39,11 @@ public abstract class UDP {
     // We'll hang on to these packets; filter out dup sends and auto-reply
     // identical result ACK packets.
     exec(false,new RPC.RemoteHandler(),H2O.DESERIAL_PRIORITY), // Remote hi-q execution request
-    i_o (false,new UDP.IO_record(),(byte)-1); // Only used to profile I/O
+    i_o (false,new UDP.IO_record(),(byte)-1), // Only used to profile I/O
+
+    // Appended, so that the ordinals of the packet types above do not change.
+    // Stateless like the health packets, FJPacket calls it directly.
+    gossip(false,new UDPGossip(),H2O.MAX_PRIORITY); // Heartbeat of large locked clouds
 
     final UDP _udp;           // The Callable S.A.M. instance
     final byte _prior;        // Priority
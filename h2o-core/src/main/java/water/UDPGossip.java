@@ -0,0 +1,203 @@
+package water;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gossip variant of the heartbeat, used by large locked clouds.
+ *
+ * Instead of sending its HeartBeat to every node each second, a node sends it to a few members
+ * only (the fan-out, members are taken round-robin from a shuffled list) together with a digest
+ * of how long ago it heard from the other members.  The receiver treats the digest as indirect
+ * evidence of life, so a member is suspected only if nobody heard from it.  HeartBeats received
+ * from a member (directly or indirectly) are piggybacked on the following gossip messages about
+ * log2(cloud size) times, as far as they fit into a single packet, so the health info of all
+ * members keeps spreading through the cloud.
+ *
+ * Gossip is used only while the cloud is locked and the members agree on it (Paxos common
+ * knowledge) - membership cannot change then and only liveness and health info needs to travel.
+ * Cloud formation, clients and clouds smaller than <code>sys.ai.h2o.heartbeat.gossip.minCloudSize</code>
+ * (default 64) use the regular heartbeat.  A fan-out of 0 (<code>sys.ai.h2o.heartbeat.gossip.fanout</code>)
+ * turns gossip off.
+ */
+class UDPGossip extends UDP {
+
+  static final int FANOUT = Integer.getInteger(H2O.OptArgs.SYSTEM_PROP_PREFIX + "heartbeat.gossip.fanout", 3);
+  // Not final, tests lower it to run gossip in small clouds
+  static int MIN_CLOUD_SIZE = Integer.getInteger(H2O.OptArgs.SYSTEM_PROP_PREFIX + "heartbeat.gossip.minCloudSize", 64);
+  // Digest entries per message (at most 128*6 bytes), larger clouds send the digest in slices
+  static final int MAX_DIGEST = 128;
+
+  // Node-wide statistics, published in the heartbeat
+  /** Gossip messages sent */
+  static final AtomicLong SENT = new AtomicLong();
+  private static long _deltaAgeSum;
+  private static int _deltas;
+
+  private static final ConcurrentHashMap<H2ONode, Member> MEMBERS = new ConcurrentHashMap<>();
+
+  // Freshest HeartBeat of a member known to this node
+  private static final class Member {
+    volatile long _hbAt;        // Estimated local time the HeartBeat was sent by the member
+    volatile int _forwards;     // Gossip messages the HeartBeat is still piggybacked on
+  }
+
+  // Owned by the heartbeat thread
+  private static H2O _cloud;
+  private static H2ONode[] _targets;
+  private static int _nextTarget, _nextDigest, _nextDelta;
+
+  static boolean enabled(H2O cloud) {
+    return FANOUT > 0 && cloud.size() >= MIN_CLOUD_SIZE && !H2O.ARGS.client &&
+            Paxos._cloudLocked && Paxos._commonKnowledge;
+  }
+
+  /** Sends this node's HeartBeat to the next few members, called by the heartbeat thread. */
+  static void gossip(H2O cloud, HeartBeat hb) {
+    H2O.SELF._heartbeat = hb;
+    if (cloud != _cloud) {
+      _cloud = cloud;
+      _targets = null;
+      MEMBERS.keySet().retainAll(Arrays.asList(cloud.members()));
+    }
+    long now = System.currentTimeMillis();
+    int n = Math.min(FANOUT, cloud.size() - 1);
+    for (int i = 0; i < n; i++) {
+      AutoBuffer ab = new AutoBuffer(nextTarget(cloud), udp.gossip._prior).putUdp(udp.gossip);
+      write(hb.write(ab), cloud.members(), now);
+      ab.close();
+      SENT.incrementAndGet();
+    }
+    // Clients are not members, they keep getting the regular heartbeat
+    for (H2ONode client : H2O.getClients())
+      hb.write(new AutoBuffer(client, udp.heartbeat._prior).putUdp(udp.heartbeat)).close();
+  }
+
+  private static H2ONode nextTarget(H2O cloud) {
+    if (_targets == null || _nextTarget == _targets.length) {
+      List<H2ONode> others = new ArrayList<>(Arrays.asList(cloud.members()));
+      others.remove(H2O.SELF);
+      Collections.shuffle(others);
+      _targets = others.toArray(new H2ONode[0]);
+      _nextTarget = 0;
+    }
+    return _targets[_nextTarget++];
+  }
+
+  /** Writes the digest and the piggybacked HeartBeats of the members, after the HeartBeat of this node. */
+  static void write(AutoBuffer ab, H2ONode[] members, long now) {
+    writeDigest(ab, members, now);
+    writeDeltas(ab, members, now);
+  }
+
+  // The digest takes what the HeartBeat leaves of the packet, with room for the delta count
+  private static void writeDigest(AutoBuffer ab, H2ONode[] members, long now) {
+    int room = (AutoBuffer.MTU - ab.position() - 2 - 1) / 6;
+    int len = Math.max(0, Math.min(Math.min(members.length, MAX_DIGEST), room));
+    ab.put2((char) len);
+    for (int i = 0; i < len; i++) {
+      int idx = (_nextDigest + i) % members.length;
+      ab.put2((char) idx).put4((int) Math.min(Integer.MAX_VALUE, now - members[idx]._last_heard_from));
+    }
+    _nextDigest = (_nextDigest + len) % members.length;
+  }
+
+  // Piggybacks the fresh HeartBeats of other members, as long as the message fits into a packet
+  private static void writeDeltas(AutoBuffer ab, H2ONode[] members, long now) {
+    List<byte[]> bits = new ArrayList<>();
+    List<Integer> idxs = new ArrayList<>();
+    List<Integer> ages = new ArrayList<>();
+    int size = ab.position() + 1;
+    for (int i = 0; i < members.length && bits.size() < 255; i++) {
+      int idx = (_nextDelta + i) % members.length;
+      Member m = MEMBERS.get(members[idx]);
+      if (m == null || m._forwards <= 0 || members[idx] == H2O.SELF) continue;
+      byte[] hb = members[idx]._heartbeat.write(new AutoBuffer()).buf();
+      if (size + hb.length + 16 >= AutoBuffer.MTU) break;
+      size += hb.length + 16;
+      m._forwards--;
+      bits.add(hb);
+      idxs.add(idx);
+      ages.add((int) Math.min(Integer.MAX_VALUE, now - m._hbAt));
+      _nextDelta = idx + 1;
+    }
+    ab.put1(bits.size());
+    for (int i = 0; i < bits.size(); i++)
+      ab.put2((char) (int) idxs.get(i)).put4(ages.get(i)).putA1(bits.get(i));
+  }
+
+  @Override AutoBuffer call(AutoBuffer ab) {
+    if (ab._h2o == H2O.SELF) return ab;
+    HeartBeat hb = new HeartBeat().read(ab);
+    if (hb._cloud_name_hash != H2O.SELF._heartbeat._cloud_name_hash) return ab;
+    long now = System.currentTimeMillis();
+    UDPHeartbeat.receive(ab._h2o, hb);
+    heard(ab._h2o, now, 0);
+    // Member indexes are meaningful within the same cloud only
+    H2O cloud = H2O.CLOUD;
+    if (hb._cloud_hash == H2O.SELF._heartbeat._cloud_hash && cloud.contains(ab._h2o))
+      read(ab, cloud.members(), now);
+    return ab;
+  }
+
+  /** Reads the digest and the piggybacked HeartBeats, the counterpart of {@link #write}. */
+  static void read(AutoBuffer ab, H2ONode[] members, long now) {
+    for (int i = ab.get2(); i > 0; i--) {
+      int idx = ab.get2();
+      int age = ab.get4();
+      if (idx >= members.length || members[idx] == H2O.SELF) continue;
+      long at = now - age;
+      if (at > members[idx]._last_heard_from) members[idx]._last_heard_from = at;
+    }
+    for (int i = ab.get1U(); i > 0; i--) {
+      int idx = ab.get2();
+      int age = ab.get4();
+      byte[] bits = ab.getA1();
+      if (idx >= members.length || members[idx] == H2O.SELF) continue;
+      if (heard(members[idx], now, age))
+        members[idx].setHeartBeat(new HeartBeat().read(new AutoBuffer(bits)));
+    }
+  }
+
+  // Records a HeartBeat of the given age, returns false if a fresher one is known already
+  static boolean heard(H2ONode node, long now, int age) {
+    Member m = MEMBERS.get(node);
+    if (m == null) {
+      Member old = MEMBERS.putIfAbsent(node, m = new Member());
+      if (old != null) m = old;
+    }
+    long at = now - age;
+    synchronized (m) {
+      if (at <= m._hbAt) return false;
+      m._hbAt = at;
+      m._forwards = 32 - Integer.numberOfLeadingZeros(H2O.CLOUD.size()); // ~log2(size)+1
+    }
+    if (age > 0) {
+      synchronized (UDPGossip.class) {
+        _deltaAgeSum += age;
+        _deltas++;
+      }
+    }
+    return true;
+  }
+
+  /** @return mean age (ms) of the HeartBeats received indirectly since the last call, -1 if there were none */
+  static synchronized int deltaAge() {
+    int res = _deltas == 0 ? -1 : (int) (_deltaAgeSum / _deltas);
+    _deltaAgeSum = 0;
+    _deltas = 0;
+    return res;
+  }
+
+  /** @return the longest time (ms) this node did not hear from a cloud member, directly or indirectly */
+  static int viewAge(H2O cloud, long now) {
+    long age = 0;
+    for (H2ONode h2o : cloud.members())
+      if (h2o != H2O.SELF) age = Math.max(age, now - h2o._last_heard_from);
+    return (int) Math.min(Integer.MAX_VALUE, age);
+  }
+}
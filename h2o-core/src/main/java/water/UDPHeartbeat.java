@@ -17,12 +17,17 @@ class UDPHeartbeat extends UDP {
         return ab;
       }
       assert ab._h2o != null;
-      ab._h2o.setHeartBeat(hb);
-      Paxos.doHeartbeat(ab._h2o);
+      receive(ab._h2o, hb);
     }
     return ab;
   }
 
+  // Also called for the HeartBeats received by gossip
+  static void receive( H2ONode h2o, HeartBeat hb ) {
+    h2o.setHeartBeat(hb);
+    Paxos.doHeartbeat(h2o);
+  }
+
   static void build_and_multicast( H2O cloud, HeartBeat hb ) {
     // Paxos.print_debug("send: heartbeat ",cloud._memset);
     assert hb._cloud_hash != 0 || hb._client; // Set before send, please
@@ -4,6 +4,7 @@ import java.io.IOException;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import jsr166y.ForkJoinPool;
+import water.fvec.Chunk;
 import water.fvec.Frame;
 import water.fvec.Vec;
 import water.util.Log;
@@ -104,7 +105,9 @@ public final class Value extends Iced implements ForkJoinPool.ManagedBlocker {
    *  which is expected to be read-once. */
   public final void freePOJO() {
     assert isPersisted() || _mem != null;
+    Freezable pojo = _pojo;
     _pojo = null;
+    if( isOffHeapChunk(pojo) ) OffHeapMemory.dropped(((Chunk)pojo).offHeapBlock());
   }
 
   /** The FAST path get-byte-array - final method for speed.  Will (re)build
@@ -114,8 +117,11 @@ public final class Value extends Iced implements ForkJoinPool.ManagedBlocker {
     byte[] mem = _mem;          // Read once!
     if( mem != null ) return mem;
     Freezable pojo = _pojo;     // Read once!
-    if( pojo != null )          // Has the POJO, make raw bytes
-      return _mem = pojo.asBytes();
+    if( pojo != null ) {        // Has the POJO, make raw bytes
+      mem = pojo.asBytes();
+      if( !isOffHeapChunk(pojo) ) _mem = mem; // Do not keep a heap copy of an off-heap Chunk
+      return mem;
+    }
     if( _max == 0 ) return (_mem = new byte[0]);
     return (_mem = loadPersist());
   }
@@ -131,7 +137,7 @@ public final class Value extends Iced implements ForkJoinPool.ManagedBlocker {
     Iced pojo = (Iced)_pojo;    // Read once!
     if( pojo != null ) return (T)pojo;
     pojo = TypeMap.newInstance(_type);
-    return (T)(_pojo = pojo.reloadFromBytes(memOrLoad()));
+    return (T)publish(pojo.reloadFromBytes(memOrLoad()));
   }
   /** The FAST path get-POJO as a {@link Freezable} - final method for speed.
    *  Will (re)build the POJO from the _mem array.  Never returns NULL.  This
@@ -151,13 +157,60 @@ public final class Value extends Iced implements ForkJoinPool.ManagedBlocker {
     if( pojo != null ) return (T)pojo;
     pojo = TypeMap.newFreezable(_type);
     pojo.reloadFromBytes(memOrLoad());
-    return (T)(_pojo = pojo);
+    return (T)publish(pojo);
+  }
+
+  // Install a freshly deserialized POJO.  With -offheap_chunks the payload of
+  // a Chunk is moved to native memory first, and the byte[] form is dropped
+  // (it can be rebuilt from the Chunk).  POJO is set before clearing _mem, so
+  // that readers always find one of them.
+  private <T extends Freezable> T publish(T pojo) {
+    boolean offHeap = H2O.ARGS.offheap_chunks && pojo instanceof Chunk && ((Chunk)pojo).moveOffHeap();
+    _pojo = pojo;
+    if( offHeap ) _mem = null;
+    return pojo;
+  }
+
+  // Same as publish for a Value built from a POJO.  The Chunk is cloned, the
+  // caller's instance might be still in use and is left on heap.
+  private void moveOffHeap() {
+    if( !H2O.ARGS.offheap_chunks || !(_pojo instanceof Chunk) ) return;
+    Chunk c = ((Chunk)_pojo).clone();
+    if( c.moveOffHeap() ) {
+      _pojo = c;
+      _mem = null;
+    }
+  }
+
+  static boolean isOffHeapChunk(Object pojo) { return pojo instanceof Chunk && ((Chunk)pojo).isOffHeap(); }
+
+  /** The Value was removed or replaced in the K/V store: reports the native
+   *  memory of its off-heap Chunk POJO as dropped, unless the replacement
+   *  shares it.  The memory is recycled once the Chunk is unreachable, racing
+   *  readers holding the Chunk can keep using it, see OffHeapMemory. */
+  void dropOffHeap(Value replacement) {
+    Freezable pojo = _pojo;
+    if( !isOffHeapChunk(pojo) ) return;
+    OffHeapMemory.Block b = ((Chunk)pojo).offHeapBlock();
+    Freezable next = replacement == null ? null : replacement._pojo;
+    if( !isOffHeapChunk(next) || ((Chunk)next).offHeapBlock() != b )
+      OffHeapMemory.dropped(b);
   }
 
   // ---
   // Time of last access to this value.
   transient long _lastAccessedTime = System.currentTimeMillis();
-  private void touch() {_lastAccessedTime = System.currentTimeMillis();}
+  // Time of the access preceding the last one and the number of accesses (best-effort, not synchronized);
+  // history used by the Cleaner's EvictionPolicy
+  transient long _prevAccessedTime;
+  transient int _accessCount;
+  private void touch() {
+    _prevAccessedTime = _lastAccessedTime;
+    _lastAccessedTime = System.currentTimeMillis();
+    if( _accessCount < Integer.MAX_VALUE ) _accessCount++;
+    // Cache statistics of evictable data; a Value being deserialized (read_impl) has no Key yet
+    if( _key != null && _key.isChunkKey() ) Cleaner.policy().recordAccess(this);
+  }
   // Exposed and used for testing only; used to trigger premature cleaning/disk-swapping
   void touchAt(long time) {_lastAccessedTime = time;}
 
@@ -195,6 +248,17 @@ public final class Value extends Iced implements ForkJoinPool.ManagedBlocker {
   public final boolean isDeleted() { return _deleted != 0; }
   public final void setDel() { _deleted=1; } // note: not atomic, but only monotonically set bit
 
+  // Codec and size of the spilled bytes (see water.persist.SpillCodec).  Only
+  // set by the Cleaner before the on-disk bit, the volatile write of _persist
+  // publishes them to the readers.
+  private transient byte _spillCodec; // SpillCodec.NONE
+  private transient int _spillSize;
+  /** Id of the codec used to spill this Value to disk, 0 if spilled as-is */
+  public final byte spillCodec() { return _spillCodec; }
+  /** Number of bytes taken by this Value on disk */
+  public final int spillSize() { return _spillCodec == 0 ? _max : _spillSize; }
+  public final void setSpillInfo(byte codec, int size) { assert !isPersisted(); _spillCodec = codec; _spillSize = size; }
+
 
   /** Best-effort store complete Values to disk.  */
   void storePersist() throws java.io.IOException {
@@ -324,6 +388,7 @@ public final class Value extends Iced implements ForkJoinPool.ManagedBlocker {
     _mem = pojo.asBytes();
     _max = _mem.length;
     assert _max < MAX : "Value size = " + _max + " (0x"+Integer.toHexString(_max) + ") >= (MAX=" + MAX + ").";
+    moveOffHeap();
     // For the ICE backend, assume new values are not-yet-written.
     // For HDFS & NFS backends, assume we from global data and preserve the
     // passed-in persist bits
@@ -353,6 +418,7 @@ public final class Value extends Iced implements ForkJoinPool.ManagedBlocker {
     _type = (short)pojo.frozenType();
     _mem = pojo.asBytes();
     _max = _mem.length;
+    moveOffHeap();
     byte p = (byte)(be&BACKEND_MASK);
     _persist = (p==ICE) ? p : be;
     _rwlock = new AtomicInteger(1);
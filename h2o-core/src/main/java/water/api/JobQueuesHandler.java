@@ -0,0 +1,20 @@
+package water.api;
+
+import water.JobScheduler;
+import water.api.schemas3.JobQueuesV3;
+
+/**
+ * Depth and wait times of the job queues of this node (see {@link JobScheduler}).
+ */
+public class JobQueuesHandler extends Handler {
+
+  @SuppressWarnings("unused") // called through reflection by RequestServer
+  public JobQueuesV3 list(int version, JobQueuesV3 s) {
+    JobScheduler.Queue[] queues = JobScheduler.queues();
+    s.max_running = JobScheduler.maxRunning();
+    s.queues = new JobQueuesV3.JobQueueV3[queues.length];
+    for (int i = 0; i < queues.length; i++)
+      s.queues[i] = new JobQueuesV3.JobQueueV3().fillFromImpl(queues[i]);
+    return s;
+  }
+}
@@ -0,0 +1,41 @@
+package water.api;
+
+import water.MRTrace;
+import water.api.schemas3.MRTracesV3;
+import water.exceptions.H2OKeyNotFoundArgumentException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Distributed traces of the MRTasks started on this node (see {@link MRTrace}).
+ */
+public class MRTracesHandler extends Handler {
+
+  @SuppressWarnings("unused") // called through reflection by RequestServer
+  public MRTracesV3 list(int version, MRTracesV3 s) {
+    MRTrace[] traces = MRTrace.traces();
+    s.traces = new MRTracesV3.MRTraceV3[traces.length];
+    for (int i = 0; i < traces.length; i++)
+      s.traces[i] = new MRTracesV3.MRTraceV3().fillFromImpl(traces[i]);
+    return s;
+  }
+
+  /** Return a single trace in the Chrome trace event format. */
+  @SuppressWarnings("unused") // called through reflection by RequestServer
+  public StreamingSchema fetch(int version, MRTracesV3 s) {
+    final MRTrace trace = MRTrace.get(s.trace_id);
+    if (trace == null)
+      throw new H2OKeyNotFoundArgumentException("trace_id", String.valueOf(s.trace_id));
+    return new StreamingSchema(new StreamWriter() {
+      @Override
+      public void writeTo(OutputStream os) {
+        try {
+          trace.writeChromeTrace(os);
+        } catch (IOException e) {
+          throw new RuntimeException(e);
+        }
+      }
+    }, "mrtrace_" + trace._id + ".json");
+  }
+}
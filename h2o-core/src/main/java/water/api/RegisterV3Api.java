@@ -99,6 +99,18 @@ public class RegisterV3Api extends AbstractRegister {
             "GET /3/Profiler", ProfilerHandler.class, "fetch",
             "Report real-time profiling information for all nodes (sorted, aggregated stack traces).");
 
+    context.registerEndpoint("mrtraces",
+            "GET /3/MRTraces", MRTracesHandler.class, "list",
+            "List the distributed traces of the traced MRTasks started on this node.");
+
+    context.registerEndpoint("mrtrace",
+            "GET /3/MRTraces/{trace_id}", MRTracesHandler.class, "fetch",
+            "Export a distributed MRTask trace in the Chrome trace event format.");
+
+    context.registerEndpoint("jobQueues",
+            "GET /3/JobQueues", JobQueuesHandler.class, "list",
+            "Report the depth and wait times of the job queues of this node.");
+
     context.registerEndpoint("stacktraces",
             "GET /3/JStack", JStackHandler.class, "fetch",
             "Report stack traces for all threads on all nodes.");
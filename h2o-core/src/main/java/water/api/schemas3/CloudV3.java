@@ -157,6 +157,8 @@ public class CloudV3 extends RequestSchemaV3<Iced, CloudV3> {
     public long max_mem;
     @API(help="Size of data on node's disk", direction=API.Direction.OUTPUT)
     public long swap_mem;
+    @API(help="Native memory used by off-heap data (not part of max_mem)", direction=API.Direction.OUTPUT)
+    public long offheap_mem;
 
     @API(help="#local keys", direction=API.Direction.OUTPUT)
     public int num_keys;
@@ -178,6 +180,33 @@ public class CloudV3 extends RequestSchemaV3<Iced, CloudV3> {
     @API(help="Open TCP connections", direction=API.Direction.OUTPUT)
     public int tcps_active;
 
+    @API(help="Bytes saved by compressing large TCP transfers", direction=API.Direction.OUTPUT)
+    public long wire_bytes_saved;
+
+    @API(help="Time spent compressing and decompressing large TCP transfers (ms)", direction=API.Direction.OUTPUT)
+    public long wire_codec_ms;
+
+    @API(help="MRTask chunks homed on other nodes mapped by this node (work stealing)", direction=API.Direction.OUTPUT)
+    public long stolen_chunks;
+
+    @API(help="Remote chunks prefetched ahead of sequential readers", direction=API.Direction.OUTPUT)
+    public long prefetched_chunks;
+
+    @API(help="Share of the remote chunks read sequentially that were prefetched in time, NaN if none", direction=API.Direction.OUTPUT)
+    public double prefetch_hit_rate;
+
+    @API(help="Heartbeats are sent by gossip to a few nodes rather than to all nodes", direction=API.Direction.OUTPUT)
+    public boolean gossip;
+
+    @API(help="Gossip messages sent", direction=API.Direction.OUTPUT)
+    public long gossip_messages;
+
+    @API(help="Longest time the node did not hear from another member, directly or by gossip (ms)", direction=API.Direction.OUTPUT)
+    public int view_age_ms;
+
+    @API(help="Mean age of the heartbeats the node received by gossip, -1 if none (ms)", direction=API.Direction.OUTPUT)
+    public int gossip_delta_age_ms;
+
     @API(help="Open File Descripters", direction=API.Direction.OUTPUT)
     public int open_fds;
 
@@ -204,6 +233,7 @@ public class CloudV3 extends RequestSchemaV3<Iced, CloudV3> {
       pojo_mem = hb.get_pojo_mem();
       free_mem = hb.get_free_mem();
       swap_mem = hb.get_swap_mem();
+      offheap_mem = hb.get_offheap_mem();
       max_mem = pojo_mem + free_mem + mem_value_size;
       num_keys = hb._keys;
 
@@ -218,6 +248,15 @@ public class CloudV3 extends RequestSchemaV3<Iced, CloudV3> {
 
       // System properties & I/O Status
       tcps_active = hb._tcps_active;
+      wire_bytes_saved = hb._wire_raw_bytes - hb._wire_sent_bytes;
+      wire_codec_ms = hb._wire_codec_ns / 1000000;
+      stolen_chunks = hb._stolen_chunks;
+      prefetched_chunks = hb._prefetch_issued;
+      prefetch_hit_rate = hb._prefetch_hits + hb._prefetch_misses == 0 ? Double.NaN : (double) hb._prefetch_hits / (hb._prefetch_hits + hb._prefetch_misses);
+      gossip = hb._gossip;
+      gossip_messages = hb._gossip_msgs;
+      view_age_ms = hb._view_age_ms;
+      gossip_delta_age_ms = hb._gossip_delta_ms;
       open_fds = hb._process_num_open_fds; // -1 if not available
       num_cpus = hb._num_cpus;
       cpus_allowed = hb._cpus_allowed;
@@ -0,0 +1,60 @@
+package water.api.schemas3;
+
+import water.Iced;
+import water.JobScheduler;
+import water.api.API;
+
+public class JobQueuesV3 extends RequestSchemaV3<Iced, JobQueuesV3> {
+
+  @API(help="Cap on the running jobs of the node, 0 if there is no cap", direction=API.Direction.OUTPUT)
+  public int max_running;
+
+  @API(help="Job queues of the node", direction=API.Direction.OUTPUT)
+  public JobQueueV3[] queues;
+
+  public static class JobQueueV3 extends SchemaV3<JobScheduler.Queue, JobQueueV3> {
+    @API(help="Queue name", direction=API.Direction.OUTPUT)
+    public String name;
+
+    @API(help="Share of the job slots relative to the other queues of the same priority", direction=API.Direction.OUTPUT)
+    public double weight;
+
+    @API(help="Priority, waiting jobs of higher priority queues are started first", direction=API.Direction.OUTPUT)
+    public int priority;
+
+    @API(help="Cap on the running jobs of the queue, 0 if there is no cap", direction=API.Direction.OUTPUT)
+    public int max_running;
+
+    @API(help="Running jobs", direction=API.Direction.OUTPUT)
+    public int running;
+
+    @API(help="Jobs waiting for a slot (queue depth)", direction=API.Direction.OUTPUT)
+    public int waiting;
+
+    @API(help="Jobs started from the queue", direction=API.Direction.OUTPUT)
+    public long admitted;
+
+    @API(help="Average time the started jobs spent waiting (millis)", direction=API.Direction.OUTPUT)
+    public double avg_wait_ms;
+
+    @API(help="Longest time a started job spent waiting (millis)", direction=API.Direction.OUTPUT)
+    public long max_wait_ms;
+
+    @API(help="Time the oldest waiting job has been waiting (millis)", direction=API.Direction.OUTPUT)
+    public long oldest_wait_ms;
+
+    @Override public JobQueueV3 fillFromImpl(JobScheduler.Queue q) {
+      name = q._name;
+      weight = q._weight;
+      priority = q._priority;
+      max_running = q._maxRunning;
+      running = q._running;
+      waiting = q._waiting;
+      admitted = q._admitted;
+      avg_wait_ms = q.avgWaitMs();
+      max_wait_ms = q._maxWaitMs;
+      oldest_wait_ms = q._oldestWaitMs;
+      return this;
+    }
+  }
+}
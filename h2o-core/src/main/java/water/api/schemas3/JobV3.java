@@ -50,6 +50,9 @@ public class JobV3 extends SchemaV3<Job, JobV3> {
   @API(help="ready for view", direction=API.Direction.OUTPUT)
   public boolean ready_for_view;
 
+  @API(help="Scheduler queue of the job", direction=API.Direction.OUTPUT)
+  public String queue;
+
   //==========================
   // Custom adapters go here
 
@@ -92,6 +95,7 @@ public class JobV3 extends SchemaV3<Job, JobV3> {
     }
     msec = job.msec();
     ready_for_view = job.readyForView();
+    queue = job.queue();
 
     Keyed dest_type;
     Value value = null;
@@ -0,0 +1,72 @@
+package water.api.schemas3;
+
+import water.Iced;
+import water.MRTrace;
+import water.api.API;
+
+public class MRTracesV3 extends RequestSchemaV3<Iced, MRTracesV3> {
+
+  @API(help="Id of the trace to export in the Chrome trace format", json=false)
+  public long trace_id;
+
+  @API(help="Traces of the MRTasks started on this node, most recent first", direction=API.Direction.OUTPUT)
+  public MRTraceV3[] traces;
+
+  public static class MRTraceV3 extends SchemaV3<MRTrace, MRTraceV3> {
+    @API(help="Trace id", direction=API.Direction.OUTPUT)
+    public long trace_id;
+
+    @API(help="MRTask class", direction=API.Direction.OUTPUT)
+    public String task;
+
+    @API(help="Start of the task (millis since epoch)", direction=API.Direction.OUTPUT)
+    public long start_time;
+
+    @API(help="Duration of the task (millis)", direction=API.Direction.OUTPUT)
+    public double duration_ms;
+
+    @API(help="Number of recorded spans", direction=API.Direction.OUTPUT)
+    public int spans;
+
+    @API(help="Number of spans dropped because of the per-trace limit", direction=API.Direction.OUTPUT)
+    public int dropped_spans;
+
+    @API(help="Time spent mapping chunks per node (millis)", direction=API.Direction.OUTPUT)
+    public double[] map_ms;
+
+    @API(help="Node which finished its map work as the last one", direction=API.Direction.OUTPUT)
+    public int straggler_node;
+
+    @API(help="Node of the slowest chunk", direction=API.Direction.OUTPUT)
+    public int slowest_chunk_node;
+
+    @API(help="Index of the slowest chunk", direction=API.Direction.OUTPUT)
+    public int slowest_chunk;
+
+    @API(help="Map time of the slowest chunk (millis)", direction=API.Direction.OUTPUT)
+    public double slowest_chunk_ms;
+
+    @API(help="Time the slowest chunk waited in the F/J queue (millis)", direction=API.Direction.OUTPUT)
+    public double slowest_chunk_queue_wait_ms;
+
+    @Override public MRTraceV3 fillFromImpl(MRTrace t) {
+      trace_id = t._id;
+      task = t._task;
+      start_time = t._start / 1000;
+      duration_ms = (t._end - t._start) / 1e3;
+      spans = t.spans().length;
+      dropped_spans = t.droppedSpans();
+      long[] map = t.mapTimePerNode();
+      map_ms = new double[map.length];
+      for (int i = 0; i < map.length; i++)
+        map_ms[i] = map[i] / 1e3;
+      straggler_node = t.stragglerNode();
+      MRTrace.Span slowest = t.slowestMap();
+      slowest_chunk_node = slowest == null ? -1 : slowest._node;
+      slowest_chunk = slowest == null ? -1 : slowest._chunk;
+      slowest_chunk_ms = slowest == null ? 0 : slowest._dur / 1e3;
+      slowest_chunk_queue_wait_ms = slowest == null ? 0 : slowest._wait / 1e3;
+      return this;
+    }
+  }
+}
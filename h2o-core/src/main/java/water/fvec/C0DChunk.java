@@ -3,6 +3,7 @@ package water.fvec;
 import water.parser.BufferedString;
 import water.util.UnsafeUtils;
 
+import java.util.Arrays;
 import java.util.UUID;
 
 /**
@@ -71,6 +72,14 @@ public class C0DChunk extends Chunk {
     return _len;
   }
 
+  @Override public double [] getDoubles(double [] vals, int from, int to, double NA){
+    Arrays.fill(vals,0,to-from,Double.isNaN(_con)?NA:_con);
+    return vals;
+  }
+  @Override public double [] getDoubles(double [] vals, int [] ids){
+    Arrays.fill(vals,0,ids.length,_con);
+    return vals;
+  }
 
   @Override
   public <T extends ChunkVisitor> T processRows(T v, int from, int to){
@@ -56,8 +56,19 @@ public final class C1SChunk extends CSChunk {
    */
   @Override
   public double [] getDoubles(double [] vals, int from, int to, double NA){
-    for(int i = from; i < to; ++i)
-      vals[i-from] = getD(0xFF&_mem[_OFF+i],C1Chunk._NA,NA);
+    final long bias = _bias;
+    final double scale = _scale;
+    if(_isDecimal) {
+      for(int i = from; i < to; ++i) {
+        int x = 0xFF&_mem[_OFF+i];
+        vals[i-from] = x == C1Chunk._NA?NA:(bias + x)/scale;
+      }
+    } else {
+      for(int i = from; i < to; ++i) {
+        int x = 0xFF&_mem[_OFF+i];
+        vals[i-from] = x == C1Chunk._NA?NA:(bias + x)*scale;
+      }
+    }
     return vals;
   }
   /**
@@ -10,19 +10,20 @@ public class C2Chunk extends Chunk {
   static protected final int _OFF=0;
 
   C2Chunk( byte[] bs ) { _mem=bs; _start = -1; set_len(_mem.length>>1); }
+  @Override protected boolean supportsOffHeap() { return true; }
   @Override protected final long at8_impl( int i ) {
-    int res = UnsafeUtils.get2(_mem,(i<<1)+_OFF);
+    int res = UnsafeUtils.getShort(_mem,_memOff+((i<<1)+_OFF));
     if( res == _NA ) throw new IllegalArgumentException("at8_abs but value is missing");
     return res;
   }
   @Override protected final double atd_impl( int i ) {
-    int res = UnsafeUtils.get2(_mem,(i<<1)+_OFF);
+    int res = UnsafeUtils.getShort(_mem,_memOff+((i<<1)+_OFF));
     return res == _NA?Double.NaN:res;
   }
-  @Override protected final boolean isNA_impl( int i ) { return UnsafeUtils.get2(_mem,(i<<1)+_OFF) == _NA; }
+  @Override protected final boolean isNA_impl( int i ) { return UnsafeUtils.getShort(_mem,_memOff+((i<<1)+_OFF)) == _NA; }
   @Override boolean set_impl(int idx, long l) {
     if( !(Short.MIN_VALUE < l && l <= Short.MAX_VALUE) ) return false;
-    UnsafeUtils.set2(_mem,(idx<<1)+_OFF,(short)l);
+    UnsafeUtils.putShort(_mem,_memOff+((idx<<1)+_OFF),(short)l);
     return true;
   }
   @Override boolean set_impl(int idx, double d) {
@@ -31,10 +32,10 @@ public class C2Chunk extends Chunk {
     return l == d && set_impl(idx, l);
   }
   @Override boolean set_impl(int i, float f ) { return set_impl(i,(double)f); }
-  @Override boolean setNA_impl(int idx) { UnsafeUtils.set2(_mem,(idx<<1)+_OFF,(short)_NA); return true; }
+  @Override boolean setNA_impl(int idx) { UnsafeUtils.putShort(_mem,_memOff+((idx<<1)+_OFF),(short)_NA); return true; }
 
   private final void processRow(int r, ChunkVisitor v){
-    int i = UnsafeUtils.get2(_mem,(r<<1)+_OFF);
+    int i = UnsafeUtils.getShort(_mem,_memOff+((r<<1)+_OFF));
     if(i == _NA) v.addNAs(1);
     else v.addValue(i);
   }
@@ -42,39 +43,44 @@ public class C2Chunk extends Chunk {
 
   @Override public double [] getDoubles(double [] vals, int from, int to, double NA){
     for(int i = from; i < to; i++) {
-      int x = UnsafeUtils.get2(_mem, 2*i);
+      int x = UnsafeUtils.getShort(_mem,_memOff+(2*i));
       vals[i-from] = (x == _NA)?NA:x;
     }
+    reachabilityFence();
     return vals;
   }
 
   @Override public double [] getDoubles(double [] vals, int [] ids){
     int k = 0;
     for(int i:ids) {
-      int x = UnsafeUtils.get2(_mem, 2*i);
+      int x = UnsafeUtils.getShort(_mem,_memOff+(2*i));
       vals[k++] = (x == _NA)?Double.NaN:x;
     }
+    reachabilityFence();
     return vals;
   }
 
   @Override
   public int [] getIntegers(int [] vals, int from, int to, int NA){
     for(int i = from; i < to; i++) {
-      int x = UnsafeUtils.get2(_mem, 2*i);
+      int x = UnsafeUtils.getShort(_mem,_memOff+(2*i));
       vals[i-from] = (x == _NA)?NA:x;
     }
+    reachabilityFence();
     return vals;
   }
 
   @Override
   public <T extends ChunkVisitor> T processRows(T v, int from, int to) {
     for(int i = from; i < to; i++) processRow(i,v);
+    reachabilityFence();
     return v;
   }
 
   @Override
   public <T extends ChunkVisitor> T processRows(T v, int[] ids) {
     for(int i:ids) processRow(i,v);
+    reachabilityFence();
     return v;
   }
 
@@ -51,8 +51,19 @@ public class C2SChunk extends CSChunk {
   @Override boolean setNA_impl(int idx) {setMantissa(idx,(short)C2Chunk._NA); return true; }
 
   @Override public double [] getDoubles(double [] vals, int from, int to, double NA){
-    for(int i = from; i < to; i++)
-      vals[i-from] = getD(getMantissa(i),C2Chunk._NA,NA);
+    final long bias = _bias;
+    final double scale = _scale;
+    if(_isDecimal) {
+      for(int i = from; i < to; i++) {
+        int x = getMantissa(i);
+        vals[i-from] = x == C2Chunk._NA?NA:(bias + x)/scale;
+      }
+    } else {
+      for(int i = from; i < to; i++) {
+        int x = getMantissa(i);
+        vals[i-from] = x == C2Chunk._NA?NA:(bias + x)*scale;
+      }
+    }
     return vals;
   }
 
@@ -7,37 +7,58 @@ import water.util.UnsafeUtils;
  */
 public class C4FChunk extends Chunk {
   public C4FChunk( byte[] bs ) { _mem=bs; _start = -1; set_len(_mem.length>>2); }
+  @Override protected boolean supportsOffHeap() { return true; }
   @Override protected final long at8_impl( int i ) {
-    float res = UnsafeUtils.get4f(_mem, i << 2);
+    float res = UnsafeUtils.getFloat(_mem,_memOff+(i << 2));
     if( Float.isNaN(res) ) throw new IllegalArgumentException("at8_abs but value is missing");
     return (long)res;
   }
   @Override protected final double atd_impl( int i ) {
-    float res = UnsafeUtils.get4f(_mem,i<<2);
+    float res = UnsafeUtils.getFloat(_mem,_memOff+(i<<2));
     return Float.isNaN(res)?Double.NaN:res;
   }
-  @Override protected final boolean isNA_impl( int i ) { return Float.isNaN(UnsafeUtils.get4f(_mem,i<<2)); }
+  @Override protected final boolean isNA_impl( int i ) { return Float.isNaN(UnsafeUtils.getFloat(_mem,_memOff+(i<<2))); }
   @Override boolean set_impl(int idx, long l) { return false; }
   @Override boolean set_impl(int i, double d) { return false; }
   @Override boolean set_impl(int i, float f ) {
-    UnsafeUtils.set4f(_mem,i<<2,f);
+    UnsafeUtils.putFloat(_mem,_memOff+(i<<2),f);
     return true;
   }
-  @Override boolean setNA_impl(int idx) { UnsafeUtils.set4f(_mem,(idx<<2),Float.NaN); return true; }
+  @Override boolean setNA_impl(int idx) { UnsafeUtils.putFloat(_mem,_memOff+(idx<<2),Float.NaN); return true; }
 
   @Override public NewChunk extractRows(NewChunk nc, int from, int to){
     for(int i = from; i < to; i++)
-      nc.addNum(UnsafeUtils.get4f(_mem,4*i));
+      nc.addNum(UnsafeUtils.getFloat(_mem,_memOff+(4*i)));
+    reachabilityFence();
     return nc;
   }
   @Override public NewChunk extractRows(NewChunk nc, int... rows){
     for(int i:rows)
-      nc.addNum(UnsafeUtils.get4f(_mem,4*i));
+      nc.addNum(UnsafeUtils.getFloat(_mem,_memOff+(4*i)));
+    reachabilityFence();
     return nc;
   }
 
+  @Override public double [] getDoubles(double [] vals, int from, int to, double NA){
+    for(int i = from; i < to; i++) {
+      float f = UnsafeUtils.getFloat(_mem,_memOff+(i<<2));
+      vals[i-from] = Float.isNaN(f)?NA:f;
+    }
+    reachabilityFence();
+    return vals;
+  }
+  @Override public double [] getDoubles(double [] vals, int [] ids){
+    int k = 0;
+    for(int i:ids) {
+      float f = UnsafeUtils.getFloat(_mem,_memOff+(i<<2));
+      vals[k++] = Float.isNaN(f)?Double.NaN:f;
+    }
+    reachabilityFence();
+    return vals;
+  }
+
   private final void processRow(int r, ChunkVisitor v){
-    float f = UnsafeUtils.get4f(_mem,(r<<2));
+    float f = UnsafeUtils.getFloat(_mem,_memOff+(r<<2));
     if(Float.isNaN(f)) v.addNAs(1);
     else v.addValue((double)f);
   }
@@ -45,12 +66,14 @@ public class C4FChunk extends Chunk {
   @Override
   public <T extends ChunkVisitor> T processRows(T v, int from, int to) {
     for(int i = from; i < to; i++) processRow(i,v);
+    reachabilityFence();
     return v;
   }
 
   @Override
   public <T extends ChunkVisitor> T processRows(T v, int[] ids) {
     for(int i:ids) processRow(i,v);
+    reachabilityFence();
     return v;
   }
 
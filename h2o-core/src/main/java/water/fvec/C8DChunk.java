@@ -7,14 +7,15 @@ import water.util.UnsafeUtils;
  */
 public class C8DChunk extends Chunk {
   C8DChunk( byte[] bs ) { _mem=bs; _start = -1; set_len(_mem.length>>3); }
+  @Override protected boolean supportsOffHeap() { return true; }
 
   @Override protected final long   at8_impl( int i ) {
-    double res = UnsafeUtils.get8d(_mem, i << 3);
+    double res = UnsafeUtils.getDouble(_mem,_memOff+(i << 3));
     if( Double.isNaN(res) ) throw new IllegalArgumentException("at8_abs but value is missing");
     return (long)res;
   }
-  @Override protected final double   atd_impl( int i ) { return              UnsafeUtils.get8d(_mem,i<<3) ; }
-  @Override protected final boolean isNA_impl( int i ) { return Double.isNaN(UnsafeUtils.get8d(_mem,i<<3)); }
+  @Override protected final double   atd_impl( int i ) { return              UnsafeUtils.getDouble(_mem,_memOff+(i<<3)) ; }
+  @Override protected final boolean isNA_impl( int i ) { return Double.isNaN(UnsafeUtils.getDouble(_mem,_memOff+(i<<3))); }
   @Override boolean set_impl(int idx, long l) { return false; }
 
   /**
@@ -22,19 +23,19 @@ public class C8DChunk extends Chunk {
    * @param i
    * @param d
    */
-  public void set8D(int i, double d) {UnsafeUtils.set8d(_mem,i<<3,d);}
-  public double get8D(int i) {return UnsafeUtils.get8d(_mem,i<<3);}
+  public void set8D(int i, double d) {UnsafeUtils.putDouble(_mem,_memOff+(i<<3),d);}
+  public double get8D(int i) {return UnsafeUtils.getDouble(_mem,_memOff+(i<<3));}
 
   @Override boolean set_impl(int i, double d) {
-    UnsafeUtils.set8d(_mem,i<<3,d);
+    UnsafeUtils.putDouble(_mem,_memOff+(i<<3),d);
     return true;
   }
   @Override boolean set_impl(int i, float f ) {
-    UnsafeUtils.set8d(_mem,i<<3,f);
+    UnsafeUtils.putDouble(_mem,_memOff+(i<<3),f);
     return true;
   }
 
-  @Override boolean setNA_impl(int idx) { UnsafeUtils.set8d(_mem,(idx<<3),Double.NaN); return true; }
+  @Override boolean setNA_impl(int idx) { UnsafeUtils.putDouble(_mem,_memOff+(idx<<3),Double.NaN); return true; }
 
   // 3.3333333e33
 //  public int pformat_len0() { return 22; }
@@ -47,27 +48,31 @@ public class C8DChunk extends Chunk {
 
   @Override
   public <T extends ChunkVisitor> T processRows(T v, int from, int to) {
-    for(int i = from; i < to; i++) v.addValue(UnsafeUtils.get8d(_mem,8*i));
+    for(int i = from; i < to; i++) v.addValue(UnsafeUtils.getDouble(_mem,_memOff+(8*i)));
+    reachabilityFence();
     return v;
   }
 
   @Override
   public <T extends ChunkVisitor> T processRows(T v, int[] ids) {
-    for(int i:ids) v.addValue(UnsafeUtils.get8d(_mem,8*i));
+    for(int i:ids) v.addValue(UnsafeUtils.getDouble(_mem,_memOff+(8*i)));
+    reachabilityFence();
     return v;
   }
 
   @Override public double [] getDoubles(double [] vals, int from, int to, double NA){
     for(int i = from; i < to; i++) {
-      double d = UnsafeUtils.get8d(_mem, 8 * i);
+      double d = UnsafeUtils.getDouble(_mem,_memOff+(8 * i));
       vals[i - from] = Double.isNaN(d)?NA:d;
     }
+    reachabilityFence();
     return vals;
   }
   @Override public double [] getDoubles(double [] vals, int [] ids){
     int k = 0;
     for(int i:ids)
-      vals[k++] = UnsafeUtils.get8d(_mem,8*i);
+      vals[k++] = UnsafeUtils.getDouble(_mem,_memOff+(8*i));
+    reachabilityFence();
     return vals;
   }
 
@@ -16,9 +16,9 @@ import water.util.UnsafeUtils;
  */
 public abstract class CSChunk extends Chunk {
   static protected final int _OFF=8+4+4;
-  private transient double _scale;
-  private transient long _bias;
-  private transient boolean _isDecimal;
+  protected transient double _scale;
+  protected transient long _bias;
+  protected transient boolean _isDecimal;
 
   CSChunk( byte[] bs, long bias, int scale, int szLog) {
     _mem = bs;
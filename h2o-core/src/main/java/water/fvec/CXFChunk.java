@@ -3,6 +3,8 @@ package water.fvec;
 import water.H2O;
 import water.util.UnsafeUtils;
 
+import java.util.Arrays;
+
 // Sparse chunk.
 public class CXFChunk extends CXIChunk {
   protected CXFChunk(byte [] mem){
@@ -39,6 +41,33 @@ public class CXFChunk extends CXIChunk {
   public Chunk deepCopy() {return new CXFChunk(_mem.clone());}
 
 
+  @Override public double [] getDoubles(double [] vals, int from, int to, double NA){
+    Arrays.fill(vals,0,to-from,_isNA?NA:0);
+    int x = from == 0?_OFF: findOffset(from);
+    if(x < 0) x = -x-1;
+    for(; x < _mem.length; x += _elem_sz){
+      int id = getId(x);
+      if(id >= to) break;
+      double val = getVal(x);
+      vals[id-from] = Double.isNaN(val)?NA:val;
+    }
+    return vals;
+  }
+
+  @Override public int getSparseDoubles(double [] vals, int [] ids, double NA){
+    int k = 0;
+    for(int x = _OFF; x < _mem.length; x += _elem_sz){
+      double val = getVal(x);
+      if(Double.isNaN(val)){
+        if(_isNA) continue; // missing is the implicit value, same as the skipped rows
+        vals[k] = NA;
+      } else
+        vals[k] = val;
+      ids[k++] = getId(x);
+    }
+    return k;
+  }
+
   @Override
   public <T extends ChunkVisitor> T processRows(T v, int from, int to){
     int prevId = from-1;
@@ -2,7 +2,9 @@ package water.fvec;
 
 import water.*;
 import water.parser.BufferedString;
+import water.util.UnsafeUtils;
 
+import java.util.Arrays;
 import java.util.UUID;
 
 /** A compression scheme, over a chunk of data - a single array of bytes.
@@ -161,14 +163,63 @@ public abstract class Chunk extends Iced<Chunk> implements Vec.Holder {
 
   /** Set the start */
   public void setStart(long start) { _start = start; }
-  /** The Big Data.  Frequently set in the subclasses, but not otherwise a publically writable field. */
+  /** The Big Data.  Frequently set in the subclasses, but not otherwise a publically writable field.
+   *  Null if the payload was moved off-heap, see {@link #moveOffHeap()}. */
   byte[] _mem;
+  /** Base offset of the payload for the raw {@link UnsafeUtils} accessors:
+   *  the byte[] base offset if the payload is in _mem, the native address if
+   *  the payload is off-heap (and _mem is null).  Chunks which support
+   *  off-heap storage read their data as {@code UnsafeUtils.getX(_mem,_memOff+off)},
+   *  loops over the payload end with {@link #reachabilityFence()}. */
+  transient long _memOff = UnsafeUtils.BYTE_ARRAY_BASE;
+  /** Native memory holding the payload, shared with shallow clones and keeps the memory alive */
+  private transient OffHeapMemory.Block _offHeap;
   /** Short-cut to the embedded big-data memory.  Generally not useful for
    *  public consumption, since the data remains compressed and holding on to a
-   *  pointer to this array defeats the user-mode spill-to-disk. */
-  public byte[] getBytes() { return _mem; }
+   *  pointer to this array defeats the user-mode spill-to-disk.
+   *
+   *  <p>For an off-heap Chunk the payload is copied to the heap on the first
+   *  call, the copy is cached (softly, the GC can drop it) and shared by the
+   *  next calls till the Chunk is written (see OffHeapChunkBench).  As for an
+   *  on-heap Chunk, the caller must not modify the returned array. */
+  public byte[] getBytes() { return asBytes(); }
+
+  public void setBytes(byte[] mem) { _mem = mem; onHeap(); }
+
+  /** True if the payload of this Chunk lives in native memory */
+  public final boolean isOffHeap() { return _offHeap != null; }
+
+  /** Native memory holding the payload, null if the payload is on heap */
+  public final OffHeapMemory.Block offHeapBlock() { return _offHeap; }
+
+  /** Keeps this Chunk, and so its native memory, alive till the end of a loop
+   *  reading the payload through {@link #_memOff}. */
+  final void reachabilityFence() { if( _offHeap != null ) OffHeapMemory.reachabilityFence(this); }
+
+  /** True if this encoding reads its payload through {@link #_memOff} and can be moved off-heap */
+  protected boolean supportsOffHeap() { return false; }
+
+  /** Moves the payload of this Chunk to native memory (-offheap_chunks mode).
+   *  Readers see either the byte[] or the native memory, the Chunk must not
+   *  be visible to other threads yet.
+   *  @return true if the payload was moved, false if the encoding does not
+   *  support off-heap storage or the off-heap memory is exhausted */
+  public final boolean moveOffHeap() {
+    if( _offHeap != null ) return true;
+    if( _mem == null || _chk2 != null || !supportsOffHeap() ) return false;
+    OffHeapMemory.Block b = OffHeapMemory.allocate(_mem.length);
+    if( b == null ) return false;
+    UnsafeUtils.copyToNative(_mem, 0, b.address(), _mem.length);
+    _offHeap = b;
+    _memOff = b.address();
+    _mem = null;
+    return true;
+  }
 
-  public void setBytes(byte[] mem) { _mem = mem; }
+  private void onHeap() {
+    _offHeap = null;
+    _memOff = UnsafeUtils.BYTE_ARRAY_BASE;
+  }
 
 
 
@@ -389,13 +440,15 @@ public abstract class Chunk extends Iced<Chunk> implements Vec.Holder {
     c2._vec=null;
     c2._start=-1;
     c2._cidx=-1;
-    c2._mem = _mem.clone();
+    c2._mem = asBytes().clone();
+    c2.onHeap();
     c2.initFromBytes();
     assert len() == c2._len;
     return c2;
   }
 
   private void setWrite() {
+    if( _offHeap != null ) _offHeap.written(); // Drop the heap copy, the writes go to the shared native memory
     if( _chk2 != null ) return; // Already setWrite
     assert !(this instanceof NewChunk) : "Cannot direct-write into a NewChunk, only append";
     setWrite(clone());
@@ -679,7 +732,7 @@ public abstract class Chunk extends Iced<Chunk> implements Vec.Holder {
 
   /** In memory size in bytes of the compressed Chunk plus embedded array. */
   public long byteSize() {
-    long s= _mem == null ? 0 : _mem.length;
+    long s= _mem == null ? (_offHeap == null ? 0 : _offHeap.size()) : _mem.length;
     s += (2+5)*8 + 12; // 2 hdr words, 5 other words, @8bytes each, plus mem array hdr
     if( _chk2 != null ) s += _chk2.byteSize();
     return s;
@@ -687,14 +740,18 @@ public abstract class Chunk extends Iced<Chunk> implements Vec.Holder {
 
   /** Custom serializers implemented by Chunk subclasses: the _mem field
    *  contains ALL the fields already. */
-  public final  AutoBuffer write_impl(AutoBuffer bb) {return bb.putA1(_mem);}
+  public final  AutoBuffer write_impl(AutoBuffer bb) {return bb.putA1(asBytes());}
 
   @Override
-  public byte [] asBytes(){return _mem;}
+  public byte [] asBytes(){
+    final OffHeapMemory.Block b = _offHeap;
+    return b == null ? _mem : b.heapCopy();
+  }
 
   @Override
   public final Chunk reloadFromBytes(byte [] ary){
     _mem = ary;
+    onHeap();
     initFromBytes();
     return this;
   }
@@ -702,6 +759,7 @@ public abstract class Chunk extends Iced<Chunk> implements Vec.Holder {
   protected abstract void initFromBytes();
   public final Chunk read_impl(AutoBuffer ab){
     _mem = ab.getA1();
+    onHeap();
     initFromBytes();
     return this;
   }
@@ -807,4 +865,29 @@ public abstract class Chunk extends Iced<Chunk> implements Vec.Holder {
   public int getSparseDoubles(double [] vals, int [] ids, double NA) {
     return processRows(new ChunkVisitor.SparseDoubleAryVisitor(vals,ids,isSparseNA(),NA),0,_len).sparseLen();
   }
+
+  /**
+   * Dense bulk interface with a missing-value bitmap, fetch values from the given range.
+   * Bit (i-from) of nas is set iff row i is missing, missing rows get NA in vals.
+   * @param vals holds extracted values, length must be >= to-from
+   * @param nas holds the NA bitmap, length must be >= (to-from+63)/64
+   * @return number of missing values in the range
+   */
+  public int getDoublesWithNAs(double [] vals, long [] nas, int from, int to, double NA) {
+    final int n = to-from;
+    getDoubles(vals,from,to,Double.NaN);
+    Arrays.fill(nas,0,(n+63)>>6,0);
+    int cnt = 0;
+    for(int i = 0; i < n; ++i) {
+      if(Double.isNaN(vals[i])) {
+        nas[i>>6] |= 1L<<i;
+        vals[i] = NA;
+        cnt++;
+      }
+    }
+    return cnt;
+  }
+
+  /** @return true if bit i of the NA bitmap filled by {@link #getDoublesWithNAs} is set */
+  public static boolean isNA(long [] nas, int i) { return (nas[i>>6] & (1L<<i)) != 0; }
 }
@@ -0,0 +1,164 @@
+package water.fvec;
+
+import water.*;
+
+import java.util.Arrays;
+
+/**
+ * Layouts of Frames taking the capacity of the nodes into account.
+ *
+ * The home node of a chunk is given by the chunk index alone (see {@link Key#chunkHome(int, int)}),
+ * so the placement is controlled by the number of rows in each chunk: the rows of a Frame are
+ * split between the nodes in proportion to the node weights and the share of every node is
+ * spread evenly over the chunks homed on it.  Frames with the same layout have their rows
+ * homed on the same nodes, which keeps joins and row-wise operations of such Frames local.
+ *
+ * Rebalancing runs as a Job, the work of the job is the number of chunks of the new Frame.
+ */
+public class ChunkPlacement {
+
+  /** How the nodes are weighted when splitting the rows. */
+  public enum Policy {
+    /** The same number of rows on every node. */
+    UNIFORM,
+    /** Rows in proportion to the free memory of the nodes. */
+    MEMORY,
+    /** Rows in proportion to the CPUs available to the nodes. */
+    CPUS,
+    /** Average of the memory and CPU shares of the nodes. */
+    MEMORY_AND_CPUS
+  }
+
+  private ChunkPlacement() {}
+
+  /** @return weights of the cloud members under the given policy, as last reported by their heartbeats */
+  public static double[] nodeWeights(Policy policy) {
+    H2ONode[] members = H2O.CLOUD.members();
+    double[] mem = new double[members.length], cpus = new double[members.length];
+    for (int i = 0; i < members.length; i++) {
+      HeartBeat hb = members[i]._heartbeat;
+      mem[i] = hb.get_free_mem();
+      cpus[i] = hb._cpus_allowed > 0 ? hb._cpus_allowed : hb._num_cpus;
+    }
+    switch (policy) {
+      case UNIFORM: return shares(new double[members.length]);
+      case MEMORY:  return shares(mem);
+      case CPUS:    return shares(cpus);
+      case MEMORY_AND_CPUS:
+        double[] m = shares(mem), c = shares(cpus);
+        for (int i = 0; i < m.length; i++) m[i] = (m[i] + c[i]) / 2;
+        return m;
+      default: throw H2O.unimpl("Unknown placement policy " + policy);
+    }
+  }
+
+  /** @return rows of the chunks of the given Vec summed by the home node of the chunks */
+  public static double[] rowsPerNode(Vec vec) {
+    double[] res = new double[H2O.CLOUD.size()];
+    for (int c = 0; c < vec.nChunks(); c++)
+      res[vec.chunkKey(c).home_node().index()] += vec.chunkLen(c);
+    return res;
+  }
+
+  /**
+   * Layout of the given number of rows in chunks homed on the nodes of a cloud.
+   * @param weights weights of the nodes, indexed by the node index; the size of the cloud is given by the length
+   * @return start rows of the chunks followed by the number of rows (Vec ESPC)
+   */
+  public static long[] layout(long nrows, int nchunks, double[] weights) {
+    if (nchunks <= 0) throw new IllegalArgumentException("Number of chunks must be positive, got " + nchunks);
+    final int hsz = weights.length;
+    int[] perNode = new int[hsz];
+    for (int c = 0; c < nchunks; c++) perNode[Key.chunkHome(c, hsz)]++;
+    // Nodes without chunks get no rows, their weight is spread over the other nodes
+    double[] w = new double[hsz];
+    for (int n = 0; n < hsz; n++)
+      if (perNode[n] > 0) w[n] = weights[n] > 0 && !Double.isInfinite(weights[n]) ? weights[n] : 0;
+    w = shares(w, perNode);
+    double[] chunkWeights = new double[nchunks];
+    for (int c = 0; c < nchunks; c++) {
+      int n = Key.chunkHome(c, hsz);
+      chunkWeights[c] = w[n] / perNode[n];
+    }
+    return apportion(nrows, chunkWeights);
+  }
+
+  /** @return layout of the given number of rows in chunks sized in proportion to the given weights */
+  public static long[] apportion(long nrows, double[] chunkWeights) {
+    final int nchunks = chunkWeights.length;
+    double sum = 0;
+    for (double w : chunkWeights) sum += w;
+    long[] rows = new long[nchunks];
+    double[] rem = new double[nchunks];
+    long left = nrows;
+    for (int c = 0; c < nchunks; c++) {
+      double exact = sum > 0 ? nrows * (chunkWeights[c] / sum) : (double) nrows / nchunks;
+      rows[c] = (long) exact;
+      rem[c] = exact - rows[c];
+      left -= rows[c];
+    }
+    // Largest remainders get the rows lost by rounding down
+    for (; left > 0; left--) {
+      int best = 0;
+      for (int c = 1; c < nchunks; c++)
+        if (rem[c] > rem[best]) best = c;
+      if (rem[best] < 0) Arrays.fill(rem, 0); // Only with round-off errors of huge frames
+      rows[best]++;
+      rem[best] = -1;
+    }
+    long[] espc = new long[nchunks + 1];
+    for (int c = 0; c < nchunks; c++) espc[c + 1] = espc[c] + rows[c];
+    assert espc[nchunks] == nrows;
+    return espc;
+  }
+
+  /**
+   * Rebalances a Frame into the given number of chunks, weighting the nodes by the policy.
+   * @return the running job, its result is the new Frame
+   */
+  public static Job<Frame> rebalance(Frame src, Key<Frame> dst, Policy policy, int nchunks) {
+    long[] espc = layout(src.numRows(), nchunks, nodeWeights(policy));
+    return start(src, dst, espc, "Rebalancing " + src._key + " into " + nchunks + " chunks (" + policy + ")");
+  }
+
+  /**
+   * Rebalances a Frame so that its rows are homed on the nodes in the same proportions as the rows
+   * of the reference Frame.  Frames with the same number of rows get the same layout, row i of both
+   * Frames is then homed on the same node.
+   * @return the running job, its result is the new Frame
+   */
+  public static Job<Frame> colocate(Frame src, Key<Frame> dst, Frame reference) {
+    Vec ref = reference.anyVec();
+    double[] chunkWeights = new double[ref.nChunks()];
+    for (int c = 0; c < chunkWeights.length; c++) chunkWeights[c] = ref.chunkLen(c);
+    long[] espc = apportion(src.numRows(), chunkWeights);
+    return start(src, dst, espc, "Colocating " + src._key + " with " + reference._key);
+  }
+
+  private static Job<Frame> start(Frame src, Key<Frame> dst, long[] espc, String desc) {
+    if (dst == null || dst.equals(src._key))
+      throw new IllegalArgumentException("Rebalanced frame needs a new key");
+    Job<Frame> job = new Job<>(dst, Frame.class.getName(), desc);
+    return job.start(new RebalanceDataSet(src, dst, espc, job._key), espc.length - 1);
+  }
+
+  private static double[] shares(double[] w) {
+    int[] all = new int[w.length];
+    Arrays.fill(all, 1);
+    return shares(w, all);
+  }
+
+  // Normalizes the weights to sum up to 1, falls back to equal shares of the eligible entries
+  private static double[] shares(double[] w, int[] eligible) {
+    double sum = 0;
+    int n = 0;
+    for (int i = 0; i < w.length; i++) {
+      if (eligible[i] > 0) n++;
+      sum += w[i];
+    }
+    double[] res = new double[w.length];
+    for (int i = 0; i < w.length; i++)
+      if (eligible[i] > 0) res[i] = sum > 0 ? w[i] / sum : 1.0 / n;
+    return res;
+  }
+}
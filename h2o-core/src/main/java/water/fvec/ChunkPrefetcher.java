@@ -0,0 +1,134 @@
+package water.fvec;
+
+import water.DKV;
+import water.H2O;
+import water.Key;
+import water.Value;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read-ahead of remote chunks for a single reader scanning a Vec, or the Vecs of a Frame chunk by chunk.
+ *
+ * The reader reports every chunk index it moves to ({@link #access(int)}).  Once two consecutive moves
+ * have the same stride (sequential scans have a stride of 1), the chunks of the next few indexes in that
+ * direction are requested from their home nodes asynchronously ({@link DKV#prefetch(Key)}), so they are
+ * likely cached by the time the reader gets to them.  Chunks homed on this node or cached already are
+ * not requested.
+ *
+ * The read-ahead depth is <code>sys.ai.h2o.chunk.prefetch.depth</code> chunk indexes (default 4, 0 turns
+ * prefetching off), further limited so that the chunks fetched ahead of a reader over all its Vecs stay
+ * within <code>sys.ai.h2o.chunk.prefetch.maxBytes</code> (default 64MB).  Prefetched chunks are regular
+ * cached values, a reader that drops the chunks it is done with (as {@link Frame.CSVStream} does) keeps
+ * at most the read-ahead window in memory.
+ *
+ * Not thread-safe, every reader needs its own instance.
+ */
+public final class ChunkPrefetcher {
+
+  static final int DEPTH = Integer.getInteger(H2O.OptArgs.SYSTEM_PROP_PREFIX + "chunk.prefetch.depth", 4);
+  static final long MAX_BYTES = Long.getLong(H2O.OptArgs.SYSTEM_PROP_PREFIX + "chunk.prefetch.maxBytes", 64L << 20);
+
+  // Node-wide statistics, published in the heartbeat
+  /** Remote chunks requested ahead of a reader */
+  public static final AtomicLong ISSUED = new AtomicLong();
+  /** Remote chunks a reader found cached thanks to a prefetch */
+  public static final AtomicLong HITS = new AtomicLong();
+  /** Remote chunks a reader had to wait for (not prefetched, or the prefetch was still in flight) */
+  public static final AtomicLong MISSES = new AtomicLong();
+
+  private final Vec[] _vecs;    // Vecs whose chunks are kept in the DKV
+  private final int _nChunks;
+  private final int _depth;
+  private final Set<Integer> _prefetched = new HashSet<>(); // Indexes requested ahead and not read yet
+  private boolean _started;
+  private int _last, _stride;
+  private long _slabBytes;      // Size of the chunks of one index over all Vecs, last seen
+  int _window;                  // Chunk indexes read ahead at the last access, 0 if there is no pattern
+
+  public ChunkPrefetcher(Vec... vecs) { this(DEPTH, vecs); }
+
+  ChunkPrefetcher(int depth, Vec... vecs) {
+    _vecs = prefetchable(vecs);
+    _nChunks = _vecs.length == 0 ? 0 : _vecs[0].nChunks();
+    _depth = _vecs.length == 0 ? 0 : depth;
+  }
+
+  // Wrapped Vecs compute their chunks, appendable Vecs have none in the DKV yet
+  private static Vec[] prefetchable(Vec[] vecs) {
+    List<Vec> res = new ArrayList<>();
+    for (Vec v : vecs)
+      if (v != null && !(v instanceof WrappedVec) && !(v instanceof AppendableVec))
+        res.add(v);
+    return res.toArray(new Vec[0]);
+  }
+
+  /** Records that the reader is about to read the chunks of the given index, and prefetches ahead of it. */
+  public void access(int cidx) {
+    if (_depth <= 0) return;
+    boolean prefetched = _prefetched.remove(cidx);
+    long bytes = 0;
+    for (Vec v : _vecs) {
+      Key k = v.chunkKey(cidx);
+      Value val = Value.STORE_get(k);
+      if (val != null) bytes += val._max;
+      if (k.home()) continue;
+      if (val == null) MISSES.incrementAndGet();
+      else if (prefetched) HITS.incrementAndGet();
+    }
+    if (bytes > 0) _slabBytes = bytes;
+    int d = cidx - _last;
+    _window = 0;
+    if (_started && d != 0 && d == _stride) {
+      int depth = depth();
+      for (int i = 1; i <= depth; i++) {
+        int c = cidx + i * d;
+        if (c < 0 || c >= _nChunks) break;
+        _window++;
+        if (!_prefetched.contains(c) && prefetch(_vecs, c) > 0)
+          _prefetched.add(c);
+      }
+    } else {
+      _prefetched.clear();      // No pattern (yet), the requested chunks are left to the Cleaner
+    }
+    _started = true;
+    _stride = d;
+    _last = cidx;
+  }
+
+  // Chunk indexes to read ahead, within the memory budget
+  private int depth() {
+    if (_slabBytes == 0) return Math.min(_depth, 1);
+    return (int) Math.max(1, Math.min(_depth, MAX_BYTES / _slabBytes));
+  }
+
+  /** Prefetches the chunks of the given index range of all Vecs (for readers that know what they read next). */
+  public static void prefetch(Vec[] vecs, int fromCidx, int toCidx) {
+    if (DEPTH <= 0) return;
+    Vec[] prefetchable = prefetchable(vecs);
+    for (int c = fromCidx; c < toCidx; c++)
+      prefetch(prefetchable, c);
+  }
+
+  private static int prefetch(Vec[] vecs, int cidx) {
+    int n = 0;
+    for (Vec v : vecs) {
+      Key k = v.chunkKey(cidx);
+      if (k.home() || H2O.containsKey(k)) continue;
+      DKV.prefetch(k);
+      ISSUED.incrementAndGet();
+      n++;
+    }
+    return n;
+  }
+
+  /** @return share of the remote chunks read by readers that were prefetched in time, NaN if there were none */
+  public static double hitRate() {
+    long hits = HITS.get(), misses = MISSES.get();
+    return hits + misses == 0 ? Double.NaN : (double) hits / (hits + misses);
+  }
+}
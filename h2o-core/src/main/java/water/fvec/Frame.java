@@ -1603,6 +1603,7 @@ public class Frame extends Lockable<Frame> {
     Chunk[] _curChks;
     int _lastChkIdx;
     public volatile int _curChkIdx; // used only for progress reporting
+    private final ChunkPrefetcher _prefetcher;
     private transient final String[][] _escapedCategoricalVecDomains;
 
     public CSVStream(Frame fr, CSVStreamParams parms) {
@@ -1636,6 +1637,15 @@ public class Frame extends Lockable<Frame> {
       _chkRow = -1; // first process the header line
       _curChks = chks;
       _escapedCategoricalVecDomains = escapeCategoricalVecDomains(_curChks);
+      _prefetcher = new ChunkPrefetcher(vecs(chks));
+      if (chks != null) _prefetcher.access(chks[0].cidx());
+    }
+
+    private static Vec[] vecs(Chunk[] chks) {
+      if (chks == null) return new Vec[0];
+      Vec[] vecs = new Vec[chks.length];
+      for (int i = 0; i < chks.length; i++) vecs[i] = chks[i]._vec;
+      return vecs;
     }
 
     /**
@@ -1759,6 +1769,7 @@ public class Frame extends Lockable<Frame> {
           return 0;
         }
         // fetch the next non-empty chunks
+        _prefetcher.access(_curChkIdx);
         Chunk[] newChks = new Chunk[_curChks.length];
         for (int i = 0; i < _curChks.length; i++) {
           newChks[i] = _curChks[i]._vec.chunkForChunkIdx(_curChkIdx);
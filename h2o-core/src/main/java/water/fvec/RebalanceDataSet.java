@@ -3,6 +3,7 @@ package water.fvec;
 import jsr166y.CountedCompleter;
 import water.Futures;
 import water.H2O;
+import water.Job;
 import water.Key;
 import water.MRTask;
 
@@ -16,7 +17,8 @@ import java.util.Arrays;
  *
  *  It *does not* guarantee even chunk-node placement.  (This can not currently
  *  be done in H2O, since the placement of chunks is governed only by key-hash
- *  /vector group/ for Vecs)
+ *  /vector group/ for Vecs)  An explicit layout can be given instead, see
+ *  {@link ChunkPlacement} for layouts weighting the nodes.
  */
 public class RebalanceDataSet extends H2O.H2OCountedCompleter {
   final Frame _in;
@@ -26,6 +28,7 @@ public class RebalanceDataSet extends H2O.H2OCountedCompleter {
   final Key _jobKey;
   final transient Vec.VectorGroup _vg;
   transient long[] _espc;
+  boolean _progress;            // Report every rebalanced chunk as progress of the job
 
   /**
    * Constructor for make-compatible task.
@@ -53,6 +56,25 @@ public class RebalanceDataSet extends H2O.H2OCountedCompleter {
     _vg = new Vec.VectorGroup();
   }
 
+  /**
+   * Constructor for an explicit layout.
+   *
+   * @param espc start rows of the chunks followed by the number of rows of the frame
+   * @param jobKey job counting rebalanced chunks as its work
+   */
+  public RebalanceDataSet(Frame srcFrame, Key dstKey, long[] espc, Key jobKey) {
+    super(null);
+    if (espc[espc.length - 1] != srcFrame.numRows())
+      throw new IllegalArgumentException("Layout covers " + espc[espc.length - 1] + " rows, frame has " + srcFrame.numRows());
+    _in = srcFrame;
+    _nchunks = espc.length - 1;
+    _jobKey = jobKey;
+    _okey = dstKey;
+    _espc = espc;
+    _vg = new Vec.VectorGroup();
+    _progress = jobKey != null;
+  }
+
   public Frame getResult(){join(); return _out;}
 
   @Override public void compute2() {
@@ -81,7 +103,9 @@ public class RebalanceDataSet extends H2O.H2OCountedCompleter {
     final Vec[] srcVecs = _in.vecs();
     _out = new Frame(_okey,_in.names(), new Vec(_vg.addVec(),rowLayout).makeCons(srcVecs.length,0L,_in.domains(),_in.types()));
     _out.delete_and_lock(_jobKey);
-    new RebalanceTask(this,srcVecs).dfork(_out);
+    RebalanceTask rt = new RebalanceTask(this,srcVecs);
+    if (_progress) rt._jobKey = _jobKey;
+    rt.dfork(_out);
   }
 
   @Override public void onCompletion(CountedCompleter caller) {
@@ -99,6 +123,7 @@ public class RebalanceDataSet extends H2O.H2OCountedCompleter {
 
   public static class RebalanceTask extends MRTask<RebalanceTask> {
     final Vec [] _srcVecs;
+    Key<Job> _jobKey;           // Job updated with every rebalanced chunk
     public RebalanceTask(H2O.H2OCountedCompleter cmp, Vec... srcVecs){super(cmp);_srcVecs = srcVecs;}
 
     @Override public boolean logVerbose() { return false; }
@@ -123,9 +148,15 @@ public class RebalanceDataSet extends H2O.H2OCountedCompleter {
       nc.close(_fs);
     }
     @Override public void map(Chunk [] chks){
+      // Request all the source chunks of this chunk up front rather than one by one
+      Vec src = _srcVecs[0];
+      long start = chks[0]._start;
+      if (chks[0]._len > 0)
+        ChunkPrefetcher.prefetch(_srcVecs, src.elem2ChunkIdx(start), src.elem2ChunkIdx(start + chks[0]._len - 1) + 1);
       for(int c = 0; c < chks.length; ++c){
         rebalanceChunk(c,chks[c],new NewChunk(chks[c]));
       }
+      if (_jobKey != null) Job.update(1, _jobKey);
     }
   }
 }
@@ -124,10 +124,21 @@ final class RollupStats extends Iced {
     if( min==0 && max==1 ) {
       int zs = c._len-c.sparseLenZero(); // Easy zeros
       int nans = 0;
-      // Hard-count sparse-but-zero (weird case of setting a zero over a non-zero)
-      for( int i=c.nextNZ(-1); i< c._len; i=c.nextNZ(i) )
-        if( c.isNA(i) ) nans++;
-        else if( c.at8(i)==0 ) zs++;
+      if( c.isSparseZero() || c.isSparseNA() ) {
+        // Hard-count sparse-but-zero (weird case of setting a zero over a non-zero)
+        for( int i=c.nextNZ(-1); i< c._len; i=c.nextNZ(i) )
+          if( c.isNA(i) ) nans++;
+          else if( c.at8(i)==0 ) zs++;
+      } else {                  // Dense, decode in blocks
+        double [] ds = new double[Math.min(c._len,1024)];
+        for( int from=0; from < c._len; from += ds.length ) {
+          int n = Math.min(ds.length, c._len-from);
+          c.getDoubles(ds,from,from+n);
+          for( int i=0; i<n; i++ )
+            if( Double.isNaN(ds[i]) ) nans++;
+            else if( ds[i]==0 ) zs++;
+        }
+      }
       int os = c._len-zs-nans;  // Ones
       _nzCnt += os;
       _naCnt += nans;
@@ -185,6 +196,8 @@ final class RollupStats extends Iced {
         checksum=new RollupStatsHelpers(this).numericChunkRollup((C8Chunk) c, start, checksum);
       else if (c instanceof C8DChunk)
         checksum=new RollupStatsHelpers(this).numericChunkRollup((C8DChunk) c, start, checksum);
+      else if (c instanceof CXIChunk && (c.hasFloat() || ((CXIChunk) c)._val_sz < 8))
+        checksum=new RollupStatsHelpers(this).numericChunkRollup((CXIChunk) c, start, checksum);
       else
         checksum=new RollupStatsHelpers(this).numericChunkRollup(c, start, checksum);
 
@@ -1165,7 +1165,8 @@ public class Vec extends Keyed<Vec> {
 
   /** A more efficient way to read randomly to a Vec - still single-threaded,
    *  but much faster than Vec.at(i).  Limited to single-threaded
-   *  single-machine reads.
+   *  single-machine reads.  Sequential and strided scans prefetch the
+   *  remote chunks ahead of the reader, see {@link ChunkPrefetcher}.
    *
    * Usage:
    * Vec.Reader vr = vec.new Reader();
@@ -1175,9 +1176,13 @@ public class Vec extends Keyed<Vec> {
    */
   public final class Reader {
     private Chunk _cache;
+    private final ChunkPrefetcher _prefetcher = new ChunkPrefetcher(Vec.this);
     private Chunk chk(long i) {
       Chunk c = _cache;
-      return (c != null && c.chk2()==null && c._start <= i && i < c._start+ c._len) ? c : (_cache = chunkForRow(i));
+      if (c != null && c.chk2()==null && c._start <= i && i < c._start+ c._len) return c;
+      int cidx = elem2ChunkIdx(i);
+      _prefetcher.access(cidx);
+      return _cache = chunkForChunkIdx(cidx);
     }
     public final long    at8( long i ) { return chk(i). at8_abs(i); }
     public final double   at( long i ) { return chk(i).  at_abs(i); }
@@ -6,11 +6,14 @@ import java.nio.channels.SocketChannel;
 public class SocketChannelUtils {
 
     public static boolean isSocketChannel(Channel channel) {
-        return channel instanceof SocketChannel || channel instanceof SSLSocketChannel;
+        return channel instanceof SocketChannel || channel instanceof SSLSocketChannel
+                || channel instanceof WireCompressionChannel;
     }
 
     public static SocketChannel underlyingSocketChannel(Channel channel) {
-        if(channel instanceof SSLSocketChannel) {
+        if(channel instanceof WireCompressionChannel) {
+            return ((WireCompressionChannel) channel).channel();
+        } else if(channel instanceof SSLSocketChannel) {
             return ((SSLSocketChannel) channel).channel();
         } else if(channel instanceof SocketChannel) {
             return (SocketChannel) channel;
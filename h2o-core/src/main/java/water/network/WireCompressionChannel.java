@@ -0,0 +1,176 @@
+package water.network;
+
+import water.persist.SpillCodec;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ByteChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Wrapper around node-to-node TCP channels carrying large AutoBuffer transfers
+ * (TCP_BIG channels opened with the compression flag).
+ *
+ * Data written to the channel is sent in frames, each frame holds one buffer-full
+ * of an AutoBuffer message. The frame header consists of the length of the original
+ * data and the length of the compressed payload (0 if the payload is stored as-is).
+ * Frames are compressed only once the message they belong to reached the compression
+ * threshold and only if compression saves at least 1/8 of the frame size, small
+ * messages (eg. acks of a large RPC) are therefore sent without touching the codec.
+ *
+ * The handshake bytes that close an AutoBuffer transfer are written directly to the
+ * underlying socket and bypass the framing.
+ */
+public class WireCompressionChannel implements ByteChannel {
+
+    private static final int HEADER_SIZE = 8;
+
+    // Node-wide statistics, published in the heartbeat
+    /** Bytes of the frames sent (before compression) */
+    public static final AtomicLong RAW_BYTES = new AtomicLong();
+    /** Bytes of the frames sent (after compression), including the frame headers */
+    public static final AtomicLong WIRE_BYTES = new AtomicLong();
+    /** Time spent compressing and decompressing the frames */
+    public static final AtomicLong CODEC_NS = new AtomicLong();
+
+    private final ByteChannel channel;
+    private final SpillCodec codec;
+    private final long threshold;
+
+    // Write side: frame header, uncompressed and compressed frame
+    private final ByteBuffer outHeader = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.nativeOrder());
+    private byte[] raw = new byte[0];
+    private byte[] comp = new byte[0];
+
+    // Read side: frame header, payload and the decoded frame handed out by read()
+    private final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.nativeOrder());
+    private byte[] payload = new byte[0];
+    private ByteBuffer frame = ByteBuffer.allocate(0);
+
+    /**
+     * @param channel underlying (possibly SSL) socket channel
+     * @param codec codec used to compress the frames
+     * @param threshold minimal size of a message to be compressed
+     */
+    public WireCompressionChannel(ByteChannel channel, SpillCodec codec, long threshold) {
+        assert SocketChannelUtils.isSocketChannel(channel);
+        this.channel = channel;
+        this.codec = codec;
+        this.threshold = threshold;
+    }
+
+    SocketChannel channel() {
+        return SocketChannelUtils.underlyingSocketChannel(channel);
+    }
+
+    @Override
+    public boolean isOpen() {
+        return channel.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Writes the remaining bytes of the given buffer as an uncompressed frame.
+     */
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        return writeFrame(src, 0);
+    }
+
+    /**
+     * Writes the remaining bytes of the given buffer as a single frame.
+     * @param src data to send, fully consumed
+     * @param messageSize number of bytes of the whole message written so far (including this frame)
+     * @return number of bytes consumed from the buffer
+     */
+    public int writeFrame(ByteBuffer src, long messageSize) throws IOException {
+        final int n = src.remaining();
+        int len = 0;
+        if (messageSize >= threshold && n >= SpillCodec.MIN_SIZE) {
+            long ns = System.nanoTime();
+            if (raw.length < n)
+                raw = new byte[n];
+            if (comp.length < codec.maxCompressedLength(n))
+                comp = new byte[codec.maxCompressedLength(n)];
+            src.mark();
+            src.get(raw, 0, n);
+            len = codec.compress(raw, n, comp);
+            if (len >= n - (n >> 3)) { // Not worth decompressing unless we save at least 1/8
+                len = 0;
+                src.reset();
+            }
+            CODEC_NS.addAndGet(System.nanoTime() - ns);
+        }
+        outHeader.clear();
+        outHeader.putInt(n).putInt(len).flip();
+        writeFully(outHeader);
+        writeFully(len == 0 ? src : ByteBuffer.wrap(comp, 0, len));
+        RAW_BYTES.addAndGet(n);
+        WIRE_BYTES.addAndGet(HEADER_SIZE + (len == 0 ? n : len));
+        return n;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        while (!frame.hasRemaining()) {
+            if (!readFrame())
+                return -1;
+        }
+        final int n = Math.min(dst.remaining(), frame.remaining());
+        final int lim = frame.limit();
+        frame.limit(frame.position() + n);
+        dst.put(frame);
+        frame.limit(lim);
+        return n;
+    }
+
+    // Reads the next frame, returns false if the other side closed the connection
+    private boolean readFrame() throws IOException {
+        header.clear();
+        if (channel.read(header) < 0)
+            return false;
+        readFully(header);
+        header.flip();
+        final int rawLen = header.getInt();
+        final int len = header.getInt();
+        if (rawLen < 0 || len < 0 || len > codec.maxCompressedLength(rawLen))
+            throw new IOException("Communication protocol failure: invalid frame header " + rawLen + "/" + len);
+        if (frame.capacity() < rawLen)
+            frame = ByteBuffer.allocate(rawLen);
+        frame.clear();
+        if (len == 0) {
+            frame.limit(rawLen);
+            readFully(frame);
+        } else {
+            if (payload.length < len)
+                payload = new byte[len];
+            readFully(ByteBuffer.wrap(payload, 0, len));
+            long ns = System.nanoTime();
+            codec.decompress(payload, len, frame.array(), rawLen);
+            CODEC_NS.addAndGet(System.nanoTime() - ns);
+            frame.position(rawLen);
+        }
+        frame.flip();
+        return true;
+    }
+
+    private void readFully(ByteBuffer bb) throws IOException {
+        while (bb.hasRemaining()) {
+            if (channel.read(bb) < 0)
+                throw new EOFException("Connection closed in the middle of a frame");
+        }
+    }
+
+    private void writeFully(ByteBuffer bb) throws IOException {
+        while (bb.hasRemaining())
+            channel.write(bb);
+    }
+
+}
@@ -0,0 +1,171 @@
+package water.persist;
+
+import java.io.IOException;
+
+/**
+ * Pure-Java implementation of the LZ4 block format (https://github.com/lz4/lz4/blob/dev/doc/lz4_Block_format.md).
+ *
+ * The compressor is a simple greedy single-pass matcher with a hash table of 4-byte sequences; it favors speed over
+ * compression ratio (spilling is usually bound by disk bandwidth, we want to reduce the amount of written data without
+ * making the Cleaner CPU-bound). Output is compatible with any LZ4 block decoder.
+ */
+final class Lz4BlockCodec extends SpillCodec {
+
+  static final Lz4BlockCodec INSTANCE = new Lz4BlockCodec();
+
+  private static final int MIN_MATCH = 4;
+  private static final int LAST_LITERALS = 5; // last 5 bytes are always literals
+  private static final int MF_LIMIT = 12;     // last match needs to start at least 12 bytes before the end
+  private static final int MAX_DISTANCE = 65535;
+  private static final int HASH_LOG = 14;
+  private static final int SKIP_TRIGGER = 6;  // search step increases every 2^6 unsuccessful probes
+
+  private Lz4BlockCodec() {}
+
+  @Override
+  public byte id() {
+    return LZ4;
+  }
+
+  @Override
+  public int maxCompressedLength(int len) {
+    return len + len / 255 + 16;
+  }
+
+  @Override
+  public int compress(byte[] src, int len, byte[] dst) {
+    final int n = len;
+    int dp = 0;
+    int anchor = 0;
+    if (n > MF_LIMIT) {
+      final int[] table = new int[1 << HASH_LOG]; // position + 1 of the last occurrence, 0 = empty
+      final int limit = n - MF_LIMIT;
+      int ip = 1;
+      int probes = 1 << SKIP_TRIGGER;
+      while (ip < limit) {
+        final int seq = readInt(src, ip);
+        final int h = hash(seq);
+        int ref = table[h] - 1;
+        table[h] = ip + 1;
+        if (ref < 0 || ip - ref > MAX_DISTANCE || readInt(src, ref) != seq) {
+          ip += probes++ >>> SKIP_TRIGGER;
+          continue;
+        }
+        probes = 1 << SKIP_TRIGGER;
+        // Extend the match forward (last literals need to stay literals) and backward
+        final int maxEnd = n - LAST_LITERALS;
+        int end = ip + MIN_MATCH;
+        int refEnd = ref + MIN_MATCH;
+        while (end < maxEnd && src[end] == src[refEnd]) {
+          end++;
+          refEnd++;
+        }
+        while (ip > anchor && ref > 0 && src[ip - 1] == src[ref - 1]) {
+          ip--;
+          ref--;
+        }
+        dp = writeSequence(src, anchor, ip - anchor, ip - ref, end - ip, dst, dp);
+        ip = end;
+        anchor = ip;
+        if (ip - 2 > 0 && ip - 2 < limit)
+          table[hash(readInt(src, ip - 2))] = ip - 2 + 1;
+      }
+    }
+    // Last literals
+    final int lit = n - anchor;
+    final int token = dp++;
+    dp = writeLength(lit, dst, token, 4, dp);
+    System.arraycopy(src, anchor, dst, dp, lit);
+    return dp + lit;
+  }
+
+  private static int writeSequence(byte[] src, int litOff, int litLen, int offset, int matchLen, byte[] dst, int dp) {
+    final int token = dp++;
+    dp = writeLength(litLen, dst, token, 4, dp);
+    System.arraycopy(src, litOff, dst, dp, litLen);
+    dp += litLen;
+    dst[dp++] = (byte) offset;
+    dst[dp++] = (byte) (offset >>> 8);
+    return writeLength(matchLen - MIN_MATCH, dst, token, 0, dp);
+  }
+
+  // Writes a length into a nibble of the token, followed by the extra length bytes. The literal length (high nibble)
+  // is written first and sets the token, dst can be a reused buffer holding stale data.
+  private static int writeLength(int len, byte[] dst, int token, int shift, int dp) {
+    final int nibble = Math.min(len, 15) << shift;
+    dst[token] = (byte) (shift == 4 ? nibble : dst[token] | nibble);
+    if (len < 15)
+      return dp;
+    len -= 15;
+    while (len >= 255) {
+      dst[dp++] = (byte) 255;
+      len -= 255;
+    }
+    dst[dp++] = (byte) len;
+    return dp;
+  }
+
+  @Override
+  public void decompress(byte[] src, int len, byte[] dst, int rawLen) throws IOException {
+    int sp = 0;
+    int dp = 0;
+    try {
+      while (true) {
+        final int token = src[sp++] & 0xFF;
+        int lit = token >>> 4;
+        if (lit == 15) {
+          int b;
+          do {
+            b = src[sp++] & 0xFF;
+            lit += b;
+          } while (b == 255);
+        }
+        if (sp + lit > len || dp + lit > rawLen)
+          throw new IOException("Corrupted LZ4 block: literals exceed the input at " + sp);
+        System.arraycopy(src, sp, dst, dp, lit);
+        sp += lit;
+        dp += lit;
+        if (sp == len)
+          break; // the last sequence only has literals
+        if (sp + 2 > len)
+          throw new IOException("Corrupted LZ4 block: truncated match offset at " + sp);
+        final int offset = (src[sp] & 0xFF) | ((src[sp + 1] & 0xFF) << 8);
+        sp += 2;
+        int matchLen = token & 15;
+        if (matchLen == 15) {
+          int b;
+          do {
+            b = src[sp++] & 0xFF;
+            matchLen += b;
+          } while (b == 255);
+        }
+        matchLen += MIN_MATCH;
+        final int ref = dp - offset;
+        if (offset == 0 || ref < 0)
+          throw new IOException("Corrupted LZ4 block: invalid match offset " + offset + " at " + sp);
+        if (dp + matchLen > rawLen)
+          throw new IOException("Corrupted LZ4 block: match exceeds the output at " + sp);
+        if (offset >= matchLen) {
+          System.arraycopy(dst, ref, dst, dp, matchLen);
+        } else { // overlapping match (repeating pattern)
+          for (int i = 0; i < matchLen; i++)
+            dst[dp + i] = dst[ref + i];
+        }
+        dp += matchLen;
+      }
+    } catch (IndexOutOfBoundsException e) {
+      throw new IOException("Corrupted LZ4 block", e);
+    }
+    if (dp != rawLen || sp != len)
+      throw new IOException("Corrupted LZ4 block: decoded " + dp + " bytes, expected " + rawLen);
+  }
+
+  private static int readInt(byte[] b, int i) {
+    return (b[i] & 0xFF) | ((b[i + 1] & 0xFF) << 8) | ((b[i + 2] & 0xFF) << 16) | (b[i + 3] << 24);
+  }
+
+  private static int hash(int seq) {
+    return (seq * -1640531535) >>> (32 - HASH_LOG);
+  }
+
+}
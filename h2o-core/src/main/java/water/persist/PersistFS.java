@@ -15,9 +15,11 @@ import water.util.Log;
 public final class PersistFS extends Persist {
   final File _root;
   final File _dir;
+  final SpillCodec _codec; // null = store Values as-is
 
   PersistFS(File root) {
     _root = root;
+    _codec = SpillCodec.make(H2O.ARGS.spill_codec);
     _dir = new File(root, "ice" + H2O.API_PORT);
     //deleteRecursive(_dir);
     // Make the directory as-needed
@@ -48,15 +50,18 @@ public final class PersistFS extends Persist {
 
   @Override public byte[] load(Value v) throws IOException {
     File f = getFile(v);
-    if( f.length() < v._max ) { // Should be fully on disk...
+    final int size = v.spillSize();
+    if( f.length() < size ) { // Should be fully on disk...
       // or it's a racey delete of a spilled value
-      assert !v.isPersisted() : f.length() + " " + v._max + " " + v._key;
+      assert !v.isPersisted() : f.length() + " " + size + " " + v._key;
       return null; // No value
     }
     try (FileInputStream s = new FileInputStream(f)) {
         AutoBuffer ab = new AutoBuffer(s.getChannel(), true, Value.ICE);
-        byte[] b = ab.getA1(v._max);
+        byte[] b = ab.getA1(size);
         ab.close();
+        if( v.spillCodec() != SpillCodec.NONE )
+          b = SpillCodec.forId(v.spillCodec()).decompress(b, size, v._max);
         return b;
       }
   }
@@ -73,7 +78,20 @@ public final class PersistFS extends Persist {
           Log.warn("Value size mismatch? " + v._key + " byte[].len=" + m.length+" v._max="+v._max);
           v._max = m.length; // Implies update of underlying POJO, then re-serializing it without K/V storing it
         }
-        new AutoBuffer(s.getChannel(), false, Value.ICE).putA1(m, m.length).close();
+        byte[] data = m;
+        int len = m.length;
+        byte codec = SpillCodec.NONE;
+        if( _codec != null && m.length >= SpillCodec.MIN_SIZE ) {
+          byte[] c = new byte[_codec.maxCompressedLength(m.length)];
+          int clen = _codec.compress(m, c);
+          if( clen < m.length - (m.length >> 3) ) { // Not worth decompressing unless we save at least 1/8
+            data = c;
+            len = clen;
+            codec = _codec.id();
+          }
+        }
+        new AutoBuffer(s.getChannel(), false, Value.ICE).putA1(data, len).close();
+        v.setSpillInfo(codec, len);
       } catch( AutoBuffer.AutoBufferException abe ) {
       throw abe._ioe;
     }
@@ -54,6 +54,7 @@ public class PersistManager {
     public PersistStatsEntry() {
       store_count = new AtomicLong();
       store_bytes = new AtomicLong();
+      store_raw_bytes = new AtomicLong();
       delete_count = new AtomicLong();
       load_count = new AtomicLong();
       load_bytes = new AtomicLong();
@@ -61,6 +62,7 @@ public class PersistManager {
 
     public AtomicLong store_count;
     public AtomicLong store_bytes;
+    public AtomicLong store_raw_bytes; // size of the stored Values before applying a SpillCodec
     public AtomicLong delete_count;
     public AtomicLong load_count;
     public AtomicLong load_bytes;
@@ -182,6 +184,8 @@ public class PersistManager {
   public void store(int backend, Value v) throws IOException {
     stats[backend].store_count.incrementAndGet();
     I[backend].store(v);
+    stats[backend].store_bytes.addAndGet(v.spillSize());
+    stats[backend].store_raw_bytes.addAndGet(v._max);
   }
 
   public void delete(int backend, Value v) {
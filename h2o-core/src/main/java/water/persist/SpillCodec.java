@@ -0,0 +1,91 @@
+package water.persist;
+
+import java.io.IOException;
+
+/**
+ * Block codec applied to Values spilled to disk by the store Cleaner (user-mode swap to ice_root).
+ * The same codecs are used to compress large TCP transfers between nodes, see {@link water.network.WireCompressionChannel}.
+ *
+ * The codec is applied per Value, the id of the codec and the compressed size are kept with the Value
+ * (see {@link water.Value#spillCodec()}) and used to restore the original bytes when the Value is reloaded.
+ */
+public abstract class SpillCodec {
+
+  public static final byte NONE = 0;
+  public static final byte LZ4 = 1;
+
+  /** Values smaller than this are always spilled uncompressed */
+  public static final int MIN_SIZE = 256;
+
+  /** @return id of the codec, stored with the spilled Value */
+  public abstract byte id();
+
+  /** @return upper bound of the compressed size of input of a given length */
+  public abstract int maxCompressedLength(int len);
+
+  /**
+   * Compresses a given input.
+   * @param src input data
+   * @param dst output buffer of size at least {@link #maxCompressedLength(int)}
+   * @return length of the compressed data
+   */
+  public int compress(byte[] src, byte[] dst) {
+    return compress(src, src.length, dst);
+  }
+
+  /**
+   * Compresses the first len bytes of a given input.
+   * @param src input data
+   * @param len length of the input data
+   * @param dst output buffer of size at least {@link #maxCompressedLength(int)}
+   * @return length of the compressed data
+   */
+  public abstract int compress(byte[] src, int len, byte[] dst);
+
+  /**
+   * Decompresses data previously compressed by this codec.
+   * @param src compressed data
+   * @param len length of the compressed data
+   * @param rawLen length of the original data
+   * @return original data
+   * @throws IOException if the data is corrupted
+   */
+  public byte[] decompress(byte[] src, int len, int rawLen) throws IOException {
+    byte[] dst = new byte[rawLen];
+    decompress(src, len, dst, rawLen);
+    return dst;
+  }
+
+  /**
+   * Decompresses data previously compressed by this codec into a given buffer.
+   * @param src compressed data
+   * @param len length of the compressed data
+   * @param dst output buffer of size at least rawLen
+   * @param rawLen length of the original data
+   * @throws IOException if the data is corrupted
+   */
+  public abstract void decompress(byte[] src, int len, byte[] dst, int rawLen) throws IOException;
+
+  /**
+   * Creates a codec given by its name.
+   * @param name "none" or "lz4"
+   * @return codec instance, null for "none"
+   */
+  public static SpillCodec make(String name) {
+    if (name == null || name.equals("none")) return null;
+    if (name.equals("lz4")) return Lz4BlockCodec.INSTANCE;
+    throw new IllegalArgumentException("Unknown spill codec: " + name);
+  }
+
+  /**
+   * @param id id of the codec
+   * @return codec instance
+   */
+  public static SpillCodec forId(byte id) {
+    switch (id) {
+      case LZ4: return Lz4BlockCodec.INSTANCE;
+      default: throw new IllegalArgumentException("Unknown spill codec id: " + id);
+    }
+  }
+
+}
@@ -22,4 +22,30 @@ public class UnsafeUtils {
 
   public static void copyMemory( byte[] srcBase, long srcOff, byte[] dstBase, long dstOff, long len )
   { _unsafe.copyMemory(srcBase,_Bbase+srcOff,dstBase,_Bbase+dstOff,len); }
+
+  // Raw accessors addressing either a byte[] element (base is the array and
+  // off includes BYTE_ARRAY_BASE) or native memory (base is null and off is
+  // an absolute address).  Used by data that can live on or off heap.
+  public static final long BYTE_ARRAY_BASE = _Bbase;
+  public static byte   getByte  ( Object base, long off ) { return _unsafe.getByte  (base, off); }
+  public static short  getShort ( Object base, long off ) { return _unsafe.getShort (base, off); }
+  public static int    getInt   ( Object base, long off ) { return _unsafe.getInt   (base, off); }
+  public static long   getLong  ( Object base, long off ) { return _unsafe.getLong  (base, off); }
+  public static float  getFloat ( Object base, long off ) { return _unsafe.getFloat (base, off); }
+  public static double getDouble( Object base, long off ) { return _unsafe.getDouble(base, off); }
+
+  public static void putByte  ( Object base, long off, byte x  ) { _unsafe.putByte  (base, off, x); }
+  public static void putShort ( Object base, long off, short x ) { _unsafe.putShort (base, off, x); }
+  public static void putInt   ( Object base, long off, int x   ) { _unsafe.putInt   (base, off, x); }
+  public static void putLong  ( Object base, long off, long x  ) { _unsafe.putLong  (base, off, x); }
+  public static void putFloat ( Object base, long off, float x ) { _unsafe.putFloat (base, off, x); }
+  public static void putDouble( Object base, long off, double x) { _unsafe.putDouble(base, off, x); }
+
+  // Native memory
+  public static long allocateMemory( long len ) { return _unsafe.allocateMemory(len); }
+  public static void freeMemory( long addr ) { _unsafe.freeMemory(addr); }
+  public static void copyToNative( byte[] src, long srcOff, long dstAddr, long len )
+  { _unsafe.copyMemory(src,_Bbase+srcOff,null,dstAddr,len); }
+  public static void copyFromNative( long srcAddr, byte[] dst, long dstOff, long len )
+  { _unsafe.copyMemory(null,srcAddr,dst,_Bbase+dstOff,len); }
 }
@@ -17,6 +17,12 @@ public class WaterMeterIo extends Iced {
     @API(help="Cumulative stored bytes", direction = API.Direction.OUTPUT)
     public long store_bytes;
 
+    @API(help="Cumulative size of the stored Values before compression", direction = API.Direction.OUTPUT)
+    public long store_raw_bytes;
+
+    @API(help="Ratio of uncompressed to stored bytes (1 if stored uncompressed)", direction = API.Direction.OUTPUT)
+    public double compression_ratio;
+
     @API(help="Number of delete events", direction = API.Direction.OUTPUT)
     public long delete_count;
 
@@ -27,11 +33,35 @@ public class WaterMeterIo extends Iced {
     public long load_bytes;
   }
 
+  public static class CleanerStatsEntry extends SchemaV3<Iced, CleanerStatsEntry> {
+    @API(help="Eviction policy of the store cleaner", direction = API.Direction.OUTPUT)
+    public String policy;
+
+    @API(help="Number of accesses to Chunks cached in memory", direction = API.Direction.OUTPUT)
+    public long hits;
+
+    @API(help="Number of accesses to Chunks that had to be loaded", direction = API.Direction.OUTPUT)
+    public long misses;
+
+    @API(help="Number of Chunks spilled to disk", direction = API.Direction.OUTPUT)
+    public long spills;
+
+    @API(help="Cumulative spilled bytes", direction = API.Direction.OUTPUT)
+    public long spilled_bytes;
+
+    @API(help="Number of Chunks freed from memory", direction = API.Direction.OUTPUT)
+    public long evictions;
+
+    @API(help="Cumulative freed bytes", direction = API.Direction.OUTPUT)
+    public long evicted_bytes;
+  }
+
   // Input
   public int nodeidx;
 
   // Output
   public IoStatsEntry persist_stats[];
+  public CleanerStatsEntry cleaner_stats;
 
   public void doIt(boolean aggregateAllNodes) {
     if (! aggregateAllNodes) {
@@ -50,14 +80,32 @@ public class WaterMeterIo extends Iced {
         }
       }
 
+      if (i == 0) {
+        cleaner_stats = new CleanerStatsEntry();
+        cleaner_stats.policy = io.cleaner_stats.policy;
+      }
+      cleaner_stats.hits += io.cleaner_stats.hits;
+      cleaner_stats.misses += io.cleaner_stats.misses;
+      cleaner_stats.spills += io.cleaner_stats.spills;
+      cleaner_stats.spilled_bytes += io.cleaner_stats.spilled_bytes;
+      cleaner_stats.evictions += io.cleaner_stats.evictions;
+      cleaner_stats.evicted_bytes += io.cleaner_stats.evicted_bytes;
+
       for (int j = 0; j < persist_stats.length; j++) {
         persist_stats[j].store_count += io.persist_stats[j].store_count;
         persist_stats[j].store_bytes += io.persist_stats[j].store_bytes;
+        persist_stats[j].store_raw_bytes += io.persist_stats[j].store_raw_bytes;
         persist_stats[j].delete_count += io.persist_stats[j].delete_count;
         persist_stats[j].load_count += io.persist_stats[j].load_count;
         persist_stats[j].load_bytes += io.persist_stats[j].load_bytes;
       }
     }
+    for (IoStatsEntry e : persist_stats)
+      e.compression_ratio = compressionRatio(e);
+  }
+
+  private static double compressionRatio(IoStatsEntry e) {
+    return e.store_bytes == 0 ? 1 : (double) e.store_raw_bytes / e.store_bytes;
   }
 
   private void doIt(int idx) {
@@ -68,10 +116,12 @@ public class WaterMeterIo extends Iced {
     new RPC<>(node, t).call().get();
     Log.trace("IO GetTask completed to node " + idx);
     persist_stats = t._persist_stats;
+    cleaner_stats = t._cleaner_stats;
   }
 
   private static class GetTask extends DTask<GetTask> {
     private IoStatsEntry _persist_stats[];
+    private CleanerStatsEntry _cleaner_stats;
 
     public GetTask() { super(H2O.MIN_HI_PRIORITY); _persist_stats = null; }
 
@@ -103,6 +153,8 @@ public class WaterMeterIo extends Iced {
         PersistManager.PersistStatsEntry src_e = s[j];
         dest_e.store_count = src_e.store_count.get();
         dest_e.store_bytes = src_e.store_bytes.get();
+        dest_e.store_raw_bytes = src_e.store_raw_bytes.get();
+        dest_e.compression_ratio = compressionRatio(dest_e);
         dest_e.delete_count = src_e.delete_count.get();
         dest_e.load_count = src_e.load_count.get();
         dest_e.load_bytes = src_e.load_bytes.get();
@@ -113,11 +165,22 @@ public class WaterMeterIo extends Iced {
         PersistManager.PersistStatsEntry src_e = s[j];
         assert(src_e.store_count.get() == 0);
         assert(src_e.store_bytes.get() == 0);
+        assert(src_e.store_raw_bytes.get() == 0);
         assert(src_e.delete_count.get() == 0);
         assert(src_e.load_count.get() == 0);
         assert(src_e.load_bytes.get() == 0);
       }
 
+      EvictionPolicy policy = EvictionPolicy.current();
+      _cleaner_stats = new CleanerStatsEntry();
+      _cleaner_stats.policy = policy.name();
+      _cleaner_stats.hits = policy.hits();
+      _cleaner_stats.misses = policy.misses();
+      _cleaner_stats.spills = policy.spills();
+      _cleaner_stats.spilled_bytes = policy.spilledBytes();
+      _cleaner_stats.evictions = policy.evictions();
+      _cleaner_stats.evicted_bytes = policy.evictedBytes();
+
       tryComplete();
     }
   }
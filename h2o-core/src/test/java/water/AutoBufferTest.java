@@ -110,4 +110,31 @@ public class AutoBufferTest extends TestUtil {
     assertEquals("(no name)", AutoBuffer.nameOfClass(new byte[]{0,0,0,0,0}));
   }
 
+  @Test
+  public void testNarrowedArraysAcrossBufferBoundaries() {
+    final int n = AutoBuffer.BBP_BIG._size + 123; // spans several buffer-fulls for each encoding
+    java.util.Random r = new java.util.Random(0xA8);
+    long[][] longs = new long[4][n];
+    boolean[] bools = new boolean[n];
+    for (int i = 1; i < n - 1; i++) { // leading and trailing zeros are trimmed
+      longs[0][i] = r.nextInt(256);                    // unsigned bytes
+      longs[1][i] = r.nextInt(1 << 15) - (1 << 14);    // shorts
+      longs[2][i] = r.nextInt();                       // ints
+      longs[3][i] = r.nextLong();                      // full longs
+      bools[i] = r.nextBoolean();
+    }
+    java.io.ByteArrayOutputStream os = new java.io.ByteArrayOutputStream();
+    AutoBuffer ab = new AutoBuffer(os, false);
+    ab.put1(7); // misalign the arrays with respect to the buffer
+    for (long[] ls : longs) ab.putA8(ls);
+    ab.putAZ(bools);
+    ab.close();
+
+    AutoBuffer in = new AutoBuffer(new java.io.ByteArrayInputStream(os.toByteArray()));
+    assertEquals(7, in.get1());
+    for (long[] ls : longs) assertArrayEquals(ls, in.getA8());
+    assertTrue(Arrays.equals(bools, in.getAZ()));
+    in.close();
+  }
+
 }
@@ -0,0 +1,101 @@
+package water;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.fvec.Vec;
+
+import static org.junit.Assert.*;
+
+public class EvictionPolicyTest extends TestUtil {
+
+  @BeforeClass
+  public static void setup() { stall_till_cloudsize(1); }
+
+  @Test
+  public void testMake() {
+    assertTrue(EvictionPolicy.make(null) instanceof EvictionPolicy.LRU);
+    assertTrue(EvictionPolicy.make("lru") instanceof EvictionPolicy.LRU);
+    assertTrue(EvictionPolicy.make("lru2") instanceof EvictionPolicy.LRU2);
+    assertTrue(EvictionPolicy.make("cost") instanceof EvictionPolicy.CostAware);
+    assertTrue(EvictionPolicy.make(EvictionPolicy.CostAware.class.getName()) instanceof EvictionPolicy.CostAware);
+    assertTrue(EvictionPolicy.make("no.such.Policy") instanceof EvictionPolicy.LRU);
+  }
+
+  @Test
+  public void testLRU2PrefersRepeatedlyUsedValues() {
+    EvictionPolicy policy = new EvictionPolicy.LRU2(60000);
+    long now = System.currentTimeMillis();
+    Value usedOnce = new Value(Key.make(), new byte[10]);
+    usedOnce.touchAt(now);
+    Value usedTwice = new Value(Key.make(), new byte[10]);
+    usedTwice._prevAccessedTime = now - 10000;
+    usedTwice.touchAt(now - 5000);
+    // value used once is evicted first, even though it was touched later
+    assertTrue(policy.priority(usedOnce) < policy.priority(usedTwice));
+    assertEquals(now - 10000, policy.priority(usedTwice));
+  }
+
+  @Test
+  public void testCostAwarePrefersCheapValues() {
+    EvictionPolicy policy = new EvictionPolicy.CostAware(30000);
+    long now = System.currentTimeMillis();
+    Value onIce = new Value(Key.make(), new byte[10]);
+    onIce.touchAt(now);
+    Value fromSource = new Value(Key.make(), 10, new byte[10], TypeMap.PRIM_B, Value.NFS);
+    fromSource.touchAt(now);
+    assertEquals(now, policy.priority(onIce));
+    assertEquals(now - 60000, policy.priority(fromSource));
+  }
+
+  @Test
+  public void testFreshValuesAreNotSpilled() {
+    long now = System.currentTimeMillis();
+    long lazyCleanToAge = now - Cleaner.LAZY_CLEAN_AGE;
+    Value fresh = new Value(Key.make(), new byte[10]);
+    fresh.touchAt(now);
+    Value freshFromSource = new Value(Key.make(), 10, new byte[10], TypeMap.PRIM_B, Value.NFS);
+    freshFromSource.touchAt(now);
+    Value old = new Value(Key.make(), new byte[10]);
+    old.touchAt(now - 10000);
+    for (EvictionPolicy policy : new EvictionPolicy[]{new EvictionPolicy.LRU(), new EvictionPolicy.LRU2(60000),
+            new EvictionPolicy.CostAware(30000)}) {
+      // lazy cleaning, nothing to remove to reach the desired cache level
+      assertTrue(policy.name(), Cleaner.tooYoung(policy, fresh, Long.MIN_VALUE, lazyCleanToAge));
+      assertTrue(policy.name(), Cleaner.tooYoung(policy, freshFromSource, Long.MIN_VALUE, lazyCleanToAge));
+      assertFalse(policy.name(), Cleaner.tooYoung(policy, old, Long.MIN_VALUE, lazyCleanToAge));
+    }
+    // under memory pressure the policy's order decides: a Value used once goes before a Value in repeated use
+    EvictionPolicy lru2 = new EvictionPolicy.LRU2(60000);
+    Value usedTwice = new Value(Key.make(), new byte[10]);
+    usedTwice._prevAccessedTime = now - 1000;
+    usedTwice.touchAt(now);
+    assertFalse(Cleaner.tooYoung(lru2, fresh, now - 30000, Long.MIN_VALUE));
+    assertTrue(Cleaner.tooYoung(lru2, usedTwice, now - 30000, Long.MIN_VALUE));
+  }
+
+  @Test
+  public void testChunkValueSerialization() {
+    Key chunkKey = Vec.chunkKey(Vec.newKey(), 0);
+    assertTrue(chunkKey.isChunkKey());
+    Value val = new Value(chunkKey, new byte[]{1, 2, 3});
+    Value read = new AutoBuffer().put(val).flipForReading().get();
+    assertArrayEquals(new byte[]{1, 2, 3}, read.memOrLoad());
+    assertEquals(val._max, read._max);
+  }
+
+  @Test
+  public void testStatistics() {
+    EvictionPolicy policy = new EvictionPolicy.LRU();
+    Value val = new Value(Key.make(), new byte[10]);
+    policy.recordAccess(val);
+    policy.recordSpill(10);
+    policy.recordEviction(10);
+    assertEquals(1, policy.hits());
+    assertEquals(0, policy.misses());
+    assertEquals(1, policy.spills());
+    assertEquals(10, policy.spilledBytes());
+    assertEquals(1, policy.evictions());
+    assertEquals(10, policy.evictedBytes());
+  }
+
+}
@@ -15,10 +15,12 @@ public class HeartBeatTest {
     hb.set_pojo_mem(mem+1);
     hb.set_free_mem(mem+2);
     hb.set_swap_mem(mem+3);
+    hb.set_offheap_mem(mem+4);
 
     assertEquals(mem, hb.get_kv_mem());
     assertEquals(mem+1, hb.get_pojo_mem());
     assertEquals(mem+2, hb.get_free_mem());
     assertEquals(mem+3, hb.get_swap_mem());
+    assertEquals(mem+4, hb.get_offheap_mem());
   }
 }
\ No newline at end of file
@@ -0,0 +1,127 @@
+package water;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.fvec.Frame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+
+public class JobSchedulerTest extends TestUtil {
+
+  @BeforeClass
+  public static void setup() {
+    stall_till_cloudsize(1);
+  }
+
+  private static class Work extends H2O.H2OCountedCompleter<Work> {
+    private final String _name;
+    private final List<String> _log;
+    private final CountDownLatch _release;
+    Work(String name, List<String> log, CountDownLatch release) { _name = name; _log = log; _release = release; }
+    @Override public void compute2() {
+      _log.add(_name);
+      try {
+        if (_release != null) _release.await();
+      } catch (InterruptedException e) {
+        throw new RuntimeException(e);
+      }
+      tryComplete();
+    }
+  }
+
+  private static Job<Frame> start(String queue, Work work) {
+    Job<Frame> j = new Job<>(Key.<Frame>make(), Frame.class.getName(), "Scheduled " + work._name);
+    j.setQueue(queue);
+    return j.start(work, 1);
+  }
+
+  private static JobScheduler.Queue queue(String name) {
+    for (JobScheduler.Queue q : JobScheduler.queues())
+      if (q._name.equals(name)) return q;
+    throw new AssertionError("No queue " + name);
+  }
+
+  @Test
+  public void testQueueCap() {
+    JobScheduler.configure("testCapped", 1, 1, 0);
+    try {
+      List<String> log = Collections.synchronizedList(new ArrayList<String>());
+      CountDownLatch release = new CountDownLatch(1);
+      Job<Frame> first = start("testCapped", new Work("first", log, release));
+      Job<Frame> second = start("testCapped", new Work("second", log, null));
+      JobScheduler.Queue q = queue("testCapped");
+      assertEquals(1, q._running);
+      assertEquals(1, q._waiting);
+      assertEquals("testCapped", second.queue());
+      assertTrue(second.isRunning());
+      assertEquals("Waiting in queue testCapped", second.progress_msg());
+
+      release.countDown();
+      first.get();
+      second.get();
+      assertEquals(Arrays.asList("first", "second"), log);
+      q = queue("testCapped");
+      assertEquals(0, q._running);
+      assertEquals(0, q._waiting);
+      assertEquals(2, q._admitted);
+      assertTrue(q._maxWaitMs >= 0);
+    } finally {
+      JobScheduler.configure("testCapped", 1, 0, 0);
+    }
+  }
+
+  @Test
+  public void testHigherPriorityGoesFirst() {
+    JobScheduler.configure("testHigh", 1, 1, 11);
+    JobScheduler.configure("testLow", 1, 0, 10);
+    try {
+      List<String> log = Collections.synchronizedList(new ArrayList<String>());
+      CountDownLatch release = new CountDownLatch(1);
+      Job<Frame> h1 = start("testHigh", new Work("h1", log, release));
+      Job<Frame> h2 = start("testHigh", new Work("h2", log, null));
+      Job<Frame> low = start("testLow", new Work("low", log, null));
+      assertEquals(1, queue("testLow")._waiting); // Held back by h2 even though testLow has no cap
+
+      release.countDown();
+      h1.get();
+      h2.get();
+      low.get();
+      assertEquals(3, log.size());
+      assertEquals("h1", log.get(0));
+      assertEquals(0, queue("testLow")._waiting);
+    } finally {
+      JobScheduler.configure("testHigh", 1, 0, 11);
+      JobScheduler.configure("testLow", 1, 0, 10);
+    }
+  }
+
+  @Test
+  public void testStoppedWhileWaiting() {
+    JobScheduler.configure("testStop", 1, 1, 0);
+    try {
+      List<String> log = Collections.synchronizedList(new ArrayList<String>());
+      CountDownLatch release = new CountDownLatch(1);
+      Job<Frame> first = start("testStop", new Work("first", log, release));
+      Job<Frame> second = start("testStop", new Work("second", log, null));
+      assertEquals(1, queue("testStop")._waiting);
+      second.stop();
+      assertEquals(0, queue("testStop")._waiting);
+      second.get();
+      release.countDown();
+      first.get();
+    } finally {
+      JobScheduler.configure("testStop", 1, 0, 0);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnknownQueue() {
+    new Job<>(Key.<Frame>make(), Frame.class.getName(), "No queue").setQueue("noSuchQueue");
+  }
+}
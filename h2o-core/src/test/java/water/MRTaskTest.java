@@ -2,14 +2,18 @@ package water;
 
 import org.junit.*;
 import water.fvec.*;
+import water.util.ArrayUtils;
+import water.util.JSONUtils;
 import water.util.PrettyPrint;
 
+import java.io.ByteArrayOutputStream;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
-import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.*;
 
 public class MRTaskTest extends TestUtil {
   @BeforeClass static public void setup() { stall_till_cloudsize(5); }
@@ -154,5 +158,180 @@ public class MRTaskTest extends TestUtil {
     }
   }
 
+  @Test
+  public void testTrace() throws Exception {
+    try {
+      Scope.enter();
+      final int nChunks = 100;
+      Vec zeros = Vec.makeCon(0.0, nChunks, 0, true);
+      Scope.track(zeros);
+
+      MRTask mrt = new MRTask() {
+        @Override public void map(Chunk cs[]) { }
+      }.trace().doAll(zeros);
+
+      MRTrace trace = mrt.getTrace();
+      assertSame(trace, MRTrace.get(trace._id));
+      BitSet chunks = new BitSet();
+      Set<Integer> nodes = new HashSet<>();
+      int rpcs = 0;
+      for (MRTrace.Span s : trace.spans()) {
+        // The clock of each JVM starts from a msec wall-clock time: remote spans can be off by 1ms
+        final long skew = s._node == trace._node ? 0 : 1000;
+        assertTrue(s.toString(), s._dur >= 0 && s._start >= trace._start - skew && s._wait >= 0);
+        if (s._phase.equals("map")) {
+          assertFalse("chunk mapped twice: " + s._chunk, chunks.get(s._chunk));
+          chunks.set(s._chunk);
+          assertEquals(zeros.chunkKey(s._chunk).home_node().index(), s._node);
+        }
+        if (s._phase.equals("rpc")) {
+          rpcs++;
+          assertTrue(s._bytes > 0);
+        }
+        nodes.add(s._node);
+      }
+      assertEquals(nChunks, chunks.cardinality());
+      assertEquals(H2O.CLOUD.size(), nodes.size());
+      assertEquals(H2O.CLOUD.size() - 1, rpcs);
+      assertEquals(0, trace.droppedSpans());
+
+      ByteArrayOutputStream os = new ByteArrayOutputStream();
+      trace.writeChromeTrace(os);
+      Map<String, Object> json = JSONUtils.parse(os.toString("UTF-8"));
+      assertTrue(((List) json.get("traceEvents")).size() > nChunks);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  private static final Map<Long, Long> ALL_REDUCED = new ConcurrentHashMap<>();
+
+  private static class AllReduceSum extends MRTask<AllReduceSum> {
+    long _sum;
+    long[] _counts;
+    @Override public void map(Chunk c) {
+      _counts = new long[3];
+      for (int i = 0; i < c._len; i++) {
+        _sum += c.at8(i);
+        _counts[(int) (c.at8(i) % 3)]++;
+      }
+    }
+    @Override public void reduce(AllReduceSum mrt) {
+      _sum += mrt._sum;
+      _counts = _counts == null ? mrt._counts : ArrayUtils.add(_counts, mrt._counts);
+    }
+    @Override protected void postAllReduce() { ALL_REDUCED.put(_allReduce, _sum); }
+  }
+
+  private static class CollectAllReduced extends MRTask<CollectAllReduced> {
+    final long _id;
+    long[] _sums;
+    CollectAllReduced(long id) { _id = id; }
+    @Override protected void setupLocal() {
+      _sums = new long[H2O.CLOUD.size()];
+      Long sum = ALL_REDUCED.remove(_id);
+      _sums[H2O.SELF.index()] = sum == null ? -1 : sum;
+    }
+    @Override public void reduce(CollectAllReduced mrt) { ArrayUtils.add(_sums, mrt._sums); }
+  }
+
+  private static class ExpireMailboxes extends MRTask<ExpireMailboxes> {
+    int _mailboxes;
+    @Override protected void setupLocal() {
+      MRAllReduce.expire(System.currentTimeMillis() + MRAllReduce.MAILBOX_TIMEOUT + 1);
+      _mailboxes = MRAllReduce.mailboxes();
+    }
+    @Override public void reduce(ExpireMailboxes mrt) { _mailboxes += mrt._mailboxes; }
+  }
+
+  @Test
+  public void testAllReduce() {
+    try {
+      Scope.enter();
+      final long rows = 100000;
+      Vec seq = Vec.makeSeq(rows, true);
+      Scope.track(seq);
+      final long expected = rows * (rows + 1) / 2;
+
+      AllReduceSum mrt = new AllReduceSum().allReduce().doAll(seq);
+      assertEquals(expected, mrt._sum);
+      assertEquals(rows, ArrayUtils.sum(mrt._counts));
+
+      // Every node has the reduced result
+      long[] sums = new CollectAllReduced(mrt._allReduce).doAllNodes()._sums;
+      for (int i = 0; i < sums.length; i++)
+        assertEquals("node " + i, expected, sums[i]);
+
+      // A late abort reaching the nodes which finished is dropped with the finished mailboxes
+      MRAllReduce.abort(mrt._allReduce).blockForPending();
+      assertEquals(0, new ExpireMailboxes().doAllNodes()._mailboxes);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  private static class SlowNodeSum extends MRTask<SlowNodeSum> {
+    long _sum;
+    int _chunks;
+    @Override public void map(Chunk c) {
+      if (H2O.SELF.index() == 1 && c.vec().chunkKey(c.cidx()).home()) // Slow home node
+        try { Thread.sleep(50); } catch (InterruptedException ignore) { }
+      for (int i = 0; i < c._len; i++)
+        _sum += c.at8(i);
+      _chunks++;
+    }
+    @Override public void reduce(SlowNodeSum mrt) {
+      _sum += mrt._sum;
+      _chunks += mrt._chunks;
+    }
+  }
+
+  @Test
+  public void testWorkStealing() {
+    try {
+      Scope.enter();
+      final long rows = 100000;
+      Vec seq = Vec.makeSeq(rows, true);
+      Scope.track(seq);
+
+      SlowNodeSum mrt = new SlowNodeSum().workStealing().doAll(seq);
+      assertEquals(rows * (rows + 1) / 2, mrt._sum);
+      assertEquals(seq.nChunks(), mrt._chunks);
+      if (H2O.CLOUD.size() > 1)
+        assertTrue("expected chunks of the slow node to be stolen", mrt.stolenChunks() > 0);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  private static class SetupBeforeSteal extends MRTask<SetupBeforeSteal> {
+    transient double _offset = Double.NaN; // Set up locally, the thief's copies must see it
+    long _sum;
+    @Override protected void setupLocal() {
+      try { Thread.sleep(200); } catch (InterruptedException ignore) { }
+      _offset = 1;
+    }
+    @Override public void map(Chunk c) {
+      for (int i = 0; i < c._len; i++)
+        _sum += (long) (c.at8(i) + _offset);
+    }
+    @Override public void reduce(SetupBeforeSteal mrt) { _sum += mrt._sum; }
+  }
+
+  @Test
+  public void testWorkStealingAfterSetupLocal() {
+    try {
+      Scope.enter();
+      final long rows = 1000;
+      Vec seq = Vec.makeSeq(rows, true); // A few chunks, nodes without home chunks steal right away
+      Scope.track(seq);
+
+      SetupBeforeSteal mrt = new SetupBeforeSteal().workStealing().doAll(seq);
+      assertEquals(rows * (rows + 1) / 2 + rows, mrt._sum);
+    } finally {
+      Scope.exit();
+    }
+  }
+
 }
 
@@ -0,0 +1,110 @@
+package water;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.util.UnsafeUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class OffHeapMemoryTest extends TestUtil {
+
+  @BeforeClass
+  public static void setup() { stall_till_cloudsize(1); }
+
+  @Test
+  public void testSizeClasses() {
+    int prev = 0;
+    for (int size = 1; size <= OffHeapMemory.MAX_BLOCK; size++) {
+      int cls = OffHeapMemory.sizeClass(size);
+      int clsSize = OffHeapMemory.classSize(cls);
+      assertTrue("size class too small for " + size, clsSize >= size);
+      if (cls > 0)
+        assertTrue("size class not tight for " + size, OffHeapMemory.classSize(cls - 1) < size);
+      if (size > OffHeapMemory.MIN_BLOCK)
+        assertTrue("too much waste for " + size, clsSize <= size + (size >> 2) + 1);
+      assertTrue(cls >= prev);
+      prev = cls;
+    }
+  }
+
+  @Test
+  public void testAllocateAndReclaim() throws InterruptedException {
+    byte[] data = new byte[1000];
+    for (int i = 0; i < data.length; i++)
+      data[i] = (byte) i;
+    OffHeapMemory.Block b = OffHeapMemory.allocate(data.length);
+    assertNotNull(b);
+    assertEquals(data.length, b.size());
+    UnsafeUtils.copyToNative(data, 0, b.address(), data.length);
+    for (int i = 0; i < data.length - 8; i++)
+      assertEquals(UnsafeUtils.get8(data, i), UnsafeUtils.getLong(null, b.address() + i));
+    byte[] copy = new byte[data.length];
+    UnsafeUtils.copyFromNative(b.address(), copy, 0, copy.length);
+    assertArrayEquals(data, copy);
+
+    long used = OffHeapMemory.used();
+    List<OffHeapMemory.Block> blocks = new ArrayList<>();
+    for (int i = 0; i < 10; i++)
+      blocks.add(OffHeapMemory.allocate(100 << 10));
+    assertTrue(OffHeapMemory.used() > used);
+    assertTrue(OffHeapMemory.reserved() <= OffHeapMemory.limit());
+    blocks.clear();
+    b = null;
+    // unreachable blocks are recycled once collected
+    for (int i = 0; i < 10 && OffHeapMemory.used() >= used; i++) {
+      System.gc();
+      Thread.sleep(100);
+      OffHeapMemory.reclaim();
+    }
+    assertTrue(OffHeapMemory.used() < used);
+  }
+
+  @Test
+  public void testDroppedBlocksAreRecycledOnceUnreachable() throws InterruptedException {
+    OffHeapMemory.Block b = OffHeapMemory.allocate(3000);
+    assertNotNull(b);
+    final long len = OffHeapMemory.classSize(OffHeapMemory.sizeClass(3000));
+    long used = OffHeapMemory.used();
+    long dropped = OffHeapMemory.dropped();
+    OffHeapMemory.dropped(b);
+    OffHeapMemory.dropped(b); // counted once
+    assertEquals(dropped + len, OffHeapMemory.dropped());
+    // still reachable: not recycled, whatever the time since it was dropped
+    System.gc();
+    Thread.sleep(100);
+    OffHeapMemory.reclaim();
+    assertEquals(used, OffHeapMemory.used());
+    UnsafeUtils.copyToNative(new byte[3000], 0, b.address(), 3000);
+    OffHeapMemory.reachabilityFence(b);
+    b = null;
+    for (int i = 0; i < 10 && OffHeapMemory.used() >= used; i++) {
+      System.gc();
+      Thread.sleep(100);
+      OffHeapMemory.reclaim();
+    }
+    assertTrue(OffHeapMemory.used() <= used - len);
+    assertTrue(OffHeapMemory.dropped() <= dropped);
+  }
+
+  @Test
+  public void testHeapCopy() {
+    byte[] data = new byte[1000];
+    for (int i = 0; i < data.length; i++)
+      data[i] = (byte) i;
+    OffHeapMemory.Block b = OffHeapMemory.allocate(data.length);
+    UnsafeUtils.copyToNative(data, 0, b.address(), data.length);
+    byte[] copy = b.heapCopy();
+    assertArrayEquals(data, copy);
+    assertSame(copy, b.heapCopy()); // cached
+    b.written();
+    data[7] = 42;
+    UnsafeUtils.copyToNative(data, 0, b.address(), data.length);
+    byte[] copy2 = b.heapCopy();
+    assertNotSame(copy, copy2);
+    assertArrayEquals(data, copy2);
+  }
+
+}
@@ -0,0 +1,109 @@
+package water;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class SmallMessagesSelectorTest extends TestUtil {
+
+  @BeforeClass
+  public static void setup() {
+    stall_till_cloudsize(1);
+  }
+
+  private final LinkedBlockingQueue<byte[]> received = new LinkedBlockingQueue<>();
+  private ServerSocketChannel server;
+  private SocketChannel client;
+  private SmallMessagesSelector selector;
+
+  @Before
+  public void connect() throws IOException {
+    server = ServerSocketChannel.open();
+    server.socket().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+    client = SocketChannel.open(server.socket().getLocalSocketAddress());
+    selector = new SmallMessagesSelector("TCP-SMALL-SELECT-test", new SmallMessagesSelector.Handler() {
+      @Override public void handle(H2ONode h2o, byte[] msg, int sz) {
+        received.add(Arrays.copyOf(msg, sz));
+      }
+    });
+    selector.add(H2O.SELF, server.accept());
+  }
+
+  @After
+  public void close() throws IOException {
+    client.close();
+    server.close();
+    selector.close();
+  }
+
+  private static ByteBuffer frame(byte[] msg, int sentinel) {
+    ByteBuffer bb = ByteBuffer.allocate(msg.length + 3).order(ByteOrder.nativeOrder());
+    bb.putChar((char) msg.length).put(msg).put((byte) sentinel).flip();
+    return bb;
+  }
+
+  private void send(ByteBuffer bb, int from, int to) throws IOException {
+    ByteBuffer part = bb.duplicate();
+    part.position(from).limit(to);
+    while (part.hasRemaining()) client.write(part);
+  }
+
+  @Test
+  public void testReassemblesMessages() throws Exception {
+    byte[] a = new byte[100], b = new byte[1000], c = new byte[0];
+    for (int i = 0; i < b.length; i++) b[i] = (byte) i;
+    a[0] = 42;
+    // Two messages in one write, then a message split into three writes
+    ByteBuffer ab = ByteBuffer.allocate(a.length + c.length + 6).order(ByteOrder.nativeOrder());
+    ab.put(frame(a, 0xef)).put(frame(c, 0xef)).flip();
+    send(ab, 0, ab.limit());
+    ByteBuffer bb = frame(b, 0xef);
+    send(bb, 0, 1);
+    Thread.sleep(50);
+    send(bb, 1, 500);
+    Thread.sleep(50);
+    send(bb, 500, bb.limit());
+
+    assertArrayEquals(a, received.poll(10, TimeUnit.SECONDS));
+    assertArrayEquals(c, received.poll(10, TimeUnit.SECONDS));
+    assertArrayEquals(b, received.poll(10, TimeUnit.SECONDS));
+    assertEquals(1, selector.connections());
+  }
+
+  @Test
+  public void testClosesConnectionOnBadSentinel() throws Exception {
+    ByteBuffer bb = frame(new byte[10], 0x12);
+    send(bb, 0, bb.limit());
+    long deadline = System.currentTimeMillis() + 10000;
+    while (selector.connections() != 0 && System.currentTimeMillis() < deadline)
+      Thread.sleep(10);
+    assertEquals(0, selector.connections());
+    assertTrue(received.isEmpty());
+  }
+
+  @Test
+  public void testClosesConnectionOnEOF() throws Exception {
+    ByteBuffer bb = frame(new byte[]{1, 2, 3}, 0xef);
+    send(bb, 0, bb.limit());
+    assertArrayEquals(new byte[]{1, 2, 3}, received.poll(10, TimeUnit.SECONDS));
+    client.close();
+    long deadline = System.currentTimeMillis() + 10000;
+    while (selector.connections() != 0 && System.currentTimeMillis() < deadline)
+      Thread.sleep(10);
+    assertEquals(0, selector.connections());
+  }
+}
@@ -0,0 +1,107 @@
+package water;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.net.InetAddress;
+
+import static org.junit.Assert.*;
+
+public class UDPGossipTest extends TestUtil {
+
+  @BeforeClass() public static void setup() {
+    stall_till_cloudsize(5);
+  }
+
+  // This node followed by fake nodes, never part of the cloud
+  private static H2ONode[] members(int n, int basePort) {
+    H2ONode[] members = new H2ONode[n];
+    members[0] = H2O.SELF;
+    for (int i = 1; i < n; i++)
+      members[i] = H2ONode.intern(InetAddress.getLoopbackAddress(), basePort + i);
+    return members;
+  }
+
+  @Test
+  public void testDigestAndDeltasRoundTrip() {
+    long now = System.currentTimeMillis();
+    // Sender and receiver share the gossip state in this JVM, the receiver gets its own copies of the members
+    H2ONode[] sent = members(4, 41000);
+    H2ONode[] received = members(4, 41100);
+    for (int i = 1; i < 4; i++) {
+      sent[i]._last_heard_from = now - 1000 * i;
+      received[i]._last_heard_from = now - 10000;
+    }
+    HeartBeat hb = new HeartBeat();
+    hb._gossip_msgs = 17;
+    sent[2].setHeartBeat(hb);
+    assertTrue(UDPGossip.heard(sent[2], now, 500));
+
+    AutoBuffer ab = new AutoBuffer();
+    UDPGossip.write(ab, sent, now);
+    UDPGossip.read(new AutoBuffer(ab.buf()), received, now);
+
+    for (int i = 1; i < 4; i++)
+      assertEquals(now - 1000 * i, received[i]._last_heard_from);
+    assertEquals(17, received[2]._heartbeat._gossip_msgs);
+    assertEquals(0, received[1]._heartbeat._gossip_msgs);
+    assertEquals(0, received[3]._heartbeat._gossip_msgs);
+    // Older news of a member is dropped
+    assertFalse(UDPGossip.heard(received[2], now, 1000));
+  }
+
+  @Test
+  public void testMessageFitsIntoPacket() {
+    long now = System.currentTimeMillis();
+    H2ONode[] members = members(300, 42000);
+    for (int i = 1; i < members.length; i++) {
+      members[i]._last_heard_from = now;
+      UDPGossip.heard(members[i], now, 100);
+    }
+    AutoBuffer ab = new AutoBuffer().putUdp(UDP.udp.gossip);
+    H2O.SELF._heartbeat.write(ab);
+    UDPGossip.write(ab, members, now);
+    assertTrue(ab.position() < AutoBuffer.MTU);
+    AutoBuffer read = new AutoBuffer(ab.buf()).position(1 + 2 + 2);
+    new HeartBeat().read(read);
+    assertEquals(UDPGossip.MAX_DIGEST, read.get2());
+
+    // A large HeartBeat leaves room for a part of the digest only
+    ab = new AutoBuffer().putUdp(UDP.udp.gossip).putA1(new byte[1200]);
+    int room = (AutoBuffer.MTU - ab.position() - 2 - 1) / 6;
+    UDPGossip.write(ab, members, now);
+    assertTrue(ab.position() <= AutoBuffer.MTU);
+    read = new AutoBuffer(ab.buf()).position(1 + 2 + 2);
+    read.getA1();
+    assertEquals(room, read.get2());
+  }
+
+  @Test
+  public void testGossipWithLoweredMinCloudSize() throws InterruptedException {
+    int minCloudSize = UDPGossip.MIN_CLOUD_SIZE;
+    try {
+      new SetMinCloudSize(H2O.CLOUD.size()).doAllNodes();
+      Thread.sleep(5 * HeartBeatThread.SLEEP);
+      // The nodes send their HeartBeats by gossip only, so they reached this node on the gossip receive path
+      for (H2ONode node : H2O.CLOUD.members()) {
+        HeartBeat hb = node._heartbeat;
+        assertTrue(node + " does not gossip", hb._gossip);
+        assertTrue(node + " sent no gossip", hb._gossip_msgs > 0);
+        assertTrue(node + " did not hear from a member for " + hb._view_age_ms + "ms",
+                hb._view_age_ms < HeartBeatThread.TIMEOUT / 10);
+        assertTrue(node + " is not healthy", node.isHealthy());
+      }
+    } finally {
+      new SetMinCloudSize(minCloudSize).doAllNodes();
+    }
+  }
+
+  private static class SetMinCloudSize extends MRTask<SetMinCloudSize> {
+    final int _size;
+    SetMinCloudSize(int size) { _size = size; }
+    @Override protected void setupLocal() {
+      Paxos.lockCloud("gossip test");
+      UDPGossip.MIN_CLOUD_SIZE = _size;
+    }
+  }
+}
@@ -0,0 +1,157 @@
+package water.fvec;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.TestUtil;
+import water.util.UnsafeUtils;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the bulk decode kernels of all the numeric encodings against the per-row accessors.
+ */
+public class ChunkBulkDecodeTest extends TestUtil {
+  @BeforeClass() public static void setup() { stall_till_cloudsize(1); }
+
+  private static final int LEN = 1000;
+
+  @Test
+  public void testDenseEncodings() {
+    assertBulkDecode(compress(ints(0, 254)), C1Chunk.class);
+    assertBulkDecode(compress(ints(1, 255)), C1NChunk.class);
+    assertBulkDecode(compress(ints(-30000, 30000)), C2Chunk.class);
+    assertBulkDecode(compress(ints(-1000000000, 1000000000)), C4Chunk.class);
+    assertBulkDecode(compress(ints(0, 100), -1), C1SChunk.class);
+    assertBulkDecode(compress(ints(-30000, 30000), -2), C2SChunk.class);
+    assertBulkDecode(compress(ints(-1000000, 1000000), -3), C4SChunk.class);
+    assertBulkDecode(compress(bools()), CBSChunk.class);
+    assertBulkDecode(compress(randoms()), C8DChunk.class);
+    byte[] bs = new byte[LEN << 2];
+    double[] fs = randoms();
+    for (int i = 0; i < LEN; i++) UnsafeUtils.set4f(bs, i << 2, (float) fs[i]);
+    assertBulkDecode(new C4FChunk(bs), C4FChunk.class);
+  }
+
+  @Test
+  public void testConstantEncodings() {
+    double[] vals = new double[LEN];
+    java.util.Arrays.fill(vals, 7);
+    assertBulkDecode(compress(vals), C0LChunk.class);
+    java.util.Arrays.fill(vals, 1.5);
+    assertBulkDecode(compress(vals), C0DChunk.class);
+    java.util.Arrays.fill(vals, Double.NaN);
+    assertBulkDecode(compress(vals), C0DChunk.class);
+  }
+
+  @Test
+  public void testSparseEncodings() {
+    assertBulkDecode(compress(sparse(0, 1000, 1)), CXIChunk.class);
+    assertBulkDecode(compress(sparse(0, 100000, 1)), CXIChunk.class);
+    assertBulkDecode(compress(sparse(0, 1000, 0.5)), CXFChunk.class);
+    assertBulkDecode(compress(sparse(Double.NaN, 1000, 1)), CXIChunk.class);
+    assertBulkDecode(compress(sparse(Double.NaN, 1000, 0.5)), CXFChunk.class);
+  }
+
+  private static void assertBulkDecode(Chunk c, Class<? extends Chunk> expected) {
+    assertEquals(expected, c.getClass());
+    final int len = c._len;
+    // dense range, full and partial, with a non-NaN NA substitute
+    for (int from : new int[]{0, 1, 63, len / 2}) {
+      int to = len - from / 3;
+      double[] ds = c.getDoubles(new double[to - from], from, to, -1);
+      for (int i = from; i < to; i++)
+        assertEquals(c.getClass().getSimpleName() + " row " + i, c.isNA(i) ? -1 : c.atd(i), ds[i - from], 0);
+      long[] nas = new long[(to - from + 63) >> 6];
+      java.util.Arrays.fill(nas, -1);
+      int naCnt = c.getDoublesWithNAs(ds, nas, from, to, 0);
+      int cnt = 0;
+      for (int i = from; i < to; i++) {
+        assertEquals(c.isNA(i), Chunk.isNA(nas, i - from));
+        if (c.isNA(i)) cnt++;
+        assertEquals(c.isNA(i) ? 0 : c.atd(i), ds[i - from], 0);
+      }
+      assertEquals(cnt, naCnt);
+    }
+    // selected rows
+    int[] ids = new int[]{0, 2, 3, 64, 100, len - 1};
+    double[] ds = c.getDoubles(new double[ids.length], ids);
+    for (int k = 0; k < ids.length; k++)
+      assertEquals(c.atd(ids[k]), ds[k], 0);
+    // integers
+    if (!c.hasFloat()) {
+      int[] is = c.getIntegers(new int[len], 0, len, Integer.MIN_VALUE);
+      for (int i = 0; i < len; i++)
+        assertEquals(c.isNA(i) ? Integer.MIN_VALUE : (int) c.at8(i), is[i]);
+    }
+    // sparse, must match the generic visitor
+    if (!(c instanceof CXIChunk)) return;
+    double[] vals = new double[len];
+    int[] nzs = new int[len];
+    int n = c.getSparseDoubles(vals, nzs, -1);
+    ChunkVisitor.SparseDoubleAryVisitor v = c.processRows(new ChunkVisitor.SparseDoubleAryVisitor(new double[len], new int[len], c.isSparseNA(), -1), 0, len);
+    assertEquals(v.sparseLen(), n);
+    for (int k = 0; k < n; k++) {
+      assertEquals(v.ids[k], nzs[k]);
+      assertEquals(v.vals[k], vals[k], 0);
+    }
+  }
+
+  private static Chunk compress(double[] vals) {
+    NewChunk nc = new NewChunk(null, 0);
+    for (double v : vals) {
+      if (Double.isNaN(v)) nc.addNA();
+      else nc.addNum(v);
+    }
+    return nc.compress();
+  }
+
+  // decimal numbers given as mantissas, so they get the scaled encodings
+  private static Chunk compress(double[] ms, int exp) {
+    NewChunk nc = new NewChunk(null, 0);
+    for (double m : ms) {
+      if (Double.isNaN(m)) nc.addNA();
+      else nc.addNum((long) m, exp);
+    }
+    return nc.compress();
+  }
+
+  private static double[] ints(int min, int max) {
+    Random r = new Random(min);
+    double[] vals = new double[LEN];
+    vals[0] = min;
+    vals[1] = max;
+    for (int i = 2; i < LEN; i++)
+      vals[i] = min + (long) (r.nextDouble() * ((long) max - min));
+    if (min != 1) vals[7] = Double.NaN; // C1N does not support NAs
+    return vals;
+  }
+
+  private static double[] bools() {
+    Random r = new Random(1);
+    double[] vals = new double[LEN];
+    for (int i = 0; i < LEN; i++)
+      vals[i] = r.nextInt(10) == 0 ? Double.NaN : r.nextInt(2);
+    return vals;
+  }
+
+  private static double[] randoms() {
+    Random r = new Random(2);
+    double[] vals = new double[LEN];
+    for (int i = 0; i < LEN; i++)
+      vals[i] = r.nextInt(10) == 0 ? Double.NaN : r.nextGaussian() * 1e6;
+    return vals;
+  }
+
+  private static double[] sparse(double dflt, int maxVal, double scale) {
+    Random r = new Random(3);
+    double[] vals = new double[LEN];
+    for (int i = 0; i < LEN; i++) {
+      int x = r.nextInt(50);
+      vals[i] = x == 0 ? r.nextInt(maxVal) * scale : x == 1 ? (Double.isNaN(dflt) ? 0 : Double.NaN) : dflt;
+    }
+    vals[LEN - 1] = maxVal * scale;
+    return vals;
+  }
+}
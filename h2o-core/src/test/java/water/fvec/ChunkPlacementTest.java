@@ -0,0 +1,93 @@
+package water.fvec;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.*;
+
+import static org.junit.Assert.*;
+
+public class ChunkPlacementTest extends TestUtil {
+  @BeforeClass public static void setup() { stall_till_cloudsize(1); }
+
+  @Test public void testChunkHomeMatchesKeyHome() {
+    Vec v = Vec.makeZero(1000);
+    try {
+      for (int c = 0; c < v.nChunks(); c++)
+        assertEquals(v.chunkKey(c).home_node().index(), Key.chunkHome(c, H2O.CLOUD.size()));
+    } finally {
+      v.remove();
+    }
+  }
+
+  @Test public void testLayoutFollowsNodeWeights() {
+    // 4 nodes, 2 chunks each; node 1 is twice as strong as the others
+    double[] weights = {1, 2, 1, 1};
+    long[] espc = ChunkPlacement.layout(10001, 8, weights);
+    assertEquals(9, espc.length);
+    assertEquals(10001, espc[8]);
+    long[] perNode = new long[weights.length];
+    for (int c = 0; c < 8; c++) {
+      assertTrue(espc[c + 1] >= espc[c]);
+      perNode[Key.chunkHome(c, weights.length)] += espc[c + 1] - espc[c];
+    }
+    assertEquals(4000, perNode[1], 1);
+    for (int n : new int[]{0, 2, 3})
+      assertEquals(2000, perNode[n], 1);
+  }
+
+  @Test public void testLayoutSkipsNodesWithoutChunks() {
+    long[] espc = ChunkPlacement.layout(100, 2, new double[]{1, 1, 1, 1});
+    assertArrayEquals(new long[]{0, 50, 100}, espc);
+    assertArrayEquals(new long[]{0, 34, 67, 100}, ChunkPlacement.apportion(100, new double[]{0, 0, 0}));
+  }
+
+  @Test public void testRebalanceAndColocate() {
+    Scope.enter();
+    try {
+      Frame fr = new TestFrameBuilder()
+              .withName("placementSrc")
+              .withColNames("A", "B")
+              .withVecTypes(Vec.T_NUM, Vec.T_STR)
+              .withDataForCol(0, ard(1, 2, 3, 4, 5, 6, 7, 8, 9, 10))
+              .withDataForCol(1, ar("a", "b", "c", "d", "e", "f", "g", "h", "i", "j"))
+              .withChunkLayout(7, 3)
+              .build();
+      Key<Frame> rebalancedKey = Key.make("placementRebalanced");
+      Job<Frame> job = ChunkPlacement.rebalance(fr, rebalancedKey, ChunkPlacement.Policy.MEMORY_AND_CPUS, 4);
+      Frame rebalanced = Scope.track(job.get());
+      assertEquals(4, rebalanced.anyVec().nChunks());
+      assertEquals(1, job.progress(), 0);
+      assertFrameEquals(fr, rebalanced, 0);
+
+      Frame other = Scope.track(new TestFrameBuilder()
+              .withName("placementOther")
+              .withColNames("C")
+              .withVecTypes(Vec.T_NUM)
+              .withDataForCol(0, ard(10, 9, 8, 7, 6, 5, 4, 3, 2, 1))
+              .withChunkLayout(1, 1, 8)
+              .build());
+      Frame colocated = Scope.track(ChunkPlacement.colocate(other, Key.<Frame>make("placementColocated"), rebalanced).get());
+      assertArrayEquals(rebalanced.anyVec().espc(), colocated.anyVec().espc());
+      assertArrayEquals(ChunkPlacement.rowsPerNode(rebalanced.anyVec()), ChunkPlacement.rowsPerNode(colocated.anyVec()), 0);
+      assertVecEquals(other.vec(0), colocated.vec(0), 0);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRebalanceNeedsNewKey() {
+    Scope.enter();
+    try {
+      Frame fr = new TestFrameBuilder()
+              .withName("placementSame")
+              .withColNames("A")
+              .withVecTypes(Vec.T_NUM)
+              .withDataForCol(0, ard(1, 2, 3))
+              .build();
+      ChunkPlacement.rebalance(fr, fr._key, ChunkPlacement.Policy.UNIFORM, 2);
+    } finally {
+      Scope.exit();
+    }
+  }
+}
@@ -0,0 +1,86 @@
+package water.fvec;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+
+import static org.junit.Assert.*;
+
+public class ChunkPrefetcherTest extends TestUtil {
+  @BeforeClass public static void setup() { stall_till_cloudsize(1); }
+
+  private static Vec chunked(int nChunks) {
+    Vec v = Vec.makeCon(1, nChunks << 4, 4, false);
+    assertEquals(nChunks, v.nChunks());
+    return v;
+  }
+
+  @Test public void testDetectsSequentialAndStridedAccess() {
+    Vec v = chunked(20);
+    try {
+      ChunkPrefetcher p = new ChunkPrefetcher(4, v);
+      p.access(0);
+      assertEquals(0, p._window);
+      p.access(1);
+      assertEquals(4, p._window);
+      p.access(2);
+      assertEquals(4, p._window);
+      p.access(7);                // Pattern broken
+      assertEquals(0, p._window);
+      p.access(10);
+      assertEquals(0, p._window);
+      p.access(13);               // Stride of 3
+      assertEquals(2, p._window); // 16 and 19, the vec has 20 chunks
+      p.access(11);
+      p.access(9);                // Backwards
+      assertEquals(4, p._window);
+      p.access(9);                // Re-reading the same chunk is no pattern
+      assertEquals(0, p._window);
+    } finally {
+      v.remove();
+    }
+  }
+
+  @Test public void testNoPrefetchOfLocalOrComputedChunks() {
+    Vec v = chunked(10);
+    try {
+      long issued = ChunkPrefetcher.ISSUED.get();
+      long misses = ChunkPrefetcher.MISSES.get();
+      Vec.Reader r = v.new Reader();
+      for (long i = 0; i < v.length(); i++)
+        assertEquals(1, r.at(i), 0);
+      // A single node holds all the chunks
+      assertEquals(issued, ChunkPrefetcher.ISSUED.get());
+      assertEquals(misses, ChunkPrefetcher.MISSES.get());
+
+      ChunkPrefetcher disabled = new ChunkPrefetcher(4, new AppendableVec(Vec.newKey(), Vec.T_NUM));
+      disabled.access(0);
+      disabled.access(1);
+      assertEquals(0, disabled._window);
+    } finally {
+      v.remove();
+    }
+  }
+
+  @Test public void testCSVStreamReadsAllChunks() throws Exception {
+    Scope.enter();
+    try {
+      Frame fr = new TestFrameBuilder()
+              .withColNames("A")
+              .withVecTypes(Vec.T_NUM)
+              .withDataForCol(0, ard(1, 2, 3, 4, 5, 6))
+              .withChunkLayout(2, 0, 3, 1)
+              .build();
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      try (InputStream is = fr.toCSV(new Frame.CSVStreamParams())) {
+        for (int b; (b = is.read()) != -1; ) out.write(b);
+      }
+      assertEquals("\"A\"\n1\n2\n3\n4\n5\n6\n", out.toString());
+    } finally {
+      Scope.exit();
+    }
+  }
+}
@@ -0,0 +1,174 @@
+package water.fvec;
+
+import org.junit.*;
+
+import water.DKV;
+import water.H2O;
+import water.Key;
+import water.OffHeapMemory;
+import water.TestUtil;
+import water.Value;
+import water.util.UnsafeUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class OffHeapChunkTest extends TestUtil {
+  @BeforeClass() public static void setup() { stall_till_cloudsize(1); }
+
+  @Test
+  public void testIntegerChunks() {
+    Chunk c1 = compress(new double[]{0, 1, 3, 254, Double.NaN});
+    assertTrue(c1 instanceof C1Chunk);
+    assertOffHeapCopy(c1);
+    Chunk c2 = compress(new double[]{-30000, 1, 3, 30000, Double.NaN});
+    assertTrue(c2 instanceof C2Chunk);
+    assertOffHeapCopy(c2);
+    Chunk c4 = compress(new double[]{-1e9, 1, 3, 1e9, Double.NaN});
+    assertTrue(c4 instanceof C4Chunk);
+    assertOffHeapCopy(c4);
+    byte[] bs = new byte[5 << 3];
+    long[] ls = new long[]{Long.MAX_VALUE, 1L << 40, -(1L << 50), 7, C8Chunk._NA};
+    for (int i = 0; i < ls.length; i++) UnsafeUtils.set8(bs, i << 3, ls[i]);
+    assertOffHeapCopy(new C8Chunk(bs));
+  }
+
+  @Test
+  public void testFloatingPointChunks() {
+    Chunk c8d = compress(new double[]{Double.MIN_VALUE, -3.1415926e-118, 23423423.234234234, Double.MAX_VALUE, Double.NaN});
+    assertTrue(c8d instanceof C8DChunk);
+    assertOffHeapCopy(c8d);
+    byte[] bs = new byte[5 << 2];
+    float[] fs = new float[]{Float.MIN_VALUE, 0.5f, -1e20f, Float.MAX_VALUE, Float.NaN};
+    for (int i = 0; i < fs.length; i++) UnsafeUtils.set4f(bs, i << 2, fs[i]);
+    assertOffHeapCopy(new C4FChunk(bs));
+  }
+
+  @Test
+  public void testUnsupportedEncodingStaysOnHeap() {
+    Chunk c = compress(new double[]{0, 0, 0, 0, 1.5});
+    assertFalse(c.supportsOffHeap());
+    assertFalse(c.moveOffHeap());
+    assertFalse(c.isOffHeap());
+  }
+
+  @Test
+  public void testValueWithOffHeapChunk() {
+    boolean offHeap = H2O.ARGS.offheap_chunks;
+    H2O.ARGS.offheap_chunks = true;
+    try {
+      Chunk c = compress(new double[]{Double.MIN_VALUE, -3.1415926e-118, 23423423.234234234, Double.MAX_VALUE, Double.NaN});
+      byte[] bytes = c.asBytes().clone();
+      Value v = new Value(Key.make(), c);
+      Chunk vc = v.get();
+      assertNotSame(c, vc);
+      assertFalse(c.isOffHeap());
+      assertTrue(vc.isOffHeap());
+      assertArrayEquals(bytes, v.memOrLoad());
+      for (int i = 0; i < c._len; i++)
+        assertEquals(c.atd(i), vc.atd(i), 0);
+    } finally {
+      H2O.ARGS.offheap_chunks = offHeap;
+    }
+  }
+
+  @Test
+  public void testChunkOutlivesItsValue() throws InterruptedException {
+    boolean offHeap = H2O.ARGS.offheap_chunks;
+    H2O.ARGS.offheap_chunks = true;
+    Key k = Key.make();
+    try {
+      double[] vals = new double[1000];
+      for (int i = 0; i < vals.length; i++)
+        vals[i] = i * 3.1415926e-18;
+      Chunk c = compress(vals);
+      Value v1 = new Value(k, c);
+      DKV.put(k, v1);
+      Chunk c1 = v1.get();
+      assertTrue(c1.isOffHeap());
+      // the replacement shares the block of the replaced Value, the block is not dropped
+      long dropped = OffHeapMemory.dropped();
+      Value v2 = new Value(k, c1);
+      Chunk c2 = v2.get();
+      assertSame(c1.offHeapBlock(), c2.offHeapBlock());
+      DKV.put(k, v2);
+      assertEquals(dropped, OffHeapMemory.dropped());
+      DKV.remove(k);
+      assertTrue(OffHeapMemory.dropped() > dropped);
+      v1 = v2 = null;
+      c1 = null;
+      // the removed Value is gone, the block is not recycled while a reader holds its Chunk
+      final long addr = c2.offHeapBlock().address();
+      final int size = c2.offHeapBlock().size();
+      List<OffHeapMemory.Block> blocks = new ArrayList<>();
+      for (int j = 0; j < 5; j++) {
+        System.gc();
+        Thread.sleep(100);
+        OffHeapMemory.reclaim();
+        for (int i = 0; i < 100; i++) {
+          OffHeapMemory.Block b = OffHeapMemory.allocate(size);
+          assertNotEquals(addr, b.address());
+          UnsafeUtils.copyToNative(new byte[size], 0, b.address(), size); // overwrite any recycled block
+          blocks.add(b);
+        }
+      }
+      for (int i = 0; i < c._len; i++)
+        assertEquals(c.atd(i), c2.atd(i), 0);
+      // a Chunk of a removed Value can be put again
+      Value v3 = new Value(Key.make(), c2);
+      Chunk c3 = v3.get();
+      assertTrue(c3.isOffHeap());
+      for (int i = 0; i < c._len; i++)
+        assertEquals(c.atd(i), c3.atd(i), 0);
+    } finally {
+      H2O.ARGS.offheap_chunks = offHeap;
+      DKV.remove(k);
+    }
+  }
+
+  @Test
+  public void testGetBytesIsCached() {
+    Chunk c = compress(new double[]{Double.MIN_VALUE, -3.1415926e-118, 23423423.234234234, Double.MAX_VALUE, Double.NaN});
+    Chunk off = c.clone();
+    assertTrue(off.moveOffHeap());
+    byte[] bytes = off.getBytes();
+    assertArrayEquals(c.getBytes(), bytes);
+    assertSame(bytes, off.getBytes());
+    assertSame(bytes, off.asBytes());
+    Chunk copy = off.deepCopy(); // gets its own array
+    assertNotSame(bytes, copy._mem);
+    assertArrayEquals(bytes, copy._mem);
+  }
+
+  private static Chunk compress(double[] vals) {
+    NewChunk nc = new NewChunk(null, 0);
+    for (double v : vals) {
+      if (Double.isNaN(v)) nc.addNA();
+      else nc.addNum(v);
+    }
+    return nc.compress();
+  }
+
+  private static void assertOffHeapCopy(Chunk c) {
+    Chunk off = c.clone();
+    assertTrue(off.moveOffHeap());
+    assertTrue(off.isOffHeap());
+    assertNull(off._mem);
+    assertFalse(c.isOffHeap());
+    for (int i = 0; i < c._len; i++) {
+      assertEquals(c.isNA(i), off.isNA(i));
+      if (!c.isNA(i)) {
+        assertEquals(c.atd(i), off.atd(i), 0);
+        if (!c.hasFloat()) assertEquals(c.at8(i), off.at8(i));
+      }
+    }
+    assertArrayEquals(c.getDoubles(new double[c._len], 0, c._len), off.getDoubles(new double[off._len], 0, off._len), 0);
+    assertArrayEquals(c.asBytes(), off.asBytes());
+    Chunk copy = off.deepCopy();
+    assertFalse(copy.isOffHeap());
+    assertArrayEquals(c.asBytes(), copy._mem);
+  }
+
+}
@@ -260,4 +260,41 @@ public class SparseTest extends TestUtil {
     Assert.assertEquals(12,doubles_na._elem_sz);
   }
 
+  @Test
+  public void testNASparseCXFWithExplicitNA() {
+    Random rnd = new Random(54321);
+    double [] vals = new double[1024];
+    double [] floats = new double[1024];
+    Arrays.fill(vals,Double.NaN);
+    Arrays.fill(floats,Double.NaN);
+    for(int i = 3; i < vals.length; i += 50) {
+      vals[i] = rnd.nextDouble();
+      floats[i] = rnd.nextFloat();
+    }
+    for(double [] vs:new double[][]{vals, floats}) {
+      NewChunk nc = new NewChunk(null,0);
+      for(double d:vs) nc.addNum(d);
+      CXFChunk c = (CXFChunk) nc.compress();
+      Assert.assertTrue(c.isSparseNA());
+      Assert.assertEquals(vs == vals ? 12 : 8,c._elem_sz);
+      int stored = c.sparseLenNA();
+      // overwrite the first stored value with an explicit NA
+      if(c._elem_sz == 8) UnsafeUtils.set4f(c._mem,CXIChunk._OFF+4,Float.NaN);
+      else UnsafeUtils.set8d(c._mem,CXIChunk._OFF+4,Double.NaN);
+      Assert.assertTrue(c.isNA(3));
+      double NA = Double.MAX_VALUE;
+      double [] x = new double[vs.length];
+      int [] ids = new int[vs.length];
+      int n = c.getSparseDoubles(x,ids,NA);
+      Assert.assertEquals(stored-1,n); // explicit NA skipped like the implicit ones
+      for(int i = 0; i < n; ++i) {
+        Assert.assertEquals(vs[ids[i]],x[i],0);
+        Assert.assertNotEquals(3,ids[i]);
+      }
+      c.getDoubles(x,0,vs.length,NA);
+      for(int i = 0; i < vs.length; ++i)
+        Assert.assertEquals(i == 3 || Double.isNaN(vs[i]) ? NA : vs[i],x[i],0);
+    }
+  }
+
 }
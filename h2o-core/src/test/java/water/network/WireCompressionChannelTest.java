@@ -0,0 +1,162 @@
+package water.network;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import water.persist.SpillCodec;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class WireCompressionChannelTest {
+
+  private ServerSocketChannel server;
+  private SocketChannel client;
+  private SocketChannel accepted;
+
+  @Before
+  public void connect() throws IOException {
+    server = ServerSocketChannel.open();
+    server.socket().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+    client = SocketChannel.open(server.socket().getLocalSocketAddress());
+    accepted = server.accept();
+  }
+
+  @After
+  public void close() throws IOException {
+    client.close();
+    accepted.close();
+    server.close();
+  }
+
+  @Test
+  public void testFramesRoundTrip() throws Exception {
+    final int threshold = 1000;
+    WireCompressionChannel writer = new WireCompressionChannel(client, SpillCodec.make("lz4"), threshold);
+    final WireCompressionChannel reader = new WireCompressionChannel(accepted, SpillCodec.make("lz4"), threshold);
+
+    Random r = new Random(42);
+    final byte[][] frames = new byte[4][];
+    frames[0] = new byte[100];             // below the threshold
+    frames[1] = new byte[5000];            // compressible
+    frames[2] = new byte[5000];            // incompressible
+    r.nextBytes(frames[2]);
+    frames[3] = new byte[64 * 1024];       // compressible, bigger than the socket buffers
+    for (int i = 0; i < frames[3].length; i++)
+      frames[3][i] = (byte) (i % 7);
+
+    final byte[][] received = new byte[frames.length][];
+    Thread t = new Thread() {
+      @Override
+      public void run() {
+        try {
+          for (int i = 0; i < frames.length; i++) {
+            ByteBuffer bb = ByteBuffer.allocate(frames[i].length);
+            while (bb.hasRemaining())
+              assertTrue(reader.read(bb) > 0);
+            received[i] = bb.array();
+          }
+        } catch (IOException e) {
+          throw new RuntimeException(e);
+        }
+      }
+    };
+    t.start();
+
+    long raw = WireCompressionChannel.RAW_BYTES.get();
+    long sent = WireCompressionChannel.WIRE_BYTES.get();
+    long size = 0;
+    for (byte[] frame : frames) {
+      size += frame.length;
+      ByteBuffer bb = ByteBuffer.allocateDirect(frame.length);
+      bb.put(frame).flip();
+      assertEquals(frame.length, writer.writeFrame(bb, size));
+      assertFalse(bb.hasRemaining());
+    }
+    t.join();
+
+    for (int i = 0; i < frames.length; i++)
+      assertArrayEquals("frame " + i, frames[i], received[i]);
+    assertEquals(size, WireCompressionChannel.RAW_BYTES.get() - raw);
+    assertTrue(WireCompressionChannel.WIRE_BYTES.get() - sent < size / 2);
+  }
+
+  @Test
+  public void testConsecutiveCompressibleFrames() throws Exception {
+    final int threshold = 1000;
+    WireCompressionChannel writer = new WireCompressionChannel(client, SpillCodec.make("lz4"), threshold);
+    final WireCompressionChannel reader = new WireCompressionChannel(accepted, SpillCodec.make("lz4"), threshold);
+
+    // same size, compressed one after the other into the same (reused) buffer of the writer
+    final byte[][] frames = new byte[3][];
+    Random r = new Random(42);
+    for (int f = 0; f < frames.length; f++) {
+      frames[f] = new byte[5000];
+      for (int i = 0; i < frames[f].length; i++)
+        frames[f][i] = (byte) (r.nextInt(10) == 0 ? r.nextInt() : i % (5 + f));
+    }
+
+    final byte[][] received = new byte[frames.length][];
+    Thread t = new Thread() {
+      @Override
+      public void run() {
+        try {
+          for (int i = 0; i < frames.length; i++) {
+            ByteBuffer bb = ByteBuffer.allocate(frames[i].length);
+            while (bb.hasRemaining())
+              assertTrue(reader.read(bb) > 0);
+            received[i] = bb.array();
+          }
+        } catch (IOException e) {
+          throw new RuntimeException(e);
+        }
+      }
+    };
+    t.start();
+
+    long sent = WireCompressionChannel.WIRE_BYTES.get();
+    long size = 0;
+    for (byte[] frame : frames) {
+      size += frame.length;
+      ByteBuffer bb = ByteBuffer.allocateDirect(frame.length);
+      bb.put(frame).flip();
+      assertEquals(frame.length, writer.writeFrame(bb, size));
+    }
+    t.join();
+
+    for (int i = 0; i < frames.length; i++)
+      assertArrayEquals("frame " + i, frames[i], received[i]);
+    assertTrue(WireCompressionChannel.WIRE_BYTES.get() - sent < size / 2);
+  }
+
+  @Test
+  public void testReadReturnsEOF() throws IOException {
+    WireCompressionChannel reader = new WireCompressionChannel(accepted, SpillCodec.make("lz4"), 0);
+    client.close();
+    assertEquals(-1, reader.read(ByteBuffer.allocate(10)));
+  }
+
+  @Test
+  public void testRejectsCorruptedHeader() throws IOException {
+    WireCompressionChannel reader = new WireCompressionChannel(accepted, SpillCodec.make("lz4"), 0);
+    ByteBuffer bb = ByteBuffer.allocate(8).order(ByteOrder.nativeOrder());
+    bb.putInt(10).putInt(1000).flip();
+    while (bb.hasRemaining())
+      client.write(bb);
+    try {
+      reader.read(ByteBuffer.allocate(10));
+      fail("Corrupted header should be rejected");
+    } catch (IOException e) {
+      assertTrue(e.getMessage(), e.getMessage().contains("invalid frame header"));
+    }
+  }
+
+}
@@ -0,0 +1,96 @@
+package water.persist;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class Lz4BlockCodecTest {
+
+  private final SpillCodec codec = SpillCodec.make("lz4");
+
+  @Test
+  public void testRoundTripEdgeCases() throws IOException {
+    for (int len : new int[]{0, 1, 4, 12, 13, 14, 15, 16, 17, 100, 255, 256, 270, 65536 + 100}) {
+      assertRoundTrip(new byte[len]); // all zeros - long overlapping matches
+      byte[] b = new byte[len];
+      new Random(len).nextBytes(b);
+      assertRoundTrip(b);             // incompressible
+    }
+  }
+
+  @Test
+  public void testRoundTripChunkLikeData() throws IOException {
+    Random r = new Random(42);
+    // runs of small integers (eg. C1Chunk payload of a sorted categorical) and doubles with a limited set of values
+    byte[] ints = new byte[1 << 20];
+    byte v = 0;
+    for (int i = 0; i < ints.length; i++) {
+      if (r.nextInt(20) == 0) v = (byte) r.nextInt(4);
+      ints[i] = v;
+    }
+    int clen = assertRoundTrip(ints);
+    assertTrue("compressed size " + clen, clen < ints.length / 2);
+
+    byte[] doubles = new byte[1 << 20];
+    java.nio.ByteBuffer bb = java.nio.ByteBuffer.wrap(doubles);
+    while (bb.remaining() >= 8)
+      bb.putDouble(r.nextInt(10) * 0.5);
+    clen = assertRoundTrip(doubles);
+    assertTrue("compressed size " + clen, clen < doubles.length / 2);
+  }
+
+  @Test
+  public void testRandomStructuredData() throws IOException {
+    Random r = new Random(0xCAFE);
+    for (int k = 0; k < 200; k++) {
+      byte[] b = new byte[r.nextInt(5000)];
+      int i = 0;
+      while (i < b.length) { // mix of literals and back-references with random distances/lengths
+        if (i > 0 && r.nextBoolean()) {
+          int dist = 1 + r.nextInt(Math.min(i, 300));
+          int len = Math.min(b.length - i, r.nextInt(100));
+          for (int j = 0; j < len; j++, i++)
+            b[i] = b[i - dist];
+        } else {
+          b[i++] = (byte) r.nextInt(256);
+        }
+      }
+      assertRoundTrip(b);
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testCorruptedInput() throws IOException {
+    byte[] raw = new byte[1000];
+    byte[] c = new byte[codec.maxCompressedLength(raw.length)];
+    int clen = codec.compress(raw, c);
+    codec.decompress(c, clen - 1, raw.length);
+  }
+
+  @Test
+  public void testCompressIntoReusedBuffer() throws IOException {
+    byte[] raw = new byte[5000];
+    for (int i = 0; i < raw.length; i++)
+      raw[i] = (byte) (i % 7);
+    byte[] c = new byte[codec.maxCompressedLength(raw.length)];
+    Arrays.fill(c, (byte) 0xFF); // stale data of a previous frame
+    int clen = codec.compress(raw, c);
+    assertArrayEquals(raw, codec.decompress(c, clen, raw.length));
+    assertEquals(clen, codec.compress(raw, c));
+    assertArrayEquals(raw, codec.decompress(c, clen, raw.length));
+  }
+
+  private int assertRoundTrip(byte[] raw) throws IOException {
+    byte[] c = new byte[codec.maxCompressedLength(raw.length)];
+    int clen = codec.compress(raw, c);
+    assertTrue(clen <= c.length);
+    byte[] back = codec.decompress(c, clen, raw.length);
+    assertTrue(Arrays.equals(raw, back));
+    return clen;
+  }
+
+}
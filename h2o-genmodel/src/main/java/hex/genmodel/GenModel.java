@@ -266,6 +266,29 @@ public abstract class GenModel implements IGenModel, IGeneratedModel, Serializab
     throw new UnsupportedOperationException("`offset` column is not supported");
   }
 
+  /** Scores a batch of rows given in a column-major layout: {@code data[c][r]} is the value of
+   *  column {@code c} in row {@code r}, columns are in the same order (and use the same encoding)
+   *  as the input of {@link #score0(double[], double[])}. Predictions of row {@code r} are written
+   *  to the pre-allocated array {@code preds[r]}, the result is equivalent to calling
+   *  {@code score0(row, preds[r])} for each row of the batch.
+   *
+   *  The default implementation scores the batch row by row. Subclasses can provide a more
+   *  efficient implementation that processes the whole batch at once. */
+  public void scoreBatch(double[][] data, int nrows, double[][] preds) {
+    final double[] row = new double[data.length];
+    for (int r = 0; r < nrows; r++) {
+      fillRow(data, r, row);
+      score0(row, preds[r]);
+    }
+  }
+
+  /** Copies a single row of a column-major batch (see {@link #scoreBatch}) into a given array. */
+  protected static double[] fillRow(double[][] data, int r, double[] row) {
+    for (int c = 0; c < row.length; c++)
+      row[c] = data[c][r];
+    return row;
+  }
+
   /** Subclasses implement calibration of class probabilities. The input is array of
    *  predictions returned by the scoring function (score0). Supports classification
    *  models that were trained with calibration enabled. Original probabilities
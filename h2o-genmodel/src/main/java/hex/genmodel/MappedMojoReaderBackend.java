@@ -0,0 +1,25 @@
+package hex.genmodel;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * MojoReaderBackend that is able to expose (some of) the binary files of a MOJO as memory-mapped regions
+ * instead of copying them to the heap.
+ */
+public interface MappedMojoReaderBackend extends MojoReaderBackend {
+
+  /**
+   * Provides a read-only view of a binary file that is backed by memory-mapped storage.
+   *
+   * The returned buffer has position 0, its limit is equal to the size of the file and its byte order is set to
+   * the native byte order (the same byte order used by {@link hex.genmodel.utils.ByteBufferWrapper}).
+   *
+   * @param filename name of the file
+   * @return read-only buffer, or null if the file cannot be mapped (eg. it is stored compressed) - the caller is
+   * expected to fallback to {@link #getBinaryFile(String)} in this case
+   * @throws IOException when the file cannot be read
+   */
+  ByteBuffer getMappedBinaryFile(String filename) throws IOException;
+
+}
@@ -0,0 +1,105 @@
+package hex.genmodel;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * MOJO reader backend that memory-maps the whole MOJO archive. Binary files that are stored in the archive
+ * without compression (zip method STORED, eg. archives created using `zip -0`) are exposed as views of the mapped
+ * region and are never copied to the heap. The mapped pages are managed by the OS page cache and can thus be
+ * shared by several JVMs that load the same MOJO file.
+ *
+ * All the other content of the archive (text files, compressed entries) is read using a regular zip file backend.
+ */
+class MmapMojoReaderBackend extends ZipfileMojoReaderBackend implements MappedMojoReaderBackend {
+
+  private static final int LOCAL_HEADER_SIG = 0x04034b50;
+  private static final int CENTRAL_HEADER_SIG = 0x02014b50;
+  private static final int END_HEADER_SIG = 0x06054b50;
+  private static final int END_HEADER_SIZE = 22;
+  private static final int METHOD_STORED = 0;
+
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+
+  private final MappedByteBuffer _mapped;
+  private final Map<String, int[]> _storedEntries; // name -> {data offset, size}
+
+  MmapMojoReaderBackend(String archivename) throws IOException {
+    super(archivename);
+    try (RandomAccessFile raf = new RandomAccessFile(archivename, "r")) {
+      FileChannel channel = raf.getChannel();
+      if (channel.size() > Integer.MAX_VALUE)
+        throw new IOException("MOJO archive " + archivename + " is too large to be memory-mapped");
+      _mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()); // mapping stays valid after close
+    }
+    _mapped.order(ByteOrder.LITTLE_ENDIAN);
+    _storedEntries = findStoredEntries(_mapped);
+  }
+
+  @Override
+  public ByteBuffer getMappedBinaryFile(String filename) throws IOException {
+    int[] entry = _storedEntries.get(filename);
+    if (entry == null)
+      return null;
+    ByteBuffer bb = _mapped.duplicate();
+    bb.position(entry[0]);
+    bb.limit(entry[0] + entry[1]);
+    return bb.slice().asReadOnlyBuffer().order(ByteOrder.nativeOrder());
+  }
+
+  /**
+   * Walks the central directory of the archive and locates the data of all entries that are not compressed.
+   * Entries that use ZIP64 extensions are skipped (they are still accessible using the regular zip file API).
+   */
+  private static Map<String, int[]> findStoredEntries(ByteBuffer bb) throws IOException {
+    int end = -1;
+    for (int i = bb.limit() - END_HEADER_SIZE; i >= Math.max(0, bb.limit() - END_HEADER_SIZE - 0xFFFF); i--) {
+      if (bb.getInt(i) == END_HEADER_SIG) {
+        end = i;
+        break;
+      }
+    }
+    if (end < 0)
+      throw new IOException("Invalid MOJO archive: end of central directory not found");
+    int nentries = bb.getShort(end + 10) & 0xFFFF;
+    long cdOffset = bb.getInt(end + 16) & 0xFFFFFFFFL;
+    if (cdOffset >= bb.limit())
+      throw new IOException("Invalid MOJO archive: central directory offset out of range");
+
+    Map<String, int[]> entries = new HashMap<>(nentries);
+    int pos = (int) cdOffset;
+    for (int i = 0; i < nentries; i++) {
+      if (bb.getInt(pos) != CENTRAL_HEADER_SIG)
+        throw new IOException("Invalid MOJO archive: corrupted central directory");
+      int method = bb.getShort(pos + 10) & 0xFFFF;
+      long compressedSize = bb.getInt(pos + 20) & 0xFFFFFFFFL;
+      long size = bb.getInt(pos + 24) & 0xFFFFFFFFL;
+      int nameLen = bb.getShort(pos + 28) & 0xFFFF;
+      int extraLen = bb.getShort(pos + 30) & 0xFFFF;
+      int commentLen = bb.getShort(pos + 32) & 0xFFFF;
+      long localOffset = bb.getInt(pos + 42) & 0xFFFFFFFFL;
+      byte[] name = new byte[nameLen];
+      for (int j = 0; j < nameLen; j++)
+        name[j] = bb.get(pos + 46 + j);
+      pos += 46 + nameLen + extraLen + commentLen;
+
+      if (method != METHOD_STORED || compressedSize != size || size == 0xFFFFFFFFL || localOffset == 0xFFFFFFFFL)
+        continue;
+      int local = (int) localOffset;
+      if (bb.getInt(local) != LOCAL_HEADER_SIG)
+        throw new IOException("Invalid MOJO archive: corrupted local header of entry " + new String(name, UTF8));
+      long dataOffset = local + 30L + (bb.getShort(local + 26) & 0xFFFF) + (bb.getShort(local + 28) & 0xFFFF);
+      if (dataOffset + size > bb.limit())
+        throw new IOException("Invalid MOJO archive: entry " + new String(name, UTF8) + " is out of range");
+      entries.put(new String(name, UTF8), new int[]{(int) dataOffset, (int) size});
+    }
+    return entries;
+  }
+
+}
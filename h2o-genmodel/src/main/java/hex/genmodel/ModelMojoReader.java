@@ -10,6 +10,7 @@ import hex.genmodel.utils.StringEscapeUtils;
 import java.io.BufferedReader;
 import java.io.Closeable;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
@@ -125,6 +126,16 @@ public abstract class ModelMojoReader<M extends MojoModel> {
     return getMojoReaderBackend().getBinaryFile(name);
   }
 
+  /**
+   * Retrieve binary data as a memory-mapped read-only buffer, only supported if the reader backend
+   * is a {@link MappedMojoReaderBackend}.
+   * @return buffer, or null if the blob cannot be memory-mapped (use `readblob(name)` instead)
+   */
+  protected ByteBuffer readMappedBlob(String name) throws IOException {
+    MojoReaderBackend reader = getMojoReaderBackend();
+    return reader instanceof MappedMojoReaderBackend ? ((MappedMojoReaderBackend) reader).getMappedBinaryFile(name) : null;
+  }
+
   protected boolean exists(String name) {
     return getMojoReaderBackend().exists(name);
   }
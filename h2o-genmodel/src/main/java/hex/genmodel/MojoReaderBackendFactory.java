@@ -59,6 +59,22 @@ public class MojoReaderBackendFactory {
       throw new IOException("Invalid file specification: " + file);
   }
 
+  /**
+   * Creates a backend that memory-maps a given MOJO archive. Tree-based models (GBM, DRF, ...) loaded using this
+   * backend will score directly from the mapped memory instead of keeping the trees on the Java heap. To benefit from
+   * this, the trees need to be stored in the archive without compression (eg. the MOJO can be re-packed using `zip -0`),
+   * compressed entries are loaded to the heap as usual.
+   *
+   * @param file MOJO archive
+   * @return memory-mapped reader backend
+   * @throws IOException when the archive cannot be opened or mapped
+   */
+  public static MojoReaderBackend createMappedReaderBackend(File file) throws IOException {
+    if (! file.isFile())
+      throw new IOException("Invalid file specification: " + file);
+    return new MmapMojoReaderBackend(file.getPath());
+  }
+
   public static MojoReaderBackend createReaderBackend(URL url, CachingStrategy cachingStrategy) throws IOException {
     try (InputStream is = url.openStream()) {
       return createReaderBackend(is, cachingStrategy);
@@ -2,6 +2,7 @@ package hex.genmodel;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -34,7 +35,7 @@ public abstract class MultiModelMojoReader<M extends MojoModel> extends ModelMoj
 
   protected abstract void readParentModelData() throws IOException;
 
-  private class NestedMojoReaderBackend implements MojoReaderBackend {
+  private class NestedMojoReaderBackend implements MappedMojoReaderBackend {
 
     private String _zipDirectory;
 
@@ -56,6 +57,12 @@ public abstract class MultiModelMojoReader<M extends MojoModel> extends ModelMoj
     public boolean exists(String filename) {
       return _reader.exists(_zipDirectory + filename);
     }
+
+    @Override
+    public ByteBuffer getMappedBinaryFile(String filename) throws IOException {
+      return _reader instanceof MappedMojoReaderBackend ?
+              ((MappedMojoReaderBackend) _reader).getMappedBinaryFile(_zipDirectory + filename) : null;
+    }
   }
 
 }
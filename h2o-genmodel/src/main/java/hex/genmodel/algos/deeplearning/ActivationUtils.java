@@ -6,18 +6,28 @@ public class ActivationUtils {
   // drived from GLMMojoModel
   public interface ActivationFunctions extends Serializable {
     double[] eval(double[] x, double drop_out_ratio, int maxOutk);  // for MaxoutDropout
+    void eval(double[] x, double drop_out_ratio, int maxOutk, double[] output);  // writes the result to a given array
   }
 
   public static class LinearOut implements ActivationFunctions {
     public double[] eval(double[] input, double drop_out_ratio, int maxOutk) {  // do nothing
       return input;
     }
+
+    public void eval(double[] input, double drop_out_ratio, int maxOutk, double[] output) {
+      System.arraycopy(input, 0, output, 0, input.length);
+    }
   }
 
   public static class SoftmaxOut implements ActivationFunctions {
     public double[] eval(double[] input, double drop_out_ratio, int maxOutk) {
+      double[] output = new double[input.length];
+      eval(input, drop_out_ratio, maxOutk, output);
+      return output;
+    }
+
+    public void eval(double[] input, double drop_out_ratio, int maxOutk, double[] output) {
       int nodeSize = input.length;
-      double[] output = new double[nodeSize];
       double scaling = 0;
       double max = maxArray(input);
 
@@ -28,8 +38,6 @@ public class ActivationUtils {
 
       for (int index = 0; index < nodeSize; index++)
         output[index] /= scaling;
-
-      return output;
     }
   }
 
@@ -43,10 +51,9 @@ public class ActivationUtils {
     return temp;
   }
   public static class ExpRectifierDropoutOut extends ExpRectifierOut {
-    public double[] eval(double[] input, double drop_out_ratio, int maxOutk) {
-      double[] output = super.eval(input, drop_out_ratio, maxOutk);
+    public void eval(double[] input, double drop_out_ratio, int maxOutk, double[] output) {
+      super.eval(input, drop_out_ratio, maxOutk, output);
       applyDropout(output, drop_out_ratio, input.length);
-      return output;
     }
   }
 
@@ -62,48 +69,58 @@ public class ActivationUtils {
 
   public static class ExpRectifierOut implements ActivationFunctions {
     public double[] eval(double[] input, double drop_out_ratio, int maxOutk) {
+      double[] output = new double[input.length];
+      eval(input, drop_out_ratio, maxOutk, output);
+      return output;
+    }
+
+    public void eval(double[] input, double drop_out_ratio, int maxOutk, double[] output) {
       int nodeSize = input.length;
-      double[] output = new double[nodeSize];
 
       for (int index = 0; index < nodeSize; index++) {
         output[index] = input[index] >= 0 ? input[index] : Math.exp(input[index]) - 1;
       }
-      return output;
     }
   }
 
   public static class RectifierOut implements ActivationFunctions {
     public double[] eval(double[] input, double drop_out_ratio, int maxOutk) {
+      double[] output = new double[input.length];
+      eval(input, drop_out_ratio, maxOutk, output);
+      return output;
+    }
+
+    public void eval(double[] input, double drop_out_ratio, int maxOutk, double[] output) {
       int nodeSize = input.length;
-      double[] output = new double[nodeSize];
 
       for (int index = 0; index < nodeSize; index++)
         output[index] = 0.5f * (input[index] + Math.abs(input[index])); // clever.  Copied from Neurons.java
-
-      return output;
     }
   }
 
   public static class RectifierDropoutOut extends RectifierOut {
-    public double[] eval(double[] input, double drop_out_ratio, int maxOutk) {
-      double[] output = super.eval(input, drop_out_ratio, maxOutk);
+    public void eval(double[] input, double drop_out_ratio, int maxOutk, double[] output) {
+      super.eval(input, drop_out_ratio, maxOutk, output);
       applyDropout(output, drop_out_ratio, input.length);
-      return output;
     }
   }
 
   public static class MaxoutDropoutOut extends MaxoutOut {
-    public double[] eval(double[] input, double drop_out_ratio, int maxOutk) {
-      double[] output = super.eval(input, drop_out_ratio, maxOutk);
-      applyDropout(output, drop_out_ratio, output.length);
-      return output;
+    public void eval(double[] input, double drop_out_ratio, int maxOutk, double[] output) {
+      super.eval(input, drop_out_ratio, maxOutk, output);
+      applyDropout(output, drop_out_ratio, input.length/maxOutk);
     }
   }
 
   public static class MaxoutOut implements ActivationFunctions {
     public double[] eval(double[] input, double drop_out_ratio, int maxOutk) {
-      int nodeSize = input.length/maxOutk;  // weight matrix is twice the size of other act functions
-      double[] output = new double[nodeSize];
+      double[] output = new double[input.length/maxOutk];  // weight matrix is twice the size of other act functions
+      eval(input, drop_out_ratio, maxOutk, output);
+      return output;
+    }
+
+    public void eval(double[] input, double drop_out_ratio, int maxOutk, double[] output) {
+      int nodeSize = input.length/maxOutk;
 
       for (int index=0; index < nodeSize; index++) {
         int countInd = index*maxOutk;
@@ -114,28 +131,28 @@ public class ActivationUtils {
         }
         output[index] = temp;
       }
-      return output;
     }
   }
 
   public static class TanhDropoutOut extends TanhOut {
-    public double[] eval(double[] input, double drop_out_ratio, int maxOutk) {
-      int nodeSize = input.length;
-      double[] output = super.eval(input, drop_out_ratio, maxOutk);
+    public void eval(double[] input, double drop_out_ratio, int maxOutk, double[] output) {
+      super.eval(input, drop_out_ratio, maxOutk, output);
       applyDropout(output, drop_out_ratio, input.length);
-      return output;
     }
   }
 
   public static class TanhOut implements ActivationFunctions {
     public double[] eval(double[] input, double drop_out_ratio, int maxOutk) {
+      double[] output = new double[input.length];
+      eval(input, drop_out_ratio, maxOutk, output);
+      return output;
+    }
+
+    public void eval(double[] input, double drop_out_ratio, int maxOutk, double[] output) {
       int nodeSize = input.length;
-      double[] output = new double[nodeSize];
 
       for (int index=0; index < nodeSize; index++)
         output[index] = 1.-2./(1.+Math.exp(2.*input[index]));
-
-      return output;
     }
   }
 }
@@ -77,6 +77,37 @@ public class DeeplearningMojoModel extends MojoModel {
     return modifyOutputs(neuronsInput, preds, dataRow);
   }
 
+  /**
+   * Batch version of {@link #score0(double[], double[])}: the whole batch is propagated through the network
+   * layer by layer.
+   */
+  @Override
+  public void scoreBatch(double[][] data, int nrows, double[][] preds) {
+    if (nrows == 0)
+      return;
+    final double[] dataRow = new double[data.length];
+    final double[] numsA = new double[_nums];
+    final int[] catsA = new int[_cats];
+
+    double[][] neuronsInput = new double[nrows][_units[0]];
+    for (int r = 0; r < nrows; r++) {
+      setInput(fillRow(data, r, dataRow), neuronsInput[r], numsA, catsA, _nums, _cats, _catoffsets, _normmul, _normsub,
+              _use_all_factor_levels, true);
+    }
+
+    for (int layer = 0; layer < _numLayers; layer++) {
+      NeuralNetwork oneLayer = new NeuralNetwork(_allActivations[layer], _all_drop_out_ratios[layer],
+              _weightsAndBias[layer], neuronsInput[0], _units[layer + 1]);
+      double[][] neuronsOutput = new double[nrows][_units[layer + 1]]; // one buffer per layer, filled in place
+      oneLayer.fpropBatch(neuronsInput, nrows, neuronsOutput);
+      neuronsInput = neuronsOutput;
+    }
+
+    for (int r = 0; r < nrows; r++) {
+      modifyOutputs(neuronsInput[r], preds[r], fillRow(data, r, dataRow));
+    }
+  }
+
   public double[] modifyOutputs(double[] out, double[] preds, double[] dataRow) {
     if (this.isAutoEncoder()) { // only perform unscale numerical value if need
       if (_normmul != null && _normmul.length > 0) { // undo the standardization on output
@@ -39,11 +39,42 @@ public class NeuralNetwork {  // represent one layer of neural network
     return createActivations.eval(input2ActFun, _drop_out_ratio, _maxK); // apply activation function to form NN outputs
   }
 
-  /*
-  This method matches the exact operation of gemv_row_optimized in order to match all the bits
+  /**
+   * Propagates a batch of inputs through this layer. The layer is evaluated for each input in turn,
+   * with the weights of the layer staying in cache for the whole batch. A single pre-activation buffer is reused
+   * for all the rows and the activations are written directly to the given outputs, the batch path does not allocate
+   * per row.
+   *
+   * @param inputs inputs of the layer, {@code inputs[r]} is the input for row r
+   * @param nrows number of rows in the batch
+   * @param outputs preallocated outputs of the layer, {@code outputs[r]} (of length {@code _outSize}) receives
+   *                the output for row r
    */
+  public void fpropBatch(double[][] inputs, int nrows, double[][] outputs) {
+    ActivationFunctions activation = createActFuns(_activation);
+    double[] input2ActFun = new double[_outSize*_maxK];
+    for (int r = 0; r < nrows; r++) {
+      _inputs = inputs[r];
+      if (_maxK==1)
+        formNNInputs(input2ActFun);
+      else
+        formNNInputsMaxOut(input2ActFun);
+      activation.eval(input2ActFun, _drop_out_ratio, _maxK, outputs[r]);
+    }
+  }
+
   public double[] formNNInputs() {
     double[] input2ActFun = new double[_outSize];
+    formNNInputs(input2ActFun);
+    return input2ActFun;
+  }
+
+  /*
+  This method matches the exact operation of gemv_row_optimized in order to match all the bits.
+  The result is written to a given array of length _outSize.
+   */
+  public void formNNInputs(double[] input2ActFun) {
+    Arrays.fill(input2ActFun, 0);
     int cols = _inputs.length;
     int rows = input2ActFun.length;
     int extra=cols-cols%8;
@@ -72,12 +103,19 @@ public class NeuralNetwork {  // represent one layer of neural network
       input2ActFun[row] += _weightsAndBias._bValues[row];
       idx += cols;
     }
-    return input2ActFun;
   }
 
   public double[] formNNInputsMaxOut() {
     double[] input2ActFun = new double[_outSize*_maxK];
+    formNNInputsMaxOut(input2ActFun);
+    return input2ActFun;
+  }
 
+  /**
+   * Same as {@link #formNNInputsMaxOut()}, the result is written to a given array of length {@code _outSize*_maxK}.
+   */
+  public void formNNInputsMaxOut(double[] input2ActFun) {
+    Arrays.fill(input2ActFun, 0);
     for (int k = 0; k < _maxK; k++) {
       for (int row = 0; row < _outSize; row++) {
         int countInd = _maxK*row+k;
@@ -87,7 +125,6 @@ public class NeuralNetwork {  // represent one layer of neural network
         input2ActFun[countInd] += _weightsAndBias._bValues[countInd];  //
       }
     }
-    return input2ActFun;
   }
 
   public void validateInputs(String activation, double drop_out_ratio, int weightLen, int biasLen, int inSize,
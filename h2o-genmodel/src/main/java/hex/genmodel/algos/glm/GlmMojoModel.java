@@ -63,6 +63,59 @@ public class GlmMojoModel extends GlmMojoModelBase {
     return preds;
   }
 
+  /**
+   * Batch version of {@link #score0(double[], double[])}: the linear predictor is accumulated column by column
+   * for all rows of the batch. Input data are not modified (missing values are imputed on the fly).
+   */
+  @Override
+  public void scoreBatch(double[][] data, int nrows, double[][] preds) {
+    final double[] eta = new double[nrows];
+
+    final int catShift = _useAllFactorLevels ? 0 : 1; // skip level 0 of all factors unless all levels are used
+    for (int i = 0; i < _catOffsets.length - 1; ++i) {
+      final double[] col = data[i];
+      for (int r = 0; r < nrows; r++) {
+        double d = col[r];
+        if (_meanImputation && Double.isNaN(d)) d = _catModes[i];
+        if (catShift != 0 && d == 0) continue;
+        int ival = (int) d - catShift;
+        if (ival != d - catShift) throw new IllegalArgumentException("categorical value out of range");
+        ival += _catOffsets[i];
+        if (ival < _catOffsets[i + 1])
+          eta[r] += _beta[ival];
+      }
+    }
+
+    int noff = _catOffsets[_cats] - _cats;
+    for (int i = _cats; i < _beta.length - 1 - noff; ++i) {
+      final double b = _beta[noff + i];
+      final double[] col = data[i];
+      if (_meanImputation) {
+        final double mean = _numMeans[i - _cats];
+        for (int r = 0; r < nrows; r++) {
+          final double d = col[r];
+          eta[r] += b * (Double.isNaN(d) ? mean : d);
+        }
+      } else {
+        for (int r = 0; r < nrows; r++)
+          eta[r] += b * col[r];
+      }
+    }
+
+    final double intercept = _beta[_beta.length - 1];
+    final boolean binomial = _binomial || _family.equals("fractionalbinomial");
+    for (int r = 0; r < nrows; r++) {
+      double mu = _linkFn.eval(eta[r] + intercept);
+      if (binomial) {
+        preds[r][0] = (mu >= _defaultThreshold) ? 1 : 0; // threshold given by ROC
+        preds[r][1] = 1.0 - mu; // class 0
+        preds[r][2] =       mu; // class 1
+      } else {
+        preds[r][0] = mu;
+      }
+    }
+  }
+
   /**
    * Applies GLM coefficients to a given row of data to calculate
    * feature contributions.
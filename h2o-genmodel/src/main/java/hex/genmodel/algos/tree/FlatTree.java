@@ -0,0 +1,298 @@
+package hex.genmodel.algos.tree;
+
+import hex.genmodel.utils.ByteBufferWrapper;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Pre-decoded ("flat") representation of a single compressed tree.
+ *
+ * The compressed tree format used by MOJO (see `hex.tree.DTree.compress` in h2o-algos) is compact but it needs
+ * to be decoded node by node every time a row is scored. FlatTree decodes the tree once and keeps it in
+ * a structure-of-arrays form: each internal node is identified by an index into the arrays below, leaves are
+ * encoded as negative child references ({@code ~leafIndex}) and categorical bitsets are expanded into
+ * a shared {@code long[]} word array.
+ *
+ * Scoring semantics are identical to {@link SharedTreeMojoModel#scoreTree(byte[], double[], boolean, String[][])}
+ * (MOJO version 1.2 and newer), including the out-of-domain and out-of-bitset-range handling of categorical levels.
+ */
+public final class FlatTree implements Serializable {
+
+  private static final int NsdNaVsRest = NaSplitDir.NAvsREST.value();
+  private static final int NsdNaLeft = NaSplitDir.NALeft.value();
+  private static final int NsdLeft = NaSplitDir.Left.value();
+
+  // Node kinds
+  private static final byte NUMERIC = 0;
+  private static final byte BITSET = 1;
+  private static final byte NA_VS_REST = 2;
+
+  private final int _root; // index of the root node, or ~0 for a tree that is just a single leaf
+
+  // Internal nodes
+  private final int[] _colIds;
+  private final double[] _thresholds;   // split value of a numeric split (widened from float)
+  private final int[] _left;            // >= 0: index of an internal node; < 0: ~(index of a leaf)
+  private final int[] _right;
+  private final byte[] _kinds;          // one of NUMERIC, BITSET, NA_VS_REST
+  private final boolean[] _naLeft;      // direction of NAs (and unseen levels)
+  private final int[] _domainLens;      // cardinality of the split column, -1 for numeric columns
+  private final int[] _bsBitOff;        // bitset (range) used by the node: first level covered by the bitset
+  private final int[] _bsNBits;         //                                   number of levels, -1 if no bitset applies
+  private final int[] _bsWordOff;       //                                   offset of the bitset in _bsWords
+  private final long[] _bsWords;
+
+  // Leaves
+  private final float[] _leafValues;
+
+  private FlatTree(Decoder dec) {
+    _root = dec._root;
+    _colIds = Arrays.copyOf(dec._colIds, dec._nnodes);
+    _thresholds = Arrays.copyOf(dec._thresholds, dec._nnodes);
+    _left = Arrays.copyOf(dec._left, dec._nnodes);
+    _right = Arrays.copyOf(dec._right, dec._nnodes);
+    _kinds = Arrays.copyOf(dec._kinds, dec._nnodes);
+    _naLeft = Arrays.copyOf(dec._naLeft, dec._nnodes);
+    _domainLens = Arrays.copyOf(dec._domainLens, dec._nnodes);
+    _bsBitOff = Arrays.copyOf(dec._bsBitOff, dec._nnodes);
+    _bsNBits = Arrays.copyOf(dec._bsNBits, dec._nnodes);
+    _bsWordOff = Arrays.copyOf(dec._bsWordOff, dec._nnodes);
+    _bsWords = Arrays.copyOf(dec._bsWords, dec._nwords);
+    _leafValues = Arrays.copyOf(dec._leafValues, dec._nleaves);
+  }
+
+  /**
+   * Decodes a compressed tree (MOJO version 1.2 and newer).
+   *
+   * @param tree compressed tree
+   * @param domains domains of the model's input columns, the same domains that would be passed to
+   *                {@link SharedTreeMojoModel#scoreTree(byte[], double[], boolean, String[][])}
+   * @return flat representation of the tree
+   */
+  public static FlatTree decode(byte[] tree, String[][] domains) {
+    Decoder dec = new Decoder(tree, domains);
+    dec._root = dec.decodeSubtree(new ByteBufferWrapper(tree), -1);
+    return new FlatTree(dec);
+  }
+
+  public int numNodes() {
+    return _colIds.length;
+  }
+
+  public int numLeaves() {
+    return _leafValues.length;
+  }
+
+  /**
+   * Computes the prediction of this tree for a given row.
+   *
+   * @param row input row
+   * @return value of the leaf the row falls into
+   */
+  public double score(double[] row) {
+    int n = _root;
+    while (n >= 0) {
+      final double d = row[_colIds[n]];
+      final boolean right;
+      final int nbits = _bsNBits[n];
+      final int bsIdx = (int) d - _bsBitOff[n];
+      if (Double.isNaN(d) || (nbits >= 0 && (bsIdx < 0 || bsIdx >= nbits)) || (_domainLens[n] >= 0 && _domainLens[n] <= (int) d)) {
+        right = !_naLeft[n];
+      } else {
+        switch (_kinds[n]) {
+          case NUMERIC:
+            right = d >= _thresholds[n];
+            break;
+          case BITSET:
+            right = (_bsWords[_bsWordOff[n] + (bsIdx >> 6)] & (1L << bsIdx)) != 0;
+            break;
+          default: // NA_VS_REST - all non-NA values go left
+            right = false;
+        }
+      }
+      n = right ? _right[n] : _left[n];
+    }
+    return _leafValues[~n];
+  }
+
+  /**
+   * Scores a batch of rows given in a column-major layout and adds the predictions to a given array.
+   *
+   * @param data column-major input data, {@code data[c][r]} is the value of column c in row r
+   * @param nrows number of rows in the batch
+   * @param acc accumulator, prediction of row r is added to {@code acc[r]}
+   */
+  public void scoreBatch(double[][] data, int nrows, double[] acc) {
+    for (int r = 0; r < nrows; r++) {
+      int n = _root;
+      while (n >= 0) {
+        final double d = data[_colIds[n]][r];
+        final boolean right;
+        final int nbits = _bsNBits[n];
+        final int bsIdx = (int) d - _bsBitOff[n];
+        if (Double.isNaN(d) || (nbits >= 0 && (bsIdx < 0 || bsIdx >= nbits)) || (_domainLens[n] >= 0 && _domainLens[n] <= (int) d)) {
+          right = !_naLeft[n];
+        } else {
+          switch (_kinds[n]) {
+            case NUMERIC:
+              right = d >= _thresholds[n];
+              break;
+            case BITSET:
+              right = (_bsWords[_bsWordOff[n] + (bsIdx >> 6)] & (1L << bsIdx)) != 0;
+              break;
+            default: // NA_VS_REST - all non-NA values go left
+              right = false;
+          }
+        }
+        n = right ? _right[n] : _left[n];
+      }
+      acc[r] += _leafValues[~n];
+    }
+  }
+
+  private static final class Decoder {
+    private final byte[] _tree;
+    private final String[][] _domains;
+
+    private int _root;
+    private int _nnodes;
+    private int _nleaves;
+    private int _nwords;
+
+    private int[] _colIds = new int[16];
+    private double[] _thresholds = new double[16];
+    private int[] _left = new int[16];
+    private int[] _right = new int[16];
+    private byte[] _kinds = new byte[16];
+    private boolean[] _naLeft = new boolean[16];
+    private int[] _domainLens = new int[16];
+    private int[] _bsBitOff = new int[16];
+    private int[] _bsNBits = new int[16];
+    private int[] _bsWordOff = new int[16];
+    private long[] _bsWords = new long[16];
+    private float[] _leafValues = new float[16];
+
+    private Decoder(byte[] tree, String[][] domains) {
+      _tree = tree;
+      _domains = domains;
+    }
+
+    /**
+     * Decodes a subtree starting at the current position of the buffer.
+     *
+     * @param ab buffer positioned at the start of the subtree
+     * @param lastBitset index of the closest bitset node on the path from the root, -1 if there is none;
+     *                   {@code scoreTree} keeps using the last bitset it decoded for range checks
+     *                   of NA-vs-REST splits, this is needed to preserve the exact same semantics
+     * @return index of the decoded node (or ~index of the leaf)
+     */
+    private int decodeSubtree(ByteBufferWrapper ab, int lastBitset) {
+      int nodeType = ab.get1U();
+      int colId = ab.get2();
+      if (colId == 65535)
+        return addLeaf(ab.get4f());
+
+      final int n = newNode();
+      int naSplitDir = ab.get1U();
+      boolean naVsRest = naSplitDir == NsdNaVsRest;
+      boolean leftward = naSplitDir == NsdNaLeft || naSplitDir == NsdLeft;
+      int lmask = (nodeType & 51);
+      int equal = (nodeType & 12);  // Can be one of 0, 8, 12
+      assert equal != 4;  // no longer supported
+
+      _colIds[n] = colId;
+      _naLeft[n] = leftward;
+      _domainLens[n] = _domains != null && _domains[colId] != null ? _domains[colId].length : -1;
+      _bsNBits[n] = -1;
+      if (naVsRest) {
+        _kinds[n] = NA_VS_REST;
+        if (equal != 0 && lastBitset >= 0) {
+          _bsBitOff[n] = _bsBitOff[lastBitset];
+          _bsNBits[n] = _bsNBits[lastBitset];
+          _bsWordOff[n] = _bsWordOff[lastBitset];
+        }
+      } else if (equal == 0) {
+        _kinds[n] = NUMERIC;
+        _thresholds[n] = ab.get4f();
+      } else {
+        _kinds[n] = BITSET;
+        int bitoff = 0;
+        int nbits = 32;
+        if (equal != 8) {
+          bitoff = ab.get2();
+          nbits = ab.get4();
+        }
+        _bsBitOff[n] = bitoff;
+        _bsNBits[n] = nbits;
+        _bsWordOff[n] = addBitset(ab.position(), nbits);
+        ab.skip(((nbits - 1) >> 3) + 1);
+        lastBitset = n;
+      }
+
+      // position of the right subtree
+      ByteBufferWrapper abR = new ByteBufferWrapper(_tree);
+      abR.skip(ab.position());
+      switch (lmask) {
+        case 0:  abR.skip(abR.get1U());  break;
+        case 1:  abR.skip(abR.get2());  break;
+        case 2:  abR.skip(abR.get3());  break;
+        case 3:  abR.skip(abR.get4());  break;
+        case 48: abR.skip(4);  break;  // skip the prediction
+        default:
+          throw new IllegalStateException("Illegal lmask value " + lmask + " in tree " + Arrays.toString(_tree));
+      }
+      int rmask = (nodeType & 0xC0) >> 2;
+
+      // LEFT (decode the children first, the node arrays can be re-allocated while decoding a subtree)
+      if (lmask <= 3)
+        ab.skip(lmask + 1);
+      final int left = (lmask & 16) != 0 ? addLeaf(ab.get4f()) : decodeSubtree(ab, lastBitset);
+
+      // RIGHT
+      final int right = (rmask & 16) != 0 ? addLeaf(abR.get4f()) : decodeSubtree(abR, lastBitset);
+
+      _left[n] = left;
+      _right[n] = right;
+      return n;
+    }
+
+    private int newNode() {
+      if (_nnodes == _colIds.length) {
+        int len = _nnodes << 1;
+        _colIds = Arrays.copyOf(_colIds, len);
+        _thresholds = Arrays.copyOf(_thresholds, len);
+        _left = Arrays.copyOf(_left, len);
+        _right = Arrays.copyOf(_right, len);
+        _kinds = Arrays.copyOf(_kinds, len);
+        _naLeft = Arrays.copyOf(_naLeft, len);
+        _domainLens = Arrays.copyOf(_domainLens, len);
+        _bsBitOff = Arrays.copyOf(_bsBitOff, len);
+        _bsNBits = Arrays.copyOf(_bsNBits, len);
+        _bsWordOff = Arrays.copyOf(_bsWordOff, len);
+      }
+      return _nnodes++;
+    }
+
+    private int addLeaf(float value) {
+      if (_nleaves == _leafValues.length)
+        _leafValues = Arrays.copyOf(_leafValues, _nleaves << 1);
+      _leafValues[_nleaves] = value;
+      return ~(_nleaves++);
+    }
+
+    private int addBitset(int byteOff, int nbits) {
+      final int nwords = ((nbits - 1) >> 6) + 1;
+      if (_nwords + nwords > _bsWords.length)
+        _bsWords = Arrays.copyOf(_bsWords, Math.max(_bsWords.length << 1, _nwords + nwords));
+      final int wordOff = _nwords;
+      for (int i = 0; i < nbits; i++) {
+        if ((_tree[byteOff + (i >> 3)] & (1 << (i & 7))) != 0)
+          _bsWords[wordOff + (i >> 6)] |= 1L << i;
+      }
+      _nwords += nwords;
+      return wordOff;
+    }
+  }
+
+}
@@ -10,6 +10,10 @@ import hex.genmodel.utils.GenmodelBitSet;
 import water.logging.Logger;
 import water.logging.LoggerFactory;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
@@ -25,6 +29,11 @@ public abstract class SharedTreeMojoModel extends MojoModel implements TreeBacke
     private static final int NsdLeft = NaSplitDir.Left.value();
 
     private ScoreTree _scoreTree;
+
+    /**
+     * Pre-decoded trees, only available when flat-tree scoring was enabled (see {@link #enableFlatTreeScoring()}).
+     */
+    private FlatTree[] _flat_trees;
     
     private static Logger logger = LoggerFactory.getLogger(SharedTreeMojoModel.class);
 
@@ -54,6 +63,18 @@ public abstract class SharedTreeMojoModel extends MojoModel implements TreeBacke
      */
     protected byte[][] _compressed_trees_aux;
 
+    /**
+     * Trees (and auxiliary tree data) backed by memory-mapped storage, only used when the MOJO was loaded using
+     * a {@link hex.genmodel.MappedMojoReaderBackend}. A tree is stored either in {@link #_compressed_trees} or here.
+     * Mapped trees are scored (including leaf node assignment) directly from the mapped memory; they are only copied
+     * to the heap temporarily by conversions that need the byte array form (eg. tree graph conversion).
+     *
+     * Mapped buffers cannot be serialized: a serialized model carries the mapped trees as byte arrays, and they are
+     * deserialized to {@link #_compressed_trees} (see {@link #writeObject} and {@link #readObject}).
+     */
+    protected transient ByteBuffer[] _mapped_trees;
+    protected transient ByteBuffer[] _mapped_trees_aux;
+
     /**
      * GLM's beta used for calibrating output probabilities using Platt Scaling.
      */
@@ -77,6 +98,112 @@ public abstract class SharedTreeMojoModel extends MojoModel implements TreeBacke
         _scoreTree = new ScoreTree2(); // Current version
     }
 
+    /**
+     * Decodes all compressed trees into {@link FlatTree}s and uses them for scoring instead of walking
+     * the compressed representation for every row. This trades additional memory (roughly 40 bytes per node)
+     * for faster scoring and is meant to be called once, right after the MOJO is loaded.
+     *
+     * Only supported for MOJOs version 1.2 and higher.
+     */
+    public void enableFlatTreeScoring() {
+      if (_mojo_version < 1.2) {
+        throw new IllegalArgumentException("Flat tree scoring is only available for mojo versions 1.2 or higher");
+      }
+      FlatTree[] flatTrees = new FlatTree[_compressed_trees.length];
+      for (int i = 0; i < _compressed_trees.length; i++) {
+        if (_compressed_trees[i] != null)
+          flatTrees[i] = FlatTree.decode(_compressed_trees[i], _domains);
+        else if (_mapped_trees != null && _mapped_trees[i] != null)
+          flatTrees[i] = FlatTree.decode(toByteArray(_mapped_trees[i]), _domains); // don't keep the copy
+      }
+      _flat_trees = flatTrees;
+    }
+
+    public boolean isFlatTreeScoringEnabled() {
+      return _flat_trees != null;
+    }
+
+    /**
+     * @return true if at least one tree of this model is scored from memory-mapped storage
+     */
+    public boolean isMemoryMapped() {
+      if (_mapped_trees != null) {
+        for (ByteBuffer tree : _mapped_trees)
+          if (tree != null)
+            return true;
+      }
+      return false;
+    }
+
+    private boolean isEmptyTree(int itree) {
+      return _compressed_trees[itree] == null && (_mapped_trees == null || _mapped_trees[itree] == null);
+    }
+
+    private ByteBuffer getMappedTree(int itree) {
+      return _mapped_trees != null ? _mapped_trees[itree] : null;
+    }
+
+    private ByteBuffer getMappedTreeAux(int itree) {
+      return _mapped_trees_aux != null ? _mapped_trees_aux[itree] : null;
+    }
+
+    /**
+     * Provides a compressed tree as a byte array. A memory-mapped tree is copied to the heap, the copy is not kept
+     * by the model (the model is not modified and this method is safe to call from multiple threads).
+     * @param itree index of the tree (see {@link #treeIndex(int, int)})
+     * @return compressed tree, null for an empty tree
+     */
+    protected final byte[] getCompressedTree(int itree) {
+      byte[] tree = _compressed_trees[itree];
+      ByteBuffer mapped = getMappedTree(itree);
+      return tree == null && mapped != null ? toByteArray(mapped) : tree;
+    }
+
+    protected final byte[] getCompressedTreeAux(int itree) {
+      if (_compressed_trees_aux == null)
+        return null;
+      byte[] aux = _compressed_trees_aux[itree];
+      ByteBuffer mapped = getMappedTreeAux(itree);
+      return aux == null && mapped != null ? toByteArray(mapped) : aux;
+    }
+
+    private static byte[] toByteArray(ByteBuffer bb) {
+      byte[] bytes = new byte[bb.remaining()];
+      bb.duplicate().get(bytes);
+      return bytes;
+    }
+
+    private static byte[][] toByteArrays(ByteBuffer[] bbs) {
+      if (bbs == null)
+        return null;
+      byte[][] bytes = new byte[bbs.length][];
+      for (int i = 0; i < bbs.length; i++)
+        if (bbs[i] != null)
+          bytes[i] = toByteArray(bbs[i]);
+      return bytes;
+    }
+
+    private static void fillMissing(byte[][] trees, byte[][] mapped) {
+      if (trees == null || mapped == null)
+        return;
+      for (int i = 0; i < trees.length; i++)
+        if (trees[i] == null)
+          trees[i] = mapped[i];
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+      out.defaultWriteObject();
+      out.writeObject(toByteArrays(_mapped_trees));
+      out.writeObject(toByteArrays(_mapped_trees_aux));
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+      in.defaultReadObject();
+      // the mapping is not available anymore (the model can be deserialized elsewhere), trees are kept on the heap
+      fillMissing(_compressed_trees, (byte[][]) in.readObject());
+      fillMissing(_compressed_trees_aux, (byte[][]) in.readObject());
+    }
+
     @Override
     public final int getNTreeGroups() {
       return _ntree_groups;
@@ -235,7 +362,108 @@ public abstract class SharedTreeMojoModel extends MojoModel implements TreeBacke
             }
         }
     }
-    
+
+    /**
+     * Tree scoring of a compressed tree that is not stored in a byte array but in a (typically memory-mapped)
+     * {@link ByteBuffer}. Semantics are identical to {@link #scoreTree(byte[], double[], boolean, String[][])}
+     * without leaf assignment (MOJO version 1.2 and newer).
+     *
+     * Only absolute reads are used, the position of the buffer is not modified and the same buffer can thus be used
+     * by multiple threads concurrently.
+     *
+     * @param tree compressed tree, byte order of the buffer needs to be set to the native byte order
+     * @param row input row
+     * @param domains domains of the model's input columns
+     * @return value of the leaf the row falls into
+     */
+    public static double scoreTree(ByteBuffer tree, double[] row, String[][] domains) {
+        return scoreTree(tree, row, false, domains);
+    }
+
+    /**
+     * Same as {@link #scoreTree(ByteBuffer, double[], String[][])}, computes the decision path within the tree
+     * instead of the prediction when `computeLeafAssignment` is true (same encoding as
+     * {@link #scoreTree(byte[], double[], boolean, String[][])}).
+     */
+    public static double scoreTree(ByteBuffer tree, double[] row, boolean computeLeafAssignment, String[][] domains) {
+        int pos = 0;
+        boolean hasBitset = false;
+        int bsByteOff = 0, bsBitOff = 0, bsNBits = 0;
+        long bitsRight = 0;
+        int level = 0;
+        while (true) {
+            int nodeType = tree.get(pos) & 0xFF;
+            int colId = tree.getChar(pos + 1);
+            pos += 3;
+            if (colId == 65535) {
+                if (computeLeafAssignment) {
+                    bitsRight |= 1 << level;  // mark the end of the tree
+                    return Double.longBitsToDouble(bitsRight);
+                } else {
+                    return tree.getFloat(pos);
+                }
+            }
+            int naSplitDir = tree.get(pos++) & 0xFF;
+            boolean naVsRest = naSplitDir == NsdNaVsRest;
+            boolean leftward = naSplitDir == NsdNaLeft || naSplitDir == NsdLeft;
+            int lmask = (nodeType & 51);
+            int equal = (nodeType & 12);  // Can be one of 0, 8, 12
+            assert equal != 4;  // no longer supported
+
+            float splitVal = -1;
+            if (!naVsRest) {
+                if (equal == 0) {
+                    splitVal = tree.getFloat(pos);
+                    pos += 4;
+                } else {
+                    hasBitset = true;
+                    if (equal == 8) {  // same as GenmodelBitSet#fill2
+                        bsBitOff = 0;
+                        bsNBits = 32;
+                    } else {           // same as GenmodelBitSet#fill3
+                        bsBitOff = tree.getChar(pos);
+                        bsNBits = tree.getInt(pos + 2);
+                        pos += 6;
+                    }
+                    bsByteOff = pos;
+                    pos += ((bsNBits - 1) >> 3) + 1;
+                }
+            }
+
+            double d = row[colId];
+            int bsIdx = (int) d - bsBitOff;
+            if (Double.isNaN(d) || ( equal != 0 && hasBitset && (bsIdx < 0 || bsIdx >= bsNBits) ) || (domains != null && domains[colId] != null && domains[colId].length <= (int)d)
+                    ? !leftward : !naVsRest && (equal == 0? d >= splitVal : (tree.get(bsByteOff + (bsIdx >> 3)) & ((byte)1 << (bsIdx & 7))) != 0)) {
+                // go RIGHT
+                switch (lmask) {
+                    case 0:  pos += (tree.get(pos) & 0xFF) + 1;  break;
+                    case 1:  pos += tree.getChar(pos) + 2;  break;
+                    case 2:  pos += ((tree.get(pos) & 0xFF) | ((tree.get(pos + 1) & 0xFF) << 8) | ((tree.get(pos + 2) & 0xFF) << 16)) + 3;  break;
+                    case 3:  pos += tree.getInt(pos) + 4;  break;
+                    case 48: pos += 4;  break;  // skip the prediction
+                    default:
+                        assert false : "illegal lmask value " + lmask;
+                }
+                if (computeLeafAssignment && level < 64) bitsRight |= 1 << level;
+                lmask = (nodeType & 0xC0) >> 2;  // Replace leftmask with the rightmask
+            } else {
+                // go LEFT
+                if (lmask <= 3)
+                    pos += lmask + 1;
+            }
+
+            level++;
+            if ((lmask & 16) != 0) {
+                if (computeLeafAssignment) {
+                    bitsRight |= 1 << level;  // mark the end of the tree
+                    return Double.longBitsToDouble(bitsRight);
+                } else {
+                    return tree.getFloat(pos);
+                }
+            }
+        }
+    }
+
 
     @Override
     public CategoricalEncoding getCategoricalEncoding() {
@@ -303,8 +531,8 @@ public abstract class SharedTreeMojoModel extends MojoModel implements TreeBacke
         // OUT
         private int _nodeId = 0; // Returned when the tree is empty (consistent with SharedTreeNode of an empty tree)
 
-        private LeafDecisionPathTracker(byte[] auxTree) {
-          _auxInfo = new AuxInfoLightReader(new ByteBufferWrapper(auxTree));
+        private LeafDecisionPathTracker(ByteBufferWrapper auxTree) {
+          _auxInfo = new AuxInfoLightReader(auxTree);
         }
 
         @Override
@@ -356,7 +584,16 @@ public abstract class SharedTreeMojoModel extends MojoModel implements TreeBacke
     }
 
     public static int getLeafNodeId(double leafAssignment, byte[] auxTree) {
-        LeafDecisionPathTracker tr = new LeafDecisionPathTracker(auxTree);
+        LeafDecisionPathTracker tr = new LeafDecisionPathTracker(new ByteBufferWrapper(auxTree));
+        return getDecisionPath(leafAssignment, tr).getLeafNodeId();
+    }
+
+    /**
+     * Same as {@link #getLeafNodeId(double, byte[])} for auxiliary tree data stored in a (typically memory-mapped)
+     * {@link ByteBuffer}, the position of the buffer is not modified.
+     */
+    public static int getLeafNodeId(double leafAssignment, ByteBuffer auxTree) {
+        LeafDecisionPathTracker tr = new LeafDecisionPathTracker(new ByteBufferWrapper(auxTree));
         return getDecisionPath(leafAssignment, tr).getLeafNodeId();
     }
 
@@ -510,7 +747,7 @@ public abstract class SharedTreeMojoModel extends MojoModel implements TreeBacke
                 String[] domainValues = isSupervised() ? getDomainValues(getResponseIdx()) : null;
                 String treeName = treeName(j, i, domainValues);
                 SharedTreeSubgraph sg = g.makeSubgraph(treeName);
-                computeTreeGraph(sg, _compressed_trees[itree], _compressed_trees_aux[itree],
+                computeTreeGraph(sg, getCompressedTree(itree), getCompressedTreeAux(itree),
                         getNames(), getDomainValues(), options);
             }
 
@@ -770,32 +1007,85 @@ public abstract class SharedTreeMojoModel extends MojoModel implements TreeBacke
      */
     public final void scoreTreeRange(double[] row, int fromIndex, int toIndex, double[] preds) {
         final int clOffset = _nclasses == 1 ? 0 : 1;
+        final FlatTree[] flatTrees = _flat_trees;
+        if (flatTrees != null) {
+            for (int classIndex = 0; classIndex < _ntrees_per_group; classIndex++) {
+                int k = clOffset + classIndex;
+                int itree = treeIndex(fromIndex, classIndex);
+                double pred = preds[k];
+                for (int groupIndex = fromIndex; groupIndex < toIndex; groupIndex++) {
+                    if (flatTrees[itree] != null) // Skip all empty trees
+                        pred += flatTrees[itree].score(row);
+                    itree++;
+                }
+                preds[k] = pred;
+            }
+            return;
+        }
         for (int classIndex = 0; classIndex < _ntrees_per_group; classIndex++) {
             int k = clOffset + classIndex;
             int itree = treeIndex(fromIndex, classIndex);
             for (int groupIndex = fromIndex; groupIndex < toIndex; groupIndex++) {
                 if (_compressed_trees[itree] != null) { // Skip all empty trees
                   preds[k] += _scoreTree.scoreTree(_compressed_trees[itree], row, false, _domains);
+                } else if (_mapped_trees != null && _mapped_trees[itree] != null) {
+                  preds[k] += scoreTree(_mapped_trees[itree], row, _domains);
                 }
                 itree++;
             }
         }
     }
 
+    /**
+     * Batch scoring, see {@link hex.genmodel.GenModel#scoreBatch(double[][], int, double[][])}.
+     *
+     * When flat-tree scoring is enabled (see {@link #enableFlatTreeScoring()}) the batch is scored tree by tree
+     * (each tree is applied to all the rows of the batch before moving on to the next one), otherwise the batch
+     * is scored row by row.
+     */
+    @Override
+    public void scoreBatch(double[][] data, int nrows, double[][] preds) {
+        final FlatTree[] flatTrees = _flat_trees;
+        if (flatTrees == null) {
+            super.scoreBatch(data, nrows, preds);
+            return;
+        }
+        final int clOffset = _nclasses == 1 ? 0 : 1;
+        final double[] acc = new double[nrows];
+        for (int r = 0; r < nrows; r++)
+            Arrays.fill(preds[r], 0);
+        for (int classIndex = 0; classIndex < _ntrees_per_group; classIndex++) {
+            int k = clOffset + classIndex;
+            int itree = treeIndex(0, classIndex);
+            Arrays.fill(acc, 0);
+            for (int groupIndex = 0; groupIndex < _ntree_groups; groupIndex++) {
+                if (flatTrees[itree] != null) // Skip all empty trees
+                    flatTrees[itree].scoreBatch(data, nrows, acc);
+                itree++;
+            }
+            for (int r = 0; r < nrows; r++)
+                preds[r][k] = acc[r];
+        }
+        final double[] row = new double[data.length];
+        for (int r = 0; r < nrows; r++) {
+            unifyPreds(fillRow(data, r, row), 0, preds[r]);
+        }
+    }
+
     // note that _ntree_group = _treekeys.length
     // ntrees_per_group = _treeKeys[0].length
     public String[] getDecisionPathNames() {
       int classTrees = 0;
       for (int i = 0; i < _ntrees_per_group; ++i) {
         int itree = treeIndex(0, i);
-        if (_compressed_trees[itree] != null) classTrees++;
+        if (!isEmptyTree(itree)) classTrees++;
       }
       final int outputcols = _ntree_groups * classTrees;
       final String[] names = new String[outputcols];
       for (int c = 0; c < _ntrees_per_group; c++) {
         for (int tidx = 0; tidx < _ntree_groups; tidx++) {
           int itree = treeIndex(tidx, c);
-          if (_compressed_trees[itree] != null) {
+          if (!isEmptyTree(itree)) {
             names[itree] = "T" + (tidx + 1) + ".C" + (c + 1);
           }
         }
@@ -831,12 +1121,17 @@ public abstract class SharedTreeMojoModel extends MojoModel implements TreeBacke
       for (int j = 0; j < _ntree_groups; j++) {
         for (int i = 0; i < _ntrees_per_group; i++) {
           int itree = treeIndex(j, i);
-          double d = scoreTree(_compressed_trees[itree], row, true, _domains);
+          ByteBuffer mapped = _compressed_trees[itree] == null ? getMappedTree(itree) : null;
+          double d = mapped != null ?
+                  scoreTree(mapped, row, true, _domains) : scoreTree(_compressed_trees[itree], row, true, _domains);
           if (paths != null)
             paths[itree] = SharedTreeMojoModel.getDecisionPath(d);
           if (nodeIds != null) {
             assert _mojo_version >= 1.3;
-            nodeIds[itree] = SharedTreeMojoModel.getLeafNodeId(d, _compressed_trees_aux[itree]);
+            ByteBuffer mappedAux = _compressed_trees_aux[itree] == null ? getMappedTreeAux(itree) : null;
+            nodeIds[itree] = mappedAux != null ?
+                    SharedTreeMojoModel.getLeafNodeId(d, mappedAux) :
+                    SharedTreeMojoModel.getLeafNodeId(d, _compressed_trees_aux[itree]);
           }
         }
       }
@@ -1,10 +1,12 @@
 package hex.genmodel.algos.tree;
 
 import com.google.gson.JsonObject;
+import hex.genmodel.MappedMojoReaderBackend;
 import hex.genmodel.ModelMojoReader;
 import hex.genmodel.attributes.*;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 public abstract class SharedTreeMojoReader<M extends SharedTreeMojoModel> extends ModelMojoReader<M> {
 
@@ -47,13 +49,30 @@ public abstract class SharedTreeMojoReader<M extends SharedTreeMojoModel> extend
       _model._compressed_trees_aux = new byte[_model._ntree_groups * tpc][];
     }
 
+    // Trees of MOJOs using the current tree format can be scored directly from memory-mapped storage
+    final boolean mapTrees = _model._mojo_version >= 1.2 && getMojoReaderBackend() instanceof MappedMojoReaderBackend;
+    if (mapTrees) {
+      _model._mapped_trees = new ByteBuffer[_model._compressed_trees.length];
+      _model._mapped_trees_aux = new ByteBuffer[_model._compressed_trees.length];
+    }
+
     for (int j = 0; j < _model._ntree_groups; j++)
       for (int i = 0; i < tpc; i++) {
         String blobName = String.format("trees/t%02d_%03d.bin", i, j);
         if (!exists(blobName)) continue;
-        _model._compressed_trees[_model.treeIndex(j, i)] = readblob(blobName);
+        int itree = _model.treeIndex(j, i);
+        ByteBuffer mapped = mapTrees ? readMappedBlob(blobName) : null;
+        if (mapped != null)
+          _model._mapped_trees[itree] = mapped;
+        else
+          _model._compressed_trees[itree] = readblob(blobName);
         if (_model._compressed_trees_aux!=null) {
-          _model._compressed_trees_aux[_model.treeIndex(j, i)] = readblob(String.format("trees/t%02d_%03d_aux.bin", i, j));
+          String auxBlobName = String.format("trees/t%02d_%03d_aux.bin", i, j);
+          ByteBuffer mappedAux = mapTrees ? readMappedBlob(auxBlobName) : null;
+          if (mappedAux != null)
+            _model._mapped_trees_aux[itree] = mappedAux;
+          else
+            _model._compressed_trees_aux[itree] = readblob(auxBlobName);
         }
       }
 
@@ -791,6 +791,120 @@ public class EasyPredictModelWrapper implements Serializable {
     return p;
   }
 
+  /**
+   * Make predictions for a batch of rows given in the raw column-major representation used by
+   * {@link GenModel#scoreBatch(double[][], int, double[][])}. The output array is pre-allocated by the caller
+   * and can be re-used between calls; {@code preds[r]} holds the same values as the output of {@code score0}
+   * for row {@code r}.
+   *
+   * Use {@link #fillBatch(RowData[], double[][])} to convert RowData instances into the raw representation.
+   *
+   * @param data column-major input data, {@code data[c][r]} is the value of column c in row r
+   * @param nrows number of rows in the batch
+   * @param preds pre-allocated output, {@code preds[r]} needs to have at least {@code m.getPredsSize()} elements
+   * @return the preds array
+   * @throws PredictException if the model cannot be used for batch scoring
+   */
+  public double[][] predictBatch(double[][] data, int nrows, double[][] preds) throws PredictException {
+    if (m.requiresOffset())
+      throw new PredictException("Batch scoring is not supported for models that require an offset.");
+    m.scoreBatch(data, nrows, preds);
+    return preds;
+  }
+
+  /**
+   * Converts a batch of RowData instances into the raw column-major representation expected
+   * by {@link #predictBatch(double[][], int, double[][])}.
+   *
+   * @param rows rows to convert
+   * @param data target column-major array with at least {@code m.nfeatures()} columns of {@code rows.length} values
+   * @return the data array
+   * @throws PredictException if any of the rows cannot be converted
+   */
+  public double[][] fillBatch(RowData[] rows, double[][] data) throws PredictException {
+    final double[] rawData = new double[m.nfeatures()];
+    for (int r = 0; r < rows.length; r++) {
+      Arrays.fill(rawData, Double.NaN);
+      double[] row = fillRawData(rows[r], rawData);
+      for (int c = 0; c < row.length; c++) {
+        data[c][r] = row[c];
+      }
+    }
+    return data;
+  }
+
+  /**
+   * Creates a re-usable row for a given list of columns. Column names are resolved only once, values are then
+   * set by index, see {@link PreparedRow}. Predictions for prepared rows don't allocate any objects when
+   * the prediction methods that fill a caller-owned prediction object are used.
+   *
+   * Advanced scoring features (leaf node assignment, staged probabilities, contributions) are not available
+   * for prepared rows.
+   *
+   * @param columnNames names of the input columns
+   * @return new instance of PreparedRow, it should not be shared between threads
+   */
+  public PreparedRow prepareRow(String... columnNames) {
+    if (m instanceof ConverterFactoryProvidingModel)
+      throw new IllegalStateException("Model " + m.getClass().getName() + " doesn't support prepared rows.");
+    if (enableLeafAssignment || enableStagedProbabilities || enableContributions)
+      throw new IllegalStateException("Prepared rows cannot be used with leaf node assignment, staged probabilities or contributions enabled.");
+    return rowDataConverter.prepareRow(columnNames, m.nfeatures(), m.getPredsSize(m.getModelCategory()));
+  }
+
+  /**
+   * Make a prediction on a prepared row using a Binomial model.
+   *
+   * @param row A prepared row.
+   * @param p A prediction object that will be filled with the result, its arrays are re-used if they have the right size.
+   * @return The prediction (the same instance as p).
+   * @throws PredictException
+   */
+  public BinomialModelPrediction predictBinomial(PreparedRow row, BinomialModelPrediction p) throws PredictException {
+    double[] preds = predict(ModelCategory.Binomial, row);
+    p.labelIndex = (int) preds[0];
+    String[] domainValues = m.getDomainValues(m.getResponseIdx());
+    if (domainValues == null && m.getNumResponseClasses() == 2)
+      domainValues = QUASIBINOMIAL_DOMAIN;
+    p.label = domainValues[p.labelIndex];
+    p.classProbabilities = copyPreds(preds, p.classProbabilities);
+    if (m.calibrateClassProbabilities(preds)) {
+      p.calibratedClassProbabilities = copyPreds(preds, p.calibratedClassProbabilities);
+    }
+    return p;
+  }
+
+  /**
+   * Make a prediction on a prepared row using a Multinomial model.
+   *
+   * @param row A prepared row.
+   * @param p A prediction object that will be filled with the result, its arrays are re-used if they have the right size.
+   * @return The prediction (the same instance as p).
+   * @throws PredictException
+   */
+  public MultinomialModelPrediction predictMultinomial(PreparedRow row, MultinomialModelPrediction p) throws PredictException {
+    double[] preds = predict(ModelCategory.Multinomial, row);
+    p.labelIndex = (int) preds[0];
+    String[] domainValues = m.getDomainValues(m.getResponseIdx());
+    p.label = domainValues[p.labelIndex];
+    p.classProbabilities = copyPreds(preds, p.classProbabilities);
+    return p;
+  }
+
+  /**
+   * Make a prediction on a prepared row using a Regression model.
+   *
+   * @param row A prepared row.
+   * @param p A prediction object that will be filled with the result.
+   * @return The prediction (the same instance as p).
+   * @throws PredictException
+   */
+  public RegressionModelPrediction predictRegression(PreparedRow row, RegressionModelPrediction p) throws PredictException {
+    double[] preds = predict(ModelCategory.Regression, row);
+    p.value = preds[0];
+    return p;
+  }
+
   //----------------------------------------------------------------------
   // Transparent methods passed through to GenModel.
   //----------------------------------------------------------------------
@@ -844,6 +958,28 @@ public class EasyPredictModelWrapper implements Serializable {
     return predict(data, offset, new double[predsSize]);
   }
 
+  private static final String[] QUASIBINOMIAL_DOMAIN = new String[]{"0", "1"};
+
+  private double[] predict(ModelCategory c, PreparedRow row) throws PredictException {
+    validateModelCategory(c);
+    double[] preds = row._preds;
+    if (m.requiresOffset() || row._offset != 0) {
+      preds = m.score0(row.scoreData(), row._offset, preds);
+    }
+    else {
+      preds = m.score0(row.scoreData(), preds);
+    }
+    return preds;
+  }
+
+  private double[] copyPreds(double[] preds, double[] target) {
+    final int nclasses = m.getNumResponseClasses();
+    if (target == null || target.length != nclasses)
+      target = new double[nclasses];
+    System.arraycopy(preds, 1, target, 0, nclasses);
+    return target;
+  }
+
   private static double[] nanArray(int len) {
     double[] arr = new double[len];
     for (int i = 0; i < len; i++) {
@@ -0,0 +1,121 @@
+package hex.genmodel.easy;
+
+import hex.genmodel.easy.exception.PredictException;
+
+import java.util.Arrays;
+
+/**
+ * A re-usable input row with a fixed set of columns. Column names are resolved to the positions in the raw data
+ * array (and to the categorical encoders) only once - when the row is created by
+ * {@link EasyPredictModelWrapper#prepareRow(String...)}. Values are then set by the index of the column in the list
+ * of columns the row was prepared for.
+ *
+ * Together with the prediction methods of {@link EasyPredictModelWrapper} that fill caller-owned prediction objects
+ * this provides a way to make predictions without allocating any new objects for each row.
+ *
+ * Instances of this class are not thread-safe, each thread should prepare its own row.
+ *
+ * <pre>
+ *   {@code
+ *   PreparedRow row = model.prepareRow("CategoricalColumnName", "NumericColumnName");
+ *   BinomialModelPrediction p = new BinomialModelPrediction();
+ *   // for each incoming record
+ *   row.reset();
+ *   row.setValue(0, "LevelName");
+ *   row.setValue(1, 42.0);
+ *   model.predictBinomial(row, p);
+ *   }
+ * </pre>
+ */
+public final class PreparedRow {
+
+  private final RowToRawDataConverter _converter;
+  private final String[] _columnNames;
+  private final int[] _targetIndices; // -1 for columns that are not used by the model
+  private final CategoricalEncoder[] _encoders;
+
+  final double[] _rawData;   // values set by the user
+  final double[] _scoreData; // copy of the raw data passed to the model (score0 can modify its input)
+  final double[] _preds;
+  double _offset;
+
+  PreparedRow(RowToRawDataConverter converter, String[] columnNames, int[] targetIndices,
+              CategoricalEncoder[] encoders, int nfeatures, int predsSize) {
+    _converter = converter;
+    _columnNames = columnNames;
+    _targetIndices = targetIndices;
+    _encoders = encoders;
+    _rawData = new double[nfeatures];
+    _scoreData = new double[nfeatures];
+    _preds = new double[predsSize];
+    reset();
+  }
+
+  /**
+   * Sets all values to NA and the offset to 0.
+   * @return this row
+   */
+  public PreparedRow reset() {
+    Arrays.fill(_rawData, Double.NaN);
+    _offset = 0;
+    return this;
+  }
+
+  /**
+   * Sets a numeric value of a column. For categorical columns only NaN (missing value) is accepted.
+   *
+   * @param index index of the column in the list of columns used to prepare this row
+   * @param value value
+   * @return this row
+   * @throws PredictException when the value cannot be used for the column
+   */
+  public PreparedRow setValue(int index, double value) throws PredictException {
+    final int targetIndex = _targetIndices[index];
+    if (targetIndex < 0)
+      return this;
+    final CategoricalEncoder encoder = _encoders[index];
+    if (encoder == null && !Double.isNaN(value)) {
+      _rawData[targetIndex] = value;
+    } else { // NA or a categorical column, the value is not boxed
+      _converter.convertValue(_columnNames[index], value, encoder, targetIndex, _rawData);
+    }
+    return this;
+  }
+
+  /**
+   * Sets a value of a column given as a String - a level of a categorical column or a number
+   * (it will be parsed) for a numeric column.
+   *
+   * @param index index of the column in the list of columns used to prepare this row
+   * @param value value
+   * @return this row
+   * @throws PredictException when the value cannot be used for the column
+   */
+  public PreparedRow setValue(int index, String value) throws PredictException {
+    final int targetIndex = _targetIndices[index];
+    if (targetIndex < 0)
+      return this;
+    _converter.convertValue(_columnNames[index], value, _encoders[index], targetIndex, _rawData);
+    return this;
+  }
+
+  /**
+   * Sets the offset for the prediction.
+   * @param offset offset
+   * @return this row
+   */
+  public PreparedRow setOffset(double offset) {
+    _offset = offset;
+    return this;
+  }
+
+  public String[] getColumnNames() {
+    return _columnNames;
+  }
+
+  double[] scoreData() {
+    System.arraycopy(_rawData, 0, _scoreData, 0, _rawData.length);
+    return _scoreData;
+  }
+
+}
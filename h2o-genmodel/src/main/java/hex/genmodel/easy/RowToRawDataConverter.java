@@ -20,6 +20,8 @@ public class RowToRawDataConverter implements Serializable {
 
   private final boolean _convertUnknownCategoricalLevelsToNa;
   private final boolean _convertInvalidNumbersToNa;
+
+  private static final Double BOXED_NA = Double.NaN;
   
   public RowToRawDataConverter(GenModel m,
                                Map<String, Integer> modelColumnNameToIndexMap,
@@ -110,6 +112,52 @@ public class RowToRawDataConverter implements Serializable {
     return false;
   }
 
+  /**
+   * Numeric counterpart of {@link #convertValue(String, Object, CategoricalEncoder, int, double[])}, used by
+   * {@link PreparedRow#setValue(int, double)}. The value is not boxed, a missing value is reported to the error consumer
+   * as a shared boxed NaN.
+   */
+  protected void convertValue(String columnName, double value, CategoricalEncoder catEncoder,
+                              int targetIndex, double[] rawData) throws PredictException {
+    if (catEncoder == null) {
+      if (Double.isNaN(value)) {
+        _errorConsumer.dataTransformError(columnName, BOXED_NA, "Given non-categorical value is unparseable, treating as NaN.");
+      }
+      rawData[targetIndex] = value;
+    } else if (Double.isNaN(value)) {
+      _errorConsumer.dataTransformError(columnName, BOXED_NA, "Missing factor value detected, setting to NaN");
+      catEncoder.encodeNA(rawData); // Missing factor is the only Double value allowed
+    } else {
+      _errorConsumer.dataTransformError(columnName, value, "Unknown categorical variable type.");
+      throw new PredictUnknownTypeException(
+              "Unexpected object type " + Double.class.getName() + " for categorical column " + columnName);
+    }
+  }
+
+  /**
+   * Resolves given column names to positions in the raw data array and creates a re-usable row.
+   *
+   * @param columnNames names of the columns that will be set in the row
+   * @param nfeatures size of the raw data array
+   * @param predsSize size of the predictions array
+   * @return new instance of PreparedRow
+   */
+  PreparedRow prepareRow(String[] columnNames, int nfeatures, int predsSize) {
+    int[] targetIndices = new int[columnNames.length];
+    CategoricalEncoder[] encoders = new CategoricalEncoder[columnNames.length];
+    for (int i = 0; i < columnNames.length; i++) {
+      Integer index = _modelColumnNameToIndexMap.get(columnNames[i]);
+      // Unknown columns and the "response" column are skipped (same as in `convert`)
+      if (index == null || index >= nfeatures) {
+        targetIndices[i] = -1;
+      } else {
+        targetIndices[i] = index;
+        encoders[i] = _domainMap.get(index);
+      }
+    }
+    return new PreparedRow(this, columnNames.clone(), targetIndices, encoders, nfeatures, predsSize);
+  }
+
   EasyPredictModelWrapper.ErrorConsumer getErrorConsumer() {
     return _errorConsumer;
   }
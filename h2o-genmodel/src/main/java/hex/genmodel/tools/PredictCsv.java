@@ -11,11 +11,9 @@ import hex.genmodel.easy.EasyPredictModelWrapper;
 import hex.genmodel.easy.RowData;
 import hex.genmodel.easy.prediction.*;
 
-import java.io.BufferedWriter;
-import java.io.FileReader;
-import java.io.FileWriter;
-import java.io.IOException;
+import java.io.*;
 import java.util.*;
+import java.util.concurrent.*;
 
 /**
  * Simple driver program for reading a CSV file and making predictions.  Added support for separators that are
@@ -35,8 +33,13 @@ public class PredictCsv {
   public boolean getTreePath = false; // enable tree models to obtain the leaf-assignment information
   boolean returnGLRMReconstruct = false; // for GLRM, return x factor by default unless set this to true
   public int glrmIterNumber = -1;  // for GLRM, default to 100.
+  public int numThreads = 1;       // number of scoring threads, > 1 enables parallel scoring
+  public int blockSize = 10000;    // number of rows scored by a thread at once (parallel mode only)
   // Model instance
   private EasyPredictModelWrapper model;
+  private EasyPredictModelWrapper.Config modelConfig; // used to create a wrapper for each scoring thread
+
+  private static final int PARALLEL_OUTPUT_BUFFER_SIZE = 1 << 22;
 
   public static void main(String[] args) {
     // Parse command line arguments
@@ -95,7 +98,7 @@ public class PredictCsv {
     return useDecimalOutput? Double.toString(d) : Double.toHexString(d);
   }
 
-  private void writeTreePathNames(BufferedWriter output) throws Exception {
+  private void writeTreePathNames(Writer output) throws Exception {
     String[] columnNames = ((SharedTreeMojoModel) model.m).getDecisionPathNames();
     int lastIndex = columnNames.length-1;
     for (int index = 0; index < lastIndex; index++)  {
@@ -108,8 +111,11 @@ public class PredictCsv {
 
   public void run() throws Exception {
     ModelCategory category = model.getModelCategory();
+    boolean parallel = useParallelScoring();
     CSVReader reader = new CSVReader(new FileReader(inputCSVFileName), separator);
-    BufferedWriter output = new BufferedWriter(new FileWriter(outputCSVFileName));
+    BufferedWriter output = parallel ?
+            new BufferedWriter(new FileWriter(outputCSVFileName), PARALLEL_OUTPUT_BUFFER_SIZE) :
+            new BufferedWriter(new FileWriter(outputCSVFileName));
     int lastCommaAutoEn = -1; // for deeplearning model in autoencoder mode
 
     // Emit outputCSV column names.
@@ -222,133 +228,264 @@ public class PredictCsv {
     //
     int lineNum=1;    // count number of lines of input dataset file parsed
     try {
-      String[] inputColumnNames = null;
-      String[] splitLine;
-      //Reader in the column names here.
-      if ((splitLine = reader.readNext()) != null) {
-        inputColumnNames = splitLine;
-        checkMissingColumns(inputColumnNames);
+      String[] inputColumnNames = readInputColumnNames(reader);
+
+      if (parallel) {
+        runParallel(reader, inputColumnNames, output, category, lastCommaAutoEn);
+        return;
       }
-      else  // file empty, throw an error
-        throw new Exception("Input dataset file is empty!");
 
+      String[] splitLine;
       while ((splitLine = reader.readNext()) != null) {
         // Parse the CSV line.  Don't handle quoted commas.  This isn't a parser test.
         RowData row = formatDataRow(splitLine, inputColumnNames);
         // Do the prediction.
         // Emit the result to the output file.
-        switch (category) {
-          case AutoEncoder: { // write the expanded predictions out
-            AutoEncoderModelPrediction p = model.predictAutoEncoder(row);
-            for (int i=0; i < p.reconstructed.length; i++) {
-              output.write(myDoubleToString(p.reconstructed[i]));
-
-              if (i < lastCommaAutoEn)
-                output.write(',');
-            }
-            break;
-          }
-          case Binomial: {
-            BinomialModelPrediction p = model.predictBinomial(row);
-            if (getTreePath) {
-              writeTreePaths(p.leafNodeAssignments, output);
-            } else {
-              output.write(p.label);
+        writePrediction(model, row, category, lastCommaAutoEn, output);
+        output.write("\n");
+        lineNum++;
+      }
+    }
+    catch (Exception e) {
+      System.out.println("Caught exception on line " + lineNum);
+      System.out.println("");
+      e.printStackTrace();
+      System.exit(1);
+    } finally {
+      // Clean up.
+      output.close();
+      reader.close();
+    }
+  }
+
+  /**
+   * Reads the column names from the first line of the input (shared by the sequential and the parallel mode).
+   */
+  private String[] readInputColumnNames(CSVReader reader) throws Exception {
+    String[] inputColumnNames = reader.readNext();
+    if (inputColumnNames == null)  // file empty, throw an error
+      throw new Exception("Input dataset file is empty!");
+    checkMissingColumns(inputColumnNames);
+    return inputColumnNames;
+  }
+
+  /**
+   * Parallel scoring shares the model between the scoring threads, score0 of the model must be reentrant. This holds
+   * for POJOs and MOJOs with the exception of GLRM: it keeps a row counter to seed the initialization of the X factor
+   * of each row. GLRM models are always scored by a single thread.
+   */
+  private boolean useParallelScoring() {
+    if (numThreads <= 1)
+      return false;
+    if (model.m instanceof GlrmMojoModel) {
+      System.out.println("GLRM models cannot be scored in parallel, using a single thread.");
+      return false;
+    }
+    return true;
+  }
+
+  private void writePrediction(EasyPredictModelWrapper model, RowData row, ModelCategory category,
+                               int lastCommaAutoEn, Writer output) throws Exception {
+    switch (category) {
+      case AutoEncoder: { // write the expanded predictions out
+        AutoEncoderModelPrediction p = model.predictAutoEncoder(row);
+        for (int i=0; i < p.reconstructed.length; i++) {
+          output.write(myDoubleToString(p.reconstructed[i]));
+
+          if (i < lastCommaAutoEn)
+            output.write(',');
+        }
+        break;
+      }
+      case Binomial: {
+        BinomialModelPrediction p = model.predictBinomial(row);
+        if (getTreePath) {
+          writeTreePaths(p.leafNodeAssignments, output);
+        } else {
+          output.write(p.label);
+          output.write(",");
+          for (int i = 0; i < p.classProbabilities.length; i++) {
+            if (i > 0) {
               output.write(",");
-              for (int i = 0; i < p.classProbabilities.length; i++) {
-                if (i > 0) {
-                  output.write(",");
-                }
-                output.write(myDoubleToString(p.classProbabilities[i]));
-              }
             }
-            break;
+            output.write(myDoubleToString(p.classProbabilities[i]));
           }
-          case Multinomial: {
-            MultinomialModelPrediction p = model.predictMultinomial(row);
-            if (getTreePath) {
-              writeTreePaths(p.leafNodeAssignments, output);
-            } else {
-              output.write(p.label);
+        }
+        break;
+      }
+      case Multinomial: {
+        MultinomialModelPrediction p = model.predictMultinomial(row);
+        if (getTreePath) {
+          writeTreePaths(p.leafNodeAssignments, output);
+        } else {
+          output.write(p.label);
+          output.write(",");
+          for (int i = 0; i < p.classProbabilities.length; i++) {
+            if (i > 0) {
               output.write(",");
-              for (int i = 0; i < p.classProbabilities.length; i++) {
-                if (i > 0) {
-                  output.write(",");
-                }
-                output.write(myDoubleToString(p.classProbabilities[i]));
-              }
             }
-            break;
+            output.write(myDoubleToString(p.classProbabilities[i]));
           }
-          case Ordinal: {
-            OrdinalModelPrediction p = model.predictOrdinal(row);
-            output.write(p.label);
+        }
+        break;
+      }
+      case Ordinal: {
+        OrdinalModelPrediction p = model.predictOrdinal(row);
+        output.write(p.label);
+        output.write(",");
+        for (int i = 0; i < p.classProbabilities.length; i++) {
+          if (i > 0) {
             output.write(",");
-            for (int i = 0; i < p.classProbabilities.length; i++) {
-              if (i > 0) {
-                output.write(",");
-              }
-              output.write(myDoubleToString(p.classProbabilities[i]));
-            }
-            break;
-          }
-          case Clustering: {
-            ClusteringModelPrediction p = model.predictClustering(row);
-            output.write(myDoubleToString(p.cluster));
-            break;
           }
+          output.write(myDoubleToString(p.classProbabilities[i]));
+        }
+        break;
+      }
+      case Clustering: {
+        ClusteringModelPrediction p = model.predictClustering(row);
+        output.write(myDoubleToString(p.cluster));
+        break;
+      }
 
-          case Regression: {
-              RegressionModelPrediction p = model.predictRegression(row);
-              if (getTreePath) {
-                writeTreePaths(p.leafNodeAssignments, output);
-              } else
-               output.write(myDoubleToString(p.value));
+      case Regression: {
+          RegressionModelPrediction p = model.predictRegression(row);
+          if (getTreePath) {
+            writeTreePaths(p.leafNodeAssignments, output);
+          } else
+           output.write(myDoubleToString(p.value));
 
-            break;
-          }
+        break;
+      }
 
-          case DimReduction: {
-            DimReductionModelPrediction p = model.predictDimReduction(row);
-            double[] out;
+      case DimReduction: {
+        DimReductionModelPrediction p = model.predictDimReduction(row);
+        double[] out;
 
-            if (returnGLRMReconstruct) {
-              out = p.reconstructed;  // reconstructed A
-            } else {
-              out = p.dimensions; // x factors
-            }
+        if (returnGLRMReconstruct) {
+          out = p.reconstructed;  // reconstructed A
+        } else {
+          out = p.dimensions; // x factors
+        }
 
-            int lastOne = out.length-1;
-            for (int i=0; i < out.length; i++) {
-              output.write(myDoubleToString(out[i]));
+        int lastOne = out.length-1;
+        for (int i=0; i < out.length; i++) {
+          output.write(myDoubleToString(out[i]));
 
-              if (i < lastOne)
-                output.write(',');
+          if (i < lastOne)
+            output.write(',');
+        }
+        break;
+      }
+
+      default:
+        throw new Exception("Unknown model category " + category);
+    }
+  }
+
+  /**
+   * Scores the input in blocks of {@link #blockSize} rows on a pool of {@link #numThreads} threads (each thread uses
+   * its own instance of EasyPredictModelWrapper, all wrapping the same reentrant model, see
+   * {@link #useParallelScoring()}) and writes the predictions in the order of the input rows.
+   */
+  private void runParallel(final CSVReader reader, final String[] inputColumnNames, final BufferedWriter output,
+                           final ModelCategory category, final int lastCommaAutoEn) throws Exception {
+    final ThreadLocal<EasyPredictModelWrapper> models = new ThreadLocal<EasyPredictModelWrapper>() {
+      @Override
+      protected EasyPredictModelWrapper initialValue() {
+        return new EasyPredictModelWrapper(modelConfig);
+      }
+    };
+    final ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+    final Deque<Future<String>> pending = new ArrayDeque<>();
+    final Deque<Integer> pendingLineNums = new ArrayDeque<>();
+    final long startTime = System.currentTimeMillis();
+    long rowCount = 0;
+    int lineNum = 1; // count number of lines of input dataset file parsed
+    int ioLineNum = lineNum; // line read, or first line of the block written, when an IOException can happen
+    try {
+      while (true) {
+        final String[][] block = new String[blockSize][];
+        int n = 0;
+        String[] splitLine;
+        while (n < blockSize && (splitLine = reader.readNext()) != null) {
+          block[n++] = splitLine;
+          ioLineNum = lineNum + n;
+        }
+        if (n == 0)
+          break;
+        final int blockRows = n;
+        final int blockLineNum = lineNum;
+        pending.add(executor.submit(new Callable<String>() {
+          @Override
+          public String call() throws Exception {
+            EasyPredictModelWrapper model = models.get();
+            StringWriter blockOutput = new StringWriter(blockRows * 32);
+            int i = 0;
+            try {
+              for (; i < blockRows; i++) {
+                RowData row = formatDataRow(block[i], inputColumnNames);
+                writePrediction(model, row, category, lastCommaAutoEn, blockOutput);
+                blockOutput.write("\n");
+              }
+            } catch (Exception e) {
+              throw new LineException(blockLineNum + i, e);
             }
-            break;
+            return blockOutput.toString();
           }
-
-          default:
-            throw new Exception("Unknown model category " + category);
+        }));
+        pendingLineNums.add(lineNum);
+        lineNum += blockRows;
+        rowCount += blockRows;
+        // keep a bounded number of blocks in flight, write out the finished ones in order
+        while (pending.size() > 2 * numThreads) {
+          String blockOutput = pending.peek().get();
+          ioLineNum = pendingLineNums.peek();
+          output.write(blockOutput);
+          pending.remove();
+          pendingLineNums.remove();
         }
-
-        output.write("\n");
-        lineNum++;
+        ioLineNum = lineNum;
       }
-    }
-    catch (Exception e) {
-      System.out.println("Caught exception on line " + lineNum);
+      while (!pending.isEmpty()) {
+        String blockOutput = pending.peek().get();
+        ioLineNum = pendingLineNums.peek();
+        output.write(blockOutput);
+        pending.remove();
+        pendingLineNums.remove();
+      }
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      boolean onLine = cause instanceof LineException;
+      System.out.println("Caught exception on line " + (onLine ? ((LineException) cause).lineNum : pendingLineNums.peek()));
+      System.out.println("");
+      (onLine ? cause.getCause() : cause).printStackTrace();
+      System.exit(1);
+    } catch (IOException e) {
+      System.out.println("Caught exception on line " + ioLineNum);
       System.out.println("");
       e.printStackTrace();
       System.exit(1);
     } finally {
-      // Clean up.
-      output.close();
-      reader.close();
+      executor.shutdownNow();
+    }
+    double seconds = (System.currentTimeMillis() - startTime) / 1000.0;
+    System.out.println(String.format("Scored %d rows in %.3f s (%.1f rows/s) using %d threads",
+            rowCount, seconds, seconds > 0 ? rowCount / seconds : rowCount, numThreads));
+  }
+
+  /**
+   * Failure to score a row in parallel mode, with the line of the row.
+   */
+  private static class LineException extends Exception {
+    final int lineNum;
+
+    LineException(int lineNum, Exception cause) {
+      super(cause);
+      this.lineNum = lineNum;
     }
   }
 
-  private void writeTreePaths(String[] treePaths, BufferedWriter output) throws Exception {
+  private void writeTreePaths(String[] treePaths, Writer output) throws Exception {
     int len = treePaths.length-1;
 
     for (int index=0; index<len; index++) {
@@ -378,6 +515,7 @@ public class PredictCsv {
     if (returnGLRMReconstruct)
       config.setEnableGLRMReconstrut(true);
 
+    modelConfig = config;
     model = new EasyPredictModelWrapper(config);
   } 
 
@@ -399,6 +537,7 @@ public class PredictCsv {
     if (glrmIterNumber > 0)   // set GLRM Mojo iteration number
       config.setGLRMIterNumber(glrmIterNumber);
     
+    modelConfig = config;
     model = new EasyPredictModelWrapper(config);
   }
 
@@ -419,10 +558,23 @@ public class PredictCsv {
             " prediction results");
     System.out.println("     --glrmReconstruct will return the reconstructed dataset for GLRM mojo instead of X factor derived from the dataset.");
     System.out.println("     --glrmIterNumber integer indicating number of iterations to go through when constructing X factor derived from the dataset.");
+    System.out.println("     --threads Number of scoring threads, a positive number (default is 1). With more than 1 thread the input is scored");
+    System.out.println("               in blocks in parallel, the order of the output rows is preserved. GLRM models");
+    System.out.println("               are always scored by a single thread.");
+    System.out.println("     --blockSize Number of rows in a block scored by a single thread, a positive number (default is 10000).");
     System.out.println("");
     System.exit(1);
   }
 
+  private static int positiveArg(String name, String sarg) {
+    int value = Integer.valueOf(sarg);
+    if (value <= 0) {
+      System.out.println("ERROR: " + name + " must be a positive number, got: " + sarg);
+      usage();
+    }
+    return value;
+  }
+
   private void checkMissingColumns(final String[] parsedColumnNamesArr) {
     final String[] modelColumnNames = model.m._names;
     final Set<String> parsedColumnNames = new HashSet<>(parsedColumnNamesArr.length);
@@ -497,6 +649,8 @@ public class PredictCsv {
             case "--output": outputCSVFileName = sarg; break;
             case "--separator": separator=sarg.charAt(sarg.length()-1);; break;
             case "--glrmIterNumber": glrmIterNumber=Integer.valueOf(sarg); break;
+            case "--threads": numThreads=positiveArg(s, sarg); break;
+            case "--blockSize": blockSize=positiveArg(s, sarg); break;
             default:
               System.out.println("ERROR: Unknown command line argument: " + s);
               usage();
@@ -18,6 +18,15 @@ public final class ByteBufferWrapper {
         _bb = ByteBuffer.wrap(buf, 0, buf.length).order(ByteOrder.nativeOrder());
     }
 
+    /**
+     * Read from a (typically memory-mapped) ByteBuffer, from its current position to its limit. The wrapper reads
+     * a duplicate of the buffer, the position of the given buffer is not modified.
+     */
+    public ByteBufferWrapper(ByteBuffer buf) {
+        assert buf != null : "null fed to ByteBufferWrapper";
+        _bb = buf.duplicate().order(ByteOrder.nativeOrder());
+    }
+
     public int position() {
         return _bb.position();
     }
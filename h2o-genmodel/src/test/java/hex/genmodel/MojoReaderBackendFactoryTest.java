@@ -1,19 +1,29 @@
 package hex.genmodel;
 
+import hex.genmodel.algos.tree.SharedTreeMojoModel;
 import hex.genmodel.easy.EasyPredictModelWrapper;
 import hex.genmodel.easy.RowData;
 import hex.genmodel.easy.prediction.RegressionModelPrediction;
+import hex.genmodel.utils.IOUtils;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
-import java.io.Closeable;
-import java.io.File;
+import java.io.*;
 import java.net.URL;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
 
 import static org.junit.Assert.*;
 import static hex.genmodel.MojoReaderBackendFactory.CachingStrategy;
 
 public class MojoReaderBackendFactoryTest {
 
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
   @Test
   public void testCreateReaderBackend_URL_Memory() throws Exception {
     URL dumjo = MojoReaderBackendFactoryTest.class.getResource("dumjo.zip");
@@ -68,6 +78,99 @@ public class MojoReaderBackendFactoryTest {
     assertEquals(71.085d, prediction.value, 0.001d);
   }
 
+  @Test
+  public void testMojoE2E_Mapped() throws Exception {
+    File storedMojo = tmp.newFile("mojo_stored.zip");
+    try (InputStream is = MojoReaderBackendFactoryTest.class.getResourceAsStream("mojo.zip");
+         OutputStream os = new FileOutputStream(storedMojo)) {
+      repackStored(is, os);
+    }
+    MojoReaderBackend reader = MojoReaderBackendFactory.createMappedReaderBackend(storedMojo);
+    assertTrue(reader instanceof MappedMojoReaderBackend);
+    MojoModel model = ModelMojoReader.readFrom(reader);
+    assertTrue(((SharedTreeMojoModel) model).isMemoryMapped());
+    EasyPredictModelWrapper modelWrapper = new EasyPredictModelWrapper(model);
+    RegressionModelPrediction prediction = (RegressionModelPrediction) modelWrapper.predict(makeTestRow());
+    assertEquals(71.085d, prediction.value, 0.001d);
+  }
+
+  @Test
+  public void testMappedModel_leafAssignmentAndSerialization() throws Exception {
+    File storedMojo = tmp.newFile("mojo_stored.zip");
+    try (InputStream is = MojoReaderBackendFactoryTest.class.getResourceAsStream("mojo.zip");
+         OutputStream os = new FileOutputStream(storedMojo)) {
+      repackStored(is, os);
+    }
+    MojoModel mapped = ModelMojoReader.readFrom(MojoReaderBackendFactory.createMappedReaderBackend(storedMojo));
+    assertTrue(((SharedTreeMojoModel) mapped).isMemoryMapped());
+    MojoModel heap = ModelMojoReader.readFrom(MojoReaderBackendFactory.createReaderBackend(storedMojo.getAbsolutePath()));
+    assertFalse(((SharedTreeMojoModel) heap).isMemoryMapped());
+
+    // leaf assignment is computed directly from the mapped trees
+    RegressionModelPrediction expected = predictWithLeafAssignment(heap);
+    RegressionModelPrediction prediction = predictWithLeafAssignment(mapped);
+    assertArrayEquals(expected.leafNodeAssignments, prediction.leafNodeAssignments);
+    assertArrayEquals(expected.leafNodeAssignmentIds, prediction.leafNodeAssignmentIds);
+    assertTrue(((SharedTreeMojoModel) mapped).isMemoryMapped());
+
+    // mapped trees are deserialized to the heap
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    try (ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+      oos.writeObject(mapped);
+    }
+    MojoModel deserialized;
+    try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bos.toByteArray()))) {
+      deserialized = (MojoModel) ois.readObject();
+    }
+    assertFalse(((SharedTreeMojoModel) deserialized).isMemoryMapped());
+    prediction = predictWithLeafAssignment(deserialized);
+    assertEquals(71.085d, prediction.value, 0.001d);
+    assertArrayEquals(expected.leafNodeAssignments, prediction.leafNodeAssignments);
+  }
+
+  private static RegressionModelPrediction predictWithLeafAssignment(MojoModel model) throws Exception {
+    EasyPredictModelWrapper modelWrapper = new EasyPredictModelWrapper(new EasyPredictModelWrapper.Config()
+            .setModel(model)
+            .setEnableLeafAssignment(true));
+    return modelWrapper.predictRegression(makeTestRow());
+  }
+
+  @Test
+  public void testMappedBackend_compressedEntriesFallback() throws Exception {
+    File mojo = tmp.newFile("mojo.zip");
+    try (InputStream is = MojoReaderBackendFactoryTest.class.getResourceAsStream("mojo.zip");
+         OutputStream os = new FileOutputStream(mojo)) {
+      IOUtils.copyStream(is, os);
+    }
+    MojoModel model = ModelMojoReader.readFrom(MojoReaderBackendFactory.createMappedReaderBackend(mojo));
+    assertFalse(((SharedTreeMojoModel) model).isMemoryMapped());
+    EasyPredictModelWrapper modelWrapper = new EasyPredictModelWrapper(model);
+    RegressionModelPrediction prediction = (RegressionModelPrediction) modelWrapper.predict(makeTestRow());
+    assertEquals(71.085d, prediction.value, 0.001d);
+  }
+
+  private static void repackStored(InputStream is, OutputStream os) throws IOException {
+    ZipInputStream zis = new ZipInputStream(is);
+    ZipOutputStream zos = new ZipOutputStream(os);
+    ZipEntry entry;
+    while ((entry = zis.getNextEntry()) != null) {
+      ByteArrayOutputStream bos = new ByteArrayOutputStream();
+      IOUtils.copyStream(zis, bos);
+      byte[] content = bos.toByteArray();
+      CRC32 crc = new CRC32();
+      crc.update(content);
+      ZipEntry stored = new ZipEntry(entry.getName());
+      stored.setMethod(ZipEntry.STORED);
+      stored.setSize(content.length);
+      stored.setCompressedSize(content.length);
+      stored.setCrc(crc.getValue());
+      zos.putNextEntry(stored);
+      zos.write(content);
+      zos.closeEntry();
+    }
+    zos.finish();
+  }
+
   private static RowData makeTestRow() {
     RowData testRow = new RowData();
     String[] row = ("75,0,190,80,91,193,371,174,121,-16,13,64,-2,0,63,0,52,44,0,0,32,0,0,0,0,0,0,0,44,20,36,0,28,0,0,0,0," +
@@ -0,0 +1,40 @@
+package hex.genmodel.algos.deeplearning;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class NeuralNetworkTest {
+
+  @Test
+  public void testFpropBatchMatchesFprop1Layer() {
+    String[] activations = {"Linear", "Softmax", "ExpRectifierWithDropout", "ExpRectifier", "Rectifier",
+            "RectifierWithDropout", "MaxoutWithDropout", "Maxout", "TanhWithDropout", "Tanh"};
+    final int inSize = 11, outSize = 5, nrows = 7;
+    Random rnd = new Random(42);
+    double[][] inputs = new double[nrows][inSize];
+    for (double[] row : inputs)
+      for (int i = 0; i < inSize; i++)
+        row[i] = rnd.nextGaussian();
+
+    for (String activation : activations) {
+      int maxK = activation.startsWith("Maxout") ? 2 : 1;
+      float[] w = new float[inSize * outSize * maxK];
+      double[] b = new double[outSize * maxK];
+      for (int i = 0; i < w.length; i++) w[i] = (float) rnd.nextGaussian();
+      for (int i = 0; i < b.length; i++) b[i] = rnd.nextGaussian();
+      double dropout = activation.endsWith("WithDropout") ? 0.2 : 0;
+      DeeplearningMojoModel.StoreWeightsBias wb = new DeeplearningMojoModel.StoreWeightsBias(w, b);
+
+      double[][] outputs = new double[nrows][outSize];
+      new NeuralNetwork(activation, dropout, wb, inputs[0], outSize).fpropBatch(inputs, nrows, outputs);
+      for (int r = 0; r < nrows; r++) {
+        double[] expected = new NeuralNetwork(activation, dropout, wb, inputs[r], outSize).fprop1Layer();
+        assertArrayEquals(activation, expected, outputs[r], 0);
+      }
+    }
+  }
+
+}
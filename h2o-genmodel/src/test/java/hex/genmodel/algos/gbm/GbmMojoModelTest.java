@@ -4,6 +4,7 @@ import com.google.common.io.ByteStreams;
 import hex.genmodel.ModelMojoReader;
 import hex.genmodel.MojoReaderBackend;
 import hex.genmodel.easy.EasyPredictModelWrapper;
+import hex.genmodel.easy.PreparedRow;
 import hex.genmodel.easy.RowData;
 import hex.genmodel.easy.exception.PredictException;
 import hex.genmodel.easy.prediction.BinomialModelPrediction;
@@ -34,6 +35,46 @@ public class GbmMojoModelTest {
     assertArrayEquals(new double[]{1, 0.5416688, 0.4583312}, preds, 1e-5);
   }
 
+  @Test
+  public void testScore0WithFlatTrees() throws Exception {
+    GbmMojoModel flatMojo = (GbmMojoModel) ModelMojoReader.readFrom(new ClasspathReaderBackend());
+    flatMojo.enableFlatTreeScoring();
+    assertTrue(flatMojo.isFlatTreeScoringEnabled());
+    double[][] rows = {
+            {18.7, 1.51, 1.003, 132.53, 1.15, 0.2, 1.153, 8.3, 0.34, 0.0, 0.0},
+            {12.2, 0.1, 0.5, 20.0, 0.3, 2.1, 0.4, 1.2, 0.9, 1.0, 1.0},
+            {Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN},
+            {18.7, 1.51, 1.003, 132.53, 1.15, 0.2, 1.153, 8.3, 0.34, 0.0, 42.0} // unseen categorical level
+    };
+    for (double[] row : rows) {
+      assertArrayEquals(mojo12.score0(row, new double[3]), flatMojo.score0(row, new double[3]), 0);
+    }
+  }
+
+  @Test
+  public void testScoreBatch() throws Exception {
+    GbmMojoModel flatMojo = (GbmMojoModel) ModelMojoReader.readFrom(new ClasspathReaderBackend());
+    flatMojo.enableFlatTreeScoring();
+    double[][] rows = {
+            {18.7, 1.51, 1.003, 132.53, 1.15, 0.2, 1.153, 8.3, 0.34, 0.0, 0.0},
+            {12.2, 0.1, 0.5, 20.0, 0.3, 2.1, 0.4, 1.2, 0.9, 1.0, 1.0},
+            {Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN}
+    };
+    double[][] columns = new double[rows[0].length][rows.length];
+    for (int i = 0; i < rows.length; i++)
+      for (int j = 0; j < rows[i].length; j++)
+        columns[j][i] = rows[i][j];
+    double[][] batchPreds = new double[rows.length][3];
+    double[][] flatBatchPreds = new double[rows.length][3];
+    mojo12.scoreBatch(columns, rows.length, batchPreds);
+    flatMojo.scoreBatch(columns, rows.length, flatBatchPreds);
+    for (int i = 0; i < rows.length; i++) {
+      double[] expected = mojo12.score0(rows[i], new double[3]);
+      assertArrayEquals(expected, batchPreds[i], 0);
+      assertArrayEquals(expected, flatBatchPreds[i], 0);
+    }
+  }
+
   @Test
   public void scoreSingleTree() throws Exception {
     double[] row = {18.7, 1.51, 1.003, 132.53, 1.15, 0.2, 1.153, 8.3, 0.34, 0.0, 0.0};
@@ -91,6 +132,27 @@ public class GbmMojoModelTest {
     assertArrayEquals(new double[]{0.3920402, 0.6079598}, pred.calibratedClassProbabilities, 1e-5);
   }
 
+  @Test
+  public void testPredictPreparedRow() throws Exception {
+    EasyPredictModelWrapper wrapper = new EasyPredictModelWrapper(mojo12);
+
+    PreparedRow row = wrapper.prepareRow("SegSumT", "SegTSeas", "SegLowFlow", "DSDist", "DSMaxSlope", "USAvgT",
+            "USRainDays", "USSlope", "USNative", "DSDam", "Method", "UnknownColumn");
+    BinomialModelPrediction pred = new BinomialModelPrediction();
+    for (int i = 0; i < 2; i++) { // the row and the prediction are re-used
+      row.reset();
+      row.setValue(0, 18.7).setValue(1, 1.51).setValue(2, 1.003).setValue(3, 132.53).setValue(4, 1.15)
+              .setValue(5, 0.2).setValue(6, 1.153).setValue(7, 8.3).setValue(8, 0.34).setValue(9, "0.0")
+              .setValue(10, "electric").setValue(11, 42.0);
+      assertSame(pred, wrapper.predictBinomial(row, pred));
+
+      assertEquals(1, pred.labelIndex);
+      assertEquals("1", pred.label);
+      assertArrayEquals(new double[]{0.5416688, 0.4583312}, pred.classProbabilities, 1e-5);
+      assertArrayEquals(new double[]{0.3920402, 0.6079598}, pred.calibratedClassProbabilities, 1e-5);
+    }
+  }
+
   @Test
   public void testPredictWithLeafAssignments() throws IOException, PredictException {
     EasyPredictModelWrapper wrapper = new EasyPredictModelWrapper(
@@ -48,9 +48,20 @@ public class GlmMojoModelTest {
     GlmMojoModel mojo = (GlmMojoModel) ModelMojoReader.readFrom(new ClasspathReaderBackend());
 
     for (int i = 0; i < data.length; i++) {
-      double preds[] = mojo.score0(data[i], new double[3]);
+      double preds[] = mojo.score0(data[i].clone(), new double[3]);
       assertArrayEquals("Predictions for row #" + i, expPreds[i], preds, 0.0000001);
     }
+
+    // batch scoring
+    double[][] columns = new double[data[0].length][data.length];
+    for (int i = 0; i < data.length; i++)
+      for (int j = 0; j < data[i].length; j++)
+        columns[j][i] = data[i][j];
+    double[][] batchPreds = new double[data.length][3];
+    mojo.scoreBatch(columns, data.length, batchPreds);
+    for (int i = 0; i < data.length; i++) {
+      assertArrayEquals("Batch predictions for row #" + i, expPreds[i], batchPreds[i], 0.0000001);
+    }
   }
 
   private static class ClasspathReaderBackend implements MojoReaderBackend {
@@ -24,6 +24,41 @@ public class SharedTreeMojoModelTest {
     // Leaf Node Assignment
     final double path = SharedTreeMojoModel.scoreTree(tree, null, true, null);
     assertEquals("", SharedTreeMojoModel.getDecisionPath(path));
+
+    // Flat representation of the same tree
+    FlatTree flatTree = FlatTree.decode(tree, null);
+    assertEquals(0, flatTree.numNodes());
+    assertEquals(1, flatTree.numLeaves());
+    assertEquals(4.2f, flatTree.score(null), 0.0);
+  }
+
+  @Test
+  public void testFlatTreeLargeNumericValues() {
+    // Numeric split "x0 >= 10", NAs go left; both children are leaves
+    byte[] tree = new byte[16];
+    ByteBuffer bb = ByteBuffer.wrap(tree, 0, tree.length).order(ByteOrder.nativeOrder());
+    bb.put((byte) 0xF0);
+    bb.putChar((char) 0);
+    bb.put((byte) NaSplitDir.NALeft.value());
+    bb.putFloat(10f);
+    bb.putFloat(-1f);
+    bb.putFloat(1f);
+
+    FlatTree flatTree = FlatTree.decode(tree, null);
+    FlatTree flatTreeDomains = FlatTree.decode(tree, new String[1][]);
+    double[] values = new double[]{Double.NaN, 0, 10, 3e9, 1e12, -3e9};
+    double[][] data = new double[][]{values};
+    double[] acc = new double[values.length];
+    flatTree.scoreBatch(data, values.length, acc);
+    for (int i = 0; i < values.length; i++) {
+      double[] row = new double[]{values[i]};
+      double expected = SharedTreeMojoModel.scoreTree(tree, row, false, null);
+      assertEquals(expected, flatTree.score(row), 0.0);
+      assertEquals(expected, flatTreeDomains.score(row), 0.0);
+      assertEquals(expected, acc[i], 0.0);
+    }
+    assertEquals(1f, flatTree.score(new double[]{3e9}), 0.0);
+    assertEquals(1f, flatTree.score(new double[]{1e12}), 0.0);
   }
 
-}
\ No newline at end of file
+}
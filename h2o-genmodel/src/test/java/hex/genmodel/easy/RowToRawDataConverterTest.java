@@ -2,10 +2,13 @@ package hex.genmodel.easy;
 
 import hex.genmodel.easy.error.VoidErrorConsumer;
 import hex.genmodel.easy.exception.PredictException;
+import hex.genmodel.easy.exception.PredictUnknownTypeException;
 import hex.genmodel.easy.stub.TestMojoModel;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.Assert.*;
@@ -46,4 +49,42 @@ public class RowToRawDataConverterTest {
     // Expected order is: {embarked, age, sex}
     assertArrayEquals(new double[]{0, 42, 1}, rawData, 1e-5);
   }
+
+  @Test
+  public void convertDoubleValue() throws PredictException {
+    final List<Object> errorValues = new ArrayList<>();
+    EasyPredictModelWrapper.ErrorConsumer errorConsumer = new EasyPredictModelWrapper.ErrorConsumer() {
+      @Override
+      public void dataTransformError(String columnName, Object value, String message) {
+        errorValues.add(value);
+      }
+
+      @Override
+      public void unseenCategorical(String columnName, Object value, String message) {
+        errorValues.add(value);
+      }
+    };
+    HashMap<String, Integer> modelColumnNameToIndexMap = new HashMap<>();
+    modelColumnNameToIndexMap.put("embarked", 0);
+    modelColumnNameToIndexMap.put("age", 1);
+    modelColumnNameToIndexMap.put("sex", 2);
+    TestMojoModel testMojoModel = new TestMojoModel();
+    Map<Integer, CategoricalEncoder> domainMap = new EnumEncoderDomainMapConstructor(testMojoModel, modelColumnNameToIndexMap).create();
+    RowToRawDataConverter converter = new RowToRawDataConverter(testMojoModel, modelColumnNameToIndexMap, domainMap, errorConsumer, new EasyPredictModelWrapper.Config());
+
+    double[] rawData = new double[]{0, 0, 0};
+    converter.convertValue("age", 42.0, null, 1, rawData);
+    converter.convertValue("embarked", Double.NaN, domainMap.get(0), 0, rawData);
+    assertArrayEquals(new double[]{Double.NaN, 42, 0}, rawData, 0);
+    converter.convertValue("age", Double.NaN, null, 1, rawData);
+    assertTrue(Double.isNaN(rawData[1]));
+    assertEquals(2, errorValues.size());
+    assertTrue(Double.isNaN((Double) errorValues.get(0)));
+    try {
+      converter.convertValue("sex", 1.0, domainMap.get(2), 2, rawData);
+      fail("A numeric value should not be accepted for a categorical column");
+    } catch (PredictUnknownTypeException e) {
+      assertEquals(1.0, (Double) errorValues.get(2), 0);
+    }
+  }
 }
@@ -28,14 +28,16 @@ class H2OGradientBoostingEstimator(H2OEstimator):
                    "score_tree_interval", "fold_assignment", "fold_column", "response_column", "ignored_columns",
                    "ignore_const_cols", "offset_column", "weights_column", "balance_classes", "class_sampling_factors",
                    "max_after_balance_size", "max_confusion_matrix_size", "max_hit_ratio_k", "ntrees", "max_depth",
-                   "min_rows", "nbins", "nbins_top_level", "nbins_cats", "r2_stopping", "stopping_rounds",
-                   "stopping_metric", "stopping_tolerance", "max_runtime_secs", "seed", "build_tree_one_node",
-                   "learn_rate", "learn_rate_annealing", "distribution", "quantile_alpha", "tweedie_power",
-                   "huber_alpha", "checkpoint", "sample_rate", "sample_rate_per_class", "col_sample_rate",
+                   "grow_policy", "max_leaves", "min_rows", "nbins", "nbins_top_level", "nbins_cats", "r2_stopping",
+                   "stopping_rounds", "stopping_metric", "stopping_tolerance", "max_runtime_secs", "seed",
+                   "build_tree_one_node", "learn_rate", "learn_rate_annealing", "distribution", "quantile_alpha",
+                   "tweedie_power", "huber_alpha", "checkpoint", "sample_rate", "sample_rate_per_class",
+                   "sample_strategy", "goss_top_rate", "goss_other_rate", "col_sample_rate",
                    "col_sample_rate_change_per_level", "col_sample_rate_per_tree", "min_split_improvement",
-                   "histogram_type", "max_abs_leafnode_pred", "pred_noise_bandwidth", "categorical_encoding",
-                   "calibrate_model", "calibration_frame", "custom_metric_func", "custom_distribution_func",
-                   "export_checkpoints_dir", "monotone_constraints", "check_constant_response"}
+                   "histogram_type", "prebin", "histogram_subtraction", "bundle_sparse", "max_abs_leafnode_pred",
+                   "pred_noise_bandwidth", "categorical_encoding", "calibrate_model", "calibration_frame",
+                   "custom_metric_func", "custom_distribution_func", "export_checkpoints_dir", "monotone_constraints",
+                   "check_constant_response"}
 
     def __init__(self, **kwargs):
         super(H2OGradientBoostingEstimator, self).__init__()
@@ -690,6 +692,82 @@ class H2OGradientBoostingEstimator(H2OEstimator):
         self._parms["max_depth"] = max_depth
 
 
+    @property
+    def grow_policy(self):
+        """
+        Grow policy - depthwise grows the trees level by level, lossguide splits the leaves with the highest split gain
+        first, up to max_leaves leaves per tree
+
+        One of: ``"depthwise"``, ``"lossguide"``  (default: ``"depthwise"``).
+
+        :examples:
+
+        >>> airlines= h2o.import_file("https://s3.amazonaws.com/h2o-public-test-data/smalldata/airlines/allyears2k_headers.zip")
+        >>> airlines["Year"] = airlines["Year"].asfactor()
+        >>> airlines["Month"] = airlines["Month"].asfactor()
+        >>> airlines["DayOfWeek"] = airlines["DayOfWeek"].asfactor()
+        >>> airlines["Cancelled"] = airlines["Cancelled"].asfactor()
+        >>> airlines['FlightNum'] = airlines['FlightNum'].asfactor()
+        >>> predictors = ["Origin", "Dest", "Year", "UniqueCarrier",
+        ...               "DayOfWeek", "Month", "Distance", "FlightNum"]
+        >>> response = "IsDepDelayed"
+        >>> train, valid = airlines.split_frame(ratios=[.8], seed=1234)
+        >>> airlines_gbm = H2OGradientBoostingEstimator(grow_policy="lossguide",
+        ...                                             max_depth=10,
+        ...                                             max_leaves=32,
+        ...                                             seed=1234)
+        >>> airlines_gbm.train(x=predictors,
+        ...                    y=response,
+        ...                    training_frame=train,
+        ...                    validation_frame=valid)
+        >>> airlines_gbm.auc(valid=True)
+        """
+        return self._parms.get("grow_policy")
+
+    @grow_policy.setter
+    def grow_policy(self, grow_policy):
+        assert_is_type(grow_policy, None, Enum("depthwise", "lossguide"))
+        self._parms["grow_policy"] = grow_policy
+
+
+    @property
+    def max_leaves(self):
+        """
+        For grow_policy=lossguide only: maximum number of leaves per tree, 0 for no limit (max_depth still applies);
+        ignored with depthwise
+
+        Type: ``int``  (default: ``0``).
+
+        :examples:
+
+        >>> airlines= h2o.import_file("https://s3.amazonaws.com/h2o-public-test-data/smalldata/airlines/allyears2k_headers.zip")
+        >>> airlines["Year"] = airlines["Year"].asfactor()
+        >>> airlines["Month"] = airlines["Month"].asfactor()
+        >>> airlines["DayOfWeek"] = airlines["DayOfWeek"].asfactor()
+        >>> airlines["Cancelled"] = airlines["Cancelled"].asfactor()
+        >>> airlines['FlightNum'] = airlines['FlightNum'].asfactor()
+        >>> predictors = ["Origin", "Dest", "Year", "UniqueCarrier",
+        ...               "DayOfWeek", "Month", "Distance", "FlightNum"]
+        >>> response = "IsDepDelayed"
+        >>> train, valid = airlines.split_frame(ratios=[.8], seed=1234)
+        >>> airlines_gbm = H2OGradientBoostingEstimator(grow_policy="lossguide",
+        ...                                             max_depth=10,
+        ...                                             max_leaves=32,
+        ...                                             seed=1234)
+        >>> airlines_gbm.train(x=predictors,
+        ...                    y=response,
+        ...                    training_frame=train,
+        ...                    validation_frame=valid)
+        >>> airlines_gbm.auc(valid=True)
+        """
+        return self._parms.get("max_leaves")
+
+    @max_leaves.setter
+    def max_leaves(self, max_leaves):
+        assert_is_type(max_leaves, None, int)
+        self._parms["max_leaves"] = max_leaves
+
+
     @property
     def min_rows(self):
         """
@@ -1356,6 +1434,120 @@ class H2OGradientBoostingEstimator(H2OEstimator):
         self._parms["sample_rate_per_class"] = sample_rate_per_class
 
 
+    @property
+    def sample_strategy(self):
+        """
+        Row sampling strategy - uniform samples the rows of every tree at random (sample_rate, sample_rate_per_class),
+        goss keeps the rows with the largest absolute gradients and samples the rest (gradient-based one-side sampling)
+
+        One of: ``"uniform"``, ``"goss"``  (default: ``"uniform"``).
+
+        :examples:
+
+        >>> airlines= h2o.import_file("https://s3.amazonaws.com/h2o-public-test-data/smalldata/airlines/allyears2k_headers.zip")
+        >>> airlines["Year"] = airlines["Year"].asfactor()
+        >>> airlines["Month"] = airlines["Month"].asfactor()
+        >>> airlines["DayOfWeek"] = airlines["DayOfWeek"].asfactor()
+        >>> airlines["Cancelled"] = airlines["Cancelled"].asfactor()
+        >>> airlines['FlightNum'] = airlines['FlightNum'].asfactor()
+        >>> predictors = ["Origin", "Dest", "Year", "UniqueCarrier",
+        ...               "DayOfWeek", "Month", "Distance", "FlightNum"]
+        >>> response = "IsDepDelayed"
+        >>> train, valid = airlines.split_frame(ratios=[.8], seed=1234)
+        >>> airlines_gbm = H2OGradientBoostingEstimator(sample_strategy="goss",
+        ...                                             goss_top_rate=0.2,
+        ...                                             goss_other_rate=0.1,
+        ...                                             seed=1234)
+        >>> airlines_gbm.train(x=predictors,
+        ...                    y=response,
+        ...                    training_frame=train,
+        ...                    validation_frame=valid)
+        >>> airlines_gbm.auc(valid=True)
+        """
+        return self._parms.get("sample_strategy")
+
+    @sample_strategy.setter
+    def sample_strategy(self, sample_strategy):
+        assert_is_type(sample_strategy, None, Enum("uniform", "goss"))
+        self._parms["sample_strategy"] = sample_strategy
+
+
+    @property
+    def goss_top_rate(self):
+        """
+        For sample_strategy=goss only: share of the rows with the largest absolute gradients kept for every tree (from
+        0.0 to 1.0)
+
+        Type: ``float``  (default: ``0.2``).
+
+        :examples:
+
+        >>> airlines= h2o.import_file("https://s3.amazonaws.com/h2o-public-test-data/smalldata/airlines/allyears2k_headers.zip")
+        >>> airlines["Year"] = airlines["Year"].asfactor()
+        >>> airlines["Month"] = airlines["Month"].asfactor()
+        >>> airlines["DayOfWeek"] = airlines["DayOfWeek"].asfactor()
+        >>> airlines["Cancelled"] = airlines["Cancelled"].asfactor()
+        >>> airlines['FlightNum'] = airlines['FlightNum'].asfactor()
+        >>> predictors = ["Origin", "Dest", "Year", "UniqueCarrier",
+        ...               "DayOfWeek", "Month", "Distance", "FlightNum"]
+        >>> response = "IsDepDelayed"
+        >>> train, valid = airlines.split_frame(ratios=[.8], seed=1234)
+        >>> airlines_gbm = H2OGradientBoostingEstimator(sample_strategy="goss",
+        ...                                             goss_top_rate=0.2,
+        ...                                             goss_other_rate=0.1,
+        ...                                             seed=1234)
+        >>> airlines_gbm.train(x=predictors,
+        ...                    y=response,
+        ...                    training_frame=train,
+        ...                    validation_frame=valid)
+        >>> airlines_gbm.auc(valid=True)
+        """
+        return self._parms.get("goss_top_rate")
+
+    @goss_top_rate.setter
+    def goss_top_rate(self, goss_top_rate):
+        assert_is_type(goss_top_rate, None, numeric)
+        self._parms["goss_top_rate"] = goss_top_rate
+
+
+    @property
+    def goss_other_rate(self):
+        """
+        For sample_strategy=goss only: share of all rows sampled at random from the remaining rows, their weights are
+        amplified to make up for the rest (from 0.0 to 1.0)
+
+        Type: ``float``  (default: ``0.1``).
+
+        :examples:
+
+        >>> airlines= h2o.import_file("https://s3.amazonaws.com/h2o-public-test-data/smalldata/airlines/allyears2k_headers.zip")
+        >>> airlines["Year"] = airlines["Year"].asfactor()
+        >>> airlines["Month"] = airlines["Month"].asfactor()
+        >>> airlines["DayOfWeek"] = airlines["DayOfWeek"].asfactor()
+        >>> airlines["Cancelled"] = airlines["Cancelled"].asfactor()
+        >>> airlines['FlightNum'] = airlines['FlightNum'].asfactor()
+        >>> predictors = ["Origin", "Dest", "Year", "UniqueCarrier",
+        ...               "DayOfWeek", "Month", "Distance", "FlightNum"]
+        >>> response = "IsDepDelayed"
+        >>> train, valid = airlines.split_frame(ratios=[.8], seed=1234)
+        >>> airlines_gbm = H2OGradientBoostingEstimator(sample_strategy="goss",
+        ...                                             goss_top_rate=0.2,
+        ...                                             goss_other_rate=0.1,
+        ...                                             seed=1234)
+        >>> airlines_gbm.train(x=predictors,
+        ...                    y=response,
+        ...                    training_frame=train,
+        ...                    validation_frame=valid)
+        >>> airlines_gbm.auc(valid=True)
+        """
+        return self._parms.get("goss_other_rate")
+
+    @goss_other_rate.setter
+    def goss_other_rate(self, goss_other_rate):
+        assert_is_type(goss_other_rate, None, numeric)
+        self._parms["goss_other_rate"] = goss_other_rate
+
+
     @property
     def col_sample_rate(self):
         """
@@ -1527,6 +1719,120 @@ class H2OGradientBoostingEstimator(H2OEstimator):
         self._parms["histogram_type"] = histogram_type
 
 
+    @property
+    def prebin(self):
+        """
+        Quantize the numeric predictors into their global histogram bins once, before building the trees, and build the
+        histograms from the bin codes. Requires histogram_type QuantilesGlobal or RoundRobin.
+
+        Type: ``bool``  (default: ``False``).
+
+        :examples:
+
+        >>> airlines= h2o.import_file("https://s3.amazonaws.com/h2o-public-test-data/smalldata/airlines/allyears2k_headers.zip")
+        >>> airlines["Year"] = airlines["Year"].asfactor()
+        >>> airlines["Month"] = airlines["Month"].asfactor()
+        >>> airlines["DayOfWeek"] = airlines["DayOfWeek"].asfactor()
+        >>> airlines["Cancelled"] = airlines["Cancelled"].asfactor()
+        >>> airlines['FlightNum'] = airlines['FlightNum'].asfactor()
+        >>> predictors = ["Origin", "Dest", "Year", "UniqueCarrier",
+        ...               "DayOfWeek", "Month", "Distance", "FlightNum"]
+        >>> response = "IsDepDelayed"
+        >>> train, valid = airlines.split_frame(ratios=[.8], seed=1234)
+        >>> airlines_gbm = H2OGradientBoostingEstimator(histogram_type="QuantilesGlobal",
+        ...                                             prebin=True,
+        ...                                             seed=1234)
+        >>> airlines_gbm.train(x=predictors,
+        ...                    y=response,
+        ...                    training_frame=train,
+        ...                    validation_frame=valid)
+        >>> airlines_gbm.auc(valid=True)
+        """
+        return self._parms.get("prebin")
+
+    @prebin.setter
+    def prebin(self, prebin):
+        assert_is_type(prebin, None, bool)
+        self._parms["prebin"] = prebin
+
+
+    @property
+    def histogram_subtraction(self):
+        """
+        Accumulate the histograms of the smaller child of every split only, and derive the larger child's histograms by
+        subtracting them from the parent's. Applies to columns whose bins line up between the nodes: pre-binned numeric
+        columns and integer or categorical columns with one bin per value.
+
+        Type: ``bool``  (default: ``False``).
+
+        :examples:
+
+        >>> airlines= h2o.import_file("https://s3.amazonaws.com/h2o-public-test-data/smalldata/airlines/allyears2k_headers.zip")
+        >>> airlines["Year"] = airlines["Year"].asfactor()
+        >>> airlines["Month"] = airlines["Month"].asfactor()
+        >>> airlines["DayOfWeek"] = airlines["DayOfWeek"].asfactor()
+        >>> airlines["Cancelled"] = airlines["Cancelled"].asfactor()
+        >>> airlines['FlightNum'] = airlines['FlightNum'].asfactor()
+        >>> predictors = ["Origin", "Dest", "Year", "UniqueCarrier",
+        ...               "DayOfWeek", "Month", "Distance", "FlightNum"]
+        >>> response = "IsDepDelayed"
+        >>> train, valid = airlines.split_frame(ratios=[.8], seed=1234)
+        >>> airlines_gbm = H2OGradientBoostingEstimator(histogram_type="QuantilesGlobal",
+        ...                                             prebin=True,
+        ...                                             histogram_subtraction=True,
+        ...                                             seed=1234)
+        >>> airlines_gbm.train(x=predictors,
+        ...                    y=response,
+        ...                    training_frame=train,
+        ...                    validation_frame=valid)
+        >>> airlines_gbm.auc(valid=True)
+        """
+        return self._parms.get("histogram_subtraction")
+
+    @histogram_subtraction.setter
+    def histogram_subtraction(self, histogram_subtraction):
+        assert_is_type(histogram_subtraction, None, bool)
+        self._parms["histogram_subtraction"] = histogram_subtraction
+
+
+    @property
+    def bundle_sparse(self):
+        """
+        Bundle integer columns that are mostly zero and rarely non-zero in the same row (e.g. one-hot encoded or
+        SVMLight columns), and accumulate a single histogram per bundle, from which the histograms of its columns are
+        recovered before the splits are found. Requires histogram_type AUTO or UniformAdaptive.
+
+        Type: ``bool``  (default: ``False``).
+
+        :examples:
+
+        >>> airlines= h2o.import_file("https://s3.amazonaws.com/h2o-public-test-data/smalldata/airlines/allyears2k_headers.zip")
+        >>> airlines["Year"] = airlines["Year"].asfactor()
+        >>> airlines["Month"] = airlines["Month"].asfactor()
+        >>> airlines["DayOfWeek"] = airlines["DayOfWeek"].asfactor()
+        >>> airlines["Cancelled"] = airlines["Cancelled"].asfactor()
+        >>> airlines['FlightNum'] = airlines['FlightNum'].asfactor()
+        >>> predictors = ["Origin", "Dest", "Year", "UniqueCarrier",
+        ...               "DayOfWeek", "Month", "Distance", "FlightNum"]
+        >>> response = "IsDepDelayed"
+        >>> train, valid = airlines.split_frame(ratios=[.8], seed=1234)
+        >>> airlines_gbm = H2OGradientBoostingEstimator(categorical_encoding="one_hot_explicit",
+        ...                                             bundle_sparse=True,
+        ...                                             seed=1234)
+        >>> airlines_gbm.train(x=predictors,
+        ...                    y=response,
+        ...                    training_frame=train,
+        ...                    validation_frame=valid)
+        >>> airlines_gbm.auc(valid=True)
+        """
+        return self._parms.get("bundle_sparse")
+
+    @bundle_sparse.setter
+    def bundle_sparse(self, bundle_sparse):
+        assert_is_type(bundle_sparse, None, bool)
+        self._parms["bundle_sparse"] = bundle_sparse
+
+
     @property
     def max_abs_leafnode_pred(self):
         """
@@ -30,8 +30,9 @@ class H2ORandomForestEstimator(H2OEstimator):
                    "stopping_metric", "stopping_tolerance", "max_runtime_secs", "seed", "build_tree_one_node", "mtries",
                    "sample_rate", "sample_rate_per_class", "binomial_double_trees", "checkpoint",
                    "col_sample_rate_change_per_level", "col_sample_rate_per_tree", "min_split_improvement",
-                   "histogram_type", "categorical_encoding", "calibrate_model", "calibration_frame", "distribution",
-                   "custom_metric_func", "export_checkpoints_dir", "check_constant_response"}
+                   "histogram_type", "prebin", "histogram_subtraction", "bundle_sparse", "categorical_encoding",
+                   "calibrate_model", "calibration_frame", "distribution", "custom_metric_func",
+                   "export_checkpoints_dir", "check_constant_response"}
 
     def __init__(self, **kwargs):
         super(H2ORandomForestEstimator, self).__init__()
@@ -1365,6 +1366,120 @@ class H2ORandomForestEstimator(H2OEstimator):
         self._parms["histogram_type"] = histogram_type
 
 
+    @property
+    def prebin(self):
+        """
+        Quantize the numeric predictors into their global histogram bins once, before building the trees, and build the
+        histograms from the bin codes. Requires histogram_type QuantilesGlobal or RoundRobin.
+
+        Type: ``bool``  (default: ``False``).
+
+        :examples:
+
+        >>> airlines= h2o.import_file("https://s3.amazonaws.com/h2o-public-test-data/smalldata/airlines/allyears2k_headers.zip")
+        >>> airlines["Year"] = airlines["Year"].asfactor()
+        >>> airlines["Month"] = airlines["Month"].asfactor()
+        >>> airlines["DayOfWeek"] = airlines["DayOfWeek"].asfactor()
+        >>> airlines["Cancelled"] = airlines["Cancelled"].asfactor()
+        >>> airlines['FlightNum'] = airlines['FlightNum'].asfactor()
+        >>> predictors = ["Origin", "Dest", "Year", "UniqueCarrier",
+        ...               "DayOfWeek", "Month", "Distance", "FlightNum"]
+        >>> response = "IsDepDelayed"
+        >>> train, valid= airlines.split_frame(ratios=[.8], seed=1234)
+        >>> airlines_drf = H2ORandomForestEstimator(histogram_type="QuantilesGlobal",
+        ...                                         prebin=True,
+        ...                                         seed=1234)
+        >>> airlines_drf.train(x=predictors,
+        ...                    y=response,
+        ...                    training_frame=train,
+        ...                    validation_frame=valid)
+        >>> print(airlines_drf.auc(valid=True))
+        """
+        return self._parms.get("prebin")
+
+    @prebin.setter
+    def prebin(self, prebin):
+        assert_is_type(prebin, None, bool)
+        self._parms["prebin"] = prebin
+
+
+    @property
+    def histogram_subtraction(self):
+        """
+        Accumulate the histograms of the smaller child of every split only, and derive the larger child's histograms by
+        subtracting them from the parent's. Applies to columns whose bins line up between the nodes: pre-binned numeric
+        columns and integer or categorical columns with one bin per value.
+
+        Type: ``bool``  (default: ``False``).
+
+        :examples:
+
+        >>> airlines= h2o.import_file("https://s3.amazonaws.com/h2o-public-test-data/smalldata/airlines/allyears2k_headers.zip")
+        >>> airlines["Year"] = airlines["Year"].asfactor()
+        >>> airlines["Month"] = airlines["Month"].asfactor()
+        >>> airlines["DayOfWeek"] = airlines["DayOfWeek"].asfactor()
+        >>> airlines["Cancelled"] = airlines["Cancelled"].asfactor()
+        >>> airlines['FlightNum'] = airlines['FlightNum'].asfactor()
+        >>> predictors = ["Origin", "Dest", "Year", "UniqueCarrier",
+        ...               "DayOfWeek", "Month", "Distance", "FlightNum"]
+        >>> response = "IsDepDelayed"
+        >>> train, valid= airlines.split_frame(ratios=[.8], seed=1234)
+        >>> airlines_drf = H2ORandomForestEstimator(histogram_type="QuantilesGlobal",
+        ...                                         prebin=True,
+        ...                                         histogram_subtraction=True,
+        ...                                         seed=1234)
+        >>> airlines_drf.train(x=predictors,
+        ...                    y=response,
+        ...                    training_frame=train,
+        ...                    validation_frame=valid)
+        >>> print(airlines_drf.auc(valid=True))
+        """
+        return self._parms.get("histogram_subtraction")
+
+    @histogram_subtraction.setter
+    def histogram_subtraction(self, histogram_subtraction):
+        assert_is_type(histogram_subtraction, None, bool)
+        self._parms["histogram_subtraction"] = histogram_subtraction
+
+
+    @property
+    def bundle_sparse(self):
+        """
+        Bundle integer columns that are mostly zero and rarely non-zero in the same row (e.g. one-hot encoded or
+        SVMLight columns), and accumulate a single histogram per bundle, from which the histograms of its columns are
+        recovered before the splits are found. Requires histogram_type AUTO or UniformAdaptive.
+
+        Type: ``bool``  (default: ``False``).
+
+        :examples:
+
+        >>> airlines= h2o.import_file("https://s3.amazonaws.com/h2o-public-test-data/smalldata/airlines/allyears2k_headers.zip")
+        >>> airlines["Year"] = airlines["Year"].asfactor()
+        >>> airlines["Month"] = airlines["Month"].asfactor()
+        >>> airlines["DayOfWeek"] = airlines["DayOfWeek"].asfactor()
+        >>> airlines["Cancelled"] = airlines["Cancelled"].asfactor()
+        >>> airlines['FlightNum'] = airlines['FlightNum'].asfactor()
+        >>> predictors = ["Origin", "Dest", "Year", "UniqueCarrier",
+        ...               "DayOfWeek", "Month", "Distance", "FlightNum"]
+        >>> response = "IsDepDelayed"
+        >>> train, valid= airlines.split_frame(ratios=[.8], seed=1234)
+        >>> airlines_drf = H2ORandomForestEstimator(categorical_encoding="one_hot_explicit",
+        ...                                         bundle_sparse=True,
+        ...                                         seed=1234)
+        >>> airlines_drf.train(x=predictors,
+        ...                    y=response,
+        ...                    training_frame=train,
+        ...                    validation_frame=valid)
+        >>> print(airlines_drf.auc(valid=True))
+        """
+        return self._parms.get("bundle_sparse")
+
+    @bundle_sparse.setter
+    def bundle_sparse(self, bundle_sparse):
+        assert_is_type(bundle_sparse, None, bool)
+        self._parms["bundle_sparse"] = bundle_sparse
+
+
     @property
     def categorical_encoding(self):
         """